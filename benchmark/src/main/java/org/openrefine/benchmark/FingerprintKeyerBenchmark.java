@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.openrefine.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.refine.clustering.binning.ClusteringKeys;
+import com.google.refine.clustering.binning.FingerprintKeyer;
+import com.google.refine.model.Column;
+
+/**
+ * Measures the fingerprint keyer on ASCII and accented values, and the cost of looking keys up in
+ * {@link ClusteringKeys} once they are cached, as when a column is clustered again with the same keyer.
+ */
+public class FingerprintKeyerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        @Param({ "ascii", "accented" })
+        public String alphabet;
+
+        public FingerprintKeyer keyer = new FingerprintKeyer();
+        public ClusteringKeys cachedKeys;
+        public String[] values;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            String letters = "ascii".equals(alphabet) ? "abcdefghijklmnopqrstuvwxyz" : "abcdeéèàçñøæß";
+            Random rnd = new Random(1234);
+            values = new String[1000];
+            for (int i = 0; i < values.length; i++) {
+                StringBuilder sb = new StringBuilder();
+                int words = 1 + rnd.nextInt(4);
+                for (int w = 0; w < words; w++) {
+                    if (w > 0) {
+                        sb.append(rnd.nextBoolean() ? " " : ", ");
+                    }
+                    int length = 3 + rnd.nextInt(8);
+                    for (int j = 0; j < length; j++) {
+                        char c = letters.charAt(rnd.nextInt(letters.length()));
+                        sb.append(rnd.nextInt(5) == 0 ? Character.toUpperCase(c) : c);
+                    }
+                }
+                values[i] = sb.toString();
+            }
+            cachedKeys = ClusteringKeys.get(new Column(0, "column"), "fingerprint", keyer, null);
+            for (String value : values) {
+                cachedKeys.key(value);
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Fork(1)
+    public void fingerprint(ExecutionPlan plan, Blackhole blackhole) {
+        for (String value : plan.values) {
+            blackhole.consume(plan.keyer.key(value));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Fork(1)
+    public void cachedFingerprint(ExecutionPlan plan, Blackhole blackhole) {
+        for (String value : plan.values) {
+            blackhole.consume(plan.cachedKeys.key(value));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.openrefine.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.refine.browsing.Engine;
+import com.google.refine.clustering.knn.kNNClusterer;
+import com.google.refine.clustering.knn.kNNClusterer.kNNClustererConfig;
+import com.google.refine.clustering.knn.kNNClusterer.kNNClustererConfigParameters;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+/**
+ * Measures kNN clustering on a column where each distinct value is repeated many times, as is typical of the columns
+ * users cluster (names, places, categories).
+ */
+public class KnnClusteringBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        @Param({ "100000" })
+        public int rows;
+
+        @Param({ "500", "5000" })
+        public int distinctValues;
+
+        @Param({ "levenshtein", "ppm" })
+        public String distance;
+
+        public Project project;
+        public Engine engine;
+        public kNNClustererConfig config;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            Random rnd = new Random(1234);
+            String[] values = new String[distinctValues];
+            for (int i = 0; i < distinctValues; i++) {
+                values[i] = randomName(rnd);
+            }
+
+            project = new Project();
+            project.columnModel.addColumn(0, new Column(0, "values"), true);
+            for (int i = 0; i < rows; i++) {
+                Row row = new Row(1);
+                row.setCell(0, new Cell(values[rnd.nextInt(distinctValues)], null));
+                project.rows.add(row);
+            }
+            engine = new Engine(project);
+
+            config = new kNNClustererConfig();
+            config.setColumnName("values");
+            config.setDistance(distance);
+            config.setParameters(new kNNClustererConfigParameters());
+        }
+
+        private static String randomName(Random rnd) {
+            StringBuilder sb = new StringBuilder();
+            int length = 6 + rnd.nextInt(10);
+            for (int i = 0; i < length; i++) {
+                sb.append((char) ('a' + rnd.nextInt(26)));
+            }
+            return sb.toString();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Fork(1)
+    public void computeClusters(ExecutionPlan plan, Blackhole blackhole) {
+        kNNClusterer clusterer = plan.config.apply(plan.project);
+        clusterer.computeClusters(plan.engine);
+        blackhole.consume(clusterer.getJsonRepresentation());
+    }
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.openrefine.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import edu.mit.simile.vicino.distances.LevenshteinDistance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.refine.clustering.knn.BoundedLevenshteinDistance;
+import com.google.refine.clustering.knn.SimilarityDistance;
+import com.google.refine.clustering.knn.VicinoDistance;
+
+/**
+ * Compares the Levenshtein distance of Vicino with {@link BoundedLevenshteinDistance}, on pairs of random values of
+ * similar lengths as kNN clustering compares them.
+ */
+public class LevenshteinBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        @Param({ "10", "40", "100" })
+        public int length;
+
+        @Param({ "1", "3" })
+        public double radius;
+
+        public SimilarityDistance vicino = new VicinoDistance(new LevenshteinDistance());
+        public SimilarityDistance bounded = new BoundedLevenshteinDistance();
+        public String[] values;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random rnd = new Random(1234);
+            values = new String[1000];
+            for (int i = 0; i < values.length; i++) {
+                StringBuilder sb = new StringBuilder();
+                int valueLength = length - 2 + rnd.nextInt(5);
+                for (int j = 0; j < valueLength; j++) {
+                    sb.append((char) ('a' + rnd.nextInt(26)));
+                }
+                values[i] = sb.toString();
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Fork(1)
+    public void vicinoLevenshtein(ExecutionPlan plan, Blackhole blackhole) {
+        String[] values = plan.values;
+        for (int i = 1; i < values.length; i++) {
+            blackhole.consume(plan.vicino.compute(values[i - 1], values[i]) <= plan.radius);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+    @Fork(1)
+    public void boundedLevenshtein(ExecutionPlan plan, Blackhole blackhole) {
+        String[] values = plan.values;
+        for (int i = 1; i < values.length; i++) {
+            blackhole.consume(plan.bounded.compute(values[i - 1], values[i], plan.radius) <= plan.radius);
+        }
+    }
+}
@@ -36,10 +36,15 @@ package com.google.refine.jython;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import org.python.core.Py;
+import org.python.core.PyCode;
 import org.python.core.PyException;
 import org.python.core.PyFloat;
 import org.python.core.PyFunction;
@@ -72,9 +77,67 @@ public class JythonEvaluable implements Evaluable {
         };
     }
 
+    /**
+     * Maximum number of idle interpreters kept for later evaluations.
+     */
+    static final int MAX_IDLE_INTERPRETERS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Maximum number of expressions whose function is kept defined in each interpreter.
+     */
+    static final int MAX_FUNCTIONS_PER_INTERPRETER = 64;
+
+    /**
+     * Interpreters are not thread-safe, so each evaluation borrows one from this pool and returns it afterwards. The
+     * pool is bounded, so that the request and worker threads which evaluated Python once do not each keep an
+     * interpreter for the rest of their life.
+     */
+    private static final BlockingQueue<Interpreter> s_idleInterpreters = new ArrayBlockingQueue<>(MAX_IDLE_INTERPRETERS);
+
+    /**
+     * An interpreter, with the functions of the expressions recently evaluated in it.
+     */
+    static private class Interpreter {
+
+        final PythonInterpreter engine;
+        final Map<PyCode, PyFunction> functions = new LinkedHashMap<PyCode, PyFunction>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PyCode, PyFunction> eldest) {
+                return size() > MAX_FUNCTIONS_PER_INTERPRETER;
+            }
+        };
+
+        Interpreter() {
+            // TODO: This could potentially be done in the background, after startup, but before the user needs it
+            logger.debug("Invoking constructor for PythonInterpreter()");
+            engine = new PythonInterpreter();
+            logger.debug("Done constructor for PythonInterpreter()");
+        }
+    }
+
+    static private Interpreter borrowInterpreter() {
+        Interpreter interpreter = s_idleInterpreters.poll();
+        return interpreter != null ? interpreter : new Interpreter();
+    }
+
+    static private void releaseInterpreter(Interpreter interpreter) {
+        // dropped if enough interpreters are idle already
+        s_idleInterpreters.offer(interpreter);
+    }
+
+    static int getIdleInterpreterCount() {
+        return s_idleInterpreters.size();
+    }
+
     private final String s_functionName;
 
-    private static PythonInterpreter _engine;
+    /**
+     * The definition of the function wrapping the expression, compiled once.
+     */
+    private final PyCode _code;
 
     // FIXME(SM): this initialization logic depends on the fact that the JVM's
     // current working directory is the root of the OpenRefine distributions
@@ -102,12 +165,6 @@ public class JythonEvaluable implements Evaluable {
     }
 
     public JythonEvaluable(String s) {
-        if (_engine == null) {
-            // TODO: This could potentially be done in the background, after startup, but before the user needs it
-            logger.debug("Invoking constructor for PythonInterpreter()");
-            _engine = new PythonInterpreter();
-            logger.debug("Done constructor for PythonInterpreter()");
-        }
         this.s_functionName = String.format("__temp_%d__", Math.abs(s.hashCode()));
 
         // indent and create a function out of the code
@@ -122,14 +179,31 @@ public class JythonEvaluable implements Evaluable {
             sb.append(line);
         }
 
-        _engine.exec(sb.toString());
+        Interpreter interpreter = borrowInterpreter();
+        try {
+            _code = interpreter.engine.compile(sb.toString());
+        } finally {
+            releaseInterpreter(interpreter);
+        }
+    }
+
+    /**
+     * Defines the function in the given interpreter, unless it was defined there recently. The function object is
+     * retrieved right away, so it is not affected by other expressions redefining the same name later on.
+     */
+    private PyFunction getFunction(Interpreter interpreter) {
+        return interpreter.functions.computeIfAbsent(_code, code -> {
+            interpreter.engine.exec(code);
+            return (PyFunction) interpreter.engine.get(s_functionName);
+        });
     }
 
     @Override
     public Object evaluate(Properties bindings) {
+        Interpreter interpreter = borrowInterpreter();
         try {
             // call the temporary PyFunction directly
-            Object result = ((PyFunction) _engine.get(s_functionName)).__call__(
+            Object result = getFunction(interpreter).__call__(
                     new PyObject[] {
                             Py.java2py(bindings.get("value")),
                             new JythonHasFieldsWrapper((HasFields) bindings.get("cell"), bindings),
@@ -141,6 +215,8 @@ public class JythonEvaluable implements Evaluable {
             return unwrap(result);
         } catch (PyException e) {
             return new EvalError(e.getMessage());
+        } finally {
+            releaseInterpreter(interpreter);
         }
     }
 
@@ -1,7 +1,12 @@
 
 package com.google.refine.jython;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.python.core.PyObject;
 import org.testng.Assert;
@@ -76,4 +81,58 @@ public class JythonEvaluableTest {
         Long value2 = (Long) eval1.evaluate(props);
         Assert.assertEquals(value1, value2);
     }
+
+    @Test
+    public void testJythonMultipleThreads() throws Exception {
+        Evaluable eval = new JythonEvaluable("a = value\nreturn a * 2");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                final long value = i;
+                futures.add(executor.submit(() -> {
+                    Properties props = new Properties();
+                    props.put("value", value);
+                    return (Long) eval.evaluate(props);
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                Assert.assertEquals(futures.get(i).get(), Long.valueOf(2 * i));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testInterpretersAreReturnedToPool() throws Exception {
+        Evaluable eval = new JythonEvaluable("return value + 1");
+        int threads = JythonEvaluable.MAX_IDLE_INTERPRETERS + 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < 4 * threads; i++) {
+                final long value = i;
+                futures.add(executor.submit(() -> {
+                    Properties props = new Properties();
+                    props.put("value", value);
+                    return (Long) eval.evaluate(props);
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                Assert.assertEquals(futures.get(i).get(), Long.valueOf(i + 1));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // the interpreters are not kept by the threads which used them
+        int idle = JythonEvaluable.getIdleInterpreterCount();
+        Assert.assertTrue(idle > 0);
+        Assert.assertTrue(idle <= JythonEvaluable.MAX_IDLE_INTERPRETERS);
+        Properties props = new Properties();
+        props.put("value", 1L);
+        Assert.assertEquals(eval.evaluate(props), 2L);
+        Assert.assertEquals(JythonEvaluable.getIdleInterpreterCount(), idle);
+    }
 }
@@ -126,4 +126,8 @@ public class WikibaseIssuesFunction implements Function {
         return null;
     }
 
+    @Override
+    public boolean isPure() {
+        return false;
+    }
 }
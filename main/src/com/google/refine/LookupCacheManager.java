@@ -27,11 +27,8 @@
 
 package com.google.refine;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import com.google.refine.expr.ExpressionUtils;
@@ -45,12 +42,36 @@ import com.google.refine.util.LookupException;
 
 /**
  * Manage the cache of project's lookups.
+ * <p>
+ * At most {@link #DEFAULT_MAX_LOOKUPS} lookups are kept, the least recently used ones being dropped first. Lookups are
+ * computed once even when several threads need the same one at the same time.
  *
  * @author Lu Liu
  */
 public class LookupCacheManager {
 
-    protected final Map<String, ProjectLookup> _lookups = new HashMap<>();
+    static final public int DEFAULT_MAX_LOOKUPS = 32;
+
+    protected final int _maxLookups;
+    // in access order, from the least recently used lookup
+    protected final Map<String, ProjectLookup> _lookups;
+
+    public LookupCacheManager() {
+        this(DEFAULT_MAX_LOOKUPS);
+    }
+
+    public LookupCacheManager(int maxLookups) {
+        _maxLookups = maxLookups;
+        _lookups = new LinkedHashMap<String, ProjectLookup>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ProjectLookup> eldest) {
+                return size() > _maxLookups;
+            }
+        };
+    }
 
     /**
      * Computes the ProjectLookup based on combination key, returns the cached one from the HashMap if already computed.
@@ -63,16 +84,30 @@ public class LookupCacheManager {
      */
     public ProjectLookup getLookup(long targetProject, String targetColumn) throws LookupException {
         String key = targetProject + ";" + targetColumn;
-        if (!_lookups.containsKey(key)) {
-            ProjectLookup lookup = new ProjectLookup(targetProject, targetColumn);
-            computeLookup(lookup);
-
-            synchronized (_lookups) {
+        ProjectLookup lookup;
+        synchronized (_lookups) {
+            lookup = _lookups.get(key);
+            if (lookup == null) {
+                lookup = new ProjectLookup(targetProject, targetColumn);
                 _lookups.put(key, lookup);
             }
         }
 
-        return _lookups.get(key);
+        // other threads needing the same lookup wait for it to be computed, without blocking other lookups
+        synchronized (lookup) {
+            if (!lookup.computed) {
+                try {
+                    computeLookup(lookup);
+                } catch (LookupException | RuntimeException e) {
+                    synchronized (_lookups) {
+                        _lookups.remove(key, lookup);
+                    }
+                    throw e;
+                }
+                lookup.computed = true;
+            }
+        }
+        return lookup;
     }
 
     public void flushLookupsInvolvingProject(long projectID) {
@@ -110,12 +145,10 @@ public class LookupCacheManager {
             return;
         }
 
-        // if this is a lookup on the index column
+        // if this is a lookup on the index column, row indices are computed from the values directly
         if (lookup.targetColumnName.equals(Cross.INDEX_COLUMN_NAME)) {
-            for (int r = 0; r < targetProject.rows.size(); r++) {
-                lookup.valueToRowIndices.put(String.valueOf(r), Collections.singletonList(r));
-            }
-            return; // return directly
+            lookup.indexRowCount = targetProject.rows.size();
+            return;
         }
 
         Column targetColumn = targetProject.columnModel.getColumnByName(lookup.targetColumnName);
@@ -126,13 +159,98 @@ public class LookupCacheManager {
 
         // We can't use for-each here, because we'll need the row index when creating WrappedRow
         int count = targetProject.rows.size();
+        int cellIndex = targetColumn.getCellIndex();
+        ValueDictionary dictionary = new ValueDictionary();
+        int[] rowValueIds = new int[count];
         for (int r = 0; r < count; r++) {
             Row targetRow = targetProject.rows.get(r);
-            Object value = targetRow.getCellValue(targetColumn.getCellIndex());
-            if (ExpressionUtils.isNonBlankData(value)) {
-                String valueStr = value.toString();
-                lookup.valueToRowIndices.putIfAbsent(valueStr, new ArrayList<>());
-                lookup.valueToRowIndices.get(valueStr).add(r);
+            Object value = targetRow.getCellValue(cellIndex);
+            rowValueIds[r] = ExpressionUtils.isNonBlankData(value) ? dictionary.add(value.toString()) : -1;
+        }
+
+        // group the row indices by value: the rows of value i are rowIndices[offsets[i]] to rowIndices[offsets[i+1]-1]
+        int[] offsets = new int[dictionary.size() + 1];
+        for (int id : rowValueIds) {
+            if (id >= 0) {
+                offsets[id + 1]++;
+            }
+        }
+        for (int i = 0; i < dictionary.size(); i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] rowIndices = new int[offsets[dictionary.size()]];
+        int[] next = new int[dictionary.size()];
+        System.arraycopy(offsets, 0, next, 0, next.length);
+        for (int r = 0; r < count; r++) {
+            int id = rowValueIds[r];
+            if (id >= 0) {
+                rowIndices[next[id]++] = r;
+            }
+        }
+
+        lookup.dictionary = dictionary;
+        lookup.offsets = offsets;
+        lookup.rowIndices = rowIndices;
+    }
+
+    /**
+     * Assigns consecutive ids to distinct strings, in an open addressing hash table.
+     */
+    static protected class ValueDictionary {
+
+        protected String[] _keys = new String[16];
+        protected int[] _ids = new int[16];
+        protected int _size = 0;
+
+        public int size() {
+            return _size;
+        }
+
+        /**
+         * @return the id of the value, added to the dictionary if needed
+         */
+        public int add(String value) {
+            int slot = find(value);
+            if (_keys[slot] != null) {
+                return _ids[slot];
+            }
+            _keys[slot] = value;
+            _ids[slot] = _size;
+            if (++_size * 2 > _keys.length) {
+                grow();
+            }
+            return _size - 1;
+        }
+
+        /**
+         * @return the id of the value, or -1 if it is not in the dictionary
+         */
+        public int get(String value) {
+            int slot = find(value);
+            return _keys[slot] != null ? _ids[slot] : -1;
+        }
+
+        protected int find(String value) {
+            int mask = _keys.length - 1;
+            int h = value.hashCode();
+            int slot = (h ^ (h >>> 16)) & mask;
+            while (_keys[slot] != null && !_keys[slot].equals(value)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        protected void grow() {
+            String[] keys = _keys;
+            int[] ids = _ids;
+            _keys = new String[keys.length * 2];
+            _ids = new int[keys.length * 2];
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null) {
+                    int slot = find(keys[i]);
+                    _keys[slot] = keys[i];
+                    _ids[slot] = ids[i];
+                }
             }
         }
     }
@@ -142,7 +260,14 @@ public class LookupCacheManager {
         final public long targetProjectID;
         final public String targetColumnName;
 
-        final public Map<Object, List<Integer>> valueToRowIndices = new HashMap<>();
+        // for lookups on a column: distinct values, and the indices of their rows grouped by value
+        protected ValueDictionary dictionary;
+        protected int[] offsets;
+        protected int[] rowIndices;
+        // for lookups on the index column: the number of rows
+        protected int indexRowCount;
+        // guarded by the lookup itself, read without lock once set since the cache publishes it
+        protected volatile boolean computed;
 
         ProjectLookup(long targetProjectID, String targetColumnName) {
             this.targetProjectID = targetProjectID;
@@ -153,18 +278,39 @@ public class LookupCacheManager {
             HasFieldsListImpl rows = new HasFieldsListImpl();
             if (!ExpressionUtils.isNonBlankData(value)) return rows;
             String valueStr = value.toString();
-            if (valueToRowIndices.containsKey(valueStr)) {
-                Project targetProject = ProjectManager.singleton.getProject(targetProjectID);
-                if (targetProject != null) {
-                    for (Integer r : valueToRowIndices.get(valueStr)) {
-                        Row row = targetProject.rows.get(r);
-                        rows.add(new WrappedRow(targetProject, r, row));
+            Project targetProject = ProjectManager.singleton.getProject(targetProjectID);
+            if (targetProject == null) {
+                return rows;
+            }
+            if (dictionary != null) {
+                int id = dictionary.get(valueStr);
+                if (id >= 0) {
+                    for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+                        int r = rowIndices[i];
+                        rows.add(new WrappedRow(targetProject, r, targetProject.rows.get(r)));
                     }
-
-                    return rows;
+                }
+            } else {
+                int r = getIndexRow(valueStr);
+                if (r >= 0) {
+                    rows.add(new WrappedRow(targetProject, r, targetProject.rows.get(r)));
                 }
             }
             return rows;
         }
+
+        /**
+         * @return the row whose index is written as the value, or -1 if there is none
+         */
+        protected int getIndexRow(String value) {
+            int r;
+            try {
+                r = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+            // only the canonical form of the index matches, "007" or "+7" do not
+            return r >= 0 && r < indexRowCount && String.valueOf(r).equals(value) ? r : -1;
+        }
     }
 }
@@ -54,7 +54,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.refine.history.HistoryEntryManager;
+import com.google.refine.io.UrlResponseCache;
 import com.google.refine.model.Project;
+import com.google.refine.model.recon.ReconCache;
 import com.google.refine.preference.PreferenceStore;
 import com.google.refine.preference.TopList;
 import com.google.refine.util.GetProjectIDException;
@@ -340,6 +342,22 @@ public abstract class ProjectManager {
         return _lookupCacheManager;
     }
 
+    /**
+     * Gets the cache of reconciliation results shared by all projects, or null if the workspace has none.
+     */
+    @JsonIgnore
+    public ReconCache getReconCache() {
+        return null;
+    }
+
+    /**
+     * Gets the cache of responses fetched from URLs shared by all projects, or null if the workspace has none.
+     */
+    @JsonIgnore
+    public UrlResponseCache getUrlResponseCache() {
+        return null;
+    }
+
     /**
      * Gets the project metadata from memory. Requires that the metadata has already been loaded from the data store
      * 
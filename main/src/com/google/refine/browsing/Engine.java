@@ -139,6 +139,21 @@ public class Engine {
         throw new InternalError("Unknown mode.");
     }
 
+    /**
+     * Whether no facet restricts the rows, so that {@link #getAllFilteredRows()} visits all the rows of the project.
+     */
+    @JsonIgnore
+    public boolean isUnfiltered() {
+        for (Facet facet : _facets) {
+            if (_config.getMode().equals(Mode.RecordBased)
+                    ? facet.getRecordFilter(_project) != null
+                    : facet.getRowFilter(_project) != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @JsonIgnore
     public FilteredRecords getAllRecords() {
         return new FilteredRecords() {
@@ -55,6 +55,7 @@ import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.ParsingException;
 import com.google.refine.model.Column;
+import com.google.refine.model.NumericColumnValues;
 import com.google.refine.model.Project;
 
 public class RangeFacet implements Facet {
@@ -315,6 +316,8 @@ public class RangeFacet implements Facet {
             RowEvaluable rowEvaluable = getRowEvaluable(project);
 
             Column column = project.columnModel.getColumnByCellIndex(_cellIndex);
+            // parse numeric strings once, so that toNumber() can reuse them across refreshes
+            NumericColumnValues.getOrCompute(project, column);
             String key = "numeric-bin:row-based:" + _config._expression;
             NumericBinIndex index = (NumericBinIndex) column.getPrecompute(key);
             if (index == null) {
@@ -337,6 +340,8 @@ public class RangeFacet implements Facet {
             RowEvaluable rowEvaluable = getRowEvaluable(project);
 
             Column column = project.columnModel.getColumnByCellIndex(_cellIndex);
+            // parse numeric strings once, so that toNumber() can reuse them across refreshes
+            NumericColumnValues.getOrCompute(project, column);
             String key = "numeric-bin:record-based:" + _config._expression;
             NumericBinIndex index = (NumericBinIndex) column.getPrecompute(key);
             if (index == null) {
@@ -33,6 +33,8 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.clustering;
 
+import java.util.concurrent.CancellationException;
+
 import com.google.refine.browsing.Engine;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
@@ -41,9 +43,46 @@ public abstract class Clusterer {
 
     protected Project _project;
     protected int _colindex;
+    protected volatile boolean _cancelled = false;
 
+    /**
+     * Computes the clusters.
+     * 
+     * @throws CancellationException
+     *             if {@link #cancel()} was called before the clusters were computed
+     */
     public abstract void computeClusters(Engine engine);
 
+    /**
+     * Requests that the computation of the clusters stops as soon as possible, for instance because the client asking
+     * for them is no longer waiting for the result. Can be called from any thread.
+     */
+    public void cancel() {
+        _cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return _cancelled;
+    }
+
+    protected void checkCancelled() {
+        if (_cancelled) {
+            throw new CancellationException("Clustering was cancelled");
+        }
+    }
+
+    /**
+     * Returns the distinct values of the clustered column in the rows selected by the engine, reusing those of the
+     * {@link ClusteringSession} of the column when possible.
+     */
+    protected DistinctValues getDistinctValues(Engine engine) {
+        Column column = _project.columnModel.getColumnByCellIndex(_colindex);
+        if (column == null) {
+            return DistinctValues.fromRows(_project, engine.getAllFilteredRows(), _colindex);
+        }
+        return ClusteringSession.get(column).getValues(_project, engine, _colindex);
+    }
+
     protected void initializeFromConfig(Project project, ClustererConfig c) {
         _project = project;
 
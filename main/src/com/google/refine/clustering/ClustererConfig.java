@@ -27,6 +27,10 @@
 
 package com.google.refine.clustering;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
@@ -34,6 +38,7 @@ import com.fasterxml.jackson.annotation.JsonSubTypes.Type;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 
 import com.google.refine.clustering.binning.BinningClusterer.BinningClustererConfig;
+import com.google.refine.clustering.knn.MinHashClusterer.MinHashClustererConfig;
 import com.google.refine.clustering.knn.kNNClusterer.kNNClustererConfig;
 import com.google.refine.model.Project;
 
@@ -46,7 +51,8 @@ import com.google.refine.model.Project;
 @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "type")
 @JsonSubTypes({
         @Type(value = kNNClustererConfig.class, name = "knn"),
-        @Type(value = BinningClustererConfig.class, name = "binning") })
+        @Type(value = BinningClustererConfig.class, name = "binning"),
+        @Type(value = MinHashClustererConfig.class, name = "minhash") })
 public abstract class ClustererConfig {
 
     protected String columnName;
@@ -74,4 +80,13 @@ public abstract class ClustererConfig {
      */
     @JsonIgnore // already added by @JsonTypeInfo
     public abstract String getType();
+
+    /**
+     * The types of all the clusterers which can be configured.
+     */
+    public static List<String> getTypes() {
+        return Arrays.stream(ClustererConfig.class.getAnnotation(JsonSubTypes.class).value())
+                .map(Type::name)
+                .collect(Collectors.toList());
+    }
 }
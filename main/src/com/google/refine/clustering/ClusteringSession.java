@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.clustering;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.google.refine.browsing.Engine;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.model.changes.CellChange;
+
+/**
+ * What clustering computes about a column and can reuse when clustering it again, stored as a precompute of the
+ * column: the distinct values of the column, and caches derived from values only, such as the keys computed by
+ * keyers.
+ * <p>
+ * Cell edits applied by a {@link com.google.refine.model.changes.MassCellChange}, such as merging clusters, do not
+ * discard the session: it is replaced by a session updated with the edited cells only, so that clustering again right
+ * after merging does not read the whole column and only keys the new values. Other changes discard it with the other
+ * precomputes.
+ * <p>
+ * Sessions are not modified once published, so they can be read by clusterers while a change is being applied. Only
+ * the most recently used caches are kept, and the session is discarded when the clustering dialog is closed.
+ */
+public class ClusteringSession {
+
+    static final public String PRECOMPUTE_KEY = "clustering-session";
+
+    /**
+     * Maximum number of caches kept, for instance for different keyers or parameters.
+     */
+    static final public int MAX_CACHES = 8;
+
+    // the distinct values of all the rows of the column, or null if they have not been counted yet
+    protected volatile DistinctValues _values;
+    // caches which only depend on values, so they are still valid after edits
+    final protected Map<String, Object> _caches;
+
+    protected ClusteringSession(DistinctValues values, Map<String, Object> caches) {
+        _values = values;
+        _caches = caches;
+    }
+
+    /**
+     * Returns the session of a column, creating it if needed.
+     */
+    static public ClusteringSession get(Column column) {
+        synchronized (column) {
+            ClusteringSession session = (ClusteringSession) column.getPrecompute(PRECOMPUTE_KEY);
+            if (session == null) {
+                session = new ClusteringSession(null, createCaches());
+                column.setPrecompute(PRECOMPUTE_KEY, session);
+            }
+            return session;
+        }
+    }
+
+    static protected Map<String, Object> createCaches() {
+        return new LinkedHashMap<String, Object>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > MAX_CACHES;
+            }
+        };
+    }
+
+    /**
+     * Discards the session of a column, once nobody is clustering it anymore.
+     */
+    static public void discard(Column column) {
+        synchronized (column) {
+            if (column.getPrecompute(PRECOMPUTE_KEY) != null) {
+                column.setPrecompute(PRECOMPUTE_KEY, null);
+            }
+        }
+    }
+
+    /**
+     * Clears the precomputes of a column after cells of it were edited, keeping its clustering session updated with
+     * the edits.
+     *
+     * @param revert
+     *            whether the edits are being reverted, in which case the cells go back from their new to their old
+     *            values
+     */
+    static public void clearPrecomputes(Column column, CellChange[] cellChanges, boolean revert) {
+        synchronized (column) {
+            ClusteringSession session = (ClusteringSession) column.getPrecompute(PRECOMPUTE_KEY);
+            column.clearPrecomputes();
+            if (session != null) {
+                column.setPrecompute(PRECOMPUTE_KEY, session.update(column.getCellIndex(), cellChanges, revert));
+            }
+        }
+    }
+
+    /**
+     * Returns the distinct values of the column in the rows selected by the engine. They are only computed once when
+     * all rows are selected, as is usually the case when clustering; otherwise they are counted for each call.
+     */
+    public DistinctValues getValues(Project project, Engine engine, int cellIndex) {
+        if (!engine.isUnfiltered()) {
+            return DistinctValues.fromRows(project, engine.getAllFilteredRows(), cellIndex);
+        }
+        DistinctValues values = _values;
+        if (values == null) {
+            synchronized (this) {
+                values = _values;
+                if (values == null) {
+                    values = DistinctValues.fromRows(project, engine.getAllRows(), cellIndex);
+                    _values = values;
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns a cache of the session, creating it if needed. Caches are kept when the column is edited, so they must
+     * only depend on the values they are computed from.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getCache(String key, Supplier<T> supplier) {
+        // the caches are shared with the sessions updated from this one
+        synchronized (_caches) {
+            return (T) _caches.computeIfAbsent(key, k -> supplier.get());
+        }
+    }
+
+    /**
+     * Returns a session with the same caches, and with distinct values updated with the edits of the given cells.
+     */
+    protected ClusteringSession update(int cellIndex, CellChange[] cellChanges, boolean revert) {
+        DistinctValues values = _values;
+        if (values == null) {
+            return new ClusteringSession(null, _caches);
+        }
+        Map<String, Integer> deltas = new HashMap<>();
+        for (CellChange cellChange : cellChanges) {
+            if (cellChange.cellIndex == cellIndex) {
+                addDelta(deltas, revert ? cellChange.newCell : cellChange.oldCell, -1);
+                addDelta(deltas, revert ? cellChange.oldCell : cellChange.newCell, 1);
+            }
+        }
+        DistinctValues updated = new DistinctValues();
+        for (int id = 0; id < values.size(); id++) {
+            String value = values.getValue(id);
+            Integer delta = deltas.remove(value);
+            int count = values.getCount(id) + (delta == null ? 0 : delta);
+            if (count > 0) {
+                updated.add(value, count);
+            }
+        }
+        for (Map.Entry<String, Integer> entry : deltas.entrySet()) {
+            if (entry.getValue() > 0) {
+                updated.add(entry.getKey(), entry.getValue());
+            }
+        }
+        return new ClusteringSession(updated, _caches);
+    }
+
+    static private void addDelta(Map<String, Integer> deltas, Cell cell, int delta) {
+        if (cell != null && cell.value != null) {
+            deltas.merge(DistinctValues.toString(cell.value), delta, Integer::sum);
+        }
+    }
+}
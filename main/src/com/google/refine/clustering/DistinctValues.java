@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.clustering;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+/**
+ * The distinct values of a column, with the number of rows each of them appears in. Clusterers work on this table
+ * rather than on the rows themselves, so that repeated values are only keyed or compared once.
+ * 
+ * Values are identified by consecutive integer ids, in order of first appearance, and their counts are stored in a
+ * primitive array.
+ */
+public class DistinctValues {
+
+    final protected Map<String, Integer> _ids = new HashMap<>();
+    protected String[] _values = new String[16];
+    protected int[] _counts = new int[16];
+    protected int _size = 0;
+
+    /**
+     * Counts the non-blank values of a column in the given rows.
+     */
+    static public DistinctValues fromRows(Project project, FilteredRows rows, int cellIndex) {
+        DistinctValues values = new DistinctValues();
+        rows.accept(project, new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+                // nothing to do
+            }
+
+            @Override
+            public void end(Project project) {
+                // nothing to do
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                Cell cell = row.getCell(cellIndex);
+                if (cell != null && cell.value != null) {
+                    values.add(DistinctValues.toString(cell.value));
+                }
+                return false;
+            }
+        });
+        return values;
+    }
+
+    /**
+     * The string clustered for a cell value.
+     */
+    static public String toString(Object v) {
+        return (v instanceof String) ? ((String) v) : v.toString();
+    }
+
+    /**
+     * Records an occurrence of a value.
+     * 
+     * @return the id of the value
+     */
+    public int add(String value) {
+        return add(value, 1);
+    }
+
+    /**
+     * Records a number of occurrences of a value.
+     * 
+     * @return the id of the value
+     */
+    public int add(String value, int count) {
+        Integer id = _ids.get(value);
+        if (id == null) {
+            if (_size == _values.length) {
+                _values = Arrays.copyOf(_values, _size * 2);
+                _counts = Arrays.copyOf(_counts, _size * 2);
+            }
+            id = _size++;
+            _ids.put(value, id);
+            _values[id] = value;
+        }
+        _counts[id] += count;
+        return id;
+    }
+
+    /**
+     * @return the number of distinct values
+     */
+    public int size() {
+        return _size;
+    }
+
+    public String getValue(int id) {
+        return _values[id];
+    }
+
+    public int getCount(int id) {
+        return _counts[id];
+    }
+
+    /**
+     * @return the id of the value, or -1 if it does not appear in the table
+     */
+    public int getId(String value) {
+        Integer id = _ids.get(value);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @return the number of occurrences of the value, 0 if it does not appear in the table
+     */
+    public int getCount(String value) {
+        Integer id = _ids.get(value);
+        return id == null ? 0 : _counts[id];
+    }
+}
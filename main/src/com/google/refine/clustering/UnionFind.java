@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.clustering;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A union-find (disjoint set) structure over the ids 0 to n-1, used to merge pairs of similar values into clusters.
+ * Unions and lookups can be performed concurrently from several threads: links only ever point to smaller ids and are
+ * updated with compare-and-set operations.
+ */
+public class UnionFind {
+
+    final protected AtomicIntegerArray _parents;
+
+    public UnionFind(int size) {
+        _parents = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            _parents.set(i, i);
+        }
+    }
+
+    /**
+     * @return the representative of the set containing the given id
+     */
+    public int find(int id) {
+        int parent;
+        while ((parent = _parents.get(id)) != id) {
+            int grandParent = _parents.get(parent);
+            if (grandParent != parent) {
+                // path halving
+                _parents.compareAndSet(id, parent, grandParent);
+            }
+            id = grandParent;
+        }
+        return id;
+    }
+
+    /**
+     * Merges the sets containing the two ids.
+     * 
+     * @return false if they were already in the same set
+     */
+    public boolean union(int a, int b) {
+        while (true) {
+            a = find(a);
+            b = find(b);
+            if (a == b) {
+                return false;
+            }
+            if (a < b) {
+                int tmp = a;
+                a = b;
+                b = tmp;
+            }
+            if (_parents.compareAndSet(a, a, b)) {
+                return true;
+            }
+        }
+    }
+
+    public int size() {
+        return _parents.length();
+    }
+}
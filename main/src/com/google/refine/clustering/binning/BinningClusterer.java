@@ -42,6 +42,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -53,14 +55,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.refine.browsing.Engine;
-import com.google.refine.browsing.FilteredRows;
-import com.google.refine.browsing.RowVisitor;
 import com.google.refine.clustering.ClusteredEntry;
 import com.google.refine.clustering.Clusterer;
 import com.google.refine.clustering.ClustererConfig;
-import com.google.refine.model.Cell;
+import com.google.refine.clustering.DistinctValues;
+import com.google.refine.model.Column;
 import com.google.refine.model.Project;
-import com.google.refine.model.Row;
 
 public class BinningClusterer extends Clusterer {
 
@@ -121,69 +121,18 @@ public class BinningClusterer extends Clusterer {
         public int ngramSize = 0;
     }
 
+    protected String _keyerName;
     protected Keyer _keyer;
     protected BinningParameters _parameters;
 
     final static Logger logger = LoggerFactory.getLogger("binning_clusterer");
 
-    List<Map<String, Integer>> _clusters;
-
-    class BinningRowVisitor implements RowVisitor {
-
-        Keyer _keyer;
-        Object[] _params;
-        BinningParameters _parameters;
-
-        Map<String, Map<String, Integer>> _map = new HashMap<String, Map<String, Integer>>();
-
-        public BinningRowVisitor(Keyer k, BinningParameters parameters) {
-            _keyer = k;
-            _parameters = parameters;
-            if (k instanceof NGramFingerprintKeyer) {
-                if (_parameters != null) {
-                    _params = new Object[1];
-                    _params[0] = _parameters.ngramSize;
-                }
-            }
-        }
-
-        @Override
-        public void start(Project project) {
-            // nothing to do
-        }
+    /**
+     * Number of distinct values keyed by a single task, below which the values are not split further.
+     */
+    static final int VALUES_PER_TASK = 2048;
 
-        @Override
-        public void end(Project project) {
-            // nothing to do
-        }
-
-        @Override
-        public boolean visit(Project project, int rowIndex, Row row) {
-            Cell cell = row.getCell(_colindex);
-            if (cell != null && cell.value != null) {
-                Object v = cell.value;
-                String s = (v instanceof String) ? ((String) v) : v.toString();
-                String key = _keyer.key(s, _params);
-                if (_map.containsKey(key)) {
-                    Map<String, Integer> m = _map.get(key);
-                    if (m.containsKey(s)) {
-                        m.put(s, m.get(s) + 1);
-                    } else {
-                        m.put(s, 1);
-                    }
-                } else {
-                    Map<String, Integer> m = new TreeMap<String, Integer>();
-                    m.put(s, 1);
-                    _map.put(key, m);
-                }
-            }
-            return false;
-        }
-
-        public Map<String, Map<String, Integer>> getMap() {
-            return _map;
-        }
-    }
+    List<Map<String, Integer>> _clusters;
 
     public static class SizeComparator implements Comparator<Map<String, Integer>>, Serializable {
 
@@ -221,21 +170,94 @@ public class BinningClusterer extends Clusterer {
 
     public void initializeFromConfig(Project project, BinningClustererConfig config) {
         super.initializeFromConfig(project, config);
+        _keyerName = config.getKeyerName();
         _keyer = config.getKeyer();
         _parameters = config.getParameters();
     }
 
+    protected Object[] getKeyerParams() {
+        if (_keyer instanceof NGramFingerprintKeyer && _parameters != null) {
+            return new Object[] { _parameters.ngramSize };
+        }
+        return null;
+    }
+
     @Override
     public void computeClusters(Engine engine) {
-        BinningRowVisitor visitor = new BinningRowVisitor(_keyer, _parameters);
-        FilteredRows filteredRows = engine.getAllFilteredRows();
-        filteredRows.accept(_project, visitor);
+        // count the values first, so that each distinct value is keyed once, by several workers
+        DistinctValues values = getDistinctValues(engine);
+        checkCancelled();
+
+        Object[] params = getKeyerParams();
+        Column column = _project.columnModel.getColumnByCellIndex(_colindex);
+        ClusteringKeys keys = column != null && _keyerName != null
+                ? ClusteringKeys.get(column, _keyerName.toLowerCase(), _keyer, params)
+                : new ClusteringKeys(_keyer, params);
+
+        Map<String, Map<String, Integer>> map = ForkJoinPool.commonPool()
+                .invoke(new KeysTask(values, keys, 0, values.size()));
+        checkCancelled();
 
-        Map<String, Map<String, Integer>> map = visitor.getMap();
         _clusters = new ArrayList<Map<String, Integer>>(map.values());
         Collections.sort(_clusters, new SizeComparator());
     }
 
+    /**
+     * Bins a range of distinct values by key. Ranges are split and binned by separate workers, each into its own map,
+     * and the maps are merged as the workers complete. Since every value is in a single range, merging two maps never
+     * needs to add up counts.
+     */
+    class KeysTask extends RecursiveTask<Map<String, Map<String, Integer>>> {
+
+        private static final long serialVersionUID = 1L;
+
+        final DistinctValues _values;
+        final ClusteringKeys _keys;
+        final int _from;
+        final int _to;
+
+        KeysTask(DistinctValues values, ClusteringKeys keys, int from, int to) {
+            _values = values;
+            _keys = keys;
+            _from = from;
+            _to = to;
+        }
+
+        @Override
+        protected Map<String, Map<String, Integer>> compute() {
+            if (_to - _from > VALUES_PER_TASK) {
+                int mid = (_from + _to) >>> 1;
+                KeysTask left = new KeysTask(_values, _keys, _from, mid);
+                left.fork();
+                Map<String, Map<String, Integer>> right = new KeysTask(_values, _keys, mid, _to).compute();
+                return merge(left.join(), right);
+            }
+            Map<String, Map<String, Integer>> map = new HashMap<String, Map<String, Integer>>();
+            for (int id = _from; id < _to && !isCancelled(); id++) {
+                String s = _values.getValue(id);
+                map.computeIfAbsent(_keys.key(s), k -> new TreeMap<String, Integer>()).put(s, _values.getCount(id));
+            }
+            return map;
+        }
+    }
+
+    static Map<String, Map<String, Integer>> merge(Map<String, Map<String, Integer>> a, Map<String, Map<String, Integer>> b) {
+        if (a.size() < b.size()) {
+            Map<String, Map<String, Integer>> tmp = a;
+            a = b;
+            b = tmp;
+        }
+        for (Entry<String, Map<String, Integer>> entry : b.entrySet()) {
+            Map<String, Integer> bin = a.get(entry.getKey());
+            if (bin == null) {
+                a.put(entry.getKey(), entry.getValue());
+            } else {
+                bin.putAll(entry.getValue());
+            }
+        }
+        return a;
+    }
+
     protected static Map<String, Object> entryToMap(Entry<String, Integer> entry) {
         Map<String, Object> map = new HashMap<>();
         map.put("v", entry.getKey());
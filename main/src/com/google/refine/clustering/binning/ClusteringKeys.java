@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.clustering.binning;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.refine.clustering.ClusteringSession;
+import com.google.refine.model.Column;
+
+/**
+ * The keys computed by a keyer for the values of a column, cached in the {@link ClusteringSession} of the column so
+ * that clustering it again with the same keyer (for instance when switching back and forth between keyers in the
+ * clustering dialog, or after merging clusters) does not recompute them.
+ * <p>
+ * Keys are cached by value, so they are computed once per distinct value. The cache is emptied when it holds too many
+ * values, as values replaced by edits are never removed from it. This class is thread-safe.
+ */
+public class ClusteringKeys {
+
+    static final public String CACHE_KEY_PREFIX = "clustering-keys:";
+
+    /**
+     * Maximum number of values whose key is cached.
+     */
+    static final public int MAX_KEYS = 500000;
+
+    final protected Keyer _keyer;
+    final protected Object[] _params;
+    final protected int _maxKeys;
+    final protected Map<String, String> _keys = new ConcurrentHashMap<>();
+
+    protected ClusteringKeys(Keyer keyer, Object[] params) {
+        this(keyer, params, MAX_KEYS);
+    }
+
+    protected ClusteringKeys(Keyer keyer, Object[] params, int maxKeys) {
+        _keyer = keyer;
+        _params = params;
+        _maxKeys = maxKeys;
+    }
+
+    /**
+     * Returns the cache of keys of a column for a keyer and its parameters, creating it if needed.
+     * 
+     * @param keyerName
+     *            the name of the keyer in {@link KeyerFactory}, which identifies it in the cache
+     */
+    static public ClusteringKeys get(Column column, String keyerName, Keyer keyer, Object[] params) {
+        String cacheKey = CACHE_KEY_PREFIX + keyerName + Arrays.toString(params);
+        return ClusteringSession.get(column).getCache(cacheKey, () -> new ClusteringKeys(keyer, params));
+    }
+
+    /**
+     * Returns the key of a value, computing it if it is not cached yet.
+     */
+    public String key(String value) {
+        String key = _keys.get(value);
+        if (key == null) {
+            key = _keyer.key(value, _params);
+            if (key != null) {
+                if (_keys.size() >= _maxKeys) {
+                    _keys.clear();
+                }
+                _keys.put(value, key);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * @return the number of values whose key is cached
+     */
+    public int size() {
+        return _keys.size();
+    }
+}
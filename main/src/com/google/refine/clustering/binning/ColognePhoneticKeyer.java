@@ -37,7 +37,7 @@ import org.apache.commons.codec.language.ColognePhonetic;
 
 public class ColognePhoneticKeyer extends Keyer {
 
-    private ColognePhonetic _codec;
+    private final ColognePhonetic _codec;
 
     public ColognePhoneticKeyer() {
         _codec = new ColognePhonetic();
@@ -37,7 +37,7 @@ import org.apache.commons.codec.language.DoubleMetaphone;
 
 public class DoubleMetaphoneKeyer extends Keyer {
 
-    private DoubleMetaphone _metaphone2;
+    private final DoubleMetaphone _metaphone2;
 
     public DoubleMetaphoneKeyer() {
         _metaphone2 = new DoubleMetaphone();
@@ -34,8 +34,11 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.clustering.binning;
 
 import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import com.google.common.base.CharMatcher;
 import com.google.common.collect.ImmutableMap;
@@ -87,12 +90,25 @@ public class FingerprintKeyer extends Keyer {
             .put("ẝ", "s")
             .build();
 
+    // The keys of NONDIACRITICS as a sorted array of characters, with their replacements, for allocation-free lookups
+    private static final char[] NONDIACRITIC_CHARS = new char[NONDIACRITICS.size()];
+    private static final String[] NONDIACRITIC_REPLACEMENTS = new String[NONDIACRITICS.size()];
+
+    static {
+        String[] keys = NONDIACRITICS.keySet().toArray(new String[0]);
+        Arrays.sort(keys);
+        for (int i = 0; i < keys.length; i++) {
+            NONDIACRITIC_CHARS[i] = keys[i].charAt(0);
+            NONDIACRITIC_REPLACEMENTS[i] = NONDIACRITICS.get(keys[i]);
+        }
+    }
+
     @Override
     public String key(String s, Object... o) {
         if (s == null || o != null && o.length > 0) {
             throw new IllegalArgumentException("Fingerprint keyer accepts a single string parameter");
         }
-        return WHITESPACE.splitAsStream(normalize(s, true)).sorted().distinct().collect(Collectors.joining(" "));
+        return sortedDistinctWords(normalize(s, true));
     }
 
     protected String normalize(String s) {
@@ -100,18 +116,155 @@ public class FingerprintKeyer extends Keyer {
         return s;
     }
 
+    /**
+     * Folds diacritics and replaces the characters of {@link #NONDIACRITICS}. In strong mode, the string is also
+     * trimmed and lowercased, and punctuation and control characters are removed.
+     * <p>
+     * This is equivalent to applying {@link #DIACRITICS_AND_FRIENDS}, the replacements and {@link #punctctrl} in turn,
+     * but done in a single pass which only allocates when the string actually changes.
+     */
     protected String normalize(String s, boolean strong) {
         if (strong) {
             s = CharMatcher.whitespace().trimFrom(s); // first off, remove whitespace around the string
             s = s.toLowerCase(); // TODO: This is using the default locale. Is that what we want?
         }
-        s = stripDiacritics(s);
-        s = stripNonDiacritics(s);
-        if (strong) {
-            // TODO: Should these be converted to spaces instead of being removed?
-            s = punctctrl.matcher(s).replaceAll("");
+        if (!isAscii(s)) {
+            s = Normalizer.normalize(s, Normalizer.Form.NFKD);
         }
-        return s;
+        StringBuilder sb = null;
+        int i = 0;
+        while (i < s.length()) {
+            int cp = s.codePointAt(i);
+            int next = i + Character.charCount(cp);
+            // TODO: Should punctuation be converted to spaces instead of being removed?
+            boolean remove = isDiacritic(cp) || (strong && isPunctuationOrControl(cp));
+            String replacement = remove ? null : nonDiacriticReplacement(cp);
+            if (remove || replacement != null) {
+                if (sb == null) {
+                    sb = new StringBuilder(s.length());
+                    sb.append(s, 0, i);
+                }
+                if (replacement != null) {
+                    sb.append(replacement);
+                }
+            } else if (sb != null) {
+                sb.append(s, i, next);
+            }
+            i = next;
+        }
+        return sb == null ? s : sb.toString();
+    }
+
+    /**
+     * Splits a string on whitespace and joins its sorted distinct words with single spaces. This follows
+     * {@link Pattern#splitAsStream(CharSequence)} on {@link #WHITESPACE}: leading whitespace yields an empty first
+     * word.
+     */
+    protected static String sortedDistinctWords(String s) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        int i = 0;
+        while (i < s.length()) {
+            int cp = s.codePointAt(i);
+            if (isWhitespace(cp)) {
+                if (start >= 0) {
+                    words.add(s.substring(start, i));
+                    start = -1;
+                } else if (i == 0) {
+                    words.add("");
+                }
+            } else if (start < 0) {
+                start = i;
+            }
+            i += Character.charCount(cp);
+        }
+        if (start == 0) {
+            return s; // a single word
+        } else if (start > 0) {
+            words.add(s.substring(start));
+        }
+        if (s.isEmpty()) {
+            return s;
+        } else if (words.size() == 1) {
+            // a single word followed by whitespace, or only whitespace (yielding the empty word)
+            return words.get(0);
+        }
+        Collections.sort(words);
+        StringBuilder sb = new StringBuilder(s.length());
+        String previous = null;
+        for (String word : words) {
+            if (!word.equals(previous)) {
+                if (previous != null) {
+                    sb.append(' ');
+                }
+                sb.append(word);
+                previous = word;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same as {@link #DIACRITICS_AND_FRIENDS}.
+     */
+    private static boolean isDiacritic(int cp) {
+        if (cp >= 0x0300 && cp <= 0x036F) {
+            return true;
+        }
+        int type = Character.getType(cp);
+        return type == Character.MODIFIER_LETTER || type == Character.MODIFIER_SYMBOL;
+    }
+
+    /**
+     * Same as {@link #punctctrl}.
+     */
+    private static boolean isPunctuationOrControl(int cp) {
+        if (cp <= 0x9F) {
+            if (cp <= 0x08 || (cp >= 0x0E && cp <= 0x1F) || (cp >= 0x7F && cp <= 0x84) || cp >= 0x86) {
+                return true;
+            }
+        }
+        switch (Character.getType(cp)) {
+            case Character.CONNECTOR_PUNCTUATION:
+            case Character.DASH_PUNCTUATION:
+            case Character.START_PUNCTUATION:
+            case Character.END_PUNCTUATION:
+            case Character.INITIAL_QUOTE_PUNCTUATION:
+            case Character.FINAL_QUOTE_PUNCTUATION:
+            case Character.OTHER_PUNCTUATION:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Same as {@link #WHITESPACE}.
+     */
+    private static boolean isWhitespace(int cp) {
+        if ((cp >= 0x09 && cp <= 0x0D) || cp == 0x85) {
+            return true;
+        }
+        int type = Character.getType(cp);
+        return type == Character.SPACE_SEPARATOR || type == Character.LINE_SEPARATOR
+                || type == Character.PARAGRAPH_SEPARATOR;
+    }
+
+    private static String nonDiacriticReplacement(int cp) {
+        if (cp < 0x80 || cp > Character.MAX_VALUE) {
+            return null;
+        }
+        int index = Arrays.binarySearch(NONDIACRITIC_CHARS, (char) cp);
+        return index >= 0 ? NONDIACRITIC_REPLACEMENTS[index] : null;
     }
 
     /**
@@ -128,15 +281,4 @@ public class FingerprintKeyer extends Keyer {
         return str;
     }
 
-    // Based on https://stackoverflow.com/a/1453284/167425 by Andreas Petersson
-    private static String stripNonDiacritics(String orig) {
-        StringBuffer result = new StringBuffer();
-        for (int i = 0; i < orig.length(); i++) {
-            String source = orig.substring(i, i + 1);
-            String replace = NONDIACRITICS.get(source);
-            result.append(replace == null ? source : replace);
-        }
-        return result.toString();
-    }
-
 }
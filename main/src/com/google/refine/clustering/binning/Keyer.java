@@ -33,6 +33,12 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.clustering.binning;
 
+/**
+ * Computes the key of a value for binning clustering: values with the same key are clustered together.
+ * <p>
+ * Keyers are shared through {@link KeyerFactory} and called concurrently by clustering workers, so implementations
+ * must be thread-safe.
+ */
 public abstract class Keyer {
 
     public String key(String s) {
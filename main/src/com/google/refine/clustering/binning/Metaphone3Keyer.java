@@ -35,12 +35,17 @@ package com.google.refine.clustering.binning;
 
 public class Metaphone3Keyer extends Keyer {
 
+    /**
+     * {@link Metaphone3} keeps the state of the word being encoded, so each thread encodes with its own instance.
+     */
+    private final ThreadLocal<Metaphone3> _encoders = ThreadLocal.withInitial(Metaphone3::new);
+
     public Metaphone3Keyer() {
     }
 
     @Override
     public String key(String s, Object... o) {
-        Metaphone3 _metaphone3 = new Metaphone3();
+        Metaphone3 _metaphone3 = _encoders.get();
         // _metaphone3.SetEncodeVowels(true);
         // _metaphone3.SetEncodeExact(true);
         _metaphone3.SetWord(s);
@@ -37,7 +37,7 @@ import org.apache.commons.codec.language.Metaphone;
 
 public class MetaphoneKeyer extends Keyer {
 
-    private Metaphone _metaphone;
+    private final Metaphone _metaphone;
 
     public MetaphoneKeyer() {
         _metaphone = new Metaphone();
@@ -37,7 +37,7 @@ import org.apache.commons.codec.language.Soundex;
 
 public class SoundexKeyer extends Keyer {
 
-    private Soundex _soundex;
+    private final Soundex _soundex;
 
     public SoundexKeyer() {
         _soundex = new Soundex();
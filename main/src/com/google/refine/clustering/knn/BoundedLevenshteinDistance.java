@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.clustering.knn;
+
+/**
+ * The Levenshtein (edit) distance, computed in a way that can stop as soon as the distance is known to exceed a
+ * threshold.
+ * 
+ * Strings of up to 64 characters are compared with the bit-parallel algorithm of Myers (as formulated by Hyyrö), which
+ * processes a whole column of the dynamic programming matrix in a few operations on a long. Longer strings are compared
+ * on the diagonal band of the matrix which can hold distances within the threshold.
+ */
+public class BoundedLevenshteinDistance implements SimilarityDistance {
+
+    /**
+     * For each thread, the bit masks of the positions of each Latin-1 character in the pattern. Entries are reset after
+     * each comparison.
+     */
+    private static final ThreadLocal<long[]> s_peq = ThreadLocal.withInitial(() -> new long[256]);
+
+    @Override
+    public double compute(String a, String b) {
+        return distance(a, b, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public double compute(String a, String b, double threshold) {
+        if (threshold < 0 || threshold >= Integer.MAX_VALUE) {
+            return compute(a, b);
+        }
+        return distance(a, b, (int) Math.floor(threshold));
+    }
+
+    /**
+     * Computes the edit distance between two strings, or any value greater than maxDistance if the distance is
+     * greater than maxDistance.
+     */
+    public static int distance(String a, String b, int maxDistance) {
+        // use the shorter string as the pattern
+        if (a.length() > b.length()) {
+            String tmp = a;
+            a = b;
+            b = tmp;
+        }
+        int m = a.length();
+        int n = b.length();
+        if (n - m > maxDistance) {
+            return n - m;
+        }
+        if (m == 0) {
+            return n;
+        }
+        if (m <= 64) {
+            return myers(a, b, maxDistance);
+        } else {
+            return banded(a, b, maxDistance);
+        }
+    }
+
+    private static int myers(String a, String b, int maxDistance) {
+        int m = a.length();
+        int n = b.length();
+        long[] peq = s_peq.get();
+        try {
+            for (int i = 0; i < m; i++) {
+                char c = a.charAt(i);
+                if (c < 256) {
+                    peq[c] |= 1L << i;
+                }
+            }
+
+            long last = 1L << (m - 1);
+            long pv = -1L;
+            long mv = 0L;
+            int score = m;
+            for (int j = 0; j < n; j++) {
+                char c = b.charAt(j);
+                long eq = c < 256 ? peq[c] : nonLatin1Mask(a, c);
+                long xv = eq | mv;
+                long xh = (((eq & pv) + pv) ^ pv) | eq;
+                long ph = mv | ~(xh | pv);
+                long mh = pv & xh;
+                if ((ph & last) != 0) {
+                    score++;
+                } else if ((mh & last) != 0) {
+                    score--;
+                }
+                // the remaining characters of b can lower the distance by one each at most
+                if (score - (n - j - 1) > maxDistance) {
+                    return score - (n - j - 1);
+                }
+                ph = (ph << 1) | 1L;
+                mh = mh << 1;
+                pv = mh | ~(xv | ph);
+                mv = ph & xv;
+            }
+            return score;
+        } finally {
+            for (int i = 0; i < m; i++) {
+                char c = a.charAt(i);
+                if (c < 256) {
+                    peq[c] = 0L;
+                }
+            }
+        }
+    }
+
+    private static long nonLatin1Mask(String a, char c) {
+        long mask = 0L;
+        for (int i = 0; i < a.length(); i++) {
+            if (a.charAt(i) == c) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Dynamic programming restricted to the cells at most maxDistance away from the diagonal, stopping when a whole row
+     * exceeds maxDistance. Assumes a is not longer than b.
+     */
+    private static int banded(String a, String b, int maxDistance) {
+        int m = a.length();
+        int n = b.length();
+        int k = Math.min(maxDistance, n);
+        int outside = k + 1;
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        for (int j = 0; j <= n; j++) {
+            previous[j] = j <= k ? j : outside;
+        }
+        for (int i = 1; i <= m; i++) {
+            int from = Math.max(1, i - k);
+            int to = Math.min(n, i + k);
+            current[from - 1] = from == 1 && i <= k ? i : outside;
+            int rowMin = current[from - 1];
+            char c = a.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int cost = c == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                current[j] = Math.min(d, outside);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < n) {
+                current[to + 1] = outside;
+            }
+            if (rowMin > maxDistance) {
+                return rowMin;
+            }
+            int[] tmp = previous;
+            previous = current;
+            current = tmp;
+        }
+        return previous[n];
+    }
+}
@@ -43,6 +43,11 @@ import edu.mit.simile.vicino.distances.PPMDistance;
  */
 public class DistanceFactory {
 
+    /**
+     * Name of the Levenshtein distance which stops once the radius is exceeded, see {@link BoundedLevenshteinDistance}.
+     */
+    static final public String BOUNDED_LEVENSHTEIN = "bounded-levenshtein";
+
     static final protected Map<String, SimilarityDistance> _distances = new HashMap<>();
     // We cannot derive this from the hashmap as the order matters
     private static List<String> _distanceNames = new LinkedList<>();
@@ -50,6 +55,7 @@ public class DistanceFactory {
     static {
         put("levenshtein", new VicinoDistance(new LevenshteinDistance()));
         put("ppm", new VicinoDistance(new PPMDistance()));
+        put(BOUNDED_LEVENSHTEIN, new BoundedLevenshteinDistance());
 
         // Distances not activated as they are not very useful:
         // See https://github.com/OpenRefine/OpenRefine/pull/1906
@@ -0,0 +1,336 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.clustering.knn;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.refine.browsing.Engine;
+import com.google.refine.clustering.ClusteredEntry;
+import com.google.refine.clustering.Clusterer;
+import com.google.refine.clustering.ClustererConfig;
+import com.google.refine.clustering.DistinctValues;
+import com.google.refine.clustering.UnionFind;
+import com.google.refine.clustering.knn.kNNClusterer.IntList;
+import com.google.refine.model.Project;
+
+/**
+ * Approximate nearest neighbor clustering, for columns with too many distinct values for {@link kNNClusterer}.
+ * <p>
+ * Each distinct value is summarized by a MinHash signature of its character shingles. Signatures are cut into bands,
+ * and values with an identical band become candidate pairs (locality-sensitive hashing): values whose shingle sets have
+ * a high Jaccard similarity are very likely to share a band, while dissimilar values rarely do. Only candidate pairs
+ * are compared with the distance, so the work grows roughly linearly with the number of values. Similar pairs are
+ * merged into clusters like in {@link kNNClusterer}.
+ * <p>
+ * Some similar pairs can be missed, more so with fewer or larger bands.
+ */
+public class MinHashClusterer extends Clusterer {
+
+    public static class MinHashClustererConfig extends ClustererConfig {
+
+        @JsonIgnore
+        private String _distanceStr;
+        @JsonIgnore
+        private SimilarityDistance _distance;
+        @JsonIgnore
+        private MinHashClustererConfigParameters _parameters = null;
+
+        @JsonIgnore
+        public SimilarityDistance getDistance() {
+            return _distance;
+        }
+
+        @JsonProperty("function")
+        public void setDistance(String distanceStr) {
+            _distanceStr = distanceStr;
+            _distance = DistanceFactory.get(_distanceStr.toLowerCase());
+        }
+
+        @JsonProperty("function")
+        public String getDistanceStr() {
+            return _distanceStr;
+        }
+
+        @JsonProperty("params")
+        public MinHashClustererConfigParameters getParameters() {
+            return _parameters;
+        }
+
+        @JsonProperty("params")
+        public void setParameters(MinHashClustererConfigParameters params) {
+            _parameters = params;
+        }
+
+        @Override
+        public MinHashClusterer apply(Project project) {
+            MinHashClusterer clusterer = new MinHashClusterer();
+            clusterer.initializeFromConfig(project, this);
+            return clusterer;
+        }
+
+        @Override
+        public String getType() {
+            return "minhash";
+        }
+    }
+
+    public static class MinHashClustererConfigParameters {
+
+        public static final double defaultRadius = 1.0d;
+        public static final int defaultShingleSize = 2;
+        public static final int defaultBands = 25;
+        public static final int defaultBandSize = 3;
+        @JsonProperty("radius")
+        public double radius = defaultRadius;
+        @JsonProperty("shingle-size")
+        public int shingleSize = defaultShingleSize;
+        @JsonProperty("bands")
+        public int bands = defaultBands;
+        @JsonProperty("band-size")
+        public int bandSize = defaultBandSize;
+    }
+
+    /**
+     * Maximum number of pairs compared by a single task before it splits its work.
+     */
+    static final int PAIRS_PER_TASK = 4096;
+
+    /**
+     * Seed of the hash functions, fixed so that clustering the same values always gives the same clusters.
+     */
+    static final long SEED = 0x5DEECE66DL;
+
+    final static Logger logger = LoggerFactory.getLogger("minhash_clusterer");
+
+    private SimilarityDistance _distance;
+    private MinHashClustererConfigParameters _params;
+
+    DistinctValues _values;
+    // band keys of the values: the key of band b of value v is at v * bands + b
+    long[] _bandKeys;
+    List<Set<Serializable>> _clusters;
+
+    public void initializeFromConfig(Project project, MinHashClustererConfig config) {
+        super.initializeFromConfig(project, config);
+        _params = config.getParameters() != null ? config.getParameters() : new MinHashClustererConfigParameters();
+        _distance = kNNClusterer.boundedDistance(config.getDistanceStr(), config.getDistance(), _params.radius);
+    }
+
+    @Override
+    public void computeClusters(Engine engine) {
+        _values = getDistinctValues(engine);
+        checkCancelled();
+
+        int bands = Math.max(1, _params.bands);
+        int bandSize = Math.max(1, _params.bandSize);
+        int shingleSize = Math.max(1, _params.shingleSize);
+        long[] multipliers = new long[bands * bandSize];
+        long[] increments = new long[bands * bandSize];
+        Random random = new Random(SEED);
+        for (int i = 0; i < multipliers.length; i++) {
+            multipliers[i] = random.nextLong() | 1L;
+            increments[i] = random.nextLong();
+        }
+
+        _bandKeys = new long[_values.size() * bands];
+        IntStream.range(0, _values.size()).parallel().forEach(id -> {
+            if (!_cancelled) {
+                computeBandKeys(id, shingleSize, bands, bandSize, multipliers, increments);
+            }
+        });
+        checkCancelled();
+
+        UnionFind unionFind = new UnionFind(_values.size());
+        List<PairsTask> tasks = new ArrayList<>();
+        for (int band = 0; band < bands; band++) {
+            Map<Long, IntList> bucketsOfBand = new HashMap<>();
+            for (int id = 0; id < _values.size(); id++) {
+                bucketsOfBand.computeIfAbsent(_bandKeys[id * bands + band], k -> new IntList()).add(id);
+            }
+            for (IntList bucket : bucketsOfBand.values()) {
+                if (bucket.size > 1) {
+                    tasks.add(new PairsTask(bucket.toSortedArray(), band, 0, bucket.size - 1, bands, unionFind));
+                }
+            }
+            checkCancelled();
+        }
+
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+        checkCancelled();
+        logger.debug("compared the candidate pairs of {} buckets of {} values", tasks.size(), _values.size());
+
+        Map<Integer, Set<Serializable>> clusters = new HashMap<>();
+        for (int id = 0; id < _values.size(); id++) {
+            // roots are the smallest ids of their sets, so they are visited first
+            int root = unionFind.find(id);
+            if (root != id) {
+                clusters.computeIfAbsent(root, r -> {
+                    Set<Serializable> cluster = new TreeSet<>();
+                    cluster.add(_values.getValue(r));
+                    return cluster;
+                }).add(_values.getValue(id));
+            }
+        }
+        _clusters = new ArrayList<>(clusters.values());
+        _clusters.sort(Comparator.comparingInt((Set<Serializable> cluster) -> cluster.size()).reversed());
+    }
+
+    /**
+     * Computes the MinHash signature of a value, one minimum per hash function, and hashes each band of it.
+     */
+    void computeBandKeys(int id, int shingleSize, int bands, int bandSize, long[] multipliers, long[] increments) {
+        String s = _values.getValue(id);
+        int shingles = Math.max(1, s.length() - shingleSize + 1);
+        int[] signature = new int[multipliers.length];
+        for (int i = 0; i < signature.length; i++) {
+            signature[i] = Integer.MAX_VALUE;
+        }
+        for (int i = 0; i < shingles; i++) {
+            int shingle = 0;
+            for (int j = i; j < Math.min(s.length(), i + shingleSize); j++) {
+                shingle = 31 * shingle + s.charAt(j);
+            }
+            for (int k = 0; k < signature.length; k++) {
+                // multiply-shift hashing: the high bits of the product are well mixed
+                int hash = (int) ((multipliers[k] * shingle + increments[k]) >>> 33);
+                if (hash < signature[k]) {
+                    signature[k] = hash;
+                }
+            }
+        }
+        for (int band = 0; band < bands; band++) {
+            long key = 0;
+            for (int k = band * bandSize; k < (band + 1) * bandSize; k++) {
+                key = key * 0x9E3779B97F4A7C15L + signature[k];
+            }
+            _bandKeys[id * bands + band] = key;
+        }
+    }
+
+    /**
+     * Whether the given band is the first one in which two values have the same key, so that each candidate pair is
+     * only compared once even if the values share several bands.
+     */
+    boolean isFirstCommonBand(int a, int b, int band, int bands) {
+        for (int i = 0; i < band; i++) {
+            if (_bandKeys[a * bands + i] == _bandKeys[b * bands + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares the values at positions [from, to) of a bucket, the values with the same key for a band, with the
+     * values after them in the bucket.
+     */
+    class PairsTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        final int[] _bucket;
+        final int _band;
+        final int _from;
+        final int _to;
+        final int _bands;
+        final UnionFind _unionFind;
+
+        PairsTask(int[] bucket, int band, int from, int to, int bands, UnionFind unionFind) {
+            _bucket = bucket;
+            _band = band;
+            _from = from;
+            _to = to;
+            _bands = bands;
+            _unionFind = unionFind;
+        }
+
+        @Override
+        protected void compute() {
+            long pairs = (long) (_to - _from) * (2 * _bucket.length - _from - _to - 1) / 2;
+            if (_to - _from > 1 && pairs > PAIRS_PER_TASK) {
+                // the first rows have more pairs to compare, so split them more finely
+                int mid = _from + (_to - _from) / 3 + 1;
+                invokeAll(new PairsTask(_bucket, _band, _from, mid, _bands, _unionFind),
+                        new PairsTask(_bucket, _band, mid, _to, _bands, _unionFind));
+                return;
+            }
+            for (int i = _from; i < _to && !_cancelled; i++) {
+                int a = _bucket[i];
+                String s = _values.getValue(a);
+                for (int j = i + 1; j < _bucket.length; j++) {
+                    int b = _bucket[j];
+                    if (isFirstCommonBand(a, b, _band, _bands)
+                            && _unionFind.find(a) != _unionFind.find(b)
+                            && _distance.compute(s, _values.getValue(b), _params.radius) <= _params.radius) {
+                        _unionFind.union(a, b);
+                    }
+                }
+            }
+        }
+    }
+
+    protected List<ClusteredEntry> getClusteredEntries(Set<Serializable> s) {
+        return s.stream()
+                .map(e -> new ClusteredEntry(e, _values.getCount((String) e)))
+                .sorted(ClusteredEntry.comparator)
+                .collect(Collectors.toList());
+    }
+
+    @JsonValue
+    public List<List<ClusteredEntry>> getJsonRepresentation() {
+        return _clusters.stream()
+                .filter(m -> m.size() > 1)
+                .map(m -> getClusteredEntries(m))
+                .collect(Collectors.toList());
+    }
+}
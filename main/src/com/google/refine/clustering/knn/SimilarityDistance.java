@@ -40,4 +40,13 @@ public interface SimilarityDistance {
      * their differences increase.
      */
     public double compute(String a, String b);
+
+    /**
+     * Compute the distance between two strings when only distances up to a threshold matter, as in kNN clustering.
+     * Implementations can stop as soon as they know the distance exceeds the threshold, and then return any value
+     * greater than it.
+     */
+    default public double compute(String a, String b, double threshold) {
+        return compute(a, b);
+    }
 }
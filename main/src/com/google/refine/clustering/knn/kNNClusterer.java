@@ -34,33 +34,34 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.clustering.knn;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonValue;
-import edu.mit.simile.vicino.clustering.NGramClusterer;
 import edu.mit.simile.vicino.clustering.VPTreeClusterer;
 import edu.mit.simile.vicino.distances.Distance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.refine.browsing.Engine;
-import com.google.refine.browsing.FilteredRows;
-import com.google.refine.browsing.RowVisitor;
 import com.google.refine.clustering.ClusteredEntry;
 import com.google.refine.clustering.Clusterer;
 import com.google.refine.clustering.ClustererConfig;
-import com.google.refine.model.Cell;
+import com.google.refine.clustering.DistinctValues;
+import com.google.refine.clustering.UnionFind;
 import com.google.refine.model.Project;
-import com.google.refine.model.Row;
 
 public class kNNClusterer extends Clusterer {
 
@@ -126,44 +127,34 @@ public class kNNClusterer extends Clusterer {
     private SimilarityDistance _distance;
     private kNNClustererConfigParameters _params;
 
+    /**
+     * Largest radius for which the Levenshtein distance is replaced by its bounded version. Past it, the band of the
+     * edit distance matrix that needs computing covers most of the matrix for typical values.
+     */
+    static final double BOUNDED_LEVENSHTEIN_MAX_RADIUS = 16;
+
     List<Set<Serializable>> _clusters;
 
-    Map<Serializable, Integer> _counts = new HashMap<Serializable, Integer>();
+    DistinctValues _values;
 
     final static Logger logger = LoggerFactory.getLogger("kNN_clusterer");
 
-    class VPTreeClusteringRowVisitor implements RowVisitor {
+    class VPTreeClustering {
 
         Distance _distance;
         kNNClustererConfigParameters _params;
         VPTreeClusterer _clusterer;
 
-        public VPTreeClusteringRowVisitor(Distance d, kNNClustererConfigParameters params) {
+        public VPTreeClustering(Distance d, kNNClustererConfigParameters params) {
             _distance = d;
             _clusterer = new VPTreeClusterer(_distance);
             _params = params;
         }
 
-        @Override
-        public void start(Project project) {
-            // nothing to do
-        }
-
-        @Override
-        public void end(Project project) {
-            // nothing to do
-        }
-
-        @Override
-        public boolean visit(Project project, int rowIndex, Row row) {
-            Cell cell = row.getCell(_colindex);
-            if (cell != null && cell.value != null) {
-                Object v = cell.value;
-                String s = (v instanceof String) ? ((String) v) : v.toString();
-                _clusterer.populate(s);
-                count(s);
+        public void populate(DistinctValues values) {
+            for (int i = 0; i < values.size(); i++) {
+                _clusterer.populate(values.getValue(i));
             }
-            return false;
         }
 
         public List<Set<Serializable>> getClusters() {
@@ -171,77 +162,233 @@ public class kNNClusterer extends Clusterer {
         }
     }
 
-    class BlockingClusteringRowVisitor implements RowVisitor {
+    /**
+     * Clusters values which share an n-gram and are within the radius of each other. The values are grouped in blocks,
+     * one per n-gram, and the pairs of values within each block are compared in parallel. Similar pairs are merged with
+     * a union-find structure, so a cluster is a set of values connected by similar pairs.
+     */
+    class BlockingClustering {
+
+        /**
+         * Maximum number of pairs compared by a single task before it splits its work.
+         */
+        static final int PAIRS_PER_TASK = 4096;
 
         SimilarityDistance _distance;
         double _radius = 1.0d;
         int _blockingNgramSize = 6;
-        HashSet<String> _data;
-        NGramClusterer _clusterer;
+        DistinctValues _values;
+        List<int[]> _blocks;
+        // for each value, the sorted indices of the blocks it belongs to
+        int[][] _valueBlocks;
 
-        private class DistanceWrapper extends Distance {
+        public BlockingClustering(SimilarityDistance _distance2, kNNClustererConfigParameters params) {
+            _distance = _distance2;
+            _blockingNgramSize = params.blockingNgramSize;
+            _radius = params.radius;
+        }
 
-            private final SimilarityDistance _d;
+        /**
+         * Adds each distinct value to the blocks of its n-grams. Values shorter than the n-gram size form their own
+         * block.
+         */
+        public void populate(DistinctValues values) {
+            _values = values;
+            _valueBlocks = new int[values.size()][];
+            Map<String, Integer> blockIndices = new HashMap<>();
+            List<IntList> blocks = new ArrayList<>();
+            IntList valueBlocks = new IntList();
+            for (int id = 0; id < values.size(); id++) {
+                String s = values.getValue(id);
+                valueBlocks.clear();
+                int ngrams = Math.max(1, s.length() - _blockingNgramSize + 1);
+                for (int i = 0; i < ngrams; i++) {
+                    String ngram = s.substring(i, Math.min(s.length(), i + _blockingNgramSize));
+                    Integer blockIndex = blockIndices.get(ngram);
+                    if (blockIndex == null) {
+                        blockIndex = blocks.size();
+                        blockIndices.put(ngram, blockIndex);
+                        blocks.add(new IntList());
+                    }
+                    IntList block = blocks.get(blockIndex);
+                    // a value can contain the same n-gram several times
+                    if (block.size == 0 || block.get(block.size - 1) != id) {
+                        block.add(id);
+                        valueBlocks.add(blockIndex);
+                    }
+                }
+                _valueBlocks[id] = valueBlocks.toSortedArray();
+            }
+            _blocks = new ArrayList<>();
+            for (IntList block : blocks) {
+                _blocks.add(block.size > 1 ? block.toSortedArray() : null);
+            }
+        }
 
-            protected DistanceWrapper(SimilarityDistance d) {
-                _d = d;
+        public List<Set<Serializable>> getClusters() {
+            UnionFind unionFind = new UnionFind(_values.size());
+            List<PairsTask> tasks = new ArrayList<>();
+            for (int i = 0; i < _blocks.size(); i++) {
+                int[] block = _blocks.get(i);
+                if (block != null) {
+                    tasks.add(new PairsTask(i, block, 0, block.length - 1, unionFind));
+                }
             }
+            ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+            checkCancelled();
+
+            Map<Integer, Set<Serializable>> clusters = new HashMap<>();
+            for (int id = 0; id < _values.size(); id++) {
+                // roots are the smallest ids of their sets, so they are visited first
+                int root = unionFind.find(id);
+                if (root != id) {
+                    clusters.computeIfAbsent(root, r -> {
+                        Set<Serializable> cluster = new TreeSet<>();
+                        cluster.add(_values.getValue(r));
+                        return cluster;
+                    }).add(_values.getValue(id));
+                }
+            }
+            List<Set<Serializable>> result = new ArrayList<>(clusters.values());
+            result.sort(Comparator.comparingInt((Set<Serializable> cluster) -> cluster.size()).reversed());
+            return result;
+        }
 
-            @Override
-            public double d(String arg0, String arg1) {
-                return _d.compute(arg0, arg1);
+        /**
+         * Whether the given block is the first one shared by two values, so that each pair of values is only compared
+         * once even if they share several n-grams.
+         */
+        boolean isFirstCommonBlock(int blockIndex, int a, int b) {
+            int[] blocksA = _valueBlocks[a];
+            int[] blocksB = _valueBlocks[b];
+            int i = 0;
+            int j = 0;
+            while (i < blocksA.length && j < blocksB.length) {
+                if (blocksA[i] < blocksB[j]) {
+                    i++;
+                } else if (blocksA[i] > blocksB[j]) {
+                    j++;
+                } else {
+                    return blocksA[i] == blockIndex;
+                }
             }
+            return false;
         }
 
-        public BlockingClusteringRowVisitor(SimilarityDistance _distance2, kNNClustererConfigParameters params) {
-            _distance = _distance2;
-            _data = new HashSet<String>();
-            _blockingNgramSize = params.blockingNgramSize;
-            _radius = params.radius;
-            _clusterer = new NGramClusterer(new DistanceWrapper(_distance), _blockingNgramSize);
+        /**
+         * Compares the values at positions [from, to) of a block with the values after them in the block.
+         */
+        class PairsTask extends RecursiveAction {
+
+            private static final long serialVersionUID = 1L;
+
+            final int _blockIndex;
+            final int[] _block;
+            final int _from;
+            final int _to;
+            final UnionFind _unionFind;
+
+            PairsTask(int blockIndex, int[] block, int from, int to, UnionFind unionFind) {
+                _blockIndex = blockIndex;
+                _block = block;
+                _from = from;
+                _to = to;
+                _unionFind = unionFind;
+            }
+
+            @Override
+            protected void compute() {
+                long pairs = (long) (_to - _from) * (2 * _block.length - _from - _to - 1) / 2;
+                if (_to - _from > 1 && pairs > PAIRS_PER_TASK) {
+                    // the first rows have more pairs to compare, so split them more finely
+                    int mid = _from + (_to - _from) / 3 + 1;
+                    invokeAll(new PairsTask(_blockIndex, _block, _from, mid, _unionFind),
+                            new PairsTask(_blockIndex, _block, mid, _to, _unionFind));
+                    return;
+                }
+                for (int i = _from; i < _to && !_cancelled; i++) {
+                    int a = _block[i];
+                    String s = _values.getValue(a);
+                    for (int j = i + 1; j < _block.length; j++) {
+                        int b = _block[j];
+                        if (isFirstCommonBlock(_blockIndex, a, b)
+                                && _unionFind.find(a) != _unionFind.find(b)
+                                && _distance.compute(s, _values.getValue(b), _radius) <= _radius) {
+                            _unionFind.union(a, b);
+                        }
+                    }
+                }
+            }
         }
+    }
 
-        @Override
-        public void start(Project project) {
-            // nothing to do
+    /**
+     * A growable array of ints.
+     */
+    static class IntList {
+
+        int[] values = new int[4];
+        int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
         }
 
-        @Override
-        public void end(Project project) {
-            // nothing to do
+        int get(int index) {
+            return values[index];
         }
 
-        @Override
-        public boolean visit(Project project, int rowIndex, Row row) {
-            Cell cell = row.getCell(_colindex);
-            if (cell != null && cell.value != null) {
-                Object v = cell.value;
-                String s = (v instanceof String) ? ((String) v) : v.toString().intern();
-                _clusterer.populate(s);
-                count(s);
-            }
-            return false;
+        void clear() {
+            size = 0;
         }
 
-        public List<Set<Serializable>> getClusters() {
-            return _clusterer.getClusters(_radius);
+        int[] toSortedArray() {
+            int[] array = Arrays.copyOf(values, size);
+            Arrays.sort(array);
+            return array;
         }
     }
 
     public void initializeFromConfig(Project project, kNNClustererConfig config) {
         super.initializeFromConfig(project, config);
-        _distance = config.getDistance();
         _params = config.getParameters();
+        _distance = _params == null ? config.getDistance()
+                : boundedDistance(config.getDistanceStr(), config.getDistance(), _params.radius);
+    }
+
+    /**
+     * Replaces the Levenshtein distance by its bounded version when the radius is small enough: it is the same
+     * distance, but comparisons stop as soon as they exceed the radius.
+     */
+    static SimilarityDistance boundedDistance(String distanceName, SimilarityDistance distance, double radius) {
+        if ("levenshtein".equalsIgnoreCase(distanceName) && radius >= 0 && radius <= BOUNDED_LEVENSHTEIN_MAX_RADIUS) {
+            return DistanceFactory.get(DistanceFactory.BOUNDED_LEVENSHTEIN);
+        }
+        return distance;
     }
 
     @Override
     public void computeClusters(Engine engine) {
-        // VPTreeClusteringRowVisitor visitor = new VPTreeClusteringRowVisitor(_distance,_config);
-        BlockingClusteringRowVisitor visitor = new BlockingClusteringRowVisitor(_distance, _params);
-        FilteredRows filteredRows = engine.getAllFilteredRows();
-        filteredRows.accept(_project, visitor);
+        // count the values first, so that blocking and distances only deal with distinct values
+        _values = getDistinctValues(engine);
+        checkCancelled();
+
+        // VPTreeClustering clustering = new VPTreeClustering(_distance, _params);
+        BlockingClustering clustering = new BlockingClustering(_distance, _params);
+        clustering.populate(_values);
 
-        _clusters = visitor.getClusters();
+        _clusters = clustering.getClusters();
     }
 
     public static class ValuesComparator implements Comparator<Entry<Serializable, Integer>>, Serializable {
@@ -256,7 +403,7 @@ public class kNNClusterer extends Clusterer {
 
     protected List<ClusteredEntry> getClusteredEntries(Set<Serializable> s) {
         return s.stream()
-                .map(e -> new ClusteredEntry(e, _counts.get(e)))
+                .map(e -> new ClusteredEntry(e, _values.getCount((String) e)))
                 .sorted(ClusteredEntry.comparator)
                 .collect(Collectors.toList());
     }
@@ -268,12 +415,4 @@ public class kNNClusterer extends Clusterer {
                 .map(m -> getClusteredEntries(m))
                 .collect(Collectors.toList());
     }
-
-    private void count(Serializable s) {
-        if (_counts.containsKey(s)) {
-            _counts.put(s, _counts.get(s) + 1);
-        } else {
-            _counts.put(s, 1);
-        }
-    }
 }
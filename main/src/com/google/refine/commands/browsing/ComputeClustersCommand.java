@@ -34,6 +34,9 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.commands.browsing;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -45,7 +48,9 @@ import org.slf4j.LoggerFactory;
 import com.google.refine.browsing.Engine;
 import com.google.refine.clustering.Clusterer;
 import com.google.refine.clustering.ClustererConfig;
+import com.google.refine.clustering.ClusteringSession;
 import com.google.refine.commands.Command;
+import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 import com.google.refine.util.ParsingUtilities;
 
@@ -54,27 +59,74 @@ public class ComputeClustersCommand extends Command {
     final static Logger logger = LoggerFactory.getLogger("compute-clusters_command");
 
     /**
-     * This command uses POST (probably to allow for larger parameters) but does not actually modify any state so we do
-     * not add CSRF protection to it.
+     * The clusterers currently running, by project and by the id the client gave to the request. Clients cancel the
+     * requests whose result they no longer need, which does not affect the other dialogs or tabs clustering the same
+     * project.
+     */
+    final static Map<String, Clusterer> s_running = new ConcurrentHashMap<>();
+
+    static protected String getRunKey(Project project, String requestId) {
+        return project.id + "/" + requestId;
+    }
+
+    /**
+     * This command uses POST (probably to allow for larger parameters) but computing clusters does not actually modify
+     * any state so we do not add CSRF protection to it. Requests with cancel=true stop the clustering started by the
+     * request with the given requestId, if it is still running, and discard the clustering session of the column named
+     * by columnName, if any, when the dialog is closed: they require a CSRF token.
      */
     @Override
     public void doPost(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
 
+        long start = System.currentTimeMillis();
         try {
-            long start = System.currentTimeMillis();
             Project project = getProject(request);
+            String requestId = request.getParameter("requestId");
+            if ("true".equals(request.getParameter("cancel"))) {
+                if (!hasValidCSRFToken(request)) {
+                    respondCSRFError(response);
+                    return;
+                }
+                if (requestId != null) {
+                    Clusterer running = s_running.remove(getRunKey(project, requestId));
+                    if (running != null) {
+                        running.cancel();
+                    }
+                }
+                String columnName = request.getParameter("columnName");
+                Column column = columnName != null ? project.columnModel.getColumnByName(columnName) : null;
+                if (column != null) {
+                    ClusteringSession.discard(column);
+                }
+                respondOkDone(response);
+                return;
+            }
             Engine engine = getEngine(request, project);
             String clusterer_conf = request.getParameter("clusterer");
             ClustererConfig clustererConfig = ParsingUtilities.mapper.readValue(clusterer_conf, ClustererConfig.class);
 
             Clusterer clusterer = clustererConfig.apply(project);
 
-            clusterer.computeClusters(engine);
+            // requests without an id cannot be cancelled
+            String runKey = requestId != null ? getRunKey(project, requestId) : null;
+            if (runKey != null) {
+                s_running.put(runKey, clusterer);
+            }
+            try {
+                clusterer.computeClusters(engine);
+            } finally {
+                if (runKey != null) {
+                    s_running.remove(runKey, clusterer);
+                }
+            }
 
             respondJSON(response, clusterer);
             logger.info("computed clusters [{}] in {}ms",
                     new Object[] { clustererConfig.getType(), Long.toString(System.currentTimeMillis() - start) });
+        } catch (CancellationException e) {
+            logger.info("clustering cancelled after {}ms", Long.toString(System.currentTimeMillis() - start));
+            respondCodeError(response, e.getMessage());
         } catch (Exception e) {
             respondException(response, e);
         }
@@ -38,6 +38,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.refine.clustering.ClustererConfig;
 import com.google.refine.clustering.binning.KeyerFactory;
 import com.google.refine.clustering.knn.DistanceFactory;
 import com.google.refine.commands.Command;
@@ -53,6 +54,9 @@ public class GetClusteringFunctionsAndDistancesCommand extends Command {
 
         @JsonProperty("keyers")
         public List<String> keyers = KeyerFactory.getKeyerNames();
+
+        @JsonProperty("methods")
+        public List<String> methods = ClustererConfig.getTypes();
     }
 
     @Override
@@ -61,6 +61,7 @@ public class AddColumnByFetchingURLsCommand extends EngineDependentCommand {
         int delay = Integer.parseInt(request.getParameter("delay"));
         String onError = request.getParameter("onError");
         boolean cacheResponses = Boolean.parseBoolean(request.getParameter("cacheResponses"));
+        String concurrency = request.getParameter("concurrency");
         ObjectMapper mapper = new ObjectMapper();
         List<HttpHeader> headers = Arrays.asList(mapper.readValue(request.getParameter("httpHeaders"), HttpHeader[].class));
 
@@ -73,6 +74,7 @@ public class AddColumnByFetchingURLsCommand extends EngineDependentCommand {
                 columnInsertIndex,
                 delay,
                 cacheResponses,
+                concurrency != null ? Integer.valueOf(concurrency) : null,
                 headers);
     }
 
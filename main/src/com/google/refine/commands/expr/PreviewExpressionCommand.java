@@ -56,6 +56,7 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.refine.commands.Command;
 import com.google.refine.expr.EvalError;
 import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionProfile;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.HasFields;
 import com.google.refine.expr.MetaParser;
@@ -105,19 +106,28 @@ public class PreviewExpressionCommand extends Command {
         @JsonProperty("results")
         @JsonInclude(Include.NON_NULL)
         List<ExpressionValue> results;
+        @JsonProperty("profile")
+        @JsonInclude(Include.NON_NULL)
+        ExpressionProfile profile;
 
         public PreviewResult(String code, String message, String type) {
             this.code = code;
             this.message = message;
             this.type = type;
             this.results = null;
+            this.profile = null;
         }
 
         public PreviewResult(List<ExpressionValue> evaluated) {
+            this(evaluated, null);
+        }
+
+        public PreviewResult(List<ExpressionValue> evaluated, ExpressionProfile profile) {
             this.code = "ok";
             this.message = null;
             this.type = null;
             this.results = evaluated;
+            this.profile = profile;
         }
     }
 
@@ -152,12 +162,15 @@ public class PreviewExpressionCommand extends Command {
                 }
             }
 
+            // when requested, also return per-node evaluation statistics of the expression
+            ExpressionProfile profile = "true".equals(request.getParameter("profile")) ? new ExpressionProfile() : null;
+
             List<Integer> rowIndices = ParsingUtilities.mapper.readValue(rowIndicesString, new TypeReference<List<Integer>>() {
             });
             int length = rowIndices.size();
 
             try {
-                Evaluable eval = MetaParser.parse(expression);
+                Evaluable eval = MetaParser.parse(expression, profile);
 
                 List<ExpressionValue> evaluated = new ArrayList<>();
                 Properties bindings = ExpressionUtils.createBindings(project);
@@ -205,7 +218,7 @@ public class PreviewExpressionCommand extends Command {
                         evaluated.add(new SuccessfulEvaluation(sb.toString()));
                     }
                 }
-                respondJSON(response, new PreviewResult(evaluated));
+                respondJSON(response, new PreviewResult(evaluated, profile));
             } catch (ParsingException e) {
                 respondJSON(response, new PreviewResult("error", e.getMessage(), "parser"));
             } catch (Exception e) {
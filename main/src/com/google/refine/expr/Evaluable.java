@@ -34,6 +34,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.expr;
 
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * Interface for evaluable expressions in any arbitrary language.
@@ -47,4 +48,17 @@ public interface Evaluable {
      * @return
      */
     public Object evaluate(Properties bindings);
+
+    /**
+     * Returns true if evaluating this expression only reads the given variables from the bindings (besides the ones it
+     * binds itself), is deterministic and has no side effects. This makes it possible to cache its results on the
+     * values of those variables. Implementations can conservatively return false, which is the default.
+     * 
+     * @param variables
+     *            the names of the variables the expression is allowed to depend on
+     * @return
+     */
+    default public boolean dependsOnlyOn(Set<String> variables) {
+        return false;
+    }
 }
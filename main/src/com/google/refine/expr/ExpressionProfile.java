@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.expr;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Collects evaluation statistics for the nodes of an expression: how many times each node was evaluated, the time
+ * spent in it (including and excluding its children) and an estimate of the memory it allocated. Nodes are registered
+ * with {@link #instrument(Evaluable)}, which is done by the GREL parser when it is given a profile.
+ * 
+ * Allocations are measured with the per-thread allocation counters of the JVM, when available. They include anything
+ * allocated by the thread during the evaluation of the node, so they are estimates. This class is not thread-safe: an
+ * instrumented expression must be evaluated by a single thread at a time.
+ */
+public class ExpressionProfile {
+
+    /**
+     * The statistics recorded for a single node of the expression.
+     */
+    static public class NodeStats {
+
+        final protected String node;
+        final protected boolean trackAllocations;
+        protected long calls = 0;
+        protected long totalNanos = 0;
+        protected long selfNanos = 0;
+        protected long allocatedBytes = 0;
+
+        protected NodeStats(String node, boolean trackAllocations) {
+            this.node = node;
+            this.trackAllocations = trackAllocations;
+        }
+
+        @JsonProperty("node")
+        public String getNode() {
+            return node;
+        }
+
+        @JsonProperty("calls")
+        public long getCalls() {
+            return calls;
+        }
+
+        /**
+         * @return the time spent evaluating this node, including its children
+         */
+        @JsonProperty("totalNanos")
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * @return the time spent evaluating this node, excluding the instrumented nodes beneath it
+         */
+        @JsonProperty("selfNanos")
+        public long getSelfNanos() {
+            return selfNanos;
+        }
+
+        /**
+         * @return the number of bytes allocated while evaluating this node and its children, or null if the JVM does
+         *         not track allocations
+         */
+        @JsonProperty("allocatedBytes")
+        @JsonInclude(Include.NON_NULL)
+        public Long getAllocatedBytes() {
+            return trackAllocations ? allocatedBytes : null;
+        }
+    }
+
+    final protected List<NodeStats> _nodes = new ArrayList<>();
+    final protected com.sun.management.ThreadMXBean _threadBean;
+
+    // One frame per node currently being evaluated
+    protected int _depth = 0;
+    protected long[] _startNanos = new long[16];
+    protected long[] _startBytes = new long[16];
+    protected long[] _childNanos = new long[16];
+
+    public ExpressionProfile() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemoryEnabled()) {
+            _threadBean = (com.sun.management.ThreadMXBean) bean;
+        } else {
+            _threadBean = null;
+        }
+    }
+
+    /**
+     * Wraps a node of an expression so that its evaluations are recorded in this profile.
+     */
+    public Evaluable instrument(Evaluable node) {
+        NodeStats stats = new NodeStats(node.toString(), _threadBean != null);
+        _nodes.add(stats);
+        return new ProfiledEvaluable(node, this, stats);
+    }
+
+    /**
+     * @return the statistics of all instrumented nodes, the most expensive first
+     */
+    @JsonProperty("nodes")
+    public List<NodeStats> getNodes() {
+        List<NodeStats> nodes = new ArrayList<>(_nodes);
+        nodes.sort(Comparator.comparingLong(NodeStats::getTotalNanos).reversed());
+        return nodes;
+    }
+
+    protected void enter() {
+        if (_depth == _startNanos.length) {
+            _startNanos = Arrays.copyOf(_startNanos, _depth * 2);
+            _startBytes = Arrays.copyOf(_startBytes, _depth * 2);
+            _childNanos = Arrays.copyOf(_childNanos, _depth * 2);
+        }
+        _childNanos[_depth] = 0;
+        _startBytes[_depth] = allocatedBytes();
+        // read the clock last so that reading the allocation counter is not attributed to the node
+        _startNanos[_depth] = System.nanoTime();
+        _depth++;
+    }
+
+    protected void exit(NodeStats stats) {
+        long elapsed = System.nanoTime() - _startNanos[--_depth];
+        long allocated = allocatedBytes() - _startBytes[_depth];
+
+        stats.calls++;
+        stats.totalNanos += elapsed;
+        stats.selfNanos += elapsed - _childNanos[_depth];
+        stats.allocatedBytes += allocated;
+        if (_depth > 0) {
+            _childNanos[_depth - 1] += elapsed;
+        }
+    }
+
+    protected long allocatedBytes() {
+        return _threadBean != null ? _threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    /**
+     * Renders the statistics as a table, for logging.
+     */
+    @Override
+    public String toString() {
+        StringBuffer sb = new StringBuffer();
+        sb.append(String.format("%10s %12s %12s %14s  %s", "calls", "total ms", "self ms", "allocated KB", "node"));
+        for (NodeStats stats : getNodes()) {
+            sb.append('\n');
+            sb.append(String.format("%10d %12.3f %12.3f %14s  %s",
+                    stats.calls,
+                    stats.totalNanos / 1000000.0,
+                    stats.selfNanos / 1000000.0,
+                    stats.trackAllocations ? String.valueOf(stats.allocatedBytes / 1024) : "n/a",
+                    stats.node));
+        }
+        return sb.toString();
+    }
+}
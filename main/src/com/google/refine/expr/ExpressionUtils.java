@@ -72,6 +72,19 @@ public class ExpressionUtils {
         return bindings;
     }
 
+    /**
+     * The "value" variable and the constants bound by {@link #createBindings(Project)}.
+     */
+    static final private Set<String> s_valueDependencies = Set.of("value", "true", "false", "PI");
+
+    /**
+     * Returns true if the given expression is a function of the "value" variable only (or equivalently "cell.value")
+     * and has no side effects, in which case its results can be cached by value with {@link MemoizedEvaluable}.
+     */
+    static public boolean dependsOnlyOnValue(Evaluable eval) {
+        return eval.dependsOnlyOn(s_valueDependencies);
+    }
+
     static public void bind(Properties bindings, Row row, int rowIndex, String columnName, Cell cell) {
         Project project = (Project) bindings.get("project");
 
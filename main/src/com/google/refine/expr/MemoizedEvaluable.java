@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.expr;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Wraps an expression which only depends on the "value" variable (see {@link ExpressionUtils#dependsOnlyOnValue}) and
+ * caches its results by input value, so that it is evaluated only once per distinct value. The cache stops growing
+ * once it holds a given number of entries, after which new values are evaluated directly.
+ * 
+ * The results are shared across rows with the same value, so callers must not mutate them. This class is not
+ * thread-safe.
+ */
+public class MemoizedEvaluable implements Evaluable {
+
+    static final public int DEFAULT_MAX_SIZE = 100000;
+
+    final protected Evaluable _inner;
+    final protected int _maxSize;
+    final protected Map<Object, Object> _memo = new HashMap<>();
+
+    protected long _hits = 0;
+    protected long _misses = 0;
+
+    public MemoizedEvaluable(Evaluable inner) {
+        this(inner, DEFAULT_MAX_SIZE);
+    }
+
+    public MemoizedEvaluable(Evaluable inner, int maxSize) {
+        _inner = inner;
+        _maxSize = maxSize;
+    }
+
+    @Override
+    public Object evaluate(Properties bindings) {
+        Object value = bindings.get("value");
+        Object result = _memo.get(value);
+        if (result != null || _memo.containsKey(value)) {
+            _hits++;
+            return result;
+        }
+        _misses++;
+        result = _inner.evaluate(bindings);
+        if (_memo.size() < _maxSize) {
+            _memo.put(value, result);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean dependsOnlyOn(Set<String> variables) {
+        return _inner.dependsOnlyOn(variables);
+    }
+
+    /**
+     * @return the number of evaluations which were served from the cache
+     */
+    public long getHits() {
+        return _hits;
+    }
+
+    /**
+     * @return the number of evaluations which required evaluating the underlying expression
+     */
+    public long getMisses() {
+        return _misses;
+    }
+
+    /**
+     * @return the number of distinct values currently cached
+     */
+    public int getSize() {
+        return _memo.size();
+    }
+
+    @Override
+    public String toString() {
+        return _inner.toString();
+    }
+}
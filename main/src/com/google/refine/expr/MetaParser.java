@@ -155,6 +155,20 @@ abstract public class MetaParser {
      * @throws ParsingException
      */
     static public Evaluable parse(String s) throws ParsingException {
+        return parse(s, null);
+    }
+
+    /**
+     * Parse an expression like {@link #parse(String)}, instrumenting it to record its evaluation costs in the given
+     * profile. GREL expressions are profiled node by node, expressions in other languages as a whole.
+     * 
+     * @param s
+     * @param profile
+     *            the profile to record into, or null not to profile the expression
+     * @return
+     * @throws ParsingException
+     */
+    static public Evaluable parse(String s, ExpressionProfile profile) throws ParsingException {
         String language = "grel";
 
         int colon = s.indexOf(':');
@@ -167,14 +181,25 @@ abstract public class MetaParser {
 
         LanguageInfo info = s_languages.get(language.toLowerCase());
         if (info != null) {
-            return info.parser.parse(s.substring(colon + 1));
+            String code = s.substring(colon + 1);
+            if (profile == null) {
+                return info.parser.parse(code);
+            } else if ("grel".equals(language)) {
+                return parseGREL(code, profile);
+            } else {
+                return profile.instrument(info.parser.parse(code));
+            }
         } else {
-            return parseGREL(s);
+            return parseGREL(s, profile);
         }
     }
 
     static protected Evaluable parseGREL(String s) throws ParsingException {
-        Parser parser = new Parser(s);
+        return parseGREL(s, null);
+    }
+
+    static protected Evaluable parseGREL(String s, ExpressionProfile profile) throws ParsingException {
+        Parser parser = new Parser(s, profile);
 
         return parser.getExpression();
     }
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.expr;
+
+import java.util.Properties;
+import java.util.Set;
+
+import com.google.refine.expr.ExpressionProfile.NodeStats;
+
+/**
+ * Wraps a node of an expression to record its evaluations in an {@link ExpressionProfile}.
+ */
+public class ProfiledEvaluable implements Evaluable {
+
+    final protected Evaluable _inner;
+    final protected ExpressionProfile _profile;
+    final protected NodeStats _stats;
+
+    protected ProfiledEvaluable(Evaluable inner, ExpressionProfile profile, NodeStats stats) {
+        _inner = inner;
+        _profile = profile;
+        _stats = stats;
+    }
+
+    @Override
+    public Object evaluate(Properties bindings) {
+        _profile.enter();
+        try {
+            return _inner.evaluate(bindings);
+        } finally {
+            _profile.exit(_stats);
+        }
+    }
+
+    @Override
+    public boolean dependsOnlyOn(Set<String> variables) {
+        return _inner.dependsOnlyOn(variables);
+    }
+
+    @Override
+    public String toString() {
+        return _inner.toString();
+    }
+}
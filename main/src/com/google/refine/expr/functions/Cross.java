@@ -110,4 +110,9 @@ public class Cross implements Function {
     public String getReturns() {
         return "array";
     }
+
+    @Override
+    public boolean isPure() {
+        return false;
+    }
 }
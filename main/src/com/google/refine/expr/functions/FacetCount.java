@@ -99,4 +99,9 @@ public class FacetCount implements Function {
     public String getReturns() {
         return "number";
     }
+
+    @Override
+    public boolean isPure() {
+        return false;
+    }
 }
@@ -166,4 +166,9 @@ public class Get implements Function {
     public String getReturns() {
         return "Depends on actual arguments";
     }
+
+    @Override
+    public boolean isPure() {
+        return false;
+    }
 }
@@ -75,4 +75,9 @@ public class HasField implements Function {
     public String getReturns() {
         return "boolean";
     }
+
+    @Override
+    public boolean isPure() {
+        return false;
+    }
 }
@@ -39,6 +39,7 @@ import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.IllformedLocaleException;
@@ -51,16 +52,37 @@ import com.google.common.base.CharMatcher;
 import org.apache.commons.lang3.StringUtils;
 
 import com.google.refine.expr.EvalError;
+import com.google.refine.expr.util.BulkDateParser;
 import com.google.refine.expr.util.CalendarParser;
 import com.google.refine.expr.util.CalendarParserException;
 import com.google.refine.grel.ControlFunctionRegistry;
 import com.google.refine.grel.EvalErrorMessage;
 import com.google.refine.grel.Function;
 import com.google.refine.grel.FunctionDescription;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
 import com.google.refine.util.ParsingUtilities;
 
 public class ToDate implements Function {
 
+    /**
+     * Format argument which makes this function infer the date formats of the column the expression is evaluated on,
+     * see {@link BulkDateParser}.
+     */
+    static final public String INFER_FORMATS = "infer";
+
+    /**
+     * Number of values of the column sampled to infer the date formats.
+     */
+    static final public int SAMPLE_SIZE = 1000;
+
+    /**
+     * Prefix of the keys under which the inferring parsers are cached in the bindings, so that they are shared by all
+     * the rows an expression is evaluated on. The keys also hold the column and the format argument, and are not valid
+     * GREL variable names.
+     */
+    static final private String BULK_PARSER_BINDING = "toDate.bulkDateParser";
+
     @Override
     public Object call(Properties bindings, Object[] args) {
         String o1;
@@ -86,7 +108,9 @@ public class ToDate implements Function {
             }
         }
 
-        if (args.length == 1) {
+        if (args.length == 2 && INFER_FORMATS.equals(args[1])) {
+            date = getBulkDateParser(bindings, (String) args[1]).parse(o1);
+        } else if (args.length == 1) {
             try {
                 date = parse(o1, true, formats);
             } catch (DateFormatException e) {
@@ -122,6 +146,28 @@ public class ToDate implements Function {
         return new EvalError(EvalErrorMessage.unable_to_convert_to_date());
     }
 
+    private BulkDateParser getBulkDateParser(Properties bindings, String format) {
+        if (bindings == null) {
+            return new BulkDateParser(Collections.emptyList(), true);
+        }
+        Object columnName = bindings.get("columnName");
+        String key = BULK_PARSER_BINDING + "\t" + columnName + "\t" + format;
+        BulkDateParser parser = (BulkDateParser) bindings.get(key);
+        if (parser == null) {
+            List<String> sample = Collections.emptyList();
+            Project project = (Project) bindings.get("project");
+            if (project != null && columnName != null) {
+                Column column = project.columnModel.getColumnByName(columnName.toString());
+                if (column != null) {
+                    sample = BulkDateParser.sampleColumn(project.rows, column.getCellIndex(), SAMPLE_SIZE);
+                }
+            }
+            parser = new BulkDateParser(sample, true);
+            bindings.put(key, parser);
+        }
+        return parser;
+    }
+
     private OffsetDateTime parse(String o1, Boolean month_first, List<String> formats) throws DateFormatException {
         if (month_first != null) {
             try {
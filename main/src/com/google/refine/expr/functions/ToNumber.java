@@ -40,6 +40,9 @@ import com.google.refine.grel.ControlFunctionRegistry;
 import com.google.refine.grel.EvalErrorMessage;
 import com.google.refine.grel.Function;
 import com.google.refine.grel.FunctionDescription;
+import com.google.refine.model.Column;
+import com.google.refine.model.NumericColumnValues;
+import com.google.refine.model.Project;
 
 public class ToNumber implements Function {
 
@@ -49,6 +52,10 @@ public class ToNumber implements Function {
             if (args[0] instanceof Number) {
                 return args[0];
             } else {
+                Number parsed = getParsedNumber(bindings, args[0]);
+                if (parsed != null) {
+                    return parsed;
+                }
                 String s;
                 if (args[0] instanceof String) {
                     s = (String) args[0];
@@ -74,6 +81,25 @@ public class ToNumber implements Function {
         }
     }
 
+    /**
+     * Looks up the number already parsed from the current cell, if the argument is the cell value itself and its column
+     * has been detected as numeric (see {@link NumericColumnValues}).
+     */
+    private Number getParsedNumber(Properties bindings, Object value) {
+        if (bindings == null || !(value instanceof String)) {
+            return null;
+        }
+        Object project = bindings.get("project");
+        Object columnName = bindings.get("columnName");
+        Object rowIndex = bindings.get("rowIndex");
+        if (!(project instanceof Project) || columnName == null || !(rowIndex instanceof Integer)) {
+            return null;
+        }
+        Column column = ((Project) project).columnModel.getColumnByName(columnName.toString());
+        NumericColumnValues numbers = column == null ? null : NumericColumnValues.get(column);
+        return numbers == null ? null : numbers.getNumber((Integer) rowIndex, value);
+    }
+
     @Override
     public String getDescription() {
         return FunctionDescription.fun_to_number();
@@ -59,4 +59,9 @@ public class Now implements Function {
     public String getReturns() {
         return "date";
     }
+
+    @Override
+    public boolean isPure() {
+        return false;
+    }
 }
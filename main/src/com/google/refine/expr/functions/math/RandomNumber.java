@@ -83,4 +83,8 @@ public class RandomNumber implements Function {
         return "number";
     }
 
+    @Override
+    public boolean isPure() {
+        return false;
+    }
 }
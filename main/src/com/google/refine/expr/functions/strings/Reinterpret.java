@@ -114,4 +114,9 @@ public class Reinterpret implements Function {
     public String getReturns() {
         return "string";
     }
+
+    @Override
+    public boolean isPure() {
+        return false;
+    }
 }
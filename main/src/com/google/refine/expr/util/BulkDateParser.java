@@ -0,0 +1,256 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.expr.util;
+
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.refine.model.Cell;
+import com.google.refine.model.Row;
+import com.google.refine.util.ParsingUtilities;
+
+/**
+ * Parses many date strings which are expected to share a small number of formats, such as the values of a column.
+ * <p>
+ * The formats are first inferred from a sample of the values, among a list of common patterns. Each value is then
+ * parsed with the compiled formatters of the inferred patterns, in order of coverage of the sample. Values matching
+ * none of them are tried against the remaining candidate patterns, in their order of preference, and optionally with
+ * {@link CalendarParser} as a last resort. The order in which patterns are tried never changes, so that the date an
+ * ambiguous value is parsed to does not depend on the values parsed before it.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ */
+public class BulkDateParser {
+
+    /**
+     * The patterns we try to infer, in order of preference for ambiguous values. They are resolved by
+     * {@link #parse(String, String)}, which only supports the year (u), month (M), day of month (d), hour of day (H),
+     * minute (m), second (s) and offset (X) fields.
+     */
+    static final public List<String> CANDIDATE_PATTERNS = List.of(
+            "uuuu-M-d",
+            "uuuu-M-d H:mm",
+            "uuuu-M-d H:mm:ss",
+            "uuuu-M-d'T'H:mm:ss",
+            "uuuu-M-d'T'H:mm:ssXXX",
+            "uuuu/M/d",
+            "uuuu/M/d H:mm:ss",
+            "M/d/uuuu",
+            "d/M/uuuu",
+            "M/d/uuuu H:mm",
+            "d/M/uuuu H:mm",
+            "M/d/uuuu H:mm:ss",
+            "d/M/uuuu H:mm:ss",
+            "d.M.uuuu",
+            "d.M.uuuu H:mm",
+            "d.M.uuuu H:mm:ss",
+            "M-d-uuuu",
+            "d-M-uuuu",
+            "d MMM uuuu",
+            "d MMMM uuuu",
+            "MMM d, uuuu",
+            "MMMM d, uuuu",
+            "d-MMM-uuuu");
+
+    /**
+     * Maximum number of patterns used for a single column.
+     */
+    static final public int MAX_PATTERNS = 4;
+
+    static final private Map<String, DateTimeFormatter> s_formatters = new ConcurrentHashMap<>();
+
+    final protected List<String> _patterns;
+    final protected boolean _fallbackToCalendarParser;
+
+    /**
+     * @param sample
+     *            values used to infer the date formats, can be empty
+     * @param fallbackToCalendarParser
+     *            whether values which match none of the candidate patterns should be parsed by {@link CalendarParser}
+     */
+    public BulkDateParser(Collection<String> sample, boolean fallbackToCalendarParser) {
+        _patterns = Collections.unmodifiableList(inferPatterns(sample));
+        _fallbackToCalendarParser = fallbackToCalendarParser;
+    }
+
+    /**
+     * Selects the candidate patterns which best cover the given sample: the pattern matching the most values is picked
+     * first, then the one matching the most remaining values, and so on.
+     * 
+     * @param sample
+     *            the values to infer the patterns from
+     * @return at most {@link #MAX_PATTERNS} patterns, in decreasing order of coverage
+     */
+    static public List<String> inferPatterns(Collection<String> sample) {
+        List<String> remaining = new ArrayList<>(sample.size());
+        for (String value : sample) {
+            remaining.add(value.trim());
+        }
+
+        List<String> patterns = new ArrayList<>();
+        while (!remaining.isEmpty() && patterns.size() < MAX_PATTERNS) {
+            String bestPattern = null;
+            int bestCount = 0;
+            for (String pattern : CANDIDATE_PATTERNS) {
+                if (patterns.contains(pattern)) {
+                    continue;
+                }
+                int count = 0;
+                for (String value : remaining) {
+                    if (parse(value, pattern) != null) {
+                        count++;
+                    }
+                }
+                if (count > bestCount) {
+                    bestPattern = pattern;
+                    bestCount = count;
+                }
+            }
+            if (bestPattern == null) {
+                break;
+            }
+            patterns.add(bestPattern);
+            final String pattern = bestPattern;
+            remaining.removeIf(value -> parse(value, pattern) != null);
+        }
+        return patterns;
+    }
+
+    /**
+     * Collects the first non-blank string values of a column, to be used as a sample for
+     * {@link #BulkDateParser(Collection, boolean)}.
+     */
+    static public List<String> sampleColumn(List<Row> rows, int cellIndex, int sampleSize) {
+        List<String> sample = new ArrayList<>(Math.min(sampleSize, rows.size()));
+        for (Row row : rows) {
+            if (sample.size() >= sampleSize) {
+                break;
+            }
+            Cell cell = row.getCell(cellIndex);
+            if (cell != null && cell.value instanceof String && !((String) cell.value).isBlank()) {
+                sample.add((String) cell.value);
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * @return the patterns inferred from the sample, in the order they are tried
+     */
+    public List<String> getPatterns() {
+        return _patterns;
+    }
+
+    /**
+     * Parses a date.
+     * 
+     * @param s
+     *            the string to parse
+     * @return the parsed date, or null if it could not be parsed. Dates without an explicit offset are in UTC.
+     */
+    public OffsetDateTime parse(String s) {
+        String trimmed = s.trim();
+        for (String pattern : _patterns) {
+            OffsetDateTime date = parse(trimmed, pattern);
+            if (date != null) {
+                return date;
+            }
+        }
+
+        for (String pattern : CANDIDATE_PATTERNS) {
+            if (_patterns.contains(pattern)) {
+                continue;
+            }
+            OffsetDateTime date = parse(trimmed, pattern);
+            if (date != null) {
+                return date;
+            }
+        }
+
+        if (_fallbackToCalendarParser) {
+            try {
+                return CalendarParser.parseAsOffsetDateTime(trimmed, CalendarParser.MM_DD_YY);
+            } catch (CalendarParserException e) {
+                return ParsingUtilities.stringToDate(trimmed);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a date with one of the candidate patterns. The string is only parsed into its fields, which are then
+     * resolved directly, so that strings which do not match the pattern are rejected without throwing exceptions.
+     */
+    static protected OffsetDateTime parse(String s, String pattern) {
+        ParsePosition position = new ParsePosition(0);
+        TemporalAccessor parsed = getFormatter(pattern).parseUnresolved(s, position);
+        if (parsed == null || position.getErrorIndex() >= 0 || position.getIndex() != s.length()) {
+            return null;
+        }
+        try {
+            LocalDate date = LocalDate.of(
+                    (int) parsed.getLong(ChronoField.YEAR),
+                    (int) parsed.getLong(ChronoField.MONTH_OF_YEAR),
+                    (int) parsed.getLong(ChronoField.DAY_OF_MONTH));
+            LocalTime time = LocalTime.of(
+                    (int) getField(parsed, ChronoField.HOUR_OF_DAY),
+                    (int) getField(parsed, ChronoField.MINUTE_OF_HOUR),
+                    (int) getField(parsed, ChronoField.SECOND_OF_MINUTE));
+            ZoneOffset offset = ZoneOffset.ofTotalSeconds((int) getField(parsed, ChronoField.OFFSET_SECONDS));
+            return OffsetDateTime.of(date, time, offset);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    static private long getField(TemporalAccessor parsed, ChronoField field) {
+        return parsed.isSupported(field) ? parsed.getLong(field) : 0;
+    }
+
+    static protected DateTimeFormatter getFormatter(String pattern) {
+        return s_formatters.computeIfAbsent(pattern, p -> new DateTimeFormatterBuilder()
+                .parseCaseInsensitive()
+                .appendPattern(p)
+                .toFormatter(Locale.ENGLISH));
+    }
+}
@@ -33,13 +33,16 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.grel;
 
+import java.util.HashSet;
 import java.util.Properties;
+import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import com.google.refine.expr.Evaluable;
+import com.google.refine.grel.ast.VariableExpr;
 
 /**
  * Interface of GREL controls such as if, forEach, forNonBlank, with. A control can decide which part of the code to
@@ -62,4 +65,35 @@ public interface Control {
 
     @JsonProperty("returns")
     public String getReturns();
+
+    /**
+     * Returns true if calling this control on the given arguments only reads the given variables from the bindings
+     * (besides the ones it binds itself), is deterministic and has no side effects other than temporarily binding its
+     * own variables. See {@link Evaluable#dependsOnlyOn(Set)}. Defaults to false.
+     * 
+     * @param args
+     *            the unevaluated arguments of the control
+     * @param variables
+     *            the names of the variables the control is allowed to depend on
+     */
+    default public boolean dependsOnlyOn(Evaluable[] args, Set<String> variables) {
+        return false;
+    }
+
+    /**
+     * Computes the set of variables available in the body of a control which binds the given variables, for use in
+     * {@link #dependsOnlyOn(Evaluable[], Set)}. Returns null if one of them shadows the "value" or "cell" variables,
+     * in which case "cell.value" and "value" can no longer be assumed to coincide.
+     */
+    static public Set<String> scopeWith(Set<String> variables, Evaluable... boundVariables) {
+        Set<String> scope = new HashSet<>(variables);
+        for (Evaluable variable : boundVariables) {
+            String name = ((VariableExpr) variable).getName();
+            if ("value".equals(name) || "cell".equals(name)) {
+                return null;
+            }
+            scope.add(name);
+        }
+        return scope;
+    }
 }
@@ -35,6 +35,7 @@ package com.google.refine.grel;
 
 import java.util.Properties;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -58,4 +59,14 @@ public interface Function {
 
     @JsonProperty("returns")
     public String getReturns();
+
+    /**
+     * Returns true if the result of this function is fully determined by its arguments: it does not read the bindings,
+     * is deterministic and has no side effects. Functions which do not satisfy this must override this method,
+     * otherwise their results might be cached across rows.
+     */
+    @JsonIgnore
+    default public boolean isPure() {
+        return true;
+    }
 }
@@ -38,6 +38,7 @@ import java.util.List;
 import java.util.regex.Pattern;
 
 import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionProfile;
 import com.google.refine.expr.ParsingException;
 import com.google.refine.expr.functions.arrays.ArgsToArray;
 import com.google.refine.grel.Scanner.NumberToken;
@@ -56,12 +57,26 @@ public class Parser {
     protected Scanner _scanner;
     protected Token _token;
     protected Evaluable _root;
+    protected ExpressionProfile _profile;
 
     public Parser(String s) throws ParsingException {
         this(s, 0, s.length());
     }
 
+    /**
+     * Parses an expression whose function, control, operator and field accessor calls are instrumented to record their
+     * evaluation costs in the given profile.
+     */
+    public Parser(String s, ExpressionProfile profile) throws ParsingException {
+        this(s, 0, s.length(), profile);
+    }
+
     public Parser(String s, int from, int to) throws ParsingException {
+        this(s, from, to, null);
+    }
+
+    public Parser(String s, int from, int to, ExpressionProfile profile) throws ParsingException {
+        _profile = profile;
         _scanner = new Scanner(s, from, to);
         _token = _scanner.next(true);
 
@@ -72,6 +87,10 @@ public class Parser {
         return _root;
     }
 
+    protected Evaluable profiled(Evaluable node) {
+        return _profile != null ? _profile.instrument(node) : node;
+    }
+
     protected void next(boolean regexPossible) {
         _token = _scanner.next(regexPossible);
     }
@@ -100,7 +119,7 @@ public class Parser {
 
             Evaluable sub2 = parseSubExpression();
 
-            sub = new OperatorCallExpr(new Evaluable[] { sub, sub2 }, op);
+            sub = profiled(new OperatorCallExpr(new Evaluable[] { sub, sub2 }, op));
         }
 
         return sub;
@@ -122,7 +141,7 @@ public class Parser {
 
             Evaluable sub2 = parseTerm();
 
-            sub = new OperatorCallExpr(new Evaluable[] { sub, sub2 }, op);
+            sub = profiled(new OperatorCallExpr(new Evaluable[] { sub, sub2 }, op));
         }
 
         return sub;
@@ -144,7 +163,7 @@ public class Parser {
 
             Evaluable factor2 = parseFactor();
 
-            factor = new OperatorCallExpr(new Evaluable[] { factor, factor2 }, op);
+            factor = profiled(new OperatorCallExpr(new Evaluable[] { factor, factor2 }, op));
         }
 
         return factor;
@@ -223,9 +242,9 @@ public class Parser {
                     if (errorMessage != null) {
                         throw makeException(errorMessage);
                     }
-                    eval = new ControlCallExpr(argsA, c);
+                    eval = profiled(new ControlCallExpr(argsA, c));
                 } else {
-                    eval = new FunctionCallExpr(makeArray(args), f);
+                    eval = profiled(new FunctionCallExpr(makeArray(args), f));
                 }
             }
         } else if (_token.type == TokenType.Delimiter && _token.text.equals("(")) {
@@ -243,7 +262,7 @@ public class Parser {
 
             List<Evaluable> args = parseExpressionList("]");
 
-            eval = new FunctionCallExpr(makeArray(args), new ArgsToArray());
+            eval = profiled(new FunctionCallExpr(makeArray(args), new ArgsToArray()));
         } else {
             throw makeException("Missing number, string, identifier, regex, or parenthesized expression");
         }
@@ -272,9 +291,9 @@ public class Parser {
                     List<Evaluable> args = parseExpressionList(")");
                     args.add(0, eval);
 
-                    eval = new FunctionCallExpr(makeArray(args), f);
+                    eval = profiled(new FunctionCallExpr(makeArray(args), f));
                 } else {
-                    eval = new FieldAccessorExpr(eval, identifier);
+                    eval = profiled(new FieldAccessorExpr(eval, identifier));
                 }
             } else if (_token.type == TokenType.Delimiter && _token.text.equals("[")) {
                 next(true); // swallow [
@@ -282,7 +301,7 @@ public class Parser {
                 List<Evaluable> args = parseExpressionList("]");
                 args.add(0, eval);
 
-                eval = new FunctionCallExpr(makeArray(args), ControlFunctionRegistry.getFunction("get"));
+                eval = profiled(new FunctionCallExpr(makeArray(args), ControlFunctionRegistry.getFunction("get")));
             } else {
                 break;
             }
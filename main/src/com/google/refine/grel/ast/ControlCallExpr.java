@@ -34,6 +34,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.grel.ast;
 
 import java.util.Properties;
+import java.util.Set;
 
 import com.google.refine.expr.EvalError;
 import com.google.refine.expr.Evaluable;
@@ -61,6 +62,11 @@ public class ControlCallExpr implements Evaluable {
         }
     }
 
+    @Override
+    public boolean dependsOnlyOn(Set<String> variables) {
+        return _control.dependsOnlyOn(_args, variables);
+    }
+
     @Override
     public String toString() {
         StringBuffer sb = new StringBuffer();
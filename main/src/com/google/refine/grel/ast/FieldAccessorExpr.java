@@ -34,6 +34,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.grel.ast;
 
 import java.util.Properties;
+import java.util.Set;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -74,6 +75,15 @@ public class FieldAccessorExpr implements Evaluable {
         }
     }
 
+    @Override
+    public boolean dependsOnlyOn(Set<String> variables) {
+        if (_inner instanceof VariableExpr && "cell".equals(((VariableExpr) _inner).getName()) && "value".equals(_fieldName)) {
+            // cell.value is always bound to the same value as the "value" variable
+            return variables.contains("value");
+        }
+        return _inner.dependsOnlyOn(variables);
+    }
+
     @Override
     public String toString() {
         return _inner.toString() + "." + _fieldName;
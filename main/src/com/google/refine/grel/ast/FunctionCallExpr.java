@@ -34,6 +34,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.grel.ast;
 
 import java.util.Properties;
+import java.util.Set;
 
 import com.google.refine.expr.EvalError;
 import com.google.refine.expr.Evaluable;
@@ -72,6 +73,19 @@ public class FunctionCallExpr implements Evaluable {
         }
     }
 
+    @Override
+    public boolean dependsOnlyOn(Set<String> variables) {
+        if (!_function.isPure()) {
+            return false;
+        }
+        for (Evaluable ev : _args) {
+            if (!ev.dependsOnlyOn(variables)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public String toString() {
         StringBuffer sb = new StringBuffer();
@@ -34,6 +34,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.grel.ast;
 
 import java.util.Properties;
+import java.util.Set;
 
 import com.fasterxml.jackson.databind.node.TextNode;
 
@@ -55,6 +56,11 @@ public class LiteralExpr implements Evaluable {
         return _value;
     }
 
+    @Override
+    public boolean dependsOnlyOn(Set<String> variables) {
+        return true;
+    }
+
     @Override
     public String toString() {
         return _value instanceof String ? new TextNode((String) _value).toString() : _value.toString();
@@ -35,6 +35,7 @@ package com.google.refine.grel.ast;
 
 import java.text.Collator;
 import java.util.Properties;
+import java.util.Set;
 
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.ExpressionUtils;
@@ -197,6 +198,16 @@ public class OperatorCallExpr implements Evaluable {
         return null;
     }
 
+    @Override
+    public boolean dependsOnlyOn(Set<String> variables) {
+        for (Evaluable ev : _args) {
+            if (!ev.dependsOnlyOn(variables)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public String toString() {
         StringBuffer sb = new StringBuffer();
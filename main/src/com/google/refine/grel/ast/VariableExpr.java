@@ -34,6 +34,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.grel.ast;
 
 import java.util.Properties;
+import java.util.Set;
 
 import com.google.refine.expr.Evaluable;
 
@@ -57,6 +58,11 @@ public class VariableExpr implements Evaluable {
         return bindings.get(_name);
     }
 
+    @Override
+    public boolean dependsOnlyOn(Set<String> variables) {
+        return variables.contains(_name);
+    }
+
     @Override
     public String toString() {
         return _name;
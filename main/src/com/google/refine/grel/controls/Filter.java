@@ -37,6 +37,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 import com.fasterxml.jackson.databind.node.ArrayNode;
 
@@ -143,6 +144,12 @@ public class Filter implements Control {
         }
     }
 
+    @Override
+    public boolean dependsOnlyOn(Evaluable[] args, Set<String> variables) {
+        Set<String> scope = Control.scopeWith(variables, args[1]);
+        return scope != null && args[0].dependsOnlyOn(variables) && args[2].dependsOnlyOn(scope);
+    }
+
     @Override
     public String getDescription() {
         // evaluates expression test which should return a boolean. If the boolean is true, pushes v onto the result
@@ -37,6 +37,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -156,6 +157,12 @@ public class ForEach implements Control {
         }
     }
 
+    @Override
+    public boolean dependsOnlyOn(Evaluable[] args, Set<String> variables) {
+        Set<String> scope = Control.scopeWith(variables, args[1]);
+        return scope != null && args[0].dependsOnlyOn(variables) && args[2].dependsOnlyOn(scope);
+    }
+
     @Override
     public String getDescription() {
         // evaluates expression e, and pushes the result onto the result array.";
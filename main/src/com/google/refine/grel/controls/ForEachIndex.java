@@ -38,6 +38,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -168,6 +169,12 @@ public class ForEachIndex implements Control {
         }
     }
 
+    @Override
+    public boolean dependsOnlyOn(Evaluable[] args, Set<String> variables) {
+        Set<String> scope = Control.scopeWith(variables, args[1], args[2]);
+        return scope != null && args[0].dependsOnlyOn(variables) && args[3].dependsOnlyOn(scope);
+    }
+
     @Override
     public String getDescription() {
         // its value to variable name v, evaluates expression e, and pushes the result onto the result array.";
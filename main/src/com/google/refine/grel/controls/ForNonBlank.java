@@ -34,6 +34,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.grel.controls;
 
 import java.util.Properties;
+import java.util.Set;
 
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.ExpressionUtils;
@@ -83,6 +84,13 @@ public class ForNonBlank implements Control {
         }
     }
 
+    @Override
+    public boolean dependsOnlyOn(Evaluable[] args, Set<String> variables) {
+        Set<String> scope = Control.scopeWith(variables, args[1]);
+        return scope != null && args[0].dependsOnlyOn(variables) && args[2].dependsOnlyOn(scope)
+                && args[3].dependsOnlyOn(variables);
+    }
+
     @Override
     public String getDescription() {
         // eNonBlank and returns the result. " + "Otherwise (if o evaluates to blank), evaluates expression eBlank and
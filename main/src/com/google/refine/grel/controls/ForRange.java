@@ -36,6 +36,7 @@ package com.google.refine.grel.controls;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 import com.google.refine.expr.EvalError;
 import com.google.refine.expr.Evaluable;
@@ -152,6 +153,13 @@ public class ForRange implements Control {
         }
     }
 
+    @Override
+    public boolean dependsOnlyOn(Evaluable[] args, Set<String> variables) {
+        Set<String> scope = Control.scopeWith(variables, args[3]);
+        return scope != null && args[0].dependsOnlyOn(variables) && args[1].dependsOnlyOn(variables)
+                && args[2].dependsOnlyOn(variables) && args[4].dependsOnlyOn(scope);
+    }
+
     @Override
     public String getDescription() {
         // \"to\". At each iteration, evaluates expression e, and pushes the result onto the result array.";
@@ -34,6 +34,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.grel.controls;
 
 import java.util.Properties;
+import java.util.Set;
 
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.ExpressionUtils;
@@ -64,6 +65,11 @@ public class If implements Control {
         }
     }
 
+    @Override
+    public boolean dependsOnlyOn(Evaluable[] args, Set<String> variables) {
+        return args[0].dependsOnlyOn(variables) && args[1].dependsOnlyOn(variables) && args[2].dependsOnlyOn(variables);
+    }
+
     @Override
     public String getDescription() {
         // "Otherwise, evaluates expression eFalse and returns that result instead.";
@@ -34,6 +34,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.grel.controls;
 
 import java.util.Properties;
+import java.util.Set;
 
 import com.google.refine.expr.Evaluable;
 import com.google.refine.grel.Control;
@@ -80,6 +81,12 @@ public class With implements Control {
         }
     }
 
+    @Override
+    public boolean dependsOnlyOn(Evaluable[] args, Set<String> variables) {
+        Set<String> scope = Control.scopeWith(variables, args[1]);
+        return scope != null && args[0].dependsOnlyOn(variables) && args[2].dependsOnlyOn(scope);
+    }
+
     @Override
     public String getDescription() {
         return ControlDescription.with_desc();
@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.history;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import com.google.refine.util.Pool;
+
+/**
+ * A change which can also be saved in a compact binary form, used for the change files of the history when the change
+ * is the top-level change of a history entry. Such changes must also provide a static
+ * {@code load(DataInputStream, Pool)} method reading what {@link #save(DataOutputStream, Pool)} writes. A subclass
+ * which does not declare both methods itself is saved in the textual form, see {@link History#hasBinaryForm(Change)}.
+ * The textual form remains used when the change is nested in another one, and to read change files saved by older
+ * versions.
+ */
+public interface BinaryChange extends Change {
+
+    /**
+     * Writes the change. Recons of the cells are added to the pool, which is saved alongside the change.
+     */
+    public void save(DataOutputStream out, Pool pool) throws IOException;
+}
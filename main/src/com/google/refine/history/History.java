@@ -33,6 +33,8 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.history;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -41,17 +43,22 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.refine.ProjectManager;
 import com.google.refine.ProjectMetadata;
 import com.google.refine.RefineServlet;
 import com.google.refine.model.Project;
+import com.google.refine.preference.PreferenceStore;
 import com.google.refine.util.Pool;
 
 /**
@@ -59,9 +66,21 @@ import com.google.refine.util.Pool;
  * tracked directly but through a history entry. The history entry stores only the metadata, while the change object
  * stores the actual data, thus the history entries are much smaller and can be kept in memory, while the change objects
  * are only loaded into memory on demand.
+ * <p>
+ * Once applied, changes are saved and stay in memory for quick undo and redo, but only for the entries closest to the
+ * current state: at most {@link #RESIDENT_CHANGES_PREFERENCE} changes, taking at most
+ * {@link #RESIDENT_CHANGES_MB_PREFERENCE} megabytes as estimated from their saved size. Other changes are dropped from
+ * memory and loaded again if they are undone or redone.
  */
 public class History {
 
+    final static Logger logger = LoggerFactory.getLogger("history");
+
+    static final public String RESIDENT_CHANGES_PREFERENCE = "history.residentChanges";
+    static final public String RESIDENT_CHANGES_MB_PREFERENCE = "history.residentChangesMB";
+    static final public int DEFAULT_RESIDENT_CHANGES = 10;
+    static final public int DEFAULT_RESIDENT_CHANGES_MB = 100;
+
     static public Change readOneChange(InputStream in, Pool pool) throws Exception {
         LineNumberReader reader = new LineNumberReader(new InputStreamReader(in, "UTF-8"));
         try {
@@ -108,6 +127,47 @@ public class History {
         change.save(writer, options);
     }
 
+    /**
+     * @return whether the change can be saved in its binary form. The class of the change itself must declare the
+     *         binary methods: a subclass inheriting them would be saved and loaded as its superclass, losing its own
+     *         fields.
+     */
+    static public boolean hasBinaryForm(Change change) {
+        if (!(change instanceof BinaryChange)) {
+            return false;
+        }
+        try {
+            Class<?> klass = change.getClass();
+            klass.getDeclaredMethod("save", DataOutputStream.class, Pool.class);
+            Method load = klass.getDeclaredMethod("load", DataInputStream.class, Pool.class);
+            return Modifier.isStatic(load.getModifiers());
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes a change in its binary form, preceded by the version and the class of the change.
+     */
+    static public void writeOneBinaryChange(DataOutputStream out, BinaryChange change, Pool pool) throws IOException {
+        out.writeUTF(RefineServlet.VERSION);
+        out.writeUTF(change.getClass().getName());
+
+        change.save(out, pool);
+    }
+
+    static public Change readOneBinaryChange(DataInputStream in, Pool pool) throws Exception {
+        /* String version = */ in.readUTF();
+
+        String className = in.readUTF();
+        Class<? extends Change> klass = getChangeClass(className);
+
+        // the class must declare the method itself, see hasBinaryForm
+        Method load = klass.getDeclaredMethod("load", DataInputStream.class, Pool.class);
+
+        return (Change) load.invoke(null, in, pool);
+    }
+
     @SuppressWarnings("unchecked")
     static public Class<? extends Change> getChangeClass(String className) throws ClassNotFoundException {
         return (Class<? extends Change>) RefineServlet.getClass(className);
@@ -119,6 +179,10 @@ public class History {
     @JsonProperty("future")
     protected List<HistoryEntry> _futureEntries; // undone changes, can be redone
 
+    // number and estimated size of the changes kept in memory
+    protected int _residentChanges = 0;
+    protected long _residentChangesSize = 0;
+
     public History(Project project) {
         _projectID = project.id;
         _pastEntries = new ArrayList<HistoryEntry>();
@@ -153,6 +217,8 @@ public class History {
                         e.printStackTrace();
                     }
                 }
+
+                releaseChanges();
             }
         }
     }
@@ -248,6 +314,7 @@ public class History {
             _pastEntries.remove(_pastEntries.size() - 1);
             _futureEntries.add(0, entry);
         }
+        releaseChanges();
     }
 
     protected void redo(int times) {
@@ -264,6 +331,80 @@ public class History {
             _pastEntries.add(entry);
             _futureEntries.remove(0);
         }
+        releaseChanges();
+    }
+
+    /**
+     * Drops from memory the changes which are not among the closest to the current state, within the limits set by
+     * the preferences.
+     */
+    protected void releaseChanges() {
+        int maxChanges = getIntPreference(RESIDENT_CHANGES_PREFERENCE, DEFAULT_RESIDENT_CHANGES);
+        long maxSize = getIntPreference(RESIDENT_CHANGES_MB_PREFERENCE, DEFAULT_RESIDENT_CHANGES_MB) * 1024L * 1024L;
+
+        int residentChanges = 0;
+        long residentChangesSize = 0;
+        int released = 0;
+        // alternate between the entries to undo and to redo, from the closest ones
+        for (int i = 0; i < Math.max(_pastEntries.size(), _futureEntries.size()); i++) {
+            HistoryEntry[] entries = {
+                    i < _pastEntries.size() ? _pastEntries.get(_pastEntries.size() - 1 - i) : null,
+                    i < _futureEntries.size() ? _futureEntries.get(i) : null
+            };
+            for (HistoryEntry entry : entries) {
+                if (entry == null || entry.getChange() == null) {
+                    continue;
+                }
+                long size = entry.getChangeSize();
+                if (residentChanges < maxChanges && residentChangesSize + size <= maxSize) {
+                    residentChanges++;
+                    residentChangesSize += size;
+                } else if (entry.releaseChange()) {
+                    released++;
+                } else {
+                    // the change cannot be loaded again, so it has to stay in memory
+                    residentChanges++;
+                    residentChangesSize += size;
+                }
+            }
+        }
+        _residentChanges = residentChanges;
+        _residentChangesSize = residentChangesSize;
+        if (released > 0) {
+            logger.debug("Released {} changes of project {}, {} changes still in memory ({} bytes)",
+                    released, _projectID, residentChanges, residentChangesSize);
+        }
+    }
+
+    protected int getIntPreference(String name, int defaultValue) {
+        PreferenceStore preferences = ProjectManager.singleton.getPreferenceStore();
+        Object v = preferences != null ? preferences.get(name) : null;
+        if (v instanceof Number) {
+            return ((Number) v).intValue();
+        } else if (v != null) {
+            try {
+                return Integer.parseInt(v.toString());
+            } catch (NumberFormatException e) {
+                // ignore
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * @return the number of changes currently kept in memory
+     */
+    @JsonIgnore
+    synchronized public int getResidentChanges() {
+        return _residentChanges;
+    }
+
+    /**
+     * @return the estimated size in bytes of the changes currently kept in memory
+     */
+    @JsonIgnore
+    synchronized public long getResidentChangesSize() {
+        return _residentChangesSize;
     }
 
     /*
@@ -84,6 +84,10 @@ public class HistoryEntry {
     @JsonIgnore
     private transient Change _change;
 
+    // estimated size of the change in memory, in bytes, or 0 if unknown
+    @JsonIgnore
+    private transient volatile long _changeSize;
+
     private final static String OPERATION = "operation";
 
     public void setChange(Change _change) {
@@ -95,6 +99,31 @@ public class HistoryEntry {
         return _change;
     }
 
+    /**
+     * Records the estimated size of the change in memory, for instance the size of its serialization.
+     */
+    public void setChangeSize(long changeSize) {
+        _changeSize = changeSize;
+    }
+
+    @JsonIgnore
+    public long getChangeSize() {
+        return _changeSize;
+    }
+
+    /**
+     * Drops the change from memory if the history entry manager can load it again when it is needed.
+     * 
+     * @return whether the change was dropped
+     */
+    public boolean releaseChange() {
+        if (_change != null && _manager != null && _manager.isChangeSaved(this)) {
+            _change = null;
+            return true;
+        }
+        return false;
+    }
+
     static public long allocateID() {
         return Math.round(Math.random() * 1000000) + System.currentTimeMillis();
     }
@@ -154,7 +183,10 @@ public class HistoryEntry {
             getChange().apply(project);
 
             // When a change is applied, it can hang on to old data (in order to be able
-            // to revert later). Hence, we need to save the change out.
+            // to revert later). Hence, we need to save the change out. If the manager
+            // fails to do so right away, the change is reverted. If it saves it in the
+            // background, a failure leaves no change file behind: the change is not
+            // considered saved and stays in memory.
 
             try {
                 _manager.saveChange(this);
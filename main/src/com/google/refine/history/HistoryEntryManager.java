@@ -45,4 +45,12 @@ public interface HistoryEntryManager {
     public void save(HistoryEntry historyEntry, Writer writer, Properties options);
 
     public void delete(HistoryEntry historyEntry);
+
+    /**
+     * Whether the change of a history entry has been saved, so that it can be dropped from memory and loaded again
+     * with {@link #loadChange(HistoryEntry)} when needed.
+     */
+    public default boolean isChangeSaved(HistoryEntry historyEntry) {
+        return false;
+    }
 }
@@ -35,6 +35,7 @@ package com.google.refine.importers;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -43,6 +44,7 @@ import com.google.common.base.CharMatcher;
 
 import com.google.refine.ProjectMetadata;
 import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.expr.util.BulkDateParser;
 import com.google.refine.importing.ImportingJob;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
@@ -52,6 +54,11 @@ import com.google.refine.util.JSONUtilities;
 
 abstract public class TabularImportingParserBase extends ImportingParserBase {
 
+    /**
+     * Number of values of each column sampled to infer date formats when the "guessDateFormats" option is set.
+     */
+    static final public int DATE_SAMPLE_SIZE = 1000;
+
     static public interface TableDataReader {
 
         public List<Object> getNextRowOfCells() throws IOException;
@@ -126,6 +133,7 @@ abstract public class TabularImportingParserBase extends ImportingParserBase {
         }
 
         boolean guessCellValueTypes = JSONUtilities.getBoolean(options, "guessCellValueTypes", false);
+        boolean guessDateFormats = JSONUtilities.getBoolean(options, "guessDateFormats", false);
 
         boolean storeBlankRows = JSONUtilities.getBoolean(options, "storeBlankRows", true);
         boolean storeBlankCellsAsNulls = JSONUtilities.getBoolean(options, "storeBlankCellsAsNulls", true);
@@ -136,6 +144,7 @@ abstract public class TabularImportingParserBase extends ImportingParserBase {
 
         List<Object> cells = null;
         int rowsWithData = 0;
+        int firstRowIndex = project.rows.size();
 
         try {
             while (!job.canceled && (cells = reader.getNextRowOfCells()) != null) {
@@ -216,5 +225,45 @@ abstract public class TabularImportingParserBase extends ImportingParserBase {
         } catch (IOException e) {
             exceptions.add(e);
         }
+
+        if (guessDateFormats) {
+            parseDateColumns(project, firstRowIndex);
+        }
+    }
+
+    /**
+     * Converts to dates the string cells of the columns which mostly contain dates, in the rows starting at the given
+     * index. The date formats are inferred separately for each column, from a sample of its values.
+     */
+    static protected void parseDateColumns(Project project, int firstRowIndex) {
+        List<Row> rows = project.rows.subList(firstRowIndex, project.rows.size());
+        for (Column column : project.columnModel.columns) {
+            int cellIndex = column.getCellIndex();
+            List<String> sample = BulkDateParser.sampleColumn(rows, cellIndex, DATE_SAMPLE_SIZE);
+            BulkDateParser parser = new BulkDateParser(sample, false);
+            if (parser.getPatterns().isEmpty()) {
+                continue;
+            }
+
+            int parsed = 0;
+            for (String value : sample) {
+                if (parser.parse(value) != null) {
+                    parsed++;
+                }
+            }
+            if (2 * parsed < sample.size()) {
+                continue;
+            }
+
+            for (Row row : rows) {
+                Cell cell = row.getCell(cellIndex);
+                if (cell != null && cell.value instanceof String) {
+                    OffsetDateTime date = parser.parse((String) cell.value);
+                    if (date != null) {
+                        row.setCell(cellIndex, new Cell(date, cell.recon));
+                    }
+                }
+            }
+        }
     }
 }
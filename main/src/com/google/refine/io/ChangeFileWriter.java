@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes and deletes the change files of a workspace in the background, so that applying or undoing an operation does
+ * not wait for the disk.
+ * <p>
+ * Tasks run one at a time on a single thread, in the order they were submitted: a file is never deleted before it has
+ * been written, and never read while it is being written, since readers can {@link #await(File)} the pending task on
+ * a file first. At most {@link #MAX_PENDING_TASKS} tasks can be pending: submitting more blocks until some of them are
+ * done, so that a burst of large changes cannot pile up in memory waiting for the disk.
+ */
+public class ChangeFileWriter {
+
+    final static Logger logger = LoggerFactory.getLogger("ChangeFileWriter");
+
+    static final public int MAX_PENDING_TASKS = 16;
+
+    public interface FileTask {
+
+        public void run(File file) throws Exception;
+    }
+
+    // the last task submitted for each file which is not done yet
+    final protected Map<File, CompletableFuture<Void>> _pending = new ConcurrentHashMap<>();
+    // the files whose last task failed
+    final protected Set<File> _failed = ConcurrentHashMap.newKeySet();
+    final protected Semaphore _slots = new Semaphore(MAX_PENDING_TASKS);
+    protected ExecutorService _executor;
+
+    /**
+     * Runs a task on a file once all the tasks submitted before it are done. Blocks while too many tasks are pending.
+     * Errors are logged and recorded until a later task on the same file succeeds, see {@link #hasFailed(File)}.
+     */
+    public void submit(File file, FileTask task) {
+        // not interruptible: a canceled process may still be committing the results it got so far
+        _slots.acquireUninterruptibly();
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        _pending.put(file, future);
+        try {
+            getExecutor().execute(() -> {
+                try {
+                    task.run(file);
+                    _failed.remove(file);
+                } catch (Exception e) {
+                    _failed.add(file);
+                    logger.error("Failed to write " + file.getAbsolutePath(), e);
+                } finally {
+                    _pending.remove(file, future);
+                    _slots.release();
+                    future.complete(null);
+                }
+            });
+        } catch (RuntimeException e) {
+            _pending.remove(file, future);
+            _slots.release();
+            future.complete(null);
+            throw e;
+        }
+    }
+
+    /**
+     * @return whether a task submitted for this file is not done yet
+     */
+    public boolean isPending(File file) {
+        return _pending.containsKey(file);
+    }
+
+    /**
+     * @return whether the last task done on this file failed, in which case the file cannot be relied upon
+     */
+    public boolean hasFailed(File file) {
+        return _failed.contains(file);
+    }
+
+    /**
+     * Waits until the tasks submitted for this file are done.
+     */
+    public void await(File file) {
+        CompletableFuture<Void> future = _pending.get(file);
+        if (future != null) {
+            join(future);
+        }
+    }
+
+    /**
+     * Waits until all the tasks submitted so far are done.
+     */
+    public void flush() {
+        ExecutorService executor;
+        synchronized (this) {
+            executor = _executor;
+        }
+        if (executor != null && !executor.isShutdown()) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            executor.execute(() -> future.complete(null));
+            join(future);
+        }
+    }
+
+    /**
+     * Runs the pending tasks and stops the background thread. Tasks submitted afterwards start a new one.
+     */
+    public synchronized void shutdown() {
+        if (_executor != null) {
+            _executor.shutdown();
+            try {
+                if (!_executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    logger.warn("Some change files were still being written after one minute");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            _executor = null;
+        }
+    }
+
+    protected synchronized ExecutorService getExecutor() {
+        if (_executor == null) {
+            _executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "change-file-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return _executor;
+    }
+
+    protected void join(CompletableFuture<Void> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // tasks report their own errors
+        }
+    }
+}
@@ -33,30 +33,76 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.io;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Properties;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
 
+import org.apache.commons.io.output.CloseShieldOutputStream;
+
 import com.google.refine.ProjectManager;
+import com.google.refine.history.BinaryChange;
+import com.google.refine.history.Change;
 import com.google.refine.history.History;
 import com.google.refine.history.HistoryEntry;
 import com.google.refine.history.HistoryEntryManager;
+import com.google.refine.preference.PreferenceStore;
 import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.Pool;
 
+/**
+ * Stores the change of each history entry in its own zip file, in the history directory of the project.
+ * <p>
+ * When given a {@link ChangeFileWriter}, change files are written and deleted in the background, unless the
+ * {@link #DURABLE_CHANGES_PREFERENCE} preference is set: changes are then written synchronously and forced to the disk
+ * before the operation which made them returns.
+ */
 public class FileHistoryEntryManager implements HistoryEntryManager {
 
+    static final public String DURABLE_CHANGES_PREFERENCE = "history.durableChanges";
+
+    static final String CHANGE_ENTRY = "change.txt";
+    static final String BINARY_CHANGE_ENTRY = "change.bin";
+
+    final protected ChangeFileWriter _writer;
+
+    public FileHistoryEntryManager() {
+        this(null);
+    }
+
+    public FileHistoryEntryManager(ChangeFileWriter writer) {
+        _writer = writer;
+    }
+
     @Override
     public void delete(HistoryEntry historyEntry) {
         File file = getChangeFile(historyEntry);
-        if (file.exists()) {
-            file.delete();
+        if (_writer != null && !isDurable()) {
+            _writer.submit(file, f -> {
+                if (f.exists()) {
+                    f.delete();
+                }
+            });
+        } else {
+            if (_writer != null) {
+                _writer.await(file);
+            }
+            if (file.exists()) {
+                file.delete();
+            }
         }
     }
 
@@ -76,6 +122,9 @@ public class FileHistoryEntryManager implements HistoryEntryManager {
     @Override
     public void loadChange(HistoryEntry historyEntry) {
         File changeFile = getChangeFile(historyEntry);
+        if (_writer != null) {
+            _writer.await(changeFile);
+        }
 
         try {
             loadChange(historyEntry, changeFile);
@@ -94,8 +143,16 @@ public class FileHistoryEntryManager implements HistoryEntryManager {
                         zipFile.getInputStream(poolEntry)));
             } // else, it's a legacy project file
 
-            historyEntry.setChange(History.readOneChange(
-                    zipFile.getInputStream(zipFile.getEntry("change.txt")), pool));
+            ZipEntry changeEntry = zipFile.getEntry(BINARY_CHANGE_ENTRY);
+            if (changeEntry != null) {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(zipFile.getInputStream(changeEntry)));
+                historyEntry.setChange(History.readOneBinaryChange(in, pool));
+            } else {
+                // changes saved by older versions, or which do not have a binary form
+                changeEntry = zipFile.getEntry(CHANGE_ENTRY);
+                historyEntry.setChange(History.readOneChange(zipFile.getInputStream(changeEntry), pool));
+            }
+            historyEntry.setChangeSize(Math.max(0, changeEntry.getSize()));
         } finally {
             zipFile.close();
         }
@@ -104,24 +161,80 @@ public class FileHistoryEntryManager implements HistoryEntryManager {
     @Override
     public void saveChange(HistoryEntry historyEntry) throws Exception {
         File changeFile = getChangeFile(historyEntry);
-        if (!(changeFile.exists())) {
+        if (_writer != null && _writer.isPending(changeFile)) {
+            // a write or a deletion of this file is under way: wait for it to know whether the file exists
+            _writer.await(changeFile);
+        }
+        if (changeFile.exists()) {
+            return;
+        }
+        if (_writer != null && !isDurable()) {
+            // changes can share state with the project, such as rows which later changes modify, so the change is
+            // serialized right away, while the caller holds the lock of the project: only the disk I/O is left to the
+            // writer
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            writeChange(historyEntry, historyEntry.getChange(), bytes);
+            byte[] content = bytes.toByteArray();
+            _writer.submit(changeFile, f -> replaceFile(f, tempFile -> Files.write(tempFile.toPath(), content)));
+        } else {
             saveChange(historyEntry, changeFile);
         }
     }
 
     protected void saveChange(HistoryEntry historyEntry, File file) throws Exception {
-        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file));
+        boolean durable = isDurable();
+        Change change = historyEntry.getChange();
+        replaceFile(file, tempFile -> writeChange(historyEntry, change, tempFile, durable));
+    }
+
+    /**
+     * Writes a temporary file first and renames it to the given file once complete, so that the file never exists in
+     * a partial state. If the temporary file cannot be written, it is deleted and the error is thrown: the file is left
+     * as it was.
+     */
+    protected void replaceFile(File file, ChangeFileWriter.FileTask task) throws Exception {
+        File tempFile = new File(file.getParentFile(), file.getName() + ".temp");
+        try {
+            task.run(tempFile);
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            tempFile.delete();
+        }
+    }
+
+    protected void writeChange(HistoryEntry historyEntry, Change change, File file, boolean durable) throws Exception {
+        try (FileOutputStream fileOut = new FileOutputStream(file)) {
+            writeChange(historyEntry, change, CloseShieldOutputStream.wrap(fileOut));
+            if (durable) {
+                fileOut.getFD().sync();
+            }
+        }
+    }
+
+    /**
+     * Writes the change and its pool as a zip file, leaving the stream open.
+     */
+    protected void writeChange(HistoryEntry historyEntry, Change change, OutputStream stream) throws IOException {
+        ZipOutputStream out = new ZipOutputStream(stream);
         try {
             Pool pool = new Pool();
 
-            out.putNextEntry(new ZipEntry("change.txt"));
+            boolean binary = History.hasBinaryForm(change);
+            ZipEntry changeEntry = new ZipEntry(binary ? BINARY_CHANGE_ENTRY : CHANGE_ENTRY);
+            out.putNextEntry(changeEntry);
             try {
-                History.writeOneChange(out, historyEntry.getChange(), pool);
-            } catch (Exception e) {
-                e.printStackTrace();
+                if (binary) {
+                    DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(out));
+                    History.writeOneBinaryChange(dataOut, (BinaryChange) change, pool);
+                    dataOut.flush();
+                } else {
+                    History.writeOneChange(out, change, pool);
+                }
             } finally {
                 out.closeEntry();
             }
+            // the size of the entry is known once it is closed
+            historyEntry.setChangeSize(Math.max(0, changeEntry.getSize()));
 
             out.putNextEntry(new ZipEntry("pool.txt"));
             try {
@@ -134,6 +247,21 @@ public class FileHistoryEntryManager implements HistoryEntryManager {
         }
     }
 
+    @Override
+    public boolean isChangeSaved(HistoryEntry historyEntry) {
+        File changeFile = getChangeFile(historyEntry);
+        if (_writer != null && (_writer.isPending(changeFile) || _writer.hasFailed(changeFile))) {
+            return false;
+        }
+        return changeFile.exists();
+    }
+
+    protected boolean isDurable() {
+        PreferenceStore preferences = ProjectManager.singleton != null ? ProjectManager.singleton.getPreferenceStore() : null;
+        Object v = preferences != null ? preferences.get(DURABLE_CHANGES_PREFERENCE) : null;
+        return v != null && Boolean.parseBoolean(v.toString());
+    }
+
     protected File getChangeFile(HistoryEntry historyEntry) {
         return new File(getHistoryDir(historyEntry), historyEntry.id + ".change.zip");
     }
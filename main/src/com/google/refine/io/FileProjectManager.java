@@ -42,6 +42,7 @@ import java.io.OutputStream;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -59,6 +60,7 @@ import com.google.refine.ProjectManager;
 import com.google.refine.ProjectMetadata;
 import com.google.refine.history.HistoryEntryManager;
 import com.google.refine.model.Project;
+import com.google.refine.model.recon.ReconCache;
 import com.google.refine.preference.PreferenceStore;
 import com.google.refine.preference.TopList;
 import com.google.refine.util.LocaleUtils;
@@ -68,8 +70,23 @@ public class FileProjectManager extends ProjectManager {
 
     final static protected String PROJECT_DIR_SUFFIX = ".project";
 
+    static final public String RECON_CACHE_TTL_PREFERENCE = "reconciliation.cache.ttlDays";
+    static final public String RECON_CACHE_SIZE_PREFERENCE = "reconciliation.cache.maxMB";
+    static final public String URL_CACHE_TTL_PREFERENCE = "fetchUrls.cache.ttlHours";
+    static final public String URL_CACHE_SIZE_PREFERENCE = "fetchUrls.cache.maxMB";
+
     protected File _workspaceDir;
 
+    // writes the change files of all the projects of the workspace
+    final protected ChangeFileWriter _changeFileWriter = new ChangeFileWriter();
+
+    // reconciliation results of all the projects of the workspace, created on first use
+    final protected WorkspaceCache<ReconCache> _reconCache = new WorkspaceCache<>("recon-cache",
+            RECON_CACHE_TTL_PREFERENCE, 30, TimeUnit.DAYS, RECON_CACHE_SIZE_PREFERENCE, 100, ReconCache::new);
+    // responses fetched from URLs by all the projects of the workspace, created on first use
+    final protected WorkspaceCache<UrlResponseCache> _urlResponseCache = new WorkspaceCache<>("url-cache",
+            URL_CACHE_TTL_PREFERENCE, 24, TimeUnit.HOURS, URL_CACHE_SIZE_PREFERENCE, 200, UrlResponseCache::new);
+
     protected static boolean projectRemoved = false;
 
     final static Logger logger = LoggerFactory.getLogger("FileProjectManager");
@@ -182,6 +199,7 @@ public class FileProjectManager extends ProjectManager {
 
     @Override
     public void exportProject(long projectId, TarArchiveOutputStream tos) throws IOException {
+        _changeFileWriter.flush();
         File dir = this.getProjectDir(projectId);
         this.tarDir("", dir, tos);
     }
@@ -237,6 +255,8 @@ public class FileProjectManager extends ProjectManager {
 
     @Override
     protected void saveProject(Project project) throws IOException {
+        // the saved history must not refer to changes which are not on disk yet
+        _changeFileWriter.flush();
         ProjectUtilities.save(project);
     }
 
@@ -339,6 +359,7 @@ public class FileProjectManager extends ProjectManager {
             }
 
             removeProject(projectID);
+            _changeFileWriter.flush();
 
             File dir = getProjectDir(projectID);
             if (dir.exists()) {
@@ -437,7 +458,124 @@ public class FileProjectManager extends ProjectManager {
 
     @Override
     public HistoryEntryManager getHistoryEntryManager() {
-        return new FileHistoryEntryManager();
+        return new FileHistoryEntryManager(_changeFileWriter);
+    }
+
+    /**
+     * The cache is kept in the "recon-cache" directory of the workspace. Results expire after
+     * {@link #RECON_CACHE_TTL_PREFERENCE} days and the cache holds at most {@link #RECON_CACHE_SIZE_PREFERENCE}
+     * megabytes, 0 disabling it.
+     */
+    @Override
+    public ReconCache getReconCache() {
+        return _reconCache.get();
+    }
+
+    /**
+     * The cache is kept in the "url-cache" directory of the workspace. Responses expire after
+     * {@link #URL_CACHE_TTL_PREFERENCE} hours and the cache holds at most {@link #URL_CACHE_SIZE_PREFERENCE}
+     * megabytes, 0 disabling it.
+     */
+    @Override
+    public UrlResponseCache getUrlResponseCache() {
+        return _urlResponseCache.get();
+    }
+
+    protected interface CacheOpener<T> {
+
+        public T open(File dir, long ttlMillis, long maxBytes) throws IOException;
+    }
+
+    /**
+     * A cache shared by the projects of the workspace, opened on first use in a directory of the workspace with the
+     * time to live and the size given by preferences. A cache which fails to open is not tried again until the
+     * workspace is disposed.
+     */
+    protected class WorkspaceCache<T> {
+
+        final protected String _dirName;
+        final protected String _ttlPreference;
+        final protected long _defaultTtl;
+        final protected TimeUnit _ttlUnit;
+        final protected String _sizePreference;
+        final protected long _defaultMegabytes;
+        final protected CacheOpener<T> _opener;
+
+        protected volatile T _cache;
+        protected volatile boolean _failed;
+
+        protected WorkspaceCache(String dirName, String ttlPreference, long defaultTtl, TimeUnit ttlUnit,
+                String sizePreference, long defaultMegabytes, CacheOpener<T> opener) {
+            _dirName = dirName;
+            _ttlPreference = ttlPreference;
+            _defaultTtl = defaultTtl;
+            _ttlUnit = ttlUnit;
+            _sizePreference = sizePreference;
+            _defaultMegabytes = defaultMegabytes;
+            _opener = opener;
+        }
+
+        /**
+         * @return the cache, or null if it is disabled or could not be opened
+         */
+        public T get() {
+            T cache = _cache;
+            if (cache != null || _failed) {
+                return cache;
+            }
+            synchronized (this) {
+                if (_cache == null && !_failed) {
+                    long ttl = getLongPreference(_ttlPreference, _defaultTtl);
+                    long maxMegabytes = getLongPreference(_sizePreference, _defaultMegabytes);
+                    if (maxMegabytes <= 0) {
+                        return null;
+                    }
+                    try {
+                        _cache = _opener.open(new File(_workspaceDir, _dirName), _ttlUnit.toMillis(ttl),
+                                maxMegabytes * 1024 * 1024);
+                    } catch (IOException | RuntimeException e) {
+                        _failed = true;
+                        logger.warn("Failed to open the cache in " + _dirName + ", it is disabled", e);
+                    }
+                }
+                return _cache;
+            }
+        }
+
+        /**
+         * Forgets the cache, so that it is opened again on next use.
+         * 
+         * @return the cache which was open, if any
+         */
+        public synchronized T reset() {
+            T cache = _cache;
+            _cache = null;
+            _failed = false;
+            return cache;
+        }
+    }
+
+    protected long getLongPreference(String name, long defaultValue) {
+        Object v = getPreferenceStore().get(name);
+        if (v != null) {
+            try {
+                return Long.parseLong(v.toString());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid value for preference {}: {}", name, v);
+            }
+        }
+        return defaultValue;
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        _changeFileWriter.shutdown();
+        ReconCache reconCache = _reconCache.reset();
+        if (reconCache != null) {
+            reconCache.close();
+        }
+        _urlResponseCache.reset();
     }
 
     public static void gzipTarToOutputStream(Project project, OutputStream os) throws IOException {
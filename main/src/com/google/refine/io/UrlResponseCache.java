@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Responses fetched from URLs, kept on disk in the workspace so that fetching the same URLs again, for instance after
+ * undoing a column addition, does not hit the network.
+ * <p>
+ * Each response is stored in its own file, named after a hash of the request. Responses expire after
+ * {@link #getTtlMillis()} and the least recently used ones are deleted when the responses take more than
+ * {@link #getMaxBytes()}.
+ */
+public class UrlResponseCache {
+
+    final static Logger logger = LoggerFactory.getLogger("url-response-cache");
+
+    final protected File _dir;
+    final protected long _ttlMillis;
+    final protected long _maxBytes;
+    // file name to file size, from the least recently used file
+    final protected LinkedHashMap<String, Long> _files = new LinkedHashMap<>(16, 0.75f, true);
+    protected long _totalBytes = 0;
+    protected long _hits = 0;
+    protected long _misses = 0;
+
+    public UrlResponseCache(File dir, long ttlMillis, long maxBytes) {
+        _dir = dir;
+        _ttlMillis = ttlMillis;
+        _maxBytes = maxBytes;
+        _dir.mkdirs();
+
+        File[] files = _dir.listFiles();
+        if (files != null) {
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            for (File file : files) {
+                if (file.getName().endsWith(".temp")) {
+                    file.delete();
+                } else {
+                    _files.put(file.getName(), file.length());
+                    _totalBytes += file.length();
+                }
+            }
+        }
+    }
+
+    public long getTtlMillis() {
+        return _ttlMillis;
+    }
+
+    public long getMaxBytes() {
+        return _maxBytes;
+    }
+
+    /**
+     * @return the cached response to the request, or null if there is none or it has expired
+     */
+    public String get(String request) {
+        String name = getFileName(request);
+        File file = new File(_dir, name);
+        synchronized (this) {
+            if (_files.get(name) == null) {
+                _misses++;
+                return null;
+            }
+            if (file.lastModified() + _ttlMillis < System.currentTimeMillis()) {
+                remove(name);
+                _misses++;
+                return null;
+            }
+        }
+        try {
+            String response = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            synchronized (this) {
+                _hits++;
+            }
+            return response;
+        } catch (IOException e) {
+            // deleted in the meantime
+            synchronized (this) {
+                _misses++;
+            }
+            return null;
+        }
+    }
+
+    public void put(String request, String response) {
+        String name = getFileName(request);
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > _maxBytes / 2) {
+            return;
+        }
+        File file = new File(_dir, name);
+        try {
+            File tempFile = File.createTempFile(name, ".temp", _dir);
+            Files.write(tempFile.toPath(), bytes);
+            synchronized (this) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                Long previous = _files.put(name, (long) bytes.length);
+                _totalBytes += bytes.length - (previous != null ? previous : 0);
+                evict();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to cache the response to " + request, e);
+        }
+    }
+
+    public synchronized long getHits() {
+        return _hits;
+    }
+
+    public synchronized long getMisses() {
+        return _misses;
+    }
+
+    public synchronized int size() {
+        return _files.size();
+    }
+
+    protected void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = _files.entrySet().iterator();
+        while (_totalBytes > _maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            new File(_dir, entry.getKey()).delete();
+            _totalBytes -= entry.getValue();
+            iterator.remove();
+        }
+    }
+
+    protected void remove(String name) {
+        Long size = _files.remove(name);
+        if (size != null) {
+            new File(_dir, name).delete();
+            _totalBytes -= size;
+        }
+    }
+
+    static protected String getFileName(String request) {
+        return Hashing.sha256().hashString(request, StandardCharsets.UTF_8).toString();
+    }
+}
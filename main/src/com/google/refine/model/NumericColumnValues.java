@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import java.util.List;
+
+/**
+ * Numbers parsed from the string values of a numeric column, stored as primitives alongside the original cells so that
+ * {@code toNumber}, range facets and numeric sorting do not need to parse them again.
+ * <p>
+ * This is stored as a precompute of the column (see {@link Column#getPrecompute(String)}), so it is discarded as soon
+ * as the column changes. It is only built for columns detected as numeric, i.e. whose non-blank string values mostly
+ * parse as numbers. Strings are parsed the same way as the {@code toNumber} GREL function does.
+ */
+public class NumericColumnValues {
+
+    static final public String PRECOMPUTE_KEY = "numeric-values";
+
+    static final private byte NOT_PARSED = 0;
+    static final private byte LONG = 1;
+    static final private byte DOUBLE = 2;
+
+    /**
+     * Stored for columns which are not numeric, so that we do not attempt to parse them again.
+     */
+    static final private NumericColumnValues NOT_NUMERIC = new NumericColumnValues(new Object[0], new byte[0], new long[0]);
+
+    // the values the numbers were parsed from, as they were when computing them: changes which rewrite the list of
+    // rows, such as reordering them, do not clear the precomputes of the columns
+    final protected Object[] _parsedValues;
+    final protected byte[] _types;
+    // doubles are stored as their raw long bits
+    final protected long[] _values;
+
+    protected NumericColumnValues(Object[] parsedValues, byte[] types, long[] values) {
+        _parsedValues = parsedValues;
+        _types = types;
+        _values = values;
+    }
+
+    /**
+     * Returns the parsed numbers of a column if they have already been computed.
+     * 
+     * @return null if the numbers have not been computed or if the column is not numeric
+     */
+    static public NumericColumnValues get(Column column) {
+        Object precompute = column.getPrecompute(PRECOMPUTE_KEY);
+        return precompute == NOT_NUMERIC ? null : (NumericColumnValues) precompute;
+    }
+
+    /**
+     * Returns the parsed numbers of a column, parsing them if needed.
+     * 
+     * @return null if the column is not numeric
+     */
+    static public NumericColumnValues getOrCompute(Project project, Column column) {
+        Object precompute = column.getPrecompute(PRECOMPUTE_KEY);
+        if (precompute == null) {
+            precompute = compute(project.rows, column.getCellIndex());
+            column.setPrecompute(PRECOMPUTE_KEY, precompute);
+        }
+        return precompute == NOT_NUMERIC ? null : (NumericColumnValues) precompute;
+    }
+
+    static protected NumericColumnValues compute(List<Row> rows, int cellIndex) {
+        int rowCount = rows.size();
+        Object[] parsedValues = new Object[rowCount];
+        byte[] types = new byte[rowCount];
+        long[] values = new long[rowCount];
+        int stringCount = 0;
+        int parsedCount = 0;
+        for (int i = 0; i < rowCount; i++) {
+            Object value = rows.get(i).getCellValue(cellIndex);
+            if (!(value instanceof String) || ((String) value).isEmpty()) {
+                continue;
+            }
+            stringCount++;
+            parsedValues[i] = value;
+            String s = (String) value;
+            if (!s.contains(".")) {
+                try {
+                    values[i] = Long.parseLong(s, 10);
+                    types[i] = LONG;
+                    parsedCount++;
+                    continue;
+                } catch (NumberFormatException e) {
+                }
+            }
+            try {
+                values[i] = Double.doubleToRawLongBits(Double.parseDouble(s));
+                types[i] = DOUBLE;
+                parsedCount++;
+            } catch (NumberFormatException e) {
+            }
+        }
+        if (stringCount == 0 || 2 * parsedCount < stringCount) {
+            return NOT_NUMERIC;
+        }
+        return new NumericColumnValues(parsedValues, types, values);
+    }
+
+    /**
+     * Returns the number parsed from a value of this column.
+     * 
+     * @param rowIndex
+     *            the index of the row the value comes from
+     * @param value
+     *            the value, which must be the very object the number was parsed from, not just an equal one. This
+     *            guards against values which were not read from the cell itself, and against rows which were moved or
+     *            replaced since the numbers were parsed.
+     * @return the parsed number, or null if it was not parsed from this value
+     */
+    public Number getNumber(int rowIndex, Object value) {
+        if (rowIndex < 0 || rowIndex >= _types.length || _types[rowIndex] == NOT_PARSED
+                || _parsedValues[rowIndex] != value) {
+            return null;
+        }
+        if (_types[rowIndex] == LONG) {
+            return _values[rowIndex];
+        } else {
+            return Double.longBitsToDouble(_values[rowIndex]);
+        }
+    }
+}
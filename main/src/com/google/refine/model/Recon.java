@@ -54,6 +54,10 @@ import com.google.refine.expr.HasFields;
 import com.google.refine.util.JsonViews;
 import com.google.refine.util.ParsingUtilities;
 
+/**
+ * The reconciliation state of a cell. A recon can be shared by many cells, so it should not be modified once it is
+ * in use: to change the judgment of a cell, give it a copy made with {@link #dup(long)} instead.
+ */
 @JsonFilter("reconCandidateFilter")
 public class Recon implements HasFields {
 
@@ -0,0 +1,334 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.model.changes;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.refine.expr.EvalError;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Recon;
+import com.google.refine.util.Pool;
+
+/**
+ * Compact binary encoding of the cells and row indices of changes, see {@link com.google.refine.history.BinaryChange}.
+ * <p>
+ * Cells are written as a column: first a dictionary of their distinct values and a table of their distinct recons,
+ * then one reference into each per cell, as variable-length integers. Recons are pooled like in the textual form, and
+ * cells sharing a recon still share it once loaded. Row indices are written as differences with the previous row,
+ * which are small when rows are in order.
+ */
+public class BinaryCells {
+
+    static final private byte STRING = 0;
+    static final private byte INTEGER = 1;
+    static final private byte LONG = 2;
+    static final private byte DOUBLE = 3;
+    static final private byte FLOAT = 4;
+    static final private byte BOOLEAN = 5;
+    static final private byte OFFSET_DATE_TIME = 6;
+    static final private byte LOCAL_DATE_TIME = 7;
+    static final private byte ERROR = 8;
+
+    private BinaryCells() {
+    }
+
+    static public void writeRows(DataOutputStream out, int[] rows) throws IOException {
+        writeVarInt(out, rows.length);
+        int previous = 0;
+        for (int row : rows) {
+            writeVarInt(out, zigZag(row - previous));
+            previous = row;
+        }
+    }
+
+    static public int[] readRows(DataInputStream in) throws IOException {
+        int[] rows = new int[readVarInt(in)];
+        int previous = 0;
+        for (int i = 0; i < rows.length; i++) {
+            previous += unZigZag(readVarInt(in));
+            rows[i] = previous;
+        }
+        return rows;
+    }
+
+    static public void writeCells(DataOutputStream out, Cell[] cells, Pool pool) throws IOException {
+        Map<Object, Integer> values = new HashMap<>();
+        List<Object> valueList = new ArrayList<>();
+        Map<Recon, Integer> recons = new IdentityHashMap<>();
+        List<Recon> reconList = new ArrayList<>();
+        int[] codes = new int[cells.length];
+        int[] reconRefs = new int[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            Cell cell = cells[i];
+            if (cell == null) {
+                continue;
+            }
+            int valueRef = 0;
+            if (cell.value != null) {
+                Object key = dictionaryKey(cell.value);
+                Integer index = values.get(key);
+                if (index == null) {
+                    index = valueList.size();
+                    values.put(key, index);
+                    valueList.add(cell.value);
+                }
+                valueRef = index + 1;
+            }
+            if (cell.recon != null) {
+                Integer index = recons.get(cell.recon);
+                if (index == null) {
+                    index = reconList.size();
+                    recons.put(cell.recon, index);
+                    reconList.add(cell.recon);
+                }
+                reconRefs[i] = index;
+            }
+            // 0 is a null cell, otherwise the value reference and whether there is a recon
+            codes[i] = 1 + (valueRef << 1) + (cell.recon != null ? 1 : 0);
+        }
+
+        writeVarInt(out, valueList.size());
+        for (Object value : valueList) {
+            writeValue(out, value);
+        }
+        writeVarInt(out, reconList.size());
+        for (Recon recon : reconList) {
+            pool.pool(recon);
+            out.writeLong(recon.id);
+        }
+        writeVarInt(out, cells.length);
+        for (int i = 0; i < cells.length; i++) {
+            writeVarInt(out, codes[i]);
+            if ((codes[i] & 1) == 0 && codes[i] != 0) {
+                writeVarInt(out, reconRefs[i]);
+            }
+        }
+    }
+
+    static public Cell[] readCells(DataInputStream in, Pool pool) throws IOException {
+        Serializable[] values = new Serializable[readVarInt(in)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readValue(in);
+        }
+        Recon[] recons = new Recon[readVarInt(in)];
+        for (int i = 0; i < recons.length; i++) {
+            recons[i] = pool.getRecon(Long.toString(in.readLong()));
+        }
+        Cell[] cells = new Cell[readVarInt(in)];
+        for (int i = 0; i < cells.length; i++) {
+            int code = readVarInt(in);
+            if (code == 0) {
+                continue;
+            }
+            code--;
+            int valueRef = code >>> 1;
+            Recon recon = (code & 1) != 0 ? recons[readVarInt(in)] : null;
+            cells[i] = new Cell(valueRef == 0 ? null : values[valueRef - 1], recon);
+        }
+        return cells;
+    }
+
+    /**
+     * Values are shared by cells with equal values of the same type. Errors are compared by message.
+     */
+    static private Object dictionaryKey(Object value) {
+        if (value instanceof EvalError) {
+            return new ErrorKey(((EvalError) value).message);
+        }
+        return value;
+    }
+
+    static private class ErrorKey {
+
+        final String message;
+
+        ErrorKey(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ErrorKey && ((ErrorKey) obj).message.equals(message);
+        }
+
+        @Override
+        public int hashCode() {
+            return message.hashCode();
+        }
+    }
+
+    static private void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            writeVarInt(out, zigZag((Integer) value));
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            writeVarLong(out, zigZag((Long) value));
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof OffsetDateTime) {
+            out.writeByte(OFFSET_DATE_TIME);
+            writeString(out, value.toString());
+        } else if (value instanceof LocalDateTime) {
+            out.writeByte(LOCAL_DATE_TIME);
+            writeString(out, value.toString());
+        } else if (value instanceof EvalError) {
+            out.writeByte(ERROR);
+            writeString(out, ((EvalError) value).message);
+        } else {
+            // other values are saved as strings, like in the textual form
+            out.writeByte(STRING);
+            writeString(out, value.toString());
+        }
+    }
+
+    static private Serializable readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case STRING:
+                return readString(in);
+            case INTEGER:
+                return unZigZag(readVarInt(in));
+            case LONG:
+                return unZigZag(readVarLong(in));
+            case DOUBLE:
+                return in.readDouble();
+            case FLOAT:
+                return in.readFloat();
+            case BOOLEAN:
+                return in.readBoolean();
+            case OFFSET_DATE_TIME:
+                return OffsetDateTime.parse(readString(in));
+            case LOCAL_DATE_TIME:
+                return LocalDateTime.parse(readString(in));
+            case ERROR:
+                return new EvalError(readString(in));
+            default:
+                throw new IOException("Unknown cell value type: " + type);
+        }
+    }
+
+    static public void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static public String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a string which can be null.
+     */
+    static public void writeNullableString(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) {
+            writeString(out, s);
+        }
+    }
+
+    static public String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readString(in) : null;
+    }
+
+    static public void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static public int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    static private void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static private long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    static private int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static private int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static private long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static private long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
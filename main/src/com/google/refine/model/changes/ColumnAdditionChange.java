@@ -33,6 +33,8 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.model.changes;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.Writer;
@@ -41,14 +43,16 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
 
+import com.google.refine.history.BinaryChange;
 import com.google.refine.history.Change;
+import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
 import com.google.refine.model.ColumnGroup;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 import com.google.refine.util.Pool;
 
-public class ColumnAdditionChange extends ColumnChange {
+public class ColumnAdditionChange extends ColumnChange implements BinaryChange {
 
     final protected String _columnName;
     final protected int _columnIndex;
@@ -147,6 +151,42 @@ public class ColumnAdditionChange extends ColumnChange {
         writer.write("/ec/\n"); // end of change marker
     }
 
+    @Override
+    public void save(DataOutputStream out, Pool pool) throws IOException {
+        BinaryCells.writeString(out, _columnName);
+        out.writeInt(_columnIndex);
+        out.writeInt(_newCellIndex);
+
+        int[] rows = new int[_newCells.length];
+        Cell[] cells = new Cell[_newCells.length];
+        for (int i = 0; i < _newCells.length; i++) {
+            rows[i] = _newCells[i].row;
+            cells[i] = _newCells[i].cell;
+        }
+        BinaryCells.writeRows(out, rows);
+        BinaryCells.writeCells(out, cells, pool);
+        writeOldColumnGroups(out, _oldColumnGroups != null ? _oldColumnGroups : new LinkedList<ColumnGroup>());
+    }
+
+    static public Change load(DataInputStream in, Pool pool) throws Exception {
+        String columnName = BinaryCells.readString(in);
+        int columnIndex = in.readInt();
+        int newCellIndex = in.readInt();
+
+        int[] rows = BinaryCells.readRows(in);
+        Cell[] cells = BinaryCells.readCells(in, pool);
+        List<CellAtRow> newCells = new ArrayList<CellAtRow>(rows.length);
+        for (int i = 0; i < rows.length; i++) {
+            newCells.add(new CellAtRow(rows[i], cells[i]));
+        }
+
+        ColumnAdditionChange change = new ColumnAdditionChange(columnName, columnIndex, newCells);
+        change._newCellIndex = newCellIndex;
+        change._oldColumnGroups = readOldColumnGroups(in);
+
+        return change;
+    }
+
     static public Change load(LineNumberReader reader, Pool pool) throws Exception {
         String columnName = null;
         int columnIndex = -1;
@@ -33,6 +33,8 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.model.changes;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.Writer;
@@ -68,4 +70,22 @@ abstract public class ColumnChange implements Change {
         }
         return oldColumnGroups;
     }
+
+    static public void writeOldColumnGroups(DataOutputStream out, List<ColumnGroup> oldColumnGroups) throws IOException {
+        BinaryCells.writeVarInt(out, oldColumnGroups.size());
+        for (ColumnGroup cg : oldColumnGroups) {
+            out.writeInt(cg.startColumnIndex);
+            out.writeInt(cg.columnSpan);
+            out.writeInt(cg.keyColumnIndex);
+        }
+    }
+
+    static public List<ColumnGroup> readOldColumnGroups(DataInputStream in) throws IOException {
+        int oldColumnGroupCount = BinaryCells.readVarInt(in);
+        List<ColumnGroup> oldColumnGroups = new ArrayList<ColumnGroup>(oldColumnGroupCount);
+        for (int i = 0; i < oldColumnGroupCount; i++) {
+            oldColumnGroups.add(new ColumnGroup(in.readInt(), in.readInt(), in.readInt()));
+        }
+        return oldColumnGroups;
+    }
 }
@@ -71,7 +71,8 @@ public class DataExtensionChange implements Change {
     final protected List<ReconType> _columnTypes;
 
     final protected List<Integer> _rowIndices;
-    final protected List<DataExtension> _dataExtensions;
+    // released once the new rows are built
+    protected List<DataExtension> _dataExtensions;
 
     protected long _historyEntryID;
     protected int _firstNewCellIndex = -1;
@@ -204,6 +205,7 @@ public class DataExtensionChange implements Change {
                     dataExtension = index < _rowIndices.size() ? _dataExtensions.get(index) : null;
                     index++;
                 }
+                _dataExtensions = null;
             }
 
             project.rows.clear();
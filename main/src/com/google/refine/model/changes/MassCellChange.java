@@ -33,6 +33,8 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.model.changes;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.Writer;
@@ -40,13 +42,16 @@ import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.ProjectManager;
+import com.google.refine.clustering.ClusteringSession;
+import com.google.refine.history.BinaryChange;
 import com.google.refine.history.Change;
+import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 import com.google.refine.util.Pool;
 
-public class MassCellChange implements Change {
+public class MassCellChange implements BinaryChange {
 
     final protected CellChange[] _cellChanges;
     final protected String _commonColumnName;
@@ -94,7 +99,7 @@ public class MassCellChange implements Change {
 
             if (_commonColumnName != null) {
                 Column column = project.columnModel.getColumnByName(_commonColumnName);
-                column.clearPrecomputes();
+                ClusteringSession.clearPrecomputes(column, _cellChanges, false);
                 ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProjectColumn(project.id, _commonColumnName);
             }
 
@@ -115,7 +120,7 @@ public class MassCellChange implements Change {
 
             if (_commonColumnName != null) {
                 Column column = project.columnModel.getColumnByName(_commonColumnName);
-                column.clearPrecomputes();
+                ClusteringSession.clearPrecomputes(column, _cellChanges, true);
                 ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProjectColumn(project.id, _commonColumnName);
             }
 
@@ -144,6 +149,64 @@ public class MassCellChange implements Change {
         writer.write("/ec/\n"); // end of change marker
     }
 
+    @Override
+    public void save(DataOutputStream out, Pool pool) throws IOException {
+        BinaryCells.writeNullableString(out, _commonColumnName);
+        out.writeBoolean(_updateRowContextDependencies);
+
+        int[] rows = new int[_cellChanges.length];
+        int[] cellIndices = new int[_cellChanges.length];
+        Cell[] oldCells = new Cell[_cellChanges.length];
+        Cell[] newCells = new Cell[_cellChanges.length];
+        boolean sameCellIndex = true;
+        for (int i = 0; i < _cellChanges.length; i++) {
+            CellChange c = _cellChanges[i];
+            rows[i] = c.row;
+            cellIndices[i] = c.cellIndex;
+            oldCells[i] = c.oldCell;
+            newCells[i] = c.newCell;
+            sameCellIndex &= c.cellIndex == cellIndices[0];
+        }
+        BinaryCells.writeRows(out, rows);
+        // the cells of a mass change are usually all in the same column
+        out.writeBoolean(sameCellIndex);
+        if (sameCellIndex) {
+            out.writeInt(cellIndices.length > 0 ? cellIndices[0] : -1);
+        } else {
+            for (int cellIndex : cellIndices) {
+                BinaryCells.writeVarInt(out, cellIndex);
+            }
+        }
+        BinaryCells.writeCells(out, oldCells, pool);
+        BinaryCells.writeCells(out, newCells, pool);
+    }
+
+    static public Change load(DataInputStream in, Pool pool) throws Exception {
+        String commonColumnName = BinaryCells.readNullableString(in);
+        boolean updateRowContextDependencies = in.readBoolean();
+
+        int[] rows = BinaryCells.readRows(in);
+        int[] cellIndices = new int[rows.length];
+        if (in.readBoolean()) {
+            int cellIndex = in.readInt();
+            for (int i = 0; i < cellIndices.length; i++) {
+                cellIndices[i] = cellIndex;
+            }
+        } else {
+            for (int i = 0; i < cellIndices.length; i++) {
+                cellIndices[i] = BinaryCells.readVarInt(in);
+            }
+        }
+        Cell[] oldCells = BinaryCells.readCells(in, pool);
+        Cell[] newCells = BinaryCells.readCells(in, pool);
+
+        CellChange[] cellChanges = new CellChange[rows.length];
+        for (int i = 0; i < cellChanges.length; i++) {
+            cellChanges[i] = new CellChange(rows[i], cellIndices[i], oldCells[i], newCells[i]);
+        }
+        return new MassCellChange(cellChanges, commonColumnName, updateRowContextDependencies);
+    }
+
     static public Change load(LineNumberReader reader, Pool pool) throws Exception {
         String commonColumnName = null;
         boolean updateRowContextDependencies = false;
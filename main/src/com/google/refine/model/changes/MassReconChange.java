@@ -36,10 +36,13 @@ package com.google.refine.model.changes;
 import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.Writer;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import com.google.refine.ProjectManager;
 import com.google.refine.history.Change;
@@ -104,10 +107,14 @@ public class MassReconChange implements Change {
     }
 
     protected void writeRecons(Writer writer, Properties options, Map<Long, Recon> recons, String key) throws IOException {
+        // recons shared by several cells are only written once
+        Set<Recon> distinctRecons = Collections.newSetFromMap(new IdentityHashMap<Recon, Boolean>());
+        distinctRecons.addAll(recons.values());
+
         writer.write(key + "=");
-        writer.write(Integer.toString(recons.size()));
+        writer.write(Integer.toString(distinctRecons.size()));
         writer.write('\n');
-        for (Recon recon : recons.values()) {
+        for (Recon recon : distinctRecons) {
             Pool pool = (Pool) options.get("pool");
             pool.poolReconCandidates(recon);
 
@@ -144,8 +151,10 @@ public class MassReconChange implements Change {
         for (int i = 0; i < count; i++) {
             String line = reader.readLine();
             Recon recon = Recon.loadStreaming(line);
+            // share the instance the cells of the project use, if any
+            Recon pooled = pool != null ? pool.getRecon(Long.toString(recon.id)) : null;
 
-            recons.put(recon.id, recon);
+            recons.put(recon.id, pooled != null ? pooled : recon);
         }
     }
 }
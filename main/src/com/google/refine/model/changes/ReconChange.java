@@ -37,6 +37,8 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.model.changes;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.Writer;
@@ -158,6 +160,44 @@ public class ReconChange extends MassCellChange {
         super.save(writer, options);
     }
 
+    /**
+     * Writes the recon configs and stats of the column before and after the change, followed by the cells.
+     */
+    @Override
+    public void save(DataOutputStream out, Pool pool) throws IOException {
+        BinaryCells.writeNullableString(out, toJson(_newReconConfig));
+        BinaryCells.writeNullableString(out, toJson(_newReconStats));
+        BinaryCells.writeNullableString(out, toJson(_oldReconConfig));
+        BinaryCells.writeNullableString(out, toJson(_oldReconStats));
+
+        super.save(out, pool);
+    }
+
+    static public Change load(DataInputStream in, Pool pool) throws Exception {
+        String newReconConfig = BinaryCells.readNullableString(in);
+        String newReconStats = BinaryCells.readNullableString(in);
+        String oldReconConfig = BinaryCells.readNullableString(in);
+        String oldReconStats = BinaryCells.readNullableString(in);
+        MassCellChange cells = (MassCellChange) MassCellChange.load(in, pool);
+
+        ReconChange change = new ReconChange(
+                cells._cellChanges,
+                cells._commonColumnName,
+                newReconConfig != null ? ReconConfig.reconstruct(newReconConfig) : null,
+                newReconStats != null ? ParsingUtilities.mapper.readValue(newReconStats, ReconStats.class) : null);
+
+        change._oldReconConfig = oldReconConfig != null ? ReconConfig.reconstruct(oldReconConfig) : null;
+        change._oldReconStats = oldReconStats != null
+                ? ParsingUtilities.mapper.readValue(oldReconStats, ReconStats.class)
+                : null;
+
+        return change;
+    }
+
+    static protected String toJson(Object value) throws IOException {
+        return value != null ? ParsingUtilities.defaultWriter.writeValueAsString(value) : null;
+    }
+
     static public Change load(LineNumberReader reader, Pool pool) throws Exception {
         ReconConfig newReconConfig = null;
         ReconStats newReconStats = null;
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.model.recon;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Conditions the best candidate of a recon must meet to be matched automatically, checked against the features
+ * computed by a {@link ReconCandidateScorer}. Conditions which are not set are not checked.
+ */
+public class ReconAutoMatchRules {
+
+    @JsonProperty("minScore")
+    final public double minScore;
+    @JsonProperty("minScoreGap")
+    final public double minScoreGap;
+    @JsonProperty("requireNameMatch")
+    final public boolean requireNameMatch;
+    @JsonProperty("maxNameLevenshtein")
+    @JsonInclude(Include.NON_NULL)
+    final public Integer maxNameLevenshtein;
+    @JsonProperty("minNameWordDistance")
+    final public double minNameWordDistance;
+    @JsonProperty("requireTypeMatch")
+    final public boolean requireTypeMatch;
+
+    /**
+     * @param minScore
+     *            the lowest score the service may give to the best candidate
+     * @param minScoreGap
+     *            how much higher the score of the best candidate must at least be than the one of the second candidate
+     * @param requireNameMatch
+     *            whether the name of the candidate must be the cell value, ignoring case
+     * @param maxNameLevenshtein
+     *            the largest edit distance between the cell value and the name of the candidate, or null
+     * @param minNameWordDistance
+     *            the lowest proportion of words the cell value and the name of the candidate must have in common
+     * @param requireTypeMatch
+     *            whether the candidate must have the type the column was reconciled against
+     */
+    @JsonCreator
+    public ReconAutoMatchRules(
+            @JsonProperty("minScore") double minScore,
+            @JsonProperty("minScoreGap") double minScoreGap,
+            @JsonProperty("requireNameMatch") boolean requireNameMatch,
+            @JsonProperty("maxNameLevenshtein") Integer maxNameLevenshtein,
+            @JsonProperty("minNameWordDistance") double minNameWordDistance,
+            @JsonProperty("requireTypeMatch") boolean requireTypeMatch) {
+        this.minScore = minScore;
+        this.minScoreGap = minScoreGap;
+        this.requireNameMatch = requireNameMatch;
+        this.maxNameLevenshtein = maxNameLevenshtein;
+        this.minNameWordDistance = minNameWordDistance;
+        this.requireTypeMatch = requireTypeMatch;
+    }
+
+    /**
+     * @return whether the best candidate of the recon scored at this index should be matched
+     */
+    public boolean matches(ReconCandidateScorer scorer, int i) {
+        if (!scorer.isScored(i)) {
+            return false;
+        }
+        if (scorer.getScore(i) < minScore || scorer.getScoreGap(i) < minScoreGap) {
+            return false;
+        }
+        if ((requireNameMatch || maxNameLevenshtein != null || minNameWordDistance > 0) && !scorer.hasName(i)) {
+            return false;
+        }
+        if (requireNameMatch && !scorer.isNameMatch(i)) {
+            return false;
+        }
+        if (maxNameLevenshtein != null && scorer.getNameLevenshtein(i) > maxNameLevenshtein) {
+            return false;
+        }
+        if (scorer.getNameWordDistance(i) < minNameWordDistance) {
+            return false;
+        }
+        return !requireTypeMatch || scorer.isTypeMatch(i);
+    }
+}
@@ -0,0 +1,297 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model.recon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Results of reconciliation queries, kept on disk in the workspace so that values reconciled once against a service
+ * are not sent to it again, in any project.
+ * <p>
+ * Results are keyed by service URL and query JSON, which includes the type, the properties and the limit of the
+ * query. They expire after {@link #getTtlMillis()} and, when the file exceeds {@link #getMaxBytes()}, the least
+ * recently used ones are dropped. The file is a log of lines "time, key, result" separated by tabs, later lines
+ * replacing earlier ones with the same key; only the position of each result is kept in memory.
+ */
+public class ReconCache {
+
+    final static Logger logger = LoggerFactory.getLogger("recon-cache");
+
+    static final public String FILE_NAME = "results.tsv";
+
+    protected static class Entry {
+
+        final long offset; // of the result in the file
+        final int length; // of the result, in bytes
+        final long time;
+
+        Entry(long offset, int length, long time) {
+            this.offset = offset;
+            this.length = length;
+            this.time = time;
+        }
+    }
+
+    final protected File _file;
+    final protected long _ttlMillis;
+    final protected long _maxBytes;
+    // in access order, from the least recently used result
+    final protected LinkedHashMap<String, Entry> _entries = new LinkedHashMap<>(16, 0.75f, true);
+    protected RandomAccessFile _data;
+    protected long _hits = 0;
+    protected long _misses = 0;
+
+    public ReconCache(File dir, long ttlMillis, long maxBytes) throws IOException {
+        dir.mkdirs();
+        _file = new File(dir, FILE_NAME);
+        _ttlMillis = ttlMillis;
+        _maxBytes = maxBytes;
+        load();
+    }
+
+    public long getTtlMillis() {
+        return _ttlMillis;
+    }
+
+    public long getMaxBytes() {
+        return _maxBytes;
+    }
+
+    /**
+     * @return the cached result of the query, or null if there is none or it has expired
+     */
+    public synchronized String get(String service, String query) {
+        String key = getKey(service, query);
+        Entry entry = _entries.get(key);
+        if (entry != null && isExpired(entry, System.currentTimeMillis())) {
+            _entries.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            _misses++;
+            return null;
+        }
+        try {
+            byte[] bytes = new byte[entry.length];
+            _data.seek(entry.offset);
+            _data.readFully(bytes);
+            _hits++;
+            return new String(bytes, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.warn("Failed to read cached reconciliation result", e);
+            _entries.remove(key);
+            _misses++;
+            return null;
+        }
+    }
+
+    /**
+     * Caches the result of a query. The result must not contain line breaks or tabs, which is the case of compact
+     * JSON.
+     */
+    public synchronized void put(String service, String query, String result) {
+        String key = getKey(service, query);
+        long time = System.currentTimeMillis();
+        try {
+            byte[] prefix = (time + "\t" + key + "\t").getBytes(StandardCharsets.UTF_8);
+            byte[] bytes = result.getBytes(StandardCharsets.UTF_8);
+            long offset = _data.length();
+            _data.seek(offset);
+            _data.write(prefix);
+            _data.write(bytes);
+            _data.write('\n');
+            _entries.put(key, new Entry(offset + prefix.length, bytes.length, time));
+
+            if (_data.length() > _maxBytes) {
+                compact();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to cache reconciliation result", e);
+        }
+    }
+
+    public synchronized long getHits() {
+        return _hits;
+    }
+
+    public synchronized long getMisses() {
+        return _misses;
+    }
+
+    /**
+     * @return the share of lookups answered from the cache, between 0 and 1
+     */
+    public synchronized double getHitRate() {
+        return _hits + _misses == 0 ? 0 : (double) _hits / (_hits + _misses);
+    }
+
+    public synchronized int size() {
+        return _entries.size();
+    }
+
+    public synchronized void close() {
+        try {
+            if (_data != null) {
+                _data.close();
+                _data = null;
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to close the reconciliation cache", e);
+        }
+    }
+
+    protected boolean isExpired(Entry entry, long now) {
+        return entry.time + _ttlMillis < now;
+    }
+
+    /**
+     * Rewrites the file with the most recently used results which have not expired, up to half of the maximum size.
+     */
+    protected void compact() throws IOException {
+        long now = System.currentTimeMillis();
+        List<Map.Entry<String, Entry>> kept = new ArrayList<>();
+        long size = 0;
+        List<Map.Entry<String, Entry>> entries = new ArrayList<>(_entries.entrySet());
+        Collections.reverse(entries);
+        for (Map.Entry<String, Entry> entry : entries) {
+            Entry e = entry.getValue();
+            if (isExpired(e, now)) {
+                continue;
+            }
+            long lineSize = e.length + entry.getKey().length() + 22;
+            if (size + lineSize > _maxBytes / 2) {
+                break;
+            }
+            kept.add(entry);
+            size += lineSize;
+        }
+        Collections.reverse(kept);
+
+        File tempFile = new File(_file.getParentFile(), FILE_NAME + ".temp");
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tempFile))) {
+            for (Map.Entry<String, Entry> entry : kept) {
+                Entry e = entry.getValue();
+                byte[] bytes = new byte[e.length];
+                _data.seek(e.offset);
+                _data.readFully(bytes);
+                out.write((e.time + "\t" + entry.getKey() + "\t").getBytes(StandardCharsets.UTF_8));
+                out.write(bytes);
+                out.write('\n');
+            }
+        }
+        _data.close();
+        Files.move(tempFile.toPath(), _file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        int before = _entries.size();
+        load();
+        logger.info("Compacted the reconciliation cache from {} to {} results (hit rate so far: {}%)",
+                before, _entries.size(), Math.round(getHitRate() * 100));
+    }
+
+    protected void load() throws IOException {
+        _entries.clear();
+        long now = System.currentTimeMillis();
+        long position = 0;
+        if (_file.exists()) {
+            try (InputStream in = new BufferedInputStream(new FileInputStream(_file))) {
+                ByteArrayOutputStream line = new ByteArrayOutputStream();
+                int b;
+                while ((b = in.read()) != -1) {
+                    if (b != '\n') {
+                        line.write(b);
+                        continue;
+                    }
+                    byte[] bytes = line.toByteArray();
+                    line.reset();
+                    parseLine(bytes, position, now);
+                    position += bytes.length + 1;
+                }
+            }
+        }
+        _data = new RandomAccessFile(_file, "rw");
+        // drop a line which was not completely written
+        _data.setLength(position);
+    }
+
+    protected void parseLine(byte[] bytes, long position, long now) {
+        int firstTab = indexOf(bytes, 0);
+        int secondTab = firstTab < 0 ? -1 : indexOf(bytes, firstTab + 1);
+        if (secondTab < 0) {
+            return;
+        }
+        try {
+            long time = Long.parseLong(new String(bytes, 0, firstTab, StandardCharsets.UTF_8));
+            String key = new String(bytes, firstTab + 1, secondTab - firstTab - 1, StandardCharsets.UTF_8);
+            Entry entry = new Entry(position + secondTab + 1, bytes.length - secondTab - 1, time);
+            if (isExpired(entry, now)) {
+                _entries.remove(key);
+            } else {
+                _entries.put(key, entry);
+            }
+        } catch (NumberFormatException e) {
+            // skip corrupted lines
+        }
+    }
+
+    static protected int indexOf(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == '\t') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static protected String getKey(String service, String query) {
+        return Hashing.sha256().newHasher()
+                .putString(service, StandardCharsets.UTF_8)
+                .putByte((byte) 0)
+                .putString(query, StandardCharsets.UTF_8)
+                .hash().toString();
+    }
+}
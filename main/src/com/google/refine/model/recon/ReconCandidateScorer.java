@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.model.recon;
+
+import java.util.List;
+
+import com.google.refine.model.Recon;
+import com.google.refine.model.ReconCandidate;
+
+/**
+ * Computes the features of many recons at once, by comparing the value of each cell to the best candidate of its
+ * recon. The features are kept in primitive arrays indexed like the recons, which lets them be compared to
+ * {@link ReconAutoMatchRules} and copied to the recons afterwards without contacting the reconciliation service
+ * again.
+ */
+public class ReconCandidateScorer {
+
+    final protected String _typeID;
+
+    protected int _size;
+    protected boolean[] _scored;
+    protected boolean[] _hasName;
+    protected boolean[] _nameMatch;
+    protected int[] _nameLevenshtein;
+    protected double[] _nameWordDistance;
+    protected boolean[] _typeMatch;
+    protected double[] _score;
+    protected double[] _scoreGap;
+
+    // rows of the Levenshtein matrix, reused across values
+    protected int[] _previousRow = new int[0];
+    protected int[] _currentRow = new int[0];
+
+    /**
+     * @param typeID
+     *            the type candidates are expected to have, or null if there is none
+     */
+    public ReconCandidateScorer(String typeID) {
+        _typeID = typeID;
+    }
+
+    /**
+     * Computes the features of the given recons, replacing those computed before.
+     *
+     * @param recons
+     *            the recons whose best candidate is scored
+     * @param texts
+     *            the values of the cells, in the same order as the recons
+     */
+    public void score(List<Recon> recons, String[] texts) {
+        _size = recons.size();
+        _scored = new boolean[_size];
+        _hasName = new boolean[_size];
+        _nameMatch = new boolean[_size];
+        _nameLevenshtein = new int[_size];
+        _nameWordDistance = new double[_size];
+        _typeMatch = new boolean[_size];
+        _score = new double[_size];
+        _scoreGap = new double[_size];
+
+        for (int i = 0; i < _size; i++) {
+            Recon recon = recons.get(i);
+            String text = texts[i];
+            if (recon == null || recon.candidates == null || recon.candidates.isEmpty() || text == null) {
+                continue;
+            }
+            ReconCandidate candidate = recon.candidates.get(0);
+            _scored[i] = true;
+            _score[i] = candidate.score;
+            _scoreGap[i] = recon.candidates.size() > 1 ? candidate.score - recon.candidates.get(1).score : candidate.score;
+
+            if (candidate.name != null) {
+                _hasName[i] = true;
+                _nameMatch[i] = text.equalsIgnoreCase(candidate.name);
+                _nameLevenshtein[i] = levenshtein(text.toLowerCase(), candidate.name.toLowerCase());
+                _nameWordDistance[i] = StandardReconConfig.wordDistance(text, candidate.name);
+            }
+            if (_typeID != null && candidate.types != null) {
+                for (String typeID : candidate.types) {
+                    if (_typeID.equals(typeID)) {
+                        _typeMatch[i] = true;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * @return whether the recon at this index has a candidate and a cell value to compare it to
+     */
+    public boolean isScored(int i) {
+        return _scored[i];
+    }
+
+    public boolean hasName(int i) {
+        return _hasName[i];
+    }
+
+    public boolean isNameMatch(int i) {
+        return _nameMatch[i];
+    }
+
+    public int getNameLevenshtein(int i) {
+        return _nameLevenshtein[i];
+    }
+
+    public double getNameWordDistance(int i) {
+        return _nameWordDistance[i];
+    }
+
+    public boolean isTypeMatch(int i) {
+        return _typeMatch[i];
+    }
+
+    /**
+     * @return the score the service gave to the best candidate
+     */
+    public double getScore(int i) {
+        return _score[i];
+    }
+
+    /**
+     * @return how much higher the score of the best candidate is than the one of the second candidate
+     */
+    public double getScoreGap(int i) {
+        return _scoreGap[i];
+    }
+
+    /**
+     * Stores the features computed for the recon at this index in the given recon, as
+     * {@link StandardReconConfig#computeFeatures(Recon, String)} does.
+     */
+    public void applyFeatures(int i, Recon recon) {
+        if (!_scored[i]) {
+            recon.features = new Object[Recon.Feature_max];
+            return;
+        }
+        if (_hasName[i]) {
+            recon.setFeature(Recon.Feature_nameMatch, _nameMatch[i]);
+            recon.setFeature(Recon.Feature_nameLevenshtein, _nameLevenshtein[i]);
+            recon.setFeature(Recon.Feature_nameWordDistance, _nameWordDistance[i]);
+        }
+        recon.setFeature(Recon.Feature_typeMatch, _typeMatch[i]);
+    }
+
+    protected int levenshtein(String s, String t) {
+        int m = t.length();
+        if (_previousRow.length < m + 1) {
+            _previousRow = new int[m + 1];
+            _currentRow = new int[m + 1];
+        }
+        int[] previous = _previousRow;
+        int[] current = _currentRow;
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= s.length(); i++) {
+            char c = s.charAt(i - 1);
+            current[0] = i;
+            for (int j = 1; j <= m; j++) {
+                int cost = c == t.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m];
+    }
+}
@@ -101,6 +101,15 @@ abstract public class ReconConfig {
     @JsonIgnore
     public abstract int getBatchSize(int rowCount);
 
+    /**
+     * The number of batches which can be reconciled at the same time, by concurrent calls to
+     * {@link #batchRecon(List, long)}. Configurations whose batchRecon method is thread-safe can return more than 1.
+     */
+    @JsonIgnore
+    public int getMaxConcurrentBatches() {
+        return 1;
+    }
+
     abstract public String getBriefDescription(Project project, String columnName);
 
     abstract public ReconJob createJob(
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model.recon;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.google.refine.model.Recon;
+import com.google.refine.model.Recon.Judgment;
+
+/**
+ * Lets the cells an operation gives identical judgments to share a single {@link Recon}, so that the memory used by
+ * the project and the number of recons in its pool grow with the number of distinct judgments rather than with the
+ * number of cells.
+ * <p>
+ * Shared recons must not be modified afterwards, except for their batch size: changing the judgment of a cell is done
+ * on a copy, as {@link Recon#dup(long)} does. Recons judged as new are never shared, since each of them stands for a
+ * distinct new entity unless the user asked otherwise.
+ */
+public class ReconInterner {
+
+    final protected Map<Key, Recon> _recons = new HashMap<>();
+
+    /**
+     * @return an identical recon seen before, whose batch size is increased by the one of the given recon, or the
+     *         given recon if there is none
+     */
+    public Recon intern(Recon recon) {
+        if (recon == null || recon.judgment == Judgment.New) {
+            return recon;
+        }
+        Recon shared = _recons.putIfAbsent(new Key(recon), recon);
+        if (shared == null) {
+            return recon;
+        }
+        shared.judgmentBatchSize += recon.judgmentBatchSize;
+        return shared;
+    }
+
+    /**
+     * @return the number of distinct recons seen
+     */
+    public int size() {
+        return _recons.size();
+    }
+
+    /**
+     * Compares recons on everything but their id and batch size.
+     */
+    static protected class Key {
+
+        final protected Recon recon;
+        final protected int hash;
+
+        protected Key(Recon recon) {
+            this.recon = recon;
+            this.hash = 31 * Arrays.deepHashCode(recon.features) + Objects.hash(recon.candidates, recon.error,
+                    recon.identifierSpace, recon.judgment, recon.judgmentAction, recon.judgmentHistoryEntry, recon.match,
+                    recon.matchRank, recon.schemaSpace, recon.service);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Recon other = ((Key) obj).recon;
+            return Objects.equals(recon.candidates, other.candidates) && Objects.equals(recon.error, other.error)
+                    && Arrays.deepEquals(recon.features, other.features)
+                    && Objects.equals(recon.identifierSpace, other.identifierSpace) && recon.judgment == other.judgment
+                    && Objects.equals(recon.judgmentAction, other.judgmentAction)
+                    && recon.judgmentHistoryEntry == other.judgmentHistoryEntry && Objects.equals(recon.match, other.match)
+                    && recon.matchRank == other.matchRank && Objects.equals(recon.schemaSpace, other.schemaSpace)
+                    && Objects.equals(recon.service, other.service);
+        }
+    }
+}
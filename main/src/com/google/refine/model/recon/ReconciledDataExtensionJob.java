@@ -42,6 +42,7 @@ import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -56,6 +57,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.expr.functions.ToDate;
 import com.google.refine.model.ReconCandidate;
 import com.google.refine.model.ReconType;
@@ -169,8 +171,39 @@ public class ReconciledDataExtensionJob {
     public Map<String, ReconciledDataExtensionJob.DataExtension> extend(
             Set<String> ids,
             Map<String, ReconCandidate> reconCandidateMap) throws Exception {
+        Map<String, ReconciledDataExtensionJob.DataExtension> map = new HashMap<String, ReconciledDataExtensionJob.DataExtension>();
+
+        // records fetched before for the same properties, in this or another project
+        ReconCache cache = ProjectManager.singleton != null ? ProjectManager.singleton.getReconCache() : null;
+        String propertiesKey = null;
+        Set<String> missingIds = ids;
+        if (cache != null) {
+            propertiesKey = ParsingUtilities.saveWriter.writeValueAsString(extension.properties);
+            if (columns.size() == 0) {
+                String meta = cache.get(endpoint, propertiesKey);
+                if (meta != null) {
+                    columns.addAll(ParsingUtilities.mapper.readValue(meta, new TypeReference<List<ColumnInfo>>() {
+                    }));
+                }
+            }
+            if (columns.size() > 0) {
+                missingIds = new HashSet<String>();
+                for (String id : ids) {
+                    String record = id != null ? cache.get(endpoint, propertiesKey + "\t" + id) : null;
+                    if (record != null) {
+                        map.put(id, collectResult(ParsingUtilities.mapper.readValue(record, ObjectNode.class), reconCandidateMap));
+                    } else {
+                        missingIds.add(id);
+                    }
+                }
+                if (missingIds.isEmpty()) {
+                    return map;
+                }
+            }
+        }
+
         StringWriter writer = new StringWriter();
-        formulateQuery(ids, extension, writer);
+        formulateQuery(missingIds, extension, writer);
 
         String query = writer.toString();
         String response = postExtendQuery(this.endpoint, query);
@@ -182,14 +215,16 @@ public class ReconciledDataExtensionJob {
             List<ColumnInfo> newColumns = ParsingUtilities.mapper.convertValue(o.get("meta"), new TypeReference<List<ColumnInfo>>() {
             });
             columns.addAll(newColumns);
+            if (cache != null && o.get("meta") != null) {
+                cache.put(endpoint, propertiesKey, o.get("meta").toString());
+            }
         }
 
-        Map<String, ReconciledDataExtensionJob.DataExtension> map = new HashMap<String, ReconciledDataExtensionJob.DataExtension>();
         if (o.has("rows") && o.get("rows") instanceof ObjectNode) {
             ObjectNode records = (ObjectNode) o.get("rows");
 
             // for each identifier
-            for (String id : ids) {
+            for (String id : missingIds) {
                 if (records.has(id) && records.get(id) instanceof ObjectNode) {
                     ObjectNode record = (ObjectNode) records.get(id);
 
@@ -197,6 +232,9 @@ public class ReconciledDataExtensionJob {
 
                     if (ext != null) {
                         map.put(id, ext);
+                        if (cache != null) {
+                            cache.put(endpoint, propertiesKey + "\t" + id, record.toString());
+                        }
                     }
                 }
             }
@@ -209,7 +247,7 @@ public class ReconciledDataExtensionJob {
         return getHttpClient().postNameValue(endpoint, "extend", query);
     }
 
-    private static HttpClient getHttpClient() {
+    private static synchronized HttpClient getHttpClient() {
         if (httpClient == null) {
             httpClient = new HttpClient();
         }
@@ -287,18 +325,12 @@ public class ReconciledDataExtensionJob {
             ObjectNode obj,
             Map<String, ReconCandidate> reconCandidateMap) {
         String id = obj.get("id").asText();
-        ReconCandidate rc;
-        if (reconCandidateMap.containsKey(id)) {
-            rc = reconCandidateMap.get(id);
-        } else {
-            rc = new ReconCandidate(
-                    obj.get("id").asText(),
-                    obj.get("name").asText(),
-                    JSONUtilities.getStringArray(obj, "type"),
-                    100);
-
-            reconCandidateMap.put(id, rc);
-        }
+        // the map is shared by the batches of an extension, which may be fetched concurrently
+        ReconCandidate rc = reconCandidateMap.computeIfAbsent(id, k -> new ReconCandidate(
+                obj.get("id").asText(),
+                obj.get("name").asText(),
+                JSONUtilities.getStringArray(obj, "type"),
+                100));
 
         storeCell(rows, row, col, rc);
     }
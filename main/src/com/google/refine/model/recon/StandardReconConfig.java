@@ -36,6 +36,7 @@ package com.google.refine.model.recon;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -53,10 +54,10 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
@@ -66,6 +67,7 @@ import com.google.refine.model.ReconCandidate;
 import com.google.refine.model.ReconType;
 import com.google.refine.model.RecordModel.RowDependency;
 import com.google.refine.model.Row;
+import com.google.refine.preference.PreferenceStore;
 import com.google.refine.util.HttpClient;
 import com.google.refine.util.ParsingUtilities;
 
@@ -76,6 +78,8 @@ public class StandardReconConfig extends ReconConfig {
     private static final String DEFAULT_SCHEMA_SPACE = "http://localhost/schema";
     private static final String DEFAULT_IDENTIFIER_SPACE = "http://localhost/identifier";
 
+    static final public String CONCURRENT_BATCHES_PREFERENCE = "reconciliation.concurrentBatches";
+
     static public class ColumnDetail {
 
         @JsonProperty("column")
@@ -124,6 +128,12 @@ public class StandardReconConfig extends ReconConfig {
             return code.hashCode();
         }
 
+        @Override
+        public String getStringKey() {
+            // the query itself, so that keys do not collide and stay the same across runs
+            return code;
+        }
+
         @Override
         public String toString() {
             return code;
@@ -230,6 +240,26 @@ public class StandardReconConfig extends ReconConfig {
         return Math.min(Math.max(rowCount / 10, 10), batchSize);
     }
 
+    /**
+     * Reconciliation services can often handle several batches at once, but public services may also throttle clients
+     * sending too many requests, so only one batch is sent at a time unless the
+     * {@link #CONCURRENT_BATCHES_PREFERENCE} preference says otherwise.
+     */
+    @Override
+    @JsonIgnore
+    public int getMaxConcurrentBatches() {
+        PreferenceStore preferences = ProjectManager.singleton != null ? ProjectManager.singleton.getPreferenceStore() : null;
+        Object v = preferences != null ? preferences.get(CONCURRENT_BATCHES_PREFERENCE) : null;
+        if (v != null) {
+            try {
+                return Math.max(1, Integer.parseInt(v.toString()));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid value for preference {}: {}", CONCURRENT_BATCHES_PREFERENCE, v);
+            }
+        }
+        return 1;
+    }
+
     @Override
     public String getBriefDescription(Project project, String columnName) {
         return "Reconcile cells in column " + columnName + " to type " + typeID;
@@ -426,7 +456,7 @@ public class StandardReconConfig extends ReconConfig {
         return job;
     }
 
-    private HttpClient getHttpClient() {
+    private synchronized HttpClient getHttpClient() {
         if (httpClient == null) {
             httpClient = new HttpClient();
         }
@@ -437,84 +467,99 @@ public class StandardReconConfig extends ReconConfig {
         return getHttpClient().postNameValue(url, "queries", queriesString);
     }
 
+    /**
+     * Queries which were answered before, in this or another project, are read from the {@link ReconCache} of the
+     * workspace if there is one, and only the others are sent to the service. Results are cached, errors are not. The
+     * features of the recons of the batch are computed together once they are all known.
+     */
     @Override
     public List<Recon> batchRecon(List<ReconJob> jobs, long historyEntryID) {
-        List<Recon> recons = new ArrayList<Recon>(jobs.size());
+        Recon[] recons = new Recon[jobs.size()];
+        String[] texts = new String[jobs.size()];
+        ReconCache cache = ProjectManager.singleton != null ? ProjectManager.singleton.getReconCache() : null;
 
         StringWriter stringWriter = new StringWriter();
-
         stringWriter.write("{");
+        int missing = 0;
         for (int i = 0; i < jobs.size(); i++) {
             StandardReconJob job = (StandardReconJob) jobs.get(i);
-            if (i > 0) {
+            texts[i] = job.text;
+            String cached = cache != null ? cache.get(service, job.code) : null;
+            if (cached != null) {
+                try {
+                    ArrayNode results = ParsingUtilities.mapper.readValue(cached, ArrayNode.class);
+                    recons[i] = createReconCandidates(results, historyEntryID);
+                    recons[i].service = service;
+                    continue;
+                } catch (IOException e) {
+                    logger.warn("Ignoring invalid cached reconciliation result", e);
+                }
+            }
+            if (missing > 0) {
                 stringWriter.write(",");
             }
             stringWriter.write("\"q" + i + "\":");
             stringWriter.write(job.code);
+            missing++;
         }
         stringWriter.write("}");
+        if (cache != null) {
+            logger.debug("{} of {} queries answered from the reconciliation cache (hit rate: {}%)",
+                    jobs.size() - missing, jobs.size(), Math.round(cache.getHitRate() * 100));
+        }
+        if (missing == 0) {
+            computeFeatures(Arrays.asList(recons), texts);
+            return Arrays.asList(recons);
+        }
         String queriesString = stringWriter.toString();
 
-        String responseString = "";
         ObjectNode o = null;
+        String error = "The reconciliation service returned an invalid response";
         try {
-
-            responseString = postQueries(service, queriesString);
+            String responseString = postQueries(service, queriesString);
             o = ParsingUtilities.mapper.readValue(responseString, ObjectNode.class);
         } catch (IOException e) {
-            Recon recon = new Recon(historyEntryID, identifierSpace, schemaSpace);
-            recon.error = e.getMessage();
-            recon.judgment = Judgment.Error;
-            recons.add(recon);
+            error = e.getMessage();
         }
 
-        if (o == null) { // utility method returns null instead of throwing
-            Recon recon = new Recon(historyEntryID, identifierSpace, schemaSpace);
-            recon.error = "The reconciliation service returned an invalid response";
-            recon.judgment = Judgment.Error;
-            recons.add(recon);
-
-        } else {
-            for (int i = 0; i < jobs.size(); i++) {
-                StandardReconJob job = (StandardReconJob) jobs.get(i);
-                Recon recon = null;
-
-                String text = job.text;
-                String key = "q" + i;
-                if (o.has(key) && o.get(key) instanceof ObjectNode) {
-                    ObjectNode o2 = (ObjectNode) o.get(key);
-                    if (o2.has("result") && o2.get("result") instanceof ArrayNode) {
-                        ArrayNode results = (ArrayNode) o2.get("result");
-
-                        recon = createReconServiceResults(text, results, historyEntryID);
-                    } else {
-                        recon = new Recon(historyEntryID, identifierSpace, schemaSpace);
-                        recon.error = "The service returned a JSON response without \"result\" field for query " + key;
-                        recon.judgment = Judgment.Error;
-
+        for (int i = 0; i < jobs.size(); i++) {
+            if (recons[i] != null) {
+                continue;
+            }
+            StandardReconJob job = (StandardReconJob) jobs.get(i);
+            Recon recon = null;
+
+            String key = "q" + i;
+            if (o == null) { // utility method returns null instead of throwing
+                recon = new Recon(historyEntryID, identifierSpace, schemaSpace);
+                recon.error = error;
+                recon.judgment = Judgment.Error;
+            } else if (o.has(key) && o.get(key) instanceof ObjectNode) {
+                ObjectNode o2 = (ObjectNode) o.get(key);
+                if (o2.has("result") && o2.get("result") instanceof ArrayNode) {
+                    ArrayNode results = (ArrayNode) o2.get("result");
+
+                    recon = createReconCandidates(results, historyEntryID);
+                    if (cache != null) {
+                        cache.put(service, job.code, results.toString());
                     }
                 } else {
                     recon = new Recon(historyEntryID, identifierSpace, schemaSpace);
-                    recon.error = "The service returned a JSON response without \"" + key + "\" field ";
+                    recon.error = "The service returned a JSON response without \"result\" field for query " + key;
                     recon.judgment = Judgment.Error;
                 }
-
-                if (recon != null) {
-                    recon.service = service;
-                }
-                recons.add(recon);
+            } else {
+                recon = new Recon(historyEntryID, identifierSpace, schemaSpace);
+                recon.error = "The service returned a JSON response without \"" + key + "\" field ";
+                recon.judgment = Judgment.Error;
             }
 
+            recon.service = service;
+            recons[i] = recon;
         }
 
-        while (recons.size() < jobs.size()) {
-            Recon recon = new Recon(historyEntryID, identifierSpace, schemaSpace);
-            recon.error = "No. of recon objects was less than no. of jobs";
-            recon.judgment = Judgment.Error;
-            recons.add(recon);
-        }
-
-        return recons;
+        computeFeatures(Arrays.asList(recons), texts);
+        return Arrays.asList(recons);
     }
 
     @Override
@@ -525,6 +570,15 @@ public class StandardReconConfig extends ReconConfig {
     }
 
     protected Recon createReconServiceResults(String text, ArrayNode resultsList, long historyEntryID) {
+        Recon recon = createReconCandidates(resultsList, historyEntryID);
+        computeFeatures(recon, text);
+        return recon;
+    }
+
+    /**
+     * Creates a recon holding the candidates returned by the service, without computing its features.
+     */
+    protected Recon createReconCandidates(ArrayNode resultsList, long historyEntryID) {
         Recon recon = new Recon(historyEntryID, identifierSpace, schemaSpace);
         List<ReconResult> results = ParsingUtilities.mapper.convertValue(resultsList, new TypeReference<List<ReconResult>>() {
         });
@@ -554,7 +608,6 @@ public class StandardReconConfig extends ReconConfig {
             recon.addCandidate(candidate);
         }
 
-        computeFeatures(recon, text);
         return recon;
     }
 
@@ -565,26 +618,23 @@ public class StandardReconConfig extends ReconConfig {
      *            the cell value to compare the reconciliation data to
      */
     public void computeFeatures(Recon recon, String text) {
-        if (recon.candidates != null && !recon.candidates.isEmpty() && text != null) {
-            ReconCandidate candidate = recon.candidates.get(0);
-
-            if (candidate.name != null) {
-                recon.setFeature(Recon.Feature_nameMatch, text.equalsIgnoreCase(candidate.name));
-                recon.setFeature(Recon.Feature_nameLevenshtein,
-                        StringUtils.getLevenshteinDistance(StringUtils.lowerCase(text), StringUtils.lowerCase(candidate.name)));
-                recon.setFeature(Recon.Feature_nameWordDistance, wordDistance(text, candidate.name));
-            }
-            recon.setFeature(Recon.Feature_typeMatch, false);
-            if (this.typeID != null) {
-                for (String typeID : candidate.types) {
-                    if (this.typeID.equals(typeID)) {
-                        recon.setFeature(Recon.Feature_typeMatch, true);
-                        break;
-                    }
-                }
+        computeFeatures(Collections.singletonList(recon), new String[] { text });
+    }
+
+    /**
+     * Recomputes the features of several reconciliation objects at once, as {@link #computeFeatures(Recon, String)}
+     * does for each of them. Null recons are skipped.
+     * 
+     * @param texts
+     *            the cell values to compare the reconciliation data to, in the same order as the recons
+     */
+    public void computeFeatures(List<Recon> recons, String[] texts) {
+        ReconCandidateScorer scorer = new ReconCandidateScorer(typeID);
+        scorer.score(recons, texts);
+        for (int i = 0; i < recons.size(); i++) {
+            if (recons.get(i) != null) {
+                scorer.applyFeatures(i, recons.get(i));
             }
-        } else {
-            recon.features = new Object[Recon.Feature_max];
         }
     }
 
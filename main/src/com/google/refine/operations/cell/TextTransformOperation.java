@@ -39,11 +39,16 @@ import java.util.Properties;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionProfile;
 import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.expr.MemoizedEvaluable;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.WrappedCell;
 import com.google.refine.model.Cell;
@@ -54,9 +59,22 @@ import com.google.refine.model.changes.CellChange;
 import com.google.refine.operations.EngineDependentMassCellOperation;
 import com.google.refine.operations.OnError;
 import com.google.refine.operations.OperationDescription;
+import com.google.refine.preference.PreferenceStore;
 
 public class TextTransformOperation extends EngineDependentMassCellOperation {
 
+    final static Logger logger = LoggerFactory.getLogger("text-transform-operation");
+
+    /**
+     * Boolean preference turning on the profiling of transform expressions, which slows their evaluation down.
+     */
+    static final public String PROFILE_PREFERENCE = "expressions.profile";
+
+    /**
+     * Runs taking longer than this log the profile of their expression, when profiling is turned on.
+     */
+    final static long PROFILE_LOG_THRESHOLD_MS = 1000;
+
     @JsonProperty("expression")
     final protected String _expression;
     @JsonProperty("onError")
@@ -113,11 +131,24 @@ public class TextTransformOperation extends EngineDependentMassCellOperation {
         return OperationDescription.cell_text_transform_desc(cellChanges.size(), column.getName(), _expression);
     }
 
+    /**
+     * @return a profile to record the evaluations of the expression in, or null unless profiling is turned on
+     */
+    protected ExpressionProfile createProfile() {
+        PreferenceStore preferences = ProjectManager.singleton != null ? ProjectManager.singleton.getPreferenceStore() : null;
+        Object v = preferences != null ? preferences.get(PROFILE_PREFERENCE) : null;
+        return v != null && Boolean.parseBoolean(v.toString()) ? new ExpressionProfile() : null;
+    }
+
     @Override
     protected RowVisitor createRowVisitor(Project project, List<CellChange> cellChanges, long historyEntryID) throws Exception {
         Column column = project.columnModel.getColumnByName(_columnName);
 
-        Evaluable eval = MetaParser.parse(_expression);
+        ExpressionProfile profile = createProfile();
+        Evaluable eval = MetaParser.parse(_expression, profile);
+        if (ExpressionUtils.dependsOnlyOnValue(eval)) {
+            eval = new MemoizedEvaluable(eval);
+        }
         Properties bindings = ExpressionUtils.createBindings(project);
 
         return new RowVisitor() {
@@ -126,23 +157,35 @@ public class TextTransformOperation extends EngineDependentMassCellOperation {
             Properties bindings;
             List<CellChange> cellChanges;
             Evaluable eval;
+            ExpressionProfile profile;
+            long startTime;
 
-            public RowVisitor init(int cellIndex, Properties bindings, List<CellChange> cellChanges, Evaluable eval) {
+            public RowVisitor init(int cellIndex, Properties bindings, List<CellChange> cellChanges, Evaluable eval,
+                    ExpressionProfile profile) {
                 this.cellIndex = cellIndex;
                 this.bindings = bindings;
                 this.cellChanges = cellChanges;
                 this.eval = eval;
+                this.profile = profile;
                 return this;
             }
 
             @Override
             public void start(Project project) {
-                // nothing to do
+                startTime = System.currentTimeMillis();
             }
 
             @Override
             public void end(Project project) {
-                // nothing to do
+                if (eval instanceof MemoizedEvaluable) {
+                    MemoizedEvaluable memo = (MemoizedEvaluable) eval;
+                    logger.debug("Evaluated expression {} times for {} rows ({} distinct values cached)",
+                            memo.getMisses(), memo.getMisses() + memo.getHits(), memo.getSize());
+                }
+                long elapsed = System.currentTimeMillis() - startTime;
+                if (profile != null && elapsed >= PROFILE_LOG_THRESHOLD_MS) {
+                    logger.info("Transforming column {} took {} ms, expression profile:\n{}", _columnName, elapsed, profile);
+                }
             }
 
             @Override
@@ -203,6 +246,6 @@ public class TextTransformOperation extends EngineDependentMassCellOperation {
 
                 return false;
             }
-        }.init(column.getCellIndex(), bindings, cellChanges, eval);
+        }.init(column.getCellIndex(), bindings, cellChanges, eval, profile);
     }
 }
@@ -37,12 +37,23 @@ import static com.google.common.base.Strings.isNullOrEmpty;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
@@ -50,6 +61,7 @@ import com.google.common.cache.LoadingCache;
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.message.BasicHeader;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.browsing.FilteredRows;
@@ -60,6 +72,7 @@ import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.WrappedCell;
 import com.google.refine.history.HistoryEntry;
+import com.google.refine.io.UrlResponseCache;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
@@ -99,10 +112,32 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
     final protected int _columnInsertIndex;
     final protected int _delay;
     final protected boolean _cacheResponses;
+    final protected Integer _concurrency;
     final protected List<HttpHeader> _httpHeadersJson;
     private Header[] httpHeaders = new Header[0];
     private HttpClient _httpClient;
+    // for each host, the time in nanoseconds from which the next request to it may start
+    final private Map<String, AtomicLong> _nextRequestTimes = new ConcurrentHashMap<>();
 
+    public ColumnAdditionByFetchingURLsOperation(
+            EngineConfig engineConfig,
+            String baseColumnName,
+            String urlExpression,
+            OnError onError,
+            String newColumnName,
+            int columnInsertIndex,
+            int delay,
+            boolean cacheResponses,
+            List<HttpHeader> httpHeadersJson) {
+        this(engineConfig, baseColumnName, urlExpression, onError, newColumnName, columnInsertIndex, delay, cacheResponses,
+                null, httpHeadersJson);
+    }
+
+    /**
+     * @param concurrency
+     *            the maximum number of URLs fetched at the same time, 1 if null. The delay applies to each host
+     *            separately.
+     */
     @JsonCreator
     public ColumnAdditionByFetchingURLsOperation(
             @JsonProperty("engineConfig") EngineConfig engineConfig,
@@ -113,6 +148,7 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
             @JsonProperty("columnInsertIndex") int columnInsertIndex,
             @JsonProperty("delay") int delay,
             @JsonProperty("cacheResponses") boolean cacheResponses,
+            @JsonProperty("concurrency") Integer concurrency,
             @JsonProperty("httpHeadersJson") List<HttpHeader> httpHeadersJson) {
         super(engineConfig);
 
@@ -125,6 +161,7 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
 
         _delay = delay;
         _cacheResponses = cacheResponses;
+        _concurrency = concurrency;
         _httpHeadersJson = httpHeadersJson;
 
         List<Header> headers = new ArrayList<Header>();
@@ -137,7 +174,8 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
             }
         }
         httpHeaders = headers.toArray(httpHeaders);
-        _httpClient = new HttpClient(_delay);
+        // the delay is enforced per host by the rate limiters, not by the client
+        _httpClient = new HttpClient(0, Math.max(_delay, 200));
 
     }
 
@@ -171,6 +209,12 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
         return _delay;
     }
 
+    @JsonProperty("concurrency")
+    @JsonInclude(Include.NON_NULL)
+    public Integer getConcurrency() {
+        return _concurrency;
+    }
+
     @JsonProperty("httpHeadersJson")
     public List<HttpHeader> getHttpHeadersJson() {
         return _httpHeadersJson;
@@ -207,6 +251,26 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
                 _cacheResponses);
     }
 
+    /**
+     * Waits until a request to the host may start. Requests to the same host start at least {@link #_delay}
+     * milliseconds apart, however many threads are fetching, and time spent idle does not allow a later burst of
+     * requests.
+     * 
+     * @return the time at which the request may start, in nanoseconds
+     */
+    long awaitRequestTime(String host) throws InterruptedException {
+        AtomicLong nextRequestTime = _nextRequestTimes.computeIfAbsent(host, h -> new AtomicLong(System.nanoTime()));
+        synchronized (nextRequestTime) {
+            long wait = nextRequestTime.get() - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            long start = Math.max(System.nanoTime(), nextRequestTime.get());
+            nextRequestTime.set(start + TimeUnit.MILLISECONDS.toNanos(_delay));
+            return start;
+        }
+    }
+
     public class ColumnAdditionByFetchingURLsProcess extends LongRunningProcess implements Runnable {
 
         final protected Project _project;
@@ -215,6 +279,7 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
         final protected long _historyEntryID;
         protected int _cellIndex;
         protected LoadingCache<String, Serializable> _urlCache;
+        protected UrlResponseCache _responseCache;
 
         public ColumnAdditionByFetchingURLsProcess(
                 Project project,
@@ -228,7 +293,9 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
             _eval = eval;
             _historyEntryID = HistoryEntry.allocateID();
             _urlCache = null;
+            _responseCache = null;
             if (cacheResponses) {
+                _responseCache = ProjectManager.singleton != null ? ProjectManager.singleton.getUrlResponseCache() : null;
                 _urlCache = CacheBuilder.newBuilder()
                         .maximumSize(2048)
                         .expireAfterWrite(10, TimeUnit.MINUTES)
@@ -236,7 +303,7 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
                                 new CacheLoader<String, Serializable>() {
 
                                     public Serializable load(String urlString) throws Exception {
-                                        Serializable result = fetch(urlString, httpHeaders);
+                                        Serializable result = persistentFetch(urlString);
                                         if (result == null) {
                                             // the load method should not return any null value
                                             throw new Exception("null result returned by fetch");
@@ -270,30 +337,53 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
             filteredRows.accept(_project, createRowVisitor(urls));
 
             int count = urls.size();
-            List<CellAtRow> responseBodies = new ArrayList<CellAtRow>(count);
-            int i = 0;
-            for (CellAtRow urlData : urls) {
-                String urlString = urlData.cell.value.toString();
-
-                Serializable response = null;
-                if (_urlCache != null) {
-                    response = cachedFetch(urlString);
-                } else {
-                    response = fetch(urlString, httpHeaders);
-                }
-
-                if (response != null) {
-                    CellAtRow cellAtRow = new CellAtRow(
-                            urlData.row,
-                            new Cell(response, null));
+            Serializable[] responses = new Serializable[count];
+            int concurrency = _concurrency != null ? Math.max(1, _concurrency) : 1;
+
+            // URLs are fetched by helper threads, and their responses put back in order by this one
+            ExecutorService executor = concurrency > 1 ? Executors.newFixedThreadPool(concurrency) : null;
+            CompletionService<Integer> completionService = new ExecutorCompletionService<>(
+                    executor != null ? executor : Runnable::run);
+            Exception failure = null;
+            try {
+                int next = 0;
+                int inFlight = 0;
+                int done = 0;
+                while ((next < count || inFlight > 0) && !_canceled) {
+                    while (inFlight < concurrency && next < count) {
+                        int i = next++;
+                        String urlString = urls.get(i).cell.value.toString();
+                        completionService.submit(() -> {
+                            responses[i] = _urlCache != null ? cachedFetch(urlString) : rateLimitedFetch(urlString);
+                            return i;
+                        });
+                        inFlight++;
+                    }
 
-                    responseBodies.add(cellAtRow);
+                    completionService.take().get();
+                    inFlight--;
+                    _progress = ++done * 100 / count;
                 }
+            } catch (InterruptedException e) {
+                // the process was canceled
+            } catch (ExecutionException e) {
+                failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            } finally {
+                if (executor != null) {
+                    executor.shutdownNow();
+                }
+            }
 
-                _progress = i++ * 100 / count;
+            if (failure != null) {
+                // the responses fetched so far would make an incomplete column, so nothing is added to the project
+                _project.processManager.onFailedProcess(this, failure);
+                return;
+            }
 
-                if (_canceled) {
-                    break;
+            List<CellAtRow> responseBodies = new ArrayList<CellAtRow>(count);
+            for (int i = 0; i < count; i++) {
+                if (responses[i] != null) {
+                    responseBodies.add(new CellAtRow(urls.get(i).row, new Cell(responses[i], null)));
                 }
             }
 
@@ -321,6 +411,48 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
             }
         }
 
+        /**
+         * Fetches a URL from the cache of the workspace if it has been fetched with the same headers before.
+         */
+        Serializable persistentFetch(String urlString) {
+            if (_responseCache == null) {
+                return rateLimitedFetch(urlString);
+            }
+            StringBuilder request = new StringBuilder(urlString);
+            for (Header header : httpHeaders) {
+                request.append('\n').append(header.getName()).append(": ").append(header.getValue());
+            }
+            String cached = _responseCache.get(request.toString());
+            if (cached != null) {
+                return cached;
+            }
+            Serializable result = rateLimitedFetch(urlString);
+            if (result instanceof String) {
+                // errors are not cached
+                _responseCache.put(request.toString(), (String) result);
+            }
+            return result;
+        }
+
+        Serializable rateLimitedFetch(String urlString) {
+            if (_delay > 0) {
+                String host;
+                try {
+                    host = URI.create(urlString).getHost();
+                } catch (IllegalArgumentException e) {
+                    host = null;
+                }
+                try {
+                    awaitRequestTime(host != null ? host : "");
+                } catch (InterruptedException e) {
+                    // the process was canceled
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+            return fetch(urlString, httpHeaders);
+        }
+
         Serializable fetch(String urlString, Header[] headers) {
             try { // HttpClients.createDefault()) {
                 try {
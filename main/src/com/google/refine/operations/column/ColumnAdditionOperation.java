@@ -40,6 +40,8 @@ import java.util.Properties;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.EngineConfig;
@@ -47,6 +49,7 @@ import com.google.refine.browsing.FilteredRows;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.expr.MemoizedEvaluable;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.WrappedCell;
 import com.google.refine.history.Change;
@@ -63,6 +66,8 @@ import com.google.refine.operations.OperationDescription;
 
 public class ColumnAdditionOperation extends EngineDependentOperation {
 
+    final static Logger logger = LoggerFactory.getLogger("column-addition-operation");
+
     final protected String _baseColumnName;
     final protected String _expression;
     final protected OnError _onError;
@@ -151,6 +156,9 @@ public class ColumnAdditionOperation extends EngineDependentOperation {
         Column column = project.columnModel.getColumnByName(_baseColumnName);
 
         Evaluable eval = MetaParser.parse(_expression);
+        if (ExpressionUtils.dependsOnlyOnValue(eval)) {
+            eval = new MemoizedEvaluable(eval);
+        }
         Properties bindings = ExpressionUtils.createBindings(project);
 
         return new RowVisitor() {
@@ -175,7 +183,11 @@ public class ColumnAdditionOperation extends EngineDependentOperation {
 
             @Override
             public void end(Project project) {
-                // nothing to do
+                if (eval instanceof MemoizedEvaluable) {
+                    MemoizedEvaluable memo = (MemoizedEvaluable) eval;
+                    logger.debug("Evaluated expression {} times for {} rows ({} distinct values cached)",
+                            memo.getMisses(), memo.getMisses() + memo.getHits(), memo.getSize());
+                }
             }
 
             @Override
@@ -0,0 +1,291 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.operations.column;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.history.Change;
+import com.google.refine.history.ChangeSequence;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.model.changes.CellAtRow;
+import com.google.refine.model.changes.ColumnAdditionChange;
+import com.google.refine.model.changes.RowRemovalChange;
+import com.google.refine.operations.EngineDependentOperation;
+import com.google.refine.operations.OperationDescription;
+
+/**
+ * Adds columns copied from another project, joining the rows of both projects on key columns. This is what
+ * <code>cells["key"].cross("other project", "key")[0].cells["column"].value</code> computes in a column addition, but
+ * the rows of the other project are indexed by key once and the values are copied without evaluating an expression
+ * for each row.
+ * <p>
+ * Key values are compared as strings, and rows with a blank key are not joined. When several rows of the other project
+ * have the same key, the first one is used. A left join leaves the new cells blank for rows without a match, an inner
+ * join removes those rows. Only the rows selected by the engine are joined, and only cell values are copied, not
+ * reconciliation data.
+ */
+public class ColumnJoinOperation extends EngineDependentOperation {
+
+    public enum JoinType {
+        @JsonProperty("left")
+        Left, @JsonProperty("inner")
+        Inner
+    }
+
+    final protected List<String> _baseColumnNames;
+    final protected String _targetProjectName;
+    final protected List<String> _targetKeyColumnNames;
+    final protected List<String> _targetColumnNames;
+    final protected List<String> _newColumnNames;
+    final protected int _columnInsertIndex;
+    final protected JoinType _joinType;
+
+    @JsonCreator
+    public ColumnJoinOperation(
+            @JsonProperty("engineConfig") EngineConfig engineConfig,
+            @JsonProperty("baseColumnNames") List<String> baseColumnNames,
+            @JsonProperty("targetProjectName") String targetProjectName,
+            @JsonProperty("targetKeyColumnNames") List<String> targetKeyColumnNames,
+            @JsonProperty("targetColumnNames") List<String> targetColumnNames,
+            @JsonProperty("newColumnNames") List<String> newColumnNames,
+            @JsonProperty("columnInsertIndex") int columnInsertIndex,
+            @JsonProperty("joinType") JoinType joinType) {
+        super(engineConfig);
+
+        _baseColumnNames = baseColumnNames;
+        _targetProjectName = targetProjectName;
+        _targetKeyColumnNames = targetKeyColumnNames;
+        _targetColumnNames = targetColumnNames;
+        _newColumnNames = newColumnNames != null ? newColumnNames : targetColumnNames;
+        _columnInsertIndex = columnInsertIndex;
+        _joinType = joinType != null ? joinType : JoinType.Left;
+    }
+
+    @JsonProperty("baseColumnNames")
+    public List<String> getBaseColumnNames() {
+        return _baseColumnNames;
+    }
+
+    @JsonProperty("targetProjectName")
+    public String getTargetProjectName() {
+        return _targetProjectName;
+    }
+
+    @JsonProperty("targetKeyColumnNames")
+    public List<String> getTargetKeyColumnNames() {
+        return _targetKeyColumnNames;
+    }
+
+    @JsonProperty("targetColumnNames")
+    public List<String> getTargetColumnNames() {
+        return _targetColumnNames;
+    }
+
+    @JsonProperty("newColumnNames")
+    public List<String> getNewColumnNames() {
+        return _newColumnNames;
+    }
+
+    @JsonProperty("columnInsertIndex")
+    public int getColumnInsertIndex() {
+        return _columnInsertIndex;
+    }
+
+    @JsonProperty("joinType")
+    public JoinType getJoinType() {
+        return _joinType;
+    }
+
+    @Override
+    protected String getBriefDescription(Project project) {
+        return OperationDescription.column_join_brief(String.join(", ", _targetColumnNames), _targetProjectName,
+                String.join(", ", _baseColumnNames));
+    }
+
+    protected String createDescription(int matchedRows, int removedRows) {
+        if (_joinType == JoinType.Inner) {
+            return OperationDescription.column_join_inner_desc(String.join(", ", _newColumnNames), _targetProjectName,
+                    matchedRows, removedRows);
+        }
+        return OperationDescription.column_join_desc(String.join(", ", _newColumnNames), _targetProjectName, matchedRows);
+    }
+
+    @Override
+    protected HistoryEntry createHistoryEntry(Project project, long historyEntryID) throws Exception {
+        if (_baseColumnNames == null || _baseColumnNames.isEmpty() || _targetKeyColumnNames == null
+                || _baseColumnNames.size() != _targetKeyColumnNames.size()) {
+            throw new Exception("As many key columns are needed in both projects");
+        }
+        if (_targetColumnNames == null || _targetColumnNames.isEmpty() || _newColumnNames.size() != _targetColumnNames.size()) {
+            throw new Exception("As many new column names as columns to join are needed");
+        }
+
+        Project targetProject = ProjectManager.singleton.getProject(ProjectManager.singleton.getProjectID(_targetProjectName));
+        if (targetProject == null) {
+            throw new Exception("No project named " + _targetProjectName);
+        }
+        int[] baseKeyCellIndices = getCellIndices(project, _baseColumnNames);
+        int[] targetKeyCellIndices = getCellIndices(targetProject, _targetKeyColumnNames);
+        int[] targetCellIndices = getCellIndices(targetProject, _targetColumnNames);
+        for (String newColumnName : _newColumnNames) {
+            if (project.columnModel.getColumnByName(newColumnName) != null) {
+                throw new Exception("Another column already named " + newColumnName);
+            }
+        }
+
+        // index the rows of the other project by key, keeping the first row of each key. The rows themselves are
+        // kept, since the rows of the other project can be added or removed once its lock is released.
+        Map<Object, Row> targetRows = new HashMap<>();
+        synchronized (targetProject) {
+            for (Row targetRow : targetProject.rows) {
+                Object key = getKey(targetRow, targetKeyCellIndices);
+                if (key != null) {
+                    targetRows.putIfAbsent(key, targetRow);
+                }
+            }
+        }
+
+        JoinRowVisitor visitor = new JoinRowVisitor(targetRows, baseKeyCellIndices, targetCellIndices);
+        Engine engine = createEngine(project);
+        FilteredRows filteredRows = engine.getAllFilteredRows();
+        filteredRows.accept(project, visitor);
+
+        List<Change> changes = new ArrayList<>();
+        for (int i = 0; i < targetCellIndices.length; i++) {
+            changes.add(new ColumnAdditionChange(_newColumnNames.get(i), _columnInsertIndex + i, visitor.cellsAtRows.get(i)));
+        }
+        int removedRows = 0;
+        if (_joinType == JoinType.Inner && !visitor.unmatchedRows.isEmpty()) {
+            changes.add(new RowRemovalChange(visitor.unmatchedRows));
+            removedRows = visitor.unmatchedRows.size();
+        }
+
+        Change change = changes.size() == 1 ? changes.get(0) : new ChangeSequence(changes.toArray(new Change[0]));
+
+        return new HistoryEntry(historyEntryID, project, createDescription(visitor.matchedRows, removedRows), this, change);
+    }
+
+    protected int[] getCellIndices(Project project, List<String> columnNames) throws Exception {
+        int[] cellIndices = new int[columnNames.size()];
+        for (int i = 0; i < cellIndices.length; i++) {
+            Column column = project.columnModel.getColumnByName(columnNames.get(i));
+            if (column == null) {
+                throw new Exception("No column named " + columnNames.get(i));
+            }
+            cellIndices[i] = column.getCellIndex();
+        }
+        return cellIndices;
+    }
+
+    /**
+     * @return the key of the row, a string for a single key column or a list of strings otherwise, or null if one of
+     *         the key values is blank
+     */
+    static protected Object getKey(Row row, int[] keyCellIndices) {
+        if (keyCellIndices.length == 1) {
+            Object value = row.getCellValue(keyCellIndices[0]);
+            return ExpressionUtils.isNonBlankData(value) ? value.toString() : null;
+        }
+        String[] key = new String[keyCellIndices.length];
+        for (int i = 0; i < key.length; i++) {
+            Object value = row.getCellValue(keyCellIndices[i]);
+            if (!ExpressionUtils.isNonBlankData(value)) {
+                return null;
+            }
+            key[i] = value.toString();
+        }
+        return Arrays.asList(key);
+    }
+
+    static protected class JoinRowVisitor implements RowVisitor {
+
+        final protected Map<Object, Row> targetRows;
+        final protected int[] baseKeyCellIndices;
+        final protected int[] targetCellIndices;
+
+        // the new cells of each joined column
+        final protected List<List<CellAtRow>> cellsAtRows;
+        final protected List<Integer> unmatchedRows = new ArrayList<>();
+        protected int matchedRows = 0;
+
+        protected JoinRowVisitor(Map<Object, Row> targetRows, int[] baseKeyCellIndices, int[] targetCellIndices) {
+            this.targetRows = targetRows;
+            this.baseKeyCellIndices = baseKeyCellIndices;
+            this.targetCellIndices = targetCellIndices;
+            cellsAtRows = new ArrayList<>(targetCellIndices.length);
+            for (int i = 0; i < targetCellIndices.length; i++) {
+                cellsAtRows.add(new ArrayList<>());
+            }
+        }
+
+        @Override
+        public void start(Project project) {
+            // nothing to do
+        }
+
+        @Override
+        public void end(Project project) {
+            // nothing to do
+        }
+
+        @Override
+        public boolean visit(Project project, int rowIndex, Row row) {
+            Object key = getKey(row, baseKeyCellIndices);
+            Row targetRow = key != null ? targetRows.get(key) : null;
+            if (targetRow == null) {
+                unmatchedRows.add(rowIndex);
+                return false;
+            }
+            matchedRows++;
+            for (int i = 0; i < targetCellIndices.length; i++) {
+                Cell cell = targetRow.getCell(targetCellIndices[i]);
+                if (cell != null && cell.value != null) {
+                    cellsAtRows.get(i).add(new CellAtRow(rowIndex, new Cell(cell.value, null)));
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -36,14 +36,24 @@ package com.google.refine.operations.recon;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.browsing.FilteredRows;
@@ -63,11 +73,18 @@ import com.google.refine.model.recon.ReconciledDataExtensionJob.DataExtension;
 import com.google.refine.model.recon.ReconciledDataExtensionJob.DataExtensionConfig;
 import com.google.refine.operations.EngineDependentOperation;
 import com.google.refine.operations.OperationDescription;
+import com.google.refine.preference.PreferenceStore;
 import com.google.refine.process.LongRunningProcess;
 import com.google.refine.process.Process;
 
 public class ExtendDataOperation extends EngineDependentOperation {
 
+    final static Logger logger = LoggerFactory.getLogger("extend-data-operation");
+
+    static final public String CONCURRENT_BATCHES_PREFERENCE = "dataExtension.concurrentBatches";
+    // maximum number of entities per request
+    static final protected int BATCH_SIZE = 10;
+
     @JsonProperty("baseColumnName")
     final protected String _baseColumnName;
     @JsonProperty("endpoint")
@@ -117,6 +134,34 @@ public class ExtendDataOperation extends EngineDependentOperation {
                 getBriefDescription(null));
     }
 
+    /**
+     * @return the maximum number of batches of entities fetched at the same time, 1 unless the
+     *         {@link #CONCURRENT_BATCHES_PREFERENCE} preference says otherwise.
+     */
+    protected int getMaxConcurrentBatches() {
+        PreferenceStore preferences = ProjectManager.singleton != null ? ProjectManager.singleton.getPreferenceStore() : null;
+        Object v = preferences != null ? preferences.get(CONCURRENT_BATCHES_PREFERENCE) : null;
+        if (v != null) {
+            try {
+                return Math.max(1, Integer.parseInt(v.toString()));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid value for preference {}: {}", CONCURRENT_BATCHES_PREFERENCE, v);
+            }
+        }
+        return 1;
+    }
+
+    static protected class Batch {
+
+        final protected int size;
+        final protected Map<String, DataExtension> extensions;
+
+        protected Batch(int size, Map<String, DataExtension> extensions) {
+            this.size = size;
+            this.extensions = extensions;
+        }
+    }
+
     public class ExtendDataProcess extends LongRunningProcess implements Runnable {
 
         final protected Project _project;
@@ -185,50 +230,20 @@ public class ExtendDataOperation extends EngineDependentOperation {
             }.init(rowIndices));
         }
 
-        protected int extendRows(
-                List<Integer> rowIndices,
-                List<DataExtension> dataExtensions,
-                int from,
-                int limit,
-                Map<String, ReconCandidate> reconCandidateMap) {
-            Set<String> ids = new HashSet<String>();
-
-            int end;
-            for (end = from; end < limit && ids.size() < 10; end++) {
-                int index = rowIndices.get(end);
-                Row row = _project.rows.get(index);
-                Cell cell = row.getCell(_cellIndex);
-
-                ids.add(cell.recon.match.id);
-            }
-
-            Map<String, DataExtension> map = null;
+        protected Batch extendBatch(Set<String> ids, Map<String, ReconCandidate> reconCandidateMap) {
+            Map<String, DataExtension> map;
             try {
                 map = _job.extend(ids, reconCandidateMap);
             } catch (Exception e) {
+                logger.warn("Failed to fetch the data of a batch of entities", e);
                 map = new HashMap<String, DataExtension>();
             }
-
-            for (int i = from; i < end; i++) {
-                int index = rowIndices.get(i);
-                Row row = _project.rows.get(index);
-                Cell cell = row.getCell(_cellIndex);
-                String guid = cell.recon.match.id;
-
-                if (map.containsKey(guid)) {
-                    dataExtensions.add(map.get(guid));
-                } else {
-                    dataExtensions.add(null);
-                }
-            }
-
-            return end;
+            return new Batch(ids.size(), map);
         }
 
         @Override
         public void run() {
             List<Integer> rowIndices = new ArrayList<Integer>();
-            List<DataExtension> dataExtensions = new ArrayList<DataExtension>();
 
             try {
                 populateRowsWithMatches(rowIndices);
@@ -237,21 +252,63 @@ public class ExtendDataOperation extends EngineDependentOperation {
                 e2.printStackTrace();
             }
 
-            int start = 0;
-            Map<String, ReconCandidate> reconCandidateMap = new HashMap<String, ReconCandidate>();
+            // each entity is fetched once, however many rows it is matched in
+            Set<String> idSet = new LinkedHashSet<String>();
+            for (int index : rowIndices) {
+                idSet.add(_project.rows.get(index).getCell(_cellIndex).recon.match.id);
+            }
+            List<String> ids = new ArrayList<String>(idSet);
 
-            while (start < rowIndices.size()) {
-                int end = extendRows(rowIndices, dataExtensions, start, rowIndices.size(), reconCandidateMap);
-                start = end;
+            Map<String, DataExtension> extensions = new HashMap<String, DataExtension>(ids.size());
+            Map<String, ReconCandidate> reconCandidateMap = new ConcurrentHashMap<String, ReconCandidate>();
+            int concurrency = getMaxConcurrentBatches();
 
-                _progress = end * 100 / rowIndices.size();
-                try {
-                    Thread.sleep(200);
-                } catch (InterruptedException e) {
-                    if (_canceled) {
-                        break;
+            // batches are fetched by helper threads, and their results gathered by this one
+            ExecutorService executor = concurrency > 1 ? Executors.newFixedThreadPool(concurrency) : null;
+            CompletionService<Batch> completionService = new ExecutorCompletionService<>(
+                    executor != null ? executor : Runnable::run);
+            Exception failure = null;
+            try {
+                int next = 0;
+                int inFlight = 0;
+                int done = 0;
+                while ((next < ids.size() || inFlight > 0) && !_canceled) {
+                    // the columns are only known once a first batch has been fetched
+                    int maxInFlight = _job.columns.isEmpty() ? 1 : concurrency;
+                    while (inFlight < maxInFlight && next < ids.size()) {
+                        Set<String> batchIds = new HashSet<String>(ids.subList(next, Math.min(next + BATCH_SIZE, ids.size())));
+                        next += batchIds.size();
+                        completionService.submit(() -> extendBatch(batchIds, reconCandidateMap));
+                        inFlight++;
                     }
+
+                    Batch batch = completionService.take().get();
+                    inFlight--;
+                    extensions.putAll(batch.extensions);
+
+                    done += batch.size;
+                    _progress = done * 100 / ids.size();
                 }
+            } catch (InterruptedException e) {
+                // the process was canceled
+            } catch (ExecutionException e) {
+                logger.error("Failed to fetch the data of a batch of entities", e.getCause());
+                failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            } finally {
+                if (executor != null) {
+                    executor.shutdownNow();
+                }
+            }
+
+            if (failure != null) {
+                // the columns fetched so far would be incomplete, so nothing is added to the project
+                _project.processManager.onFailedProcess(this, failure);
+                return;
+            }
+
+            List<DataExtension> dataExtensions = new ArrayList<DataExtension>(rowIndices.size());
+            for (int index : rowIndices) {
+                dataExtensions.add(extensions.get(_project.rows.get(index).getCell(_cellIndex).recon.match.id));
             }
 
             if (!_canceled) {
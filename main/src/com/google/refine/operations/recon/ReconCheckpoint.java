@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.operations.recon;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.refine.model.Recon;
+import com.google.refine.model.Recon.Judgment;
+import com.google.refine.util.ParsingUtilities;
+
+/**
+ * The recons of the batches a reconciliation process has completed so far, saved in the project directory so that
+ * reconciling the same column with the same settings after a cancellation or a crash does not start over.
+ * <p>
+ * The file is a log of lines holding the key of a reconciliation job and its recon, separated by a tab. A line which
+ * was not completely written is ignored. Recons recording an error, such as those of a batch the service failed to
+ * answer, are not kept: their values are reconciled again on resume.
+ */
+public class ReconCheckpoint {
+
+    final static Logger logger = LoggerFactory.getLogger("recon-checkpoint");
+
+    static final public String DIR_NAME = "recon-checkpoints";
+
+    final protected File _file;
+    protected Writer _writer;
+
+    public ReconCheckpoint(File file) {
+        _file = file;
+    }
+
+    /**
+     * @param id
+     *            identifies the reconciliation, typically by the column, the reconciliation config and the engine
+     *            config it uses
+     */
+    static public ReconCheckpoint forProjectDir(File projectDir, String id) {
+        return new ReconCheckpoint(new File(new File(projectDir, DIR_NAME), hash(id) + ".txt"));
+    }
+
+    public File getFile() {
+        return _file;
+    }
+
+    /**
+     * @return the recons saved so far, by job key
+     */
+    public Map<String, Recon> load() {
+        Map<String, Recon> recons = new HashMap<>();
+        if (!_file.exists()) {
+            return recons;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(_file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab < 0) {
+                    continue;
+                }
+                try {
+                    String key = ParsingUtilities.mapper.readValue(line.substring(0, tab), String.class);
+                    Recon recon = Recon.loadStreaming(line.substring(tab + 1));
+                    if (recon != null && recon.judgment != Judgment.Error) {
+                        recons.put(key, recon);
+                    }
+                } catch (Exception e) {
+                    // the last line may have been cut short by a crash
+                    logger.warn("Ignoring invalid line in reconciliation checkpoint {}", _file);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read reconciliation checkpoint " + _file, e);
+        }
+        return recons;
+    }
+
+    /**
+     * Saves the recons of a batch, null recons and recons recording an error being skipped.
+     */
+    public synchronized void save(List<String> keys, List<Recon> recons) {
+        try {
+            if (_writer == null) {
+                _file.getParentFile().mkdirs();
+                _writer = new OutputStreamWriter(new FileOutputStream(_file, true), StandardCharsets.UTF_8);
+                if (endsWithPartialLine()) {
+                    _writer.write('\n');
+                }
+            }
+            for (int i = 0; i < keys.size() && i < recons.size(); i++) {
+                if (recons.get(i) != null && recons.get(i).judgment != Judgment.Error) {
+                    _writer.write(ParsingUtilities.mapper.writeValueAsString(keys.get(i)));
+                    _writer.write('\t');
+                    _writer.write(ParsingUtilities.saveWriter.writeValueAsString(recons.get(i)));
+                    _writer.write('\n');
+                }
+            }
+            _writer.flush();
+        } catch (IOException e) {
+            logger.warn("Failed to write reconciliation checkpoint " + _file, e);
+        }
+    }
+
+    protected boolean endsWithPartialLine() throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(_file, "r")) {
+            if (file.length() == 0) {
+                return false;
+            }
+            file.seek(file.length() - 1);
+            return file.read() != '\n';
+        }
+    }
+
+    public synchronized void close() {
+        if (_writer != null) {
+            try {
+                _writer.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close reconciliation checkpoint " + _file, e);
+            }
+            _writer = null;
+        }
+    }
+
+    /**
+     * Deletes the checkpoint, once its recons are part of the project.
+     */
+    public synchronized void delete() {
+        close();
+        _file.delete();
+    }
+
+    static protected String hash(String id) {
+        // the first 128 bits are enough to tell reconciliations apart
+        return Hashing.sha256().hashString(id, StandardCharsets.UTF_8).toString().substring(0, 32);
+    }
+}
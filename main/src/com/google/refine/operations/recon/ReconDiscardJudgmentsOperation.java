@@ -51,6 +51,7 @@ import com.google.refine.model.Recon.Judgment;
 import com.google.refine.model.Row;
 import com.google.refine.model.changes.CellChange;
 import com.google.refine.model.changes.ReconChange;
+import com.google.refine.model.recon.ReconInterner;
 import com.google.refine.operations.EngineDependentMassCellOperation;
 import com.google.refine.operations.OperationDescription;
 
@@ -102,6 +103,7 @@ public class ReconDiscardJudgmentsOperation extends EngineDependentMassCellOpera
             int cellIndex;
             List<CellChange> cellChanges;
             Map<Long, Recon> dupReconMap = new HashMap<Long, Recon>();
+            ReconInterner reconInterner = new ReconInterner();
             long historyEntryID;
 
             public RowVisitor init(int cellIndex, List<CellChange> cellChanges, long historyEntryID) {
@@ -138,6 +140,7 @@ public class ReconDiscardJudgmentsOperation extends EngineDependentMassCellOpera
                             newRecon.judgmentAction = "mass";
                             newRecon.judgmentBatchSize = 1;
 
+                            newRecon = reconInterner.intern(newRecon);
                             dupReconMap.put(cell.recon.id, newRecon);
                         }
                     }
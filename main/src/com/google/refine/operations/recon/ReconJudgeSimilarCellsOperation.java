@@ -56,6 +56,7 @@ import com.google.refine.model.Row;
 import com.google.refine.model.changes.CellChange;
 import com.google.refine.model.changes.ReconChange;
 import com.google.refine.model.recon.ReconConfig;
+import com.google.refine.model.recon.ReconInterner;
 import com.google.refine.operations.EngineDependentMassCellOperation;
 import com.google.refine.operations.OperationDescription;
 
@@ -151,6 +152,7 @@ public class ReconJudgeSimilarCellsOperation extends EngineDependentMassCellOper
             List<CellChange> _cellChanges;
             Recon _sharedNewRecon = null;
             Map<Long, Recon> _dupReconMap = new HashMap<Long, Recon>();
+            ReconInterner _reconInterner = new ReconInterner();
             long _historyEntryID;
 
             public RowVisitor init(int cellIndex, List<CellChange> cellChanges, long historyEntryID) {
@@ -228,6 +230,7 @@ public class ReconJudgeSimilarCellsOperation extends EngineDependentMassCellOper
                                     throw new IllegalArgumentException("Cannot manually set judgment to 'error'");
                                 }
 
+                                recon = _reconInterner.intern(recon);
                                 _dupReconMap.put(cell.recon.id, recon);
                             }
                         }
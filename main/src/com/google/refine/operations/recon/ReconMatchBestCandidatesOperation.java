@@ -52,6 +52,7 @@ import com.google.refine.model.ReconCandidate;
 import com.google.refine.model.Row;
 import com.google.refine.model.changes.CellChange;
 import com.google.refine.model.changes.ReconChange;
+import com.google.refine.model.recon.ReconInterner;
 import com.google.refine.operations.EngineDependentMassCellOperation;
 import com.google.refine.operations.OperationDescription;
 
@@ -90,6 +91,7 @@ public class ReconMatchBestCandidatesOperation extends EngineDependentMassCellOp
             int cellIndex;
             List<CellChange> cellChanges;
             Map<Long, Recon> dupReconMap = new HashMap<Long, Recon>();
+            ReconInterner reconInterner = new ReconInterner();
             long historyEntryID;
 
             public RowVisitor init(int cellIndex, List<CellChange> cellChanges, long historyEntryID) {
@@ -128,6 +130,7 @@ public class ReconMatchBestCandidatesOperation extends EngineDependentMassCellOp
                                 newRecon.judgment = Judgment.Matched;
                                 newRecon.judgmentAction = "mass";
 
+                                newRecon = reconInterner.intern(newRecon);
                                 dupReconMap.put(cell.recon.id, newRecon);
                             }
                             Cell newCell = new Cell(
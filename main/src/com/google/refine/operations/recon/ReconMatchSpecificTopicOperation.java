@@ -53,6 +53,7 @@ import com.google.refine.model.ReconCandidate;
 import com.google.refine.model.Row;
 import com.google.refine.model.changes.CellChange;
 import com.google.refine.model.changes.ReconChange;
+import com.google.refine.model.recon.ReconInterner;
 import com.google.refine.operations.EngineDependentMassCellOperation;
 import com.google.refine.operations.OperationDescription;
 
@@ -124,6 +125,7 @@ public class ReconMatchSpecificTopicOperation extends EngineDependentMassCellOpe
             int cellIndex;
             List<CellChange> cellChanges;
             Map<Long, Recon> dupReconMap = new HashMap<Long, Recon>();
+            ReconInterner reconInterner = new ReconInterner();
             long historyEntryID;
 
             public RowVisitor init(int cellIndex, List<CellChange> cellChanges, long historyEntryID) {
@@ -166,6 +168,7 @@ public class ReconMatchSpecificTopicOperation extends EngineDependentMassCellOpe
                         newRecon.judgmentAction = "mass";
                         newRecon.judgmentBatchSize = 1;
 
+                        newRecon = reconInterner.intern(newRecon);
                         dupReconMap.put(reconID, newRecon);
                     }
 
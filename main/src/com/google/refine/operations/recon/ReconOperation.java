@@ -35,17 +35,26 @@ package com.google.refine.operations.recon;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.browsing.FilteredRows;
@@ -53,11 +62,13 @@ import com.google.refine.browsing.RowVisitor;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.history.Change;
 import com.google.refine.history.HistoryEntry;
+import com.google.refine.io.FileProjectManager;
 import com.google.refine.messages.OpenRefineMessage;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 import com.google.refine.model.Recon;
+import com.google.refine.model.Recon.Judgment;
 import com.google.refine.model.Row;
 import com.google.refine.model.changes.CellChange;
 import com.google.refine.model.changes.ReconChange;
@@ -65,6 +76,7 @@ import com.google.refine.model.recon.ReconConfig;
 import com.google.refine.model.recon.ReconJob;
 import com.google.refine.model.recon.StandardReconConfig;
 import com.google.refine.operations.EngineDependentOperation;
+import com.google.refine.operations.OperationDescription;
 import com.google.refine.process.LongRunningProcess;
 import com.google.refine.process.Process;
 import com.google.refine.util.ParsingUtilities;
@@ -99,6 +111,26 @@ public class ReconOperation extends EngineDependentOperation {
         return _reconConfig.getBriefDescription(project, _columnName);
     }
 
+    /**
+     * The checkpoint of a reconciliation is kept in the project directory and identified by the column, the
+     * reconciliation config and the rows it applies to, so that running the same operation again resumes it.
+     *
+     * @return the checkpoint of the reconciliation, or null if the workspace cannot keep one
+     */
+    protected ReconCheckpoint createCheckpoint(Project project) {
+        if (!(ProjectManager.singleton instanceof FileProjectManager)) {
+            return null;
+        }
+        try {
+            String id = _columnName + "\n" + ParsingUtilities.saveWriter.writeValueAsString(_reconConfig) + "\n"
+                    + ParsingUtilities.saveWriter.writeValueAsString(getEngineConfig());
+            return ReconCheckpoint.forProjectDir(((FileProjectManager) ProjectManager.singleton).getProjectDir(project.id), id);
+        } catch (IOException e) {
+            logger.warn("Failed to identify the reconciliation checkpoint", e);
+            return null;
+        }
+    }
+
     @JsonProperty("config")
     public ReconConfig getReconConfig() {
         return _reconConfig;
@@ -131,6 +163,77 @@ public class ReconOperation extends EngineDependentOperation {
         }
     }
 
+    /**
+     * The result of the reconciliation of a batch of job groups.
+     */
+    static protected class Batch {
+
+        final public List<JobGroup> groups;
+        final public List<Recon> recons;
+        final public long millis;
+        final public boolean failed;
+
+        public Batch(List<JobGroup> groups, List<Recon> recons, long millis) {
+            this.groups = groups;
+            this.recons = recons;
+            this.millis = millis;
+            // a service which could not be reached returns recons in error for the whole batch
+            this.failed = recons.isEmpty() || recons.stream().allMatch(r -> r == null || r.judgment == Judgment.Error);
+        }
+    }
+
+    /**
+     * The size of the next batches, adapted to the time taken by the previous ones: halved when a batch is slow or
+     * fails, increased again when batches are fast, up to the batch size of the reconciliation config.
+     */
+    static protected class AdaptiveBatchSize {
+
+        static final long SLOW_BATCH_MILLIS = 10000;
+        static final long FAST_BATCH_MILLIS = 2000;
+
+        final protected int _maxSize;
+        protected volatile int _size;
+
+        public AdaptiveBatchSize(int maxSize) {
+            _maxSize = maxSize;
+            _size = maxSize;
+        }
+
+        public int get() {
+            return _size;
+        }
+
+        public synchronized void update(long millis, boolean failed) {
+            if (failed || millis > SLOW_BATCH_MILLIS) {
+                _size = Math.max(1, _size / 2);
+            } else if (millis < FAST_BATCH_MILLIS) {
+                _size = Math.min(_maxSize, _size + Math.max(1, _size / 4));
+            }
+        }
+    }
+
+    static public class ReconMetrics {
+
+        @JsonProperty("reconciledValues")
+        final public int reconciledValues;
+        @JsonProperty("totalValues")
+        final public int totalValues;
+        @JsonProperty("batchSize")
+        final public int batchSize;
+        @JsonProperty("concurrentBatches")
+        final public int concurrentBatches;
+        @JsonProperty("valuesPerSecond")
+        final public double valuesPerSecond;
+
+        public ReconMetrics(int reconciledValues, int totalValues, int batchSize, int concurrentBatches, double valuesPerSecond) {
+            this.reconciledValues = reconciledValues;
+            this.totalValues = totalValues;
+            this.batchSize = batchSize;
+            this.concurrentBatches = concurrentBatches;
+            this.valuesPerSecond = valuesPerSecond;
+        }
+    }
+
     public class ReconProcess extends LongRunningProcess implements Runnable {
 
         final protected Project _project;
@@ -139,6 +242,13 @@ public class ReconOperation extends EngineDependentOperation {
         protected List<ReconEntry> _entries;
         protected int _cellIndex;
 
+        // metrics, set once the process runs
+        protected volatile AdaptiveBatchSize _batchSize;
+        protected volatile int _concurrency;
+        protected volatile int _doneValues;
+        protected volatile int _totalValues;
+        protected volatile long _startTime;
+
         protected final String _addJudgmentFacetJson = "{\n" +
                 "  \"action\" : \"createFacet\",\n" +
                 "  \"facetConfig\" : {\n" +
@@ -195,6 +305,32 @@ public class ReconOperation extends EngineDependentOperation {
             return this;
         }
 
+        @Override
+        public boolean keepsResultsWhenCanceled() {
+            return true;
+        }
+
+        @JsonProperty("metrics")
+        @JsonInclude(Include.NON_NULL)
+        public ReconMetrics getMetrics() {
+            if (_startTime == 0) {
+                return null;
+            }
+            long elapsed = Math.max(1, System.currentTimeMillis() - _startTime);
+            return new ReconMetrics(_doneValues, _totalValues, _batchSize.get(), _concurrency, _doneValues * 1000.0 / elapsed);
+        }
+
+        protected Batch reconcileBatch(List<JobGroup> groups) {
+            List<ReconJob> jobs = new ArrayList<ReconJob>(groups.size());
+            for (JobGroup group : groups) {
+                jobs.add(group.job);
+            }
+            long start = System.currentTimeMillis();
+            // an exception fails the whole process, see run()
+            List<Recon> recons = _reconConfig.batchRecon(jobs, _historyEntryID);
+            return new Batch(groups, recons, System.currentTimeMillis() - start);
+        }
+
         protected void populateEntries() throws Exception {
             Engine engine = new Engine(_project);
             engine.initializeFromConfig(_engineConfig);
@@ -261,87 +397,150 @@ public class ReconOperation extends EngineDependentOperation {
                 group.entries.add(entry);
             }
 
-            int batchSize = _reconConfig.getBatchSize(_project.rows.size());
-            int done = 0;
-
             List<CellChange> cellChanges = new ArrayList<CellChange>(_entries.size());
             List<JobGroup> groups = new ArrayList<JobGroup>(jobKeyToGroup.values());
-
-            List<ReconJob> jobs = new ArrayList<ReconJob>(batchSize);
-            Map<ReconJob, JobGroup> jobToGroup = new HashMap<ReconJob, ReconOperation.JobGroup>();
-
-            for (int i = 0; i < groups.size(); /* don't increment here */) {
-                while (jobs.size() < batchSize && i < groups.size()) {
-                    JobGroup group = groups.get(i++);
-
-                    jobs.add(group.job);
-                    jobToGroup.put(group.job, group);
+            _totalValues = groups.size();
+
+            // groups reconciled before a cancellation or a crash are not sent again
+            ReconCheckpoint checkpoint = createCheckpoint(_project);
+            Map<String, Recon> checkpointRecons = checkpoint != null ? checkpoint.load() : Collections.emptyMap();
+            if (!checkpointRecons.isEmpty()) {
+                List<JobGroup> remainingGroups = new ArrayList<JobGroup>(groups.size());
+                for (JobGroup group : groups) {
+                    Recon recon = checkpointRecons.get(group.job.getStringKey());
+                    if (recon != null) {
+                        recon.judgmentHistoryEntry = _historyEntryID;
+                        addCellChanges(group, recon, cellChanges);
+                    } else {
+                        remainingGroups.add(group);
+                    }
                 }
+                _doneValues = groups.size() - remainingGroups.size();
+                logger.info("Resuming reconciliation of column {} after {} values", _columnName, _doneValues);
+                groups = remainingGroups;
+            }
 
-                List<Recon> recons = _reconConfig.batchRecon(jobs, _historyEntryID);
-                for (int j = jobs.size() - 1; j >= 0; j--) {
-                    ReconJob job = jobs.get(j);
-                    Recon recon = j < recons.size() ? recons.get(j) : null;
-                    JobGroup group = jobToGroup.get(job);
-                    List<ReconEntry> entries = group.entries;
-
-                    jobToGroup.remove(job);
-                    jobs.remove(j);
-                    done++;
+            int concurrency = Math.max(1, _reconConfig.getMaxConcurrentBatches());
+            _batchSize = new AdaptiveBatchSize(Math.max(1, _reconConfig.getBatchSize(_project.rows.size())));
+            _concurrency = concurrency;
+            _startTime = System.currentTimeMillis();
 
-                    if (recon != null) {
-                        recon.judgmentBatchSize = entries.size();
+            // batches are reconciled by helper threads, and their results gathered by this one
+            ExecutorService executor = concurrency > 1 ? Executors.newFixedThreadPool(concurrency) : null;
+            CompletionService<Batch> completionService = new ExecutorCompletionService<>(
+                    executor != null ? executor : Runnable::run);
+            Exception failure = null;
+            try {
+                int next = 0;
+                int inFlight = 0;
+                while ((next < groups.size() || inFlight > 0) && !_canceled) {
+                    while (inFlight < concurrency && next < groups.size()) {
+                        List<JobGroup> batchGroups = groups.subList(next, Math.min(next + _batchSize.get(), groups.size()));
+                        next += batchGroups.size();
+                        completionService.submit(() -> reconcileBatch(batchGroups));
+                        inFlight++;
                     }
 
-                    for (ReconEntry entry : entries) {
-                        if (recon == null) {
-                            // TODO add EvalError instead? That is not so convenient
-                            // for users because they would lose the cell contents.
-                            // Better leave the cell unreconciled so they can be reconciled again later.
-                            Cell oldCell = entry.cell;
-                            logger.warn("We have a null recon here" + " " + oldCell + " " + entry.rowIndex);
-                            continue;
-                        }
-                        Cell oldCell = entry.cell;
-                        Cell newCell = new Cell(oldCell.value, recon);
-
-                        CellChange cellChange = new CellChange(
-                                entry.rowIndex,
-                                _cellIndex,
-                                oldCell,
-                                newCell);
-                        cellChanges.add(cellChange);
+                    Batch batch = completionService.take().get();
+                    inFlight--;
+                    _batchSize.update(batch.millis, batch.failed);
+
+                    List<String> keys = new ArrayList<String>(batch.groups.size());
+                    for (int j = 0; j < batch.groups.size(); j++) {
+                        Recon recon = j < batch.recons.size() ? batch.recons.get(j) : null;
+                        addCellChanges(batch.groups.get(j), recon, cellChanges);
+                        keys.add(batch.groups.get(j).job.getStringKey());
+                    }
+                    if (checkpoint != null) {
+                        checkpoint.save(keys, batch.recons);
                     }
+
+                    _doneValues += batch.groups.size();
+                    _progress = _doneValues * 100 / _totalValues;
+                }
+            } catch (InterruptedException e) {
+                // the process was canceled
+            } catch (ExecutionException e) {
+                logger.error("Failed to reconcile a batch", e.getCause());
+                failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            } finally {
+                if (executor != null) {
+                    executor.shutdownNow();
                 }
+            }
+            // a cancellation interrupts this thread, which must not abort the writing of the results below
+            Thread.interrupted();
 
-                _progress = done * 100 / groups.size();
-                try {
-                    Thread.sleep(50);
-                } catch (InterruptedException e) {
-                    if (_canceled) {
-                        break;
-                    }
+            if (checkpoint != null) {
+                checkpoint.close();
+            }
+            if (failure != null) {
+                // keep the results reconciled so far and the checkpoint, so that the remaining values can be
+                // reconciled later
+                if (!cellChanges.isEmpty()) {
+                    addHistoryEntry(cellChanges, OperationDescription.recon_reconcile_partial_desc(_description,
+                            _doneValues, _totalValues));
+                }
+                _project.processManager.onFailedProcess(this, failure);
+            } else if (!_canceled) {
+                addHistoryEntry(cellChanges, _description);
+                if (checkpoint != null) {
+                    checkpoint.delete();
+                }
+                _project.processManager.onDoneProcess(this);
+            } else {
+                // keep the results reconciled so far, the checkpoint lets the remaining values be reconciled later
+                if (!cellChanges.isEmpty()) {
+                    addHistoryEntry(cellChanges, OperationDescription.recon_reconcile_partial_desc(_description,
+                            _doneValues, _totalValues));
                 }
+                _project.processManager.onDoneProcess(this);
             }
+        }
 
-            // TODO: Option to keep partial results after cancellation?
-            if (!_canceled) {
-                Change reconChange = new ReconChange(
-                        cellChanges,
-                        _columnName,
-                        _reconConfig,
-                        null);
+        protected void addCellChanges(JobGroup group, Recon recon, List<CellChange> cellChanges) {
+            List<ReconEntry> entries = group.entries;
 
-                HistoryEntry historyEntry = new HistoryEntry(
-                        _historyEntryID,
-                        _project,
-                        _description,
-                        ReconOperation.this,
-                        reconChange);
+            if (recon != null) {
+                recon.judgmentBatchSize = entries.size();
+            }
 
-                _project.history.addEntry(historyEntry);
-                _project.processManager.onDoneProcess(this);
+            for (ReconEntry entry : entries) {
+                if (recon == null) {
+                    // TODO add EvalError instead? That is not so convenient
+                    // for users because they would lose the cell contents.
+                    // Better leave the cell unreconciled so they can be reconciled again later.
+                    Cell oldCell = entry.cell;
+                    logger.warn("We have a null recon here" + " " + oldCell + " " + entry.rowIndex);
+                    continue;
+                }
+                Cell oldCell = entry.cell;
+                Cell newCell = new Cell(oldCell.value, recon);
+
+                CellChange cellChange = new CellChange(
+                        entry.rowIndex,
+                        _cellIndex,
+                        oldCell,
+                        newCell);
+                cellChanges.add(cellChange);
             }
         }
+
+        protected void addHistoryEntry(List<CellChange> cellChanges, String description) {
+            Change reconChange = new ReconChange(
+                    cellChanges,
+                    _columnName,
+                    _reconConfig,
+                    null);
+
+            HistoryEntry historyEntry = new HistoryEntry(
+                    _historyEntryID,
+                    _project,
+                    description,
+                    ReconOperation.this,
+                    reconChange);
+
+            _project.history.addEntry(historyEntry);
+        }
     }
 }
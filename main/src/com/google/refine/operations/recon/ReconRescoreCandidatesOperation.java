@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.operations.recon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.history.Change;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.model.Recon;
+import com.google.refine.model.Recon.Judgment;
+import com.google.refine.model.Row;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.model.changes.ReconChange;
+import com.google.refine.model.recon.ReconAutoMatchRules;
+import com.google.refine.model.recon.ReconCandidateScorer;
+import com.google.refine.model.recon.ReconInterner;
+import com.google.refine.model.recon.StandardReconConfig;
+import com.google.refine.operations.EngineDependentMassCellOperation;
+import com.google.refine.operations.OperationDescription;
+
+/**
+ * Recomputes the features of the candidates cells were reconciled to, and matches the best candidate of the cells
+ * meeting the given rules, without contacting the reconciliation service again. Cells judged by the user are left as
+ * they are, and cells matched automatically before are unmatched if they no longer meet the rules.
+ */
+public class ReconRescoreCandidatesOperation extends EngineDependentMassCellOperation {
+
+    final protected ReconAutoMatchRules _rules;
+
+    @JsonCreator
+    public ReconRescoreCandidatesOperation(
+            @JsonProperty("engineConfig") EngineConfig engineConfig,
+            @JsonProperty("columnName") String columnName,
+            @JsonProperty("rules") ReconAutoMatchRules rules) {
+        super(engineConfig, columnName, false);
+        if (rules == null) {
+            throw new IllegalArgumentException("Missing rules to rescore the candidates with");
+        }
+        _rules = rules;
+    }
+
+    @JsonProperty("columnName")
+    public String getColumnName() {
+        return _columnName;
+    }
+
+    @JsonProperty("rules")
+    public ReconAutoMatchRules getRules() {
+        return _rules;
+    }
+
+    @Override
+    protected String getBriefDescription(Project project) {
+        return OperationDescription.recon_rescore_candidates_brief(_columnName);
+    }
+
+    @Override
+    protected String createDescription(Column column,
+            List<CellChange> cellChanges) {
+
+        return OperationDescription.recon_rescore_candidates_desc(cellChanges.size(), column.getName());
+    }
+
+    @Override
+    protected RowVisitor createRowVisitor(Project project, List<CellChange> cellChanges, long historyEntryID) throws Exception {
+        Column column = project.columnModel.getColumnByName(_columnName);
+        String typeID = column.getReconConfig() instanceof StandardReconConfig
+                ? ((StandardReconConfig) column.getReconConfig()).typeID
+                : null;
+
+        return new RowVisitor() {
+
+            int cellIndex;
+            List<CellChange> cellChanges;
+            long historyEntryID;
+            // the cells are gathered while visiting rows and scored all at once at the end
+            List<Integer> rowIndices = new ArrayList<>();
+            List<Cell> cells = new ArrayList<>();
+            List<Recon> recons = new ArrayList<>();
+
+            public RowVisitor init(int cellIndex, List<CellChange> cellChanges, long historyEntryID) {
+                this.cellIndex = cellIndex;
+                this.cellChanges = cellChanges;
+                this.historyEntryID = historyEntryID;
+                return this;
+            }
+
+            @Override
+            public void start(Project project) {
+                // nothing to do
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                if (cellIndex < row.cells.size()) {
+                    Cell cell = row.cells.get(cellIndex);
+                    if (cell != null && cell.recon != null && cell.recon.candidates != null
+                            && (cell.recon.judgment == Judgment.None || "auto".equals(cell.recon.judgmentAction))) {
+                        rowIndices.add(rowIndex);
+                        cells.add(cell);
+                        recons.add(cell.recon);
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public void end(Project project) {
+                String[] texts = new String[cells.size()];
+                for (int i = 0; i < texts.length; i++) {
+                    Object value = cells.get(i).value;
+                    texts[i] = value != null ? value.toString() : null;
+                }
+                ReconCandidateScorer scorer = new ReconCandidateScorer(typeID);
+                scorer.score(recons, texts);
+
+                ReconInterner reconInterner = new ReconInterner();
+                for (int i = 0; i < scorer.size(); i++) {
+                    Cell cell = cells.get(i);
+                    Recon newRecon = cell.recon.dup(historyEntryID);
+                    scorer.applyFeatures(i, newRecon);
+                    if (_rules.matches(scorer, i)) {
+                        newRecon.match = newRecon.getBestCandidate();
+                        newRecon.matchRank = 0;
+                        newRecon.judgment = Judgment.Matched;
+                        newRecon.judgmentAction = "auto";
+                    } else if (cell.recon.judgment == Judgment.Matched) {
+                        newRecon.match = null;
+                        newRecon.matchRank = -1;
+                        newRecon.judgment = Judgment.None;
+                    }
+                    if (newRecon.judgment == cell.recon.judgment && newRecon.match == cell.recon.match
+                            && Arrays.deepEquals(newRecon.features, cell.recon.features)) {
+                        continue;
+                    }
+                    newRecon.judgmentBatchSize = 1;
+                    newRecon = reconInterner.intern(newRecon);
+
+                    Cell newCell = new Cell(cell.value, newRecon);
+                    cellChanges.add(new CellChange(rowIndices.get(i), cellIndex, cell, newCell));
+                }
+            }
+        }.init(column.getCellIndex(), cellChanges, historyEntryID);
+    }
+
+    @Override
+    protected Change createChange(Project project, Column column, List<CellChange> cellChanges) {
+        return new ReconChange(
+                cellChanges,
+                _columnName,
+                column.getReconConfig(),
+                null);
+    }
+}
@@ -38,14 +38,26 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 
 import com.google.refine.history.HistoryEntry;
 
+/**
+ * A process which runs in the background, on a worker of the {@link ProcessScheduler}, and reports its progress.
+ */
 abstract public class LongRunningProcess extends Process {
 
+    static final protected int PENDING = 0;
+    static final protected int QUEUED = 1;
+    static final protected int RUNNING = 2;
+    static final protected int DONE = 3;
+
     @JsonProperty("description")
     final protected String _description;
     @JsonIgnore
     protected ProcessManager _manager;
     @JsonIgnore
-    protected Thread _thread;
+    protected Thread _thread; // the worker running the process, while it runs
+    @JsonIgnore
+    protected volatile int _state = PENDING;
+    @JsonIgnore
+    protected ProcessScheduler.Task _task;
     @JsonProperty("progress")
     protected int _progress; // out of 100
     @JsonIgnore
@@ -58,14 +70,37 @@ abstract public class LongRunningProcess extends Process {
     @Override
     public void cancel() {
         _canceled = true;
-        if (_thread != null && _thread.isAlive()) {
-            _thread.interrupt();
+        synchronized (this) {
+            if (_state == QUEUED) {
+                _state = DONE;
+                ProcessScheduler.getInstance().remove(_task);
+            } else if (_thread != null) {
+                _thread.interrupt();
+            }
         }
     }
 
     @JsonProperty("status")
     public String getStatus() {
-        return _thread == null ? "pending" : (_thread.isAlive() ? "running" : "done");
+        switch (_state) {
+            case QUEUED:
+                return "queued";
+            case RUNNING:
+                return "running";
+            case DONE:
+                return "done";
+            default:
+                return "pending";
+        }
+    }
+
+    /**
+     * The priority of the process among the processes waiting for a worker: processes with a higher priority start
+     * first.
+     */
+    @JsonIgnore
+    public int getPriority() {
+        return 0;
     }
 
     @Override
@@ -75,12 +110,12 @@ abstract public class LongRunningProcess extends Process {
 
     @Override
     public boolean isRunning() {
-        return _thread != null && _thread.isAlive();
+        return _state == QUEUED || _state == RUNNING;
     }
 
     @Override
     public boolean isDone() {
-        return _thread != null && !_thread.isAlive();
+        return _state == DONE;
     }
 
     @Override
@@ -90,12 +125,39 @@ abstract public class LongRunningProcess extends Process {
 
     @Override
     public void startPerforming(ProcessManager manager) {
-        if (_thread == null) {
-            _manager = manager;
+        synchronized (this) {
+            if (_state == PENDING) {
+                _manager = manager;
+                _state = QUEUED;
+                _task = ProcessScheduler.getInstance().schedule(this, getRunnable());
+            }
+        }
+    }
+
+    /**
+     * Called by the worker about to run the process.
+     *
+     * @return false if the process was canceled in the meantime and should not run
+     */
+    synchronized boolean onStart() {
+        if (_state != QUEUED) {
+            return false;
+        }
+        _state = RUNNING;
+        _thread = Thread.currentThread();
+        return true;
+    }
 
-            _thread = new Thread(getRunnable());
-            _thread.start();
+    /**
+     * Called by the worker once the process has run.
+     */
+    void onEnd() {
+        synchronized (this) {
+            _thread = null;
+            _state = DONE;
         }
+        // the worker goes on with other processes, so a late cancellation must not interrupt them
+        Thread.interrupted();
     }
 
     abstract protected Runnable getRunnable();
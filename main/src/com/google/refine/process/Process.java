@@ -56,6 +56,15 @@ public abstract class Process {
 
     abstract public void cancel();
 
+    /**
+     * @return whether the process still records the results it got so far once canceled, in which case it stays
+     *         listed by the process manager until it reports that it is done
+     */
+    @JsonIgnore
+    public boolean keepsResultsWhenCanceled() {
+        return false;
+    }
+
     @JsonProperty("id")
     public long getId() {
         return hashCode();
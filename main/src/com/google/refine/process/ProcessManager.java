@@ -78,6 +78,15 @@ public class ProcessManager {
         return null;
     }
 
+    /**
+     * @return the load of the workers shared by all projects, while this project has processes
+     */
+    @JsonProperty("scheduler")
+    @JsonInclude(Include.NON_NULL)
+    public ProcessScheduler.Metrics getSchedulerMetrics() {
+        return hasPending() ? ProcessScheduler.getInstance().getMetrics() : null;
+    }
+
     public HistoryEntry queueProcess(Process process) throws Exception {
         if (process.isImmediate() && _processes.size() == 0) {
             _latestExceptions = null;
@@ -124,12 +133,21 @@ public class ProcessManager {
     }
 
     public void cancelAll() {
-        for (Process p : _processes) {
-            if (!p.isImmediate() && p.isRunning()) {
-                p.cancel();
+        List<Process> finishing = new LinkedList<Process>();
+        synchronized (_processes) {
+            for (Process p : _processes) {
+                if (!p.isImmediate() && p.isRunning()) {
+                    p.cancel();
+                    if (p.keepsResultsWhenCanceled() && p.isRunning()) {
+                        finishing.add(p);
+                    }
+                }
             }
+            // processes still recording their results stay listed, so that the client waits for them and the
+            // processes queued afterwards do not start before they are done
+            _processes.clear();
+            _processes.addAll(finishing);
         }
-        _processes.clear();
         _latestExceptions = null;
     }
 
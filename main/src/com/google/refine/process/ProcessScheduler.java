@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.process;
+
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.preference.PreferenceStore;
+
+/**
+ * Runs the {@link LongRunningProcess}es of all the projects of the workspace on a bounded pool of worker threads, so
+ * that many processes started at once share the machine instead of each getting its own thread.
+ * <p>
+ * Waiting processes are started by decreasing {@link LongRunningProcess#getPriority()}, then in the order they were
+ * scheduled. Since a {@link ProcessManager} only starts the next process of a project once the previous one is done,
+ * a project never holds more than one worker and projects get served in turn.
+ * <p>
+ * The number of workers is read from the {@link #MAX_THREADS_PREFERENCE} preference when the scheduler is created.
+ * Idle workers stop after a minute.
+ */
+public class ProcessScheduler {
+
+    final static Logger logger = LoggerFactory.getLogger("ProcessScheduler");
+
+    static final public String MAX_THREADS_PREFERENCE = "processes.maxThreads";
+
+    static private ProcessScheduler instance;
+
+    final protected ThreadPoolExecutor _executor;
+    final protected AtomicLong _sequence = new AtomicLong();
+
+    /**
+     * A process waiting for or running on a worker.
+     */
+    static protected class Task implements Runnable, Comparable<Task> {
+
+        final protected LongRunningProcess _process;
+        final protected Runnable _runnable;
+        final protected int _priority;
+        final protected long _sequence;
+
+        protected Task(LongRunningProcess process, Runnable runnable, long sequence) {
+            _process = process;
+            _runnable = runnable;
+            _priority = process.getPriority();
+            _sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            if (_process.onStart()) {
+                try {
+                    if (_runnable != null) {
+                        _runnable.run();
+                    }
+                } finally {
+                    _process.onEnd();
+                }
+            }
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            if (_priority != other._priority) {
+                return Integer.compare(other._priority, _priority);
+            }
+            return Long.compare(_sequence, other._sequence);
+        }
+    }
+
+    /**
+     * The load of the scheduler, reported to the clients along with the processes of a project.
+     */
+    static public class Metrics {
+
+        @JsonProperty("queuedProcesses")
+        final public int queuedProcesses;
+        @JsonProperty("runningProcesses")
+        final public int runningProcesses;
+        @JsonProperty("completedProcesses")
+        final public long completedProcesses;
+        @JsonProperty("maxThreads")
+        final public int maxThreads;
+
+        public Metrics(int queuedProcesses, int runningProcesses, long completedProcesses, int maxThreads) {
+            this.queuedProcesses = queuedProcesses;
+            this.runningProcesses = runningProcesses;
+            this.completedProcesses = completedProcesses;
+            this.maxThreads = maxThreads;
+        }
+    }
+
+    static public synchronized ProcessScheduler getInstance() {
+        if (instance == null) {
+            instance = new ProcessScheduler(getMaxThreadsPreference());
+        }
+        return instance;
+    }
+
+    public ProcessScheduler(int maxThreads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "process-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        _executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(), threadFactory);
+        _executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues a process to run on a worker once one is free.
+     */
+    public Task schedule(LongRunningProcess process, Runnable runnable) {
+        Task task = new Task(process, runnable, _sequence.getAndIncrement());
+        _executor.execute(task);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Scheduled process \"{}\": {} processes waiting, {} running",
+                    process._description, getQueueDepth(), getActiveCount());
+        }
+        return task;
+    }
+
+    /**
+     * Removes a process which has not started yet from the queue.
+     */
+    public void remove(Task task) {
+        _executor.remove(task);
+    }
+
+    /**
+     * @return the number of processes waiting for a worker
+     */
+    public int getQueueDepth() {
+        return _executor.getQueue().size();
+    }
+
+    /**
+     * @return the number of processes running
+     */
+    public int getActiveCount() {
+        return _executor.getActiveCount();
+    }
+
+    /**
+     * @return the number of processes which have run so far
+     */
+    public long getCompletedCount() {
+        return _executor.getCompletedTaskCount();
+    }
+
+    public int getMaxThreads() {
+        return _executor.getMaximumPoolSize();
+    }
+
+    public Metrics getMetrics() {
+        return new Metrics(getQueueDepth(), getActiveCount(), getCompletedCount(), getMaxThreads());
+    }
+
+    static protected int getMaxThreadsPreference() {
+        int defaultValue = Math.max(2, Runtime.getRuntime().availableProcessors());
+        PreferenceStore preferences = ProjectManager.singleton != null ? ProjectManager.singleton.getPreferenceStore() : null;
+        Object v = preferences != null ? preferences.get(MAX_THREADS_PREFERENCE) : null;
+        if (v != null) {
+            try {
+                int maxThreads = Integer.parseInt(v.toString());
+                if (maxThreads > 0) {
+                    return maxThreads;
+                }
+            } catch (NumberFormatException e) {
+                // ignore
+            }
+            logger.warn("Invalid value for preference {}: {}", MAX_THREADS_PREFERENCE, v);
+        }
+        return defaultValue;
+    }
+}
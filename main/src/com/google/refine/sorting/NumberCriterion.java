@@ -37,6 +37,9 @@ import java.time.OffsetDateTime;
 
 import com.google.refine.expr.EvalError;
 import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.model.NumericColumnValues;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
 
 public class NumberCriterion extends Criterion {
 
@@ -46,6 +49,27 @@ public class NumberCriterion extends Criterion {
     public KeyMaker createKeyMaker() {
         return new KeyMaker() {
 
+            boolean numbersFetched = false;
+            NumericColumnValues numbers;
+
+            @Override
+            public Object makeKey(Project project, Row row, int rowIndex) {
+                if (!numbersFetched) {
+                    numbersFetched = true;
+                    if (getCellIndex(project) >= 0) {
+                        numbers = NumericColumnValues.getOrCompute(project,
+                                project.columnModel.getColumnByCellIndex(getCellIndex(project)));
+                    }
+                }
+                if (numbers != null) {
+                    Number parsed = numbers.getNumber(rowIndex, row.getCellValue(getCellIndex(project)));
+                    if (parsed != null && !Double.isNaN(parsed.doubleValue())) {
+                        return parsed;
+                    }
+                }
+                return super.makeKey(project, row, rowIndex);
+            }
+
             @Override
             protected Object makeKey(Object value) {
                 if (ExpressionUtils.isNonBlankData(value)) {
@@ -28,12 +28,19 @@
 package com.google.refine.util;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
+import javax.net.ssl.SSLException;
+
 import org.apache.hc.client5.http.ClientProtocolException;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
@@ -47,6 +54,7 @@ import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
 import org.apache.hc.client5.http.impl.routing.DefaultProxyRoutePlanner;
 import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ConnectionClosedException;
 import org.apache.hc.core5.http.EntityDetails;
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpEntity;
@@ -73,6 +81,9 @@ public class HttpClient {
 
     final static Logger logger = LoggerFactory.getLogger("http-client");
 
+    // connections kept open to the same host, so that concurrent requests to a service do not wait for each other
+    static final public int MAX_CONNECTIONS_PER_ROUTE = 16;
+
     final private RequestConfig defaultRequestConfig;
     private HttpClientBuilder httpClientBuilder;
     private CloseableHttpClient httpClient;
@@ -101,6 +112,8 @@ public class HttpClient {
                 .setSoTimeout(60, TimeUnit.SECONDS)
                 .build();
         connManager.setDefaultSocketConfig(socketConfig);
+        connManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        connManager.setMaxTotal(Math.max(connManager.getMaxTotal(), MAX_CONNECTIONS_PER_ROUTE));
 
         defaultRequestConfig = RequestConfig.custom()
                 .setConnectTimeout(60, TimeUnit.SECONDS)
@@ -271,14 +284,27 @@ public class HttpClient {
 
     /**
      * Use binary exponential backoff strategy, instead of the default fixed retry interval, if the server doesn't
-     * provide a Retry-After time.
+     * provide a Retry-After time. Besides the responses retried by default (429 and 503), gateway errors (502 and 504)
+     * are retried too, since they are usually caused by a temporarily overloaded service.
      */
     class ExponentialBackoffRetryStrategy extends DefaultHttpRequestRetryStrategy {
 
         private final TimeValue defaultInterval;
 
         public ExponentialBackoffRetryStrategy(final int maxRetries, final TimeValue defaultRetryInterval) {
-            super(maxRetries, defaultRetryInterval);
+            super(maxRetries, defaultRetryInterval,
+                    Arrays.asList(
+                            InterruptedIOException.class,
+                            UnknownHostException.class,
+                            ConnectException.class,
+                            ConnectionClosedException.class,
+                            NoRouteToHostException.class,
+                            SSLException.class),
+                    Arrays.asList(
+                            HttpStatus.SC_TOO_MANY_REQUESTS,
+                            HttpStatus.SC_BAD_GATEWAY,
+                            HttpStatus.SC_SERVICE_UNAVAILABLE,
+                            HttpStatus.SC_GATEWAY_TIMEOUT));
             this.defaultInterval = defaultRetryInterval;
         }
 
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.LookupCacheManager.ProjectLookup;
+import com.google.refine.expr.HasFieldsListImpl;
+import com.google.refine.expr.WrappedRow;
+import com.google.refine.expr.functions.Cross;
+import com.google.refine.model.Project;
+
+public class LookupCacheManagerTests extends RefineTest {
+
+    Project project;
+
+    @BeforeMethod
+    public void setUp() {
+        project = createProject(new String[] { "key", "other", "third" },
+                new Serializable[][] {
+                        { "a", "x", 1 },
+                        { "b", "y", 2 },
+                        { "a", "x", 3 },
+                        { null, "z", 4 },
+                        { "", "z", 5 },
+                        { 12, "y", 6 },
+                        { "a", "x", 7 },
+                });
+    }
+
+    protected List<Integer> rowIndices(HasFieldsListImpl rows) {
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < rows.length(); i++) {
+            indices.add(((WrappedRow) rows.get(i)).rowIndex);
+        }
+        return indices;
+    }
+
+    @Test
+    public void testLookupOnColumn() throws Exception {
+        ProjectLookup lookup = new LookupCacheManager().getLookup(project.id, "key");
+
+        assertEquals(rowIndices(lookup.getRows("a")), Arrays.asList(0, 2, 6));
+        assertEquals(rowIndices(lookup.getRows("b")), Arrays.asList(1));
+        assertEquals(rowIndices(lookup.getRows(12)), Arrays.asList(5));
+        assertEquals(rowIndices(lookup.getRows("12")), Arrays.asList(5));
+        assertEquals(rowIndices(lookup.getRows("c")), Arrays.asList());
+        assertEquals(rowIndices(lookup.getRows("")), Arrays.asList());
+        assertEquals(rowIndices(lookup.getRows(null)), Arrays.asList());
+    }
+
+    @Test
+    public void testLookupOnIndexColumn() throws Exception {
+        ProjectLookup lookup = new LookupCacheManager().getLookup(project.id, Cross.INDEX_COLUMN_NAME);
+
+        assertEquals(rowIndices(lookup.getRows("0")), Arrays.asList(0));
+        assertEquals(rowIndices(lookup.getRows(6)), Arrays.asList(6));
+        assertEquals(rowIndices(lookup.getRows("7")), Arrays.asList());
+        assertEquals(rowIndices(lookup.getRows("-1")), Arrays.asList());
+        assertEquals(rowIndices(lookup.getRows("03")), Arrays.asList());
+        assertEquals(rowIndices(lookup.getRows("a")), Arrays.asList());
+    }
+
+    @Test
+    public void testLookupsAreCached() throws Exception {
+        LookupCacheManager manager = new LookupCacheManager();
+        ProjectLookup lookup = manager.getLookup(project.id, "key");
+
+        assertSame(manager.getLookup(project.id, "key"), lookup);
+
+        manager.flushLookupsInvolvingProjectColumn(project.id, "key");
+        assertTrue(manager.getLookup(project.id, "key") != lookup);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedLookupsAreDropped() throws Exception {
+        LookupCacheManager manager = new LookupCacheManager(2);
+        manager.getLookup(project.id, "key");
+        manager.getLookup(project.id, "other");
+        manager.getLookup(project.id, "key");
+        manager.getLookup(project.id, "third");
+
+        assertEquals(new ArrayList<>(manager._lookups.keySet()),
+                Arrays.asList(project.id + ";key", project.id + ";third"));
+    }
+}
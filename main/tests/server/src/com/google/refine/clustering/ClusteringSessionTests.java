@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.clustering;
+
+import java.io.Serializable;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.Engine;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.model.changes.MassCellChange;
+
+public class ClusteringSessionTests extends RefineTest {
+
+    Project project;
+    Column column;
+
+    @BeforeMethod
+    public void setUpProject() {
+        project = createProject(
+                new String[] { "column" },
+                new Serializable[][] {
+                        { "a" },
+                        { "b" },
+                        { "a" },
+                        { "c" }
+                });
+        column = project.columnModel.getColumnByName("column");
+    }
+
+    @Test
+    public void testValuesAreCountedOnce() {
+        ClusteringSession session = ClusteringSession.get(column);
+        DistinctValues values = session.getValues(project, new Engine(project), 0);
+
+        Assert.assertSame(ClusteringSession.get(column), session);
+        Assert.assertSame(session.getValues(project, new Engine(project), 0), values);
+        Assert.assertEquals(values.getCount("a"), 2);
+    }
+
+    @Test
+    public void testMassCellChangeUpdatesValues() {
+        ClusteringSession session = ClusteringSession.get(column);
+        DistinctValues values = session.getValues(project, new Engine(project), 0);
+        Object cache = session.getCache("cache", () -> new Object());
+
+        MassCellChange change = new MassCellChange(new CellChange[] {
+                new CellChange(1, 0, new Cell("b", null), new Cell("a", null)),
+                new CellChange(3, 0, new Cell("c", null), new Cell("d", null))
+        }, "column", false);
+        change.apply(project);
+
+        ClusteringSession updated = ClusteringSession.get(column);
+        DistinctValues updatedValues = updated.getValues(project, new Engine(project), 0);
+        Assert.assertNotSame(updated, session);
+        Assert.assertSame(updated.getCache("cache", () -> new Object()), cache);
+        Assert.assertEquals(updatedValues.size(), 2);
+        Assert.assertEquals(updatedValues.getCount("a"), 3);
+        Assert.assertEquals(updatedValues.getCount("b"), 0);
+        Assert.assertEquals(updatedValues.getCount("d"), 1);
+        // the previous session is left untouched
+        Assert.assertEquals(values.getCount("a"), 2);
+
+        change.revert(project);
+
+        DistinctValues revertedValues = ClusteringSession.get(column).getValues(project, new Engine(project), 0);
+        Assert.assertEquals(revertedValues.size(), 3);
+        Assert.assertEquals(revertedValues.getCount("a"), 2);
+        Assert.assertEquals(revertedValues.getCount("b"), 1);
+        Assert.assertEquals(revertedValues.getCount("c"), 1);
+    }
+
+    @Test
+    public void testOtherChangesDiscardSession() {
+        ClusteringSession session = ClusteringSession.get(column);
+        session.getValues(project, new Engine(project), 0);
+
+        column.clearPrecomputes();
+
+        Assert.assertNotSame(ClusteringSession.get(column), session);
+    }
+
+    @Test
+    public void testCachesAreBounded() {
+        ClusteringSession session = ClusteringSession.get(column);
+        Object first = session.getCache("cache0", () -> new Object());
+        for (int i = 1; i <= ClusteringSession.MAX_CACHES; i++) {
+            session.getCache("cache" + i, () -> new Object());
+        }
+
+        Assert.assertNotSame(session.getCache("cache0", () -> new Object()), first);
+    }
+
+    @Test
+    public void testDiscardSession() {
+        ClusteringSession session = ClusteringSession.get(column);
+
+        ClusteringSession.discard(column);
+
+        Assert.assertNull(column.getPrecompute(ClusteringSession.PRECOMPUTE_KEY));
+        Assert.assertNotSame(ClusteringSession.get(column), session);
+    }
+}
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.clustering;
+
+import java.io.Serializable;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.Engine;
+import com.google.refine.model.Project;
+
+public class DistinctValuesTests extends RefineTest {
+
+    @Test
+    public void testAdd() {
+        DistinctValues values = new DistinctValues();
+        for (int i = 0; i < 40; i++) {
+            values.add("v" + (i % 20));
+        }
+        values.add("v3", 5);
+
+        Assert.assertEquals(values.size(), 20);
+        Assert.assertEquals(values.getId("v0"), 0);
+        Assert.assertEquals(values.getValue(19), "v19");
+        Assert.assertEquals(values.getCount(0), 2);
+        Assert.assertEquals(values.getCount("v3"), 7);
+        Assert.assertEquals(values.getId("missing"), -1);
+        Assert.assertEquals(values.getCount("missing"), 0);
+    }
+
+    @Test
+    public void testFromRows() {
+        Project project = createProject(
+                new String[] { "column" },
+                new Serializable[][] {
+                        { "a" },
+                        { 1 },
+                        { null },
+                        { "a" },
+                        { "1" }
+                });
+
+        DistinctValues values = DistinctValues.fromRows(project, new Engine(project).getAllFilteredRows(), 0);
+
+        Assert.assertEquals(values.size(), 2);
+        Assert.assertEquals(values.getCount("a"), 2);
+        Assert.assertEquals(values.getCount("1"), 2);
+    }
+}
@@ -31,6 +31,7 @@ import static org.testng.Assert.assertEquals;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.List;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
@@ -38,6 +39,7 @@ import org.testng.annotations.Test;
 
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.Engine;
+import com.google.refine.clustering.ClusteredEntry;
 import com.google.refine.clustering.binning.BinningClusterer.BinningClustererConfig;
 import com.google.refine.model.Project;
 import com.google.refine.util.ParsingUtilities;
@@ -104,4 +106,24 @@ public class BinningClustererTests extends RefineTest {
         clusterer.computeClusters(new Engine(project));
         assertEquals(clusterer.getJsonRepresentation().size(), 1);
     }
+
+    @Test
+    public void testManyValuesAreBinnedInParallel() throws JsonParseException, JsonMappingException, IOException {
+        int size = 3 * BinningClusterer.VALUES_PER_TASK;
+        Serializable[][] rows = new Serializable[2 * size][];
+        for (int i = 0; i < size; i++) {
+            rows[2 * i] = new Serializable[] { "value " + i };
+            rows[2 * i + 1] = new Serializable[] { i + " VALUE" };
+        }
+        Project project = createProject(new String[] { "column" }, rows);
+        BinningClustererConfig config = ParsingUtilities.mapper.readValue(configJson, BinningClustererConfig.class);
+        BinningClusterer clusterer = config.apply(project);
+        clusterer.computeClusters(new Engine(project));
+
+        List<List<ClusteredEntry>> clusters = clusterer.getJsonRepresentation();
+        assertEquals(clusters.size(), size);
+        for (List<ClusteredEntry> cluster : clusters) {
+            assertEquals(cluster.size(), 2);
+        }
+    }
 }
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.clustering.binning;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import java.io.Serializable;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.Engine;
+import com.google.refine.clustering.binning.BinningClusterer.BinningClustererConfig;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
+
+public class ClusteringKeysTests extends RefineTest {
+
+    @Test
+    public void testKeysAreComputedOncePerValue() {
+        Column column = new Column(0, "column");
+        ClusteringKeys keys = ClusteringKeys.get(column, "fingerprint", new FingerprintKeyer(), null);
+
+        assertEquals(keys.key("Tom Cruise"), "cruise tom");
+        assertEquals(keys.key("Cruise, Tom"), "cruise tom");
+        assertEquals(keys.key("Tom Cruise"), "cruise tom");
+        assertEquals(keys.size(), 2);
+    }
+
+    @Test
+    public void testKeysAreCachedPerKeyerAndParameters() {
+        Column column = new Column(0, "column");
+        Keyer keyer = new NGramFingerprintKeyer();
+        ClusteringKeys bigrams = ClusteringKeys.get(column, "ngram-fingerprint", keyer, new Object[] { 2 });
+
+        assertSame(ClusteringKeys.get(column, "ngram-fingerprint", keyer, new Object[] { 2 }), bigrams);
+        assertNotSame(ClusteringKeys.get(column, "ngram-fingerprint", keyer, new Object[] { 3 }), bigrams);
+        assertNotSame(ClusteringKeys.get(column, "fingerprint", new FingerprintKeyer(), null), bigrams);
+    }
+
+    @Test
+    public void testCacheIsClearedWithPrecomputes() {
+        Column column = new Column(0, "column");
+        ClusteringKeys keys = ClusteringKeys.get(column, "fingerprint", new FingerprintKeyer(), null);
+
+        column.clearPrecomputes();
+
+        assertNotSame(ClusteringKeys.get(column, "fingerprint", new FingerprintKeyer(), null), keys);
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        ClusteringKeys keys = new ClusteringKeys(new FingerprintKeyer(), null, 2);
+
+        keys.key("a");
+        keys.key("b");
+        keys.key("c");
+
+        assertEquals(keys.size(), 1);
+        assertEquals(keys.key("a"), "a");
+    }
+
+    @Test
+    public void testBinningClustererReusesKeys() throws Exception {
+        Project project = createProject(
+                new String[] { "column" },
+                new Serializable[][] {
+                        { "a" },
+                        { "à" },
+                        { "a" },
+                        { "b" }
+                });
+        String configJson = "{\"type\":\"binning\",\"function\":\"fingerprint\",\"column\":\"column\",\"params\":{}}";
+        BinningClustererConfig config = ParsingUtilities.mapper.readValue(configJson, BinningClustererConfig.class);
+        BinningClusterer clusterer = config.apply(project);
+        clusterer.computeClusters(new Engine(project));
+
+        Column column = project.columnModel.getColumnByName("column");
+        ClusteringKeys keys = ClusteringKeys.get(column, "fingerprint", new FingerprintKeyer(), null);
+        assertEquals(keys.size(), 3);
+
+        BinningClusterer second = config.apply(project);
+        second.computeClusters(new Engine(project));
+        assertSame(ClusteringKeys.get(column, "fingerprint", new FingerprintKeyer(), null), keys);
+        assertEquals(second.getJsonRepresentation().size(), 1);
+        assertEquals(second.getJsonRepresentation().get(0).size(), 2);
+    }
+}
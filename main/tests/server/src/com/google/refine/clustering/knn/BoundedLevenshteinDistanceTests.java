@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.clustering.knn;
+
+import java.util.Random;
+
+import edu.mit.simile.vicino.distances.LevenshteinDistance;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BoundedLevenshteinDistanceTests {
+
+    SimilarityDistance bounded = new BoundedLevenshteinDistance();
+    SimilarityDistance reference = new VicinoDistance(new LevenshteinDistance());
+
+    @Test
+    public void testDistance() {
+        Assert.assertEquals(bounded.compute("", ""), 0.0);
+        Assert.assertEquals(bounded.compute("", "abc"), 3.0);
+        Assert.assertEquals(bounded.compute("kitten", "sitting"), 3.0);
+        Assert.assertEquals(bounded.compute("sitting", "kitten"), 3.0);
+        Assert.assertEquals(bounded.compute("Ĉapelo", "Capelo"), 1.0);
+    }
+
+    @Test
+    public void testThreshold() {
+        Assert.assertEquals(bounded.compute("kitten", "sitting", 3), 3.0);
+        Assert.assertTrue(bounded.compute("kitten", "sitting", 2) > 2);
+        Assert.assertTrue(bounded.compute("a", "abcdef", 1) > 1);
+        // a negative threshold means no threshold
+        Assert.assertEquals(bounded.compute("kitten", "sitting", -1), 3.0);
+    }
+
+    @Test
+    public void testAgainstReference() {
+        Random rnd = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            // cover both the bit-parallel (up to 64 characters) and the banded implementations
+            String a = randomString(rnd, rnd.nextInt(100));
+            String b = rnd.nextBoolean() ? randomString(rnd, rnd.nextInt(100)) : mutate(rnd, a);
+            double expected = reference.compute(a, b);
+            Assert.assertEquals(bounded.compute(a, b), expected, a + " / " + b);
+            int threshold = rnd.nextInt(10);
+            double boundedDistance = bounded.compute(a, b, threshold);
+            if (expected <= threshold) {
+                Assert.assertEquals(boundedDistance, expected, a + " / " + b);
+            } else {
+                Assert.assertTrue(boundedDistance > threshold, a + " / " + b);
+            }
+        }
+    }
+
+    private String randomString(Random rnd, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append("abcdé€".charAt(rnd.nextInt(6)));
+        }
+        return sb.toString();
+    }
+
+    private String mutate(Random rnd, String s) {
+        StringBuilder sb = new StringBuilder(s);
+        int edits = rnd.nextInt(5);
+        for (int i = 0; i < edits && sb.length() > 0; i++) {
+            int position = rnd.nextInt(sb.length());
+            switch (rnd.nextInt(3)) {
+                case 0:
+                    sb.deleteCharAt(position);
+                    break;
+                case 1:
+                    sb.insert(position, 'x');
+                    break;
+                default:
+                    sb.setCharAt(position, 'y');
+            }
+        }
+        return sb.toString();
+    }
+}
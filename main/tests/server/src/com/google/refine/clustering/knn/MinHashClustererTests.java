@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.clustering.knn;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.Engine;
+import com.google.refine.clustering.ClusteredEntry;
+import com.google.refine.clustering.ClustererConfig;
+import com.google.refine.clustering.knn.MinHashClusterer.MinHashClustererConfig;
+import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
+import com.google.refine.util.TestUtils;
+
+public class MinHashClustererTests extends RefineTest {
+
+    public static String configJson = "{"
+            + "\"type\":\"minhash\","
+            + "\"function\":\"levenshtein\","
+            + "\"column\":\"column\","
+            + "\"params\":{\"radius\":1.0,\"shingle-size\":2,\"bands\":25,\"band-size\":3}"
+            + "}";
+
+    @Test
+    public void serializeMinHashClustererConfig() throws JsonParseException, JsonMappingException, IOException {
+        MinHashClustererConfig config = ParsingUtilities.mapper.readValue(configJson, MinHashClustererConfig.class);
+        TestUtils.isSerializedTo(config, configJson);
+    }
+
+    @Test
+    public void testConfigType() throws JsonParseException, JsonMappingException, IOException {
+        ClustererConfig config = ParsingUtilities.mapper.readValue(configJson, ClustererConfig.class);
+        assertTrue(config instanceof MinHashClustererConfig);
+    }
+
+    @Test
+    public void testClustersSimilarValues() throws JsonParseException, JsonMappingException, IOException {
+        Project project = createProject(
+                new String[] { "column" },
+                new Serializable[][] {
+                        { "Massachusetts" },
+                        { "Massachussetts" },
+                        { "Massachusetts" },
+                        { "Texas" },
+                        { "Texass" },
+                        { "Tesax" },
+                        { "Ohio" }
+                });
+        MinHashClusterer clusterer = ParsingUtilities.mapper.readValue(configJson, MinHashClustererConfig.class).apply(project);
+        clusterer.computeClusters(new Engine(project));
+
+        TestUtils.isSerializedTo(clusterer, "["
+                + "[{\"v\":\"Massachusetts\",\"c\":2},{\"v\":\"Massachussetts\",\"c\":1}],"
+                + "[{\"v\":\"Texas\",\"c\":1},{\"v\":\"Texass\",\"c\":1}]"
+                + "]");
+    }
+
+    @Test
+    public void testDefaultParameters() throws JsonParseException, JsonMappingException, IOException {
+        Project project = createProject(
+                new String[] { "column" },
+                new Serializable[][] {
+                        { "abcdef" },
+                        { "abcdeg" },
+                        { "xyz" }
+                });
+        String config = "{\"type\":\"minhash\",\"function\":\"levenshtein\",\"column\":\"column\"}";
+        MinHashClusterer clusterer = ParsingUtilities.mapper.readValue(config, MinHashClustererConfig.class).apply(project);
+        clusterer.computeClusters(new Engine(project));
+
+        List<List<ClusteredEntry>> clusters = clusterer.getJsonRepresentation();
+        assertEquals(clusters.size(), 1);
+        assertEquals(clusters.get(0).size(), 2);
+    }
+}
@@ -27,10 +27,13 @@
 
 package com.google.refine.clustering.knn;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.CancellationException;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
@@ -38,6 +41,7 @@ import org.testng.annotations.Test;
 
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.Engine;
+import com.google.refine.clustering.ClusteredEntry;
 import com.google.refine.clustering.knn.kNNClusterer.kNNClustererConfig;
 import com.google.refine.model.Project;
 import com.google.refine.util.ParsingUtilities;
@@ -93,4 +97,56 @@ public class kNNClustererTests extends RefineTest {
 
         assertTrue(clusterer.getJsonRepresentation().isEmpty());
     }
+
+    @Test
+    public void testCountsDuplicates() throws JsonParseException, JsonMappingException, IOException {
+        Project project = createProject(
+                new String[] { "column" },
+                new Serializable[][] {
+                        { "ab" },
+                        { "abc" },
+                        { "ab" },
+                        { "abc" },
+                        { "ab" }
+                });
+        kNNClustererConfig config = ParsingUtilities.mapper.readValue(configJson, kNNClustererConfig.class);
+        kNNClusterer clusterer = config.apply(project);
+        clusterer.computeClusters(new Engine(project));
+
+        TestUtils.isSerializedTo(clusterer, "[[{\"v\":\"ab\",\"c\":3},{\"v\":\"abc\",\"c\":2}]]");
+    }
+
+    @Test
+    public void testMergesTransitively() throws JsonParseException, JsonMappingException, IOException {
+        Project project = createProject(
+                new String[] { "column" },
+                new Serializable[][] {
+                        { "abcd" },
+                        { "abcde" },
+                        { "abcdef" },
+                        { "xyz" }
+                });
+        String config = "{\"type\":\"knn\",\"function\":\"levenshtein\",\"column\":\"column\","
+                + "\"params\":{\"radius\":1,\"blocking-ngram-size\":2}}";
+        kNNClusterer clusterer = ParsingUtilities.mapper.readValue(config, kNNClustererConfig.class).apply(project);
+        clusterer.computeClusters(new Engine(project));
+
+        // abcd and abcdef are two edits apart, but both are close to abcde
+        List<List<ClusteredEntry>> clusters = clusterer.getJsonRepresentation();
+        assertEquals(clusters.size(), 1);
+        assertEquals(clusters.get(0).size(), 3);
+    }
+
+    @Test(expectedExceptions = CancellationException.class)
+    public void testCancel() throws JsonParseException, JsonMappingException, IOException {
+        Project project = createProject(
+                new String[] { "column" },
+                new Serializable[][] {
+                        { "ab" },
+                        { "abc" }
+                });
+        kNNClusterer clusterer = ParsingUtilities.mapper.readValue(configJson, kNNClustererConfig.class).apply(project);
+        clusterer.cancel();
+        clusterer.computeClusters(new Engine(project));
+    }
 }
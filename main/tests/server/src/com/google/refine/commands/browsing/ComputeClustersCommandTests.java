@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.commands.browsing;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertNull;
+
+import java.io.Serializable;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.clustering.Clusterer;
+import com.google.refine.clustering.ClusteringSession;
+import com.google.refine.commands.Command;
+import com.google.refine.commands.CommandTestBase;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+
+public class ComputeClustersCommandTests extends CommandTestBase {
+
+    Project project;
+    Clusterer first;
+    Clusterer second;
+
+    @BeforeMethod
+    public void setUpCommand() {
+        command = new ComputeClustersCommand();
+        project = createProject(new String[] { "a" }, new Serializable[][] { { "foo" } });
+        first = mock(Clusterer.class);
+        second = mock(Clusterer.class);
+        ComputeClustersCommand.s_running.put(ComputeClustersCommand.getRunKey(project, "first"), first);
+        ComputeClustersCommand.s_running.put(ComputeClustersCommand.getRunKey(project, "second"), second);
+        when(request.getParameter("project")).thenReturn(Long.toString(project.id));
+        when(request.getParameter("cancel")).thenReturn("true");
+        when(request.getParameter("requestId")).thenReturn("first");
+    }
+
+    @AfterMethod
+    public void tearDownCommand() {
+        ComputeClustersCommand.s_running.clear();
+    }
+
+    @Test
+    public void testCancelRequiresCSRFToken() throws Exception {
+        command.doPost(request, response);
+
+        assertCSRFCheckFailed();
+        verify(first, never()).cancel();
+    }
+
+    @Test
+    public void testCancelOnlyStopsGivenRequest() throws Exception {
+        when(request.getParameter("csrf_token")).thenReturn(Command.csrfFactory.getFreshToken());
+
+        command.doPost(request, response);
+
+        verify(first).cancel();
+        verify(second, never()).cancel();
+    }
+
+    @Test
+    public void testCancelDiscardsClusteringSession() throws Exception {
+        when(request.getParameter("csrf_token")).thenReturn(Command.csrfFactory.getFreshToken());
+        when(request.getParameter("columnName")).thenReturn("a");
+        Column column = project.columnModel.getColumnByName("a");
+        ClusteringSession.get(column);
+
+        command.doPost(request, response);
+
+        assertNull(column.getPrecompute(ClusteringSession.PRECOMPUTE_KEY));
+    }
+}
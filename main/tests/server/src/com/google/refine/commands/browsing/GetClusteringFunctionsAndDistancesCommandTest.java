@@ -74,5 +74,6 @@ public class GetClusteringFunctionsAndDistancesCommandTest {
         ObjectNode result = ParsingUtilities.mapper.readValue(writer.toString(), ObjectNode.class);
         assertTrue(Arrays.asList(JSONUtilities.getStringArray(result, "keyers")).contains("metaphone3"));
         assertTrue(Arrays.asList(JSONUtilities.getStringArray(result, "distances")).contains("levenshtein"));
+        assertTrue(Arrays.asList(JSONUtilities.getStringArray(result, "methods")).contains("minhash"));
     }
 }
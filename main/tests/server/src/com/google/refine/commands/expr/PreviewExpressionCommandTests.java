@@ -39,12 +39,15 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import com.google.refine.RefineTest;
 import com.google.refine.commands.Command;
 import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.TestUtils;
 
 public class PreviewExpressionCommandTests extends RefineTest {
@@ -107,4 +110,22 @@ public class PreviewExpressionCommandTests extends RefineTest {
         command.doPost(request, response);
         TestUtils.assertEqualsAsJson(writer.toString(), json);
     }
+
+    @Test
+    public void testProfile() throws ServletException, IOException {
+
+        when(request.getParameter("project")).thenReturn(Long.toString(project.id));
+        when(request.getParameter("cellIndex")).thenReturn("1");
+        when(request.getParameter("expression")).thenReturn("grel:value + \"_u\"");
+        when(request.getParameter("rowIndices")).thenReturn("[0,2]");
+        when(request.getParameter("profile")).thenReturn("true");
+
+        command.doPost(request, response);
+        JsonNode result = ParsingUtilities.mapper.readTree(writer.toString());
+        Assert.assertEquals(result.get("results").toString(), "[\"d_u\",\"h_u\"]");
+        JsonNode nodes = result.get("profile").get("nodes");
+        Assert.assertEquals(nodes.size(), 1);
+        Assert.assertEquals(nodes.get(0).get("node").asText(), "value + \"_u\"");
+        Assert.assertEquals(nodes.get(0).get("calls").asLong(), 2L);
+    }
 }
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.expr;
+
+import java.util.List;
+import java.util.Properties;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.refine.expr.ExpressionProfile.NodeStats;
+
+public class ExpressionProfileTests {
+
+    @Test
+    public void testProfileGrelNodes() throws ParsingException {
+        ExpressionProfile profile = new ExpressionProfile();
+        Evaluable eval = MetaParser.parse("grel:value.toUppercase().length()", profile);
+        Properties bindings = new Properties();
+
+        for (String value : new String[] { "a", "bb", "ccc" }) {
+            bindings.put("value", value);
+            Assert.assertEquals(eval.evaluate(bindings), (long) value.length());
+        }
+
+        List<NodeStats> nodes = profile.getNodes();
+        Assert.assertEquals(nodes.size(), 2);
+        NodeStats length = find(nodes, "Length(ToUppercase(value))");
+        NodeStats toUppercase = find(nodes, "ToUppercase(value)");
+        for (NodeStats stats : nodes) {
+            Assert.assertEquals(stats.getCalls(), 3);
+            Assert.assertTrue(stats.getSelfNanos() <= stats.getTotalNanos());
+        }
+        Assert.assertTrue(toUppercase.getTotalNanos() <= length.getTotalNanos());
+        Assert.assertEquals(length.getSelfNanos(), length.getTotalNanos() - toUppercase.getTotalNanos());
+    }
+
+    private NodeStats find(List<NodeStats> nodes, String node) {
+        for (NodeStats stats : nodes) {
+            if (stats.getNode().equals(node)) {
+                return stats;
+            }
+        }
+        Assert.fail("No statistics for node " + node);
+        return null;
+    }
+
+    @Test
+    public void testControlsKeepVariables() throws ParsingException {
+        ExpressionProfile profile = new ExpressionProfile();
+        Evaluable eval = MetaParser.parse("forEach(value.split(','), v, v.length()).join('-')", profile);
+        Properties bindings = new Properties();
+        bindings.put("value", "a,bb,ccc");
+
+        Assert.assertEquals(eval.evaluate(bindings), "1-2-3");
+        Assert.assertFalse(profile.getNodes().isEmpty());
+    }
+
+    @Test
+    public void testUnprofiledParse() throws ParsingException {
+        Evaluable eval = MetaParser.parse("value.length()", null);
+        Assert.assertFalse(eval instanceof ProfiledEvaluable);
+    }
+}
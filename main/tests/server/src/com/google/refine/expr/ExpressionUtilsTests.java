@@ -69,4 +69,34 @@ public class ExpressionUtilsTests extends RefineTest {
         Assert.assertFalse(ExpressionUtils.sameValue(1, 1.0));
         Assert.assertFalse(ExpressionUtils.sameValue(true, false));
     }
+
+    @Test
+    public void testDependsOnlyOnValue() throws ParsingException {
+        String[] valueOnly = {
+                "value.trim().toTitlecase()",
+                "cell.value.fingerprint()",
+                "if(isBlank(value), 'empty', value + 1)",
+                "forEach(value.split(','), v, v.trim()).join(',')",
+                "with(value.length(), l, l > 3 == true)",
+                "value.toDate('yyyy-MM-dd')",
+        };
+        for (String expression : valueOnly) {
+            Assert.assertTrue(ExpressionUtils.dependsOnlyOnValue(MetaParser.parse(expression)), expression);
+        }
+
+        String[] notValueOnly = {
+                "row.index",
+                "cells['foo'].value + value",
+                "cell.recon.match.id",
+                "value + rowIndex",
+                "forEach(value.split(','), v, w)",
+                "with(value, cell, cell.value)",
+                "value.cross('other project', 'key')",
+                "now()",
+                "random()",
+        };
+        for (String expression : notValueOnly) {
+            Assert.assertFalse(ExpressionUtils.dependsOnlyOnValue(MetaParser.parse(expression)), expression);
+        }
+    }
 }
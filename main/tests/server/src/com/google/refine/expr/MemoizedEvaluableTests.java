@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.expr;
+
+import java.util.Properties;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class MemoizedEvaluableTests {
+
+    static class CountingEvaluable implements Evaluable {
+
+        int calls = 0;
+
+        @Override
+        public Object evaluate(Properties bindings) {
+            calls++;
+            Object value = bindings.get("value");
+            return value == null ? "blank" : value.toString().toUpperCase();
+        }
+    }
+
+    @Test
+    public void testEvaluatesOncePerDistinctValue() {
+        CountingEvaluable inner = new CountingEvaluable();
+        MemoizedEvaluable memo = new MemoizedEvaluable(inner);
+        Properties bindings = new Properties();
+
+        for (String value : new String[] { "a", "b", "a", "a", "b" }) {
+            bindings.put("value", value);
+            Assert.assertEquals(memo.evaluate(bindings), value.toUpperCase());
+        }
+        bindings.remove("value");
+        Assert.assertEquals(memo.evaluate(bindings), "blank");
+        Assert.assertEquals(memo.evaluate(bindings), "blank");
+
+        Assert.assertEquals(inner.calls, 3);
+        Assert.assertEquals(memo.getMisses(), 3);
+        Assert.assertEquals(memo.getHits(), 4);
+        Assert.assertEquals(memo.getSize(), 3);
+    }
+
+    @Test
+    public void testMaxSize() {
+        CountingEvaluable inner = new CountingEvaluable();
+        MemoizedEvaluable memo = new MemoizedEvaluable(inner, 1);
+        Properties bindings = new Properties();
+
+        for (String value : new String[] { "a", "b", "a", "b" }) {
+            bindings.put("value", value);
+            Assert.assertEquals(memo.evaluate(bindings), value.toUpperCase());
+        }
+
+        Assert.assertEquals(inner.calls, 3);
+        Assert.assertEquals(memo.getSize(), 1);
+    }
+}
@@ -30,6 +30,7 @@ package com.google.refine.expr.functions;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
+import java.io.Serializable;
 import java.time.OffsetDateTime;
 import java.util.TimeZone;
 
@@ -37,8 +38,10 @@ import org.testng.annotations.Test;
 
 import com.google.refine.RefineTest;
 import com.google.refine.expr.EvalError;
+import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.util.CalendarParser;
 import com.google.refine.expr.util.CalendarParserException;
+import com.google.refine.model.Project;
 
 public class ToDateTests extends RefineTest {
 
@@ -107,4 +110,28 @@ public class ToDateTests extends RefineTest {
         }
     }
 
+    @Test
+    public void testToDateInferFormats() throws CalendarParserException {
+        Project project = createProject(
+                new String[] { "date", "us date" },
+                new Serializable[][] {
+                        { "13/02/2020", "02/13/2020" },
+                        { "01/03/2012", "01/03/2012" },
+                        { "25/12/2019", "12/25/2019" },
+                });
+        bindings = ExpressionUtils.createBindings(project);
+        bindings.put("columnName", "date");
+        try {
+            // day first, as inferred from the other values in the column
+            assertEquals(invoke("toDate", "01/03/2012", "infer"), CalendarParser.parseAsOffsetDateTime("2012-03-01"));
+            assertEquals(invoke("toDate", "2012-03-01", "infer"), CalendarParser.parseAsOffsetDateTime("2012-03-01"));
+            assertTrue(invoke("toDate", "not a date", "infer") instanceof EvalError);
+
+            // the formats inferred for another column evaluated with the same bindings are not reused
+            bindings.put("columnName", "us date");
+            assertEquals(invoke("toDate", "01/03/2012", "infer"), CalendarParser.parseAsOffsetDateTime("2012-01-03"));
+        } finally {
+            bindings = null;
+        }
+    }
 }
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.expr.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+public class BulkDateParserTests {
+
+    @Test
+    public void testInferPatterns() {
+        List<String> sample = Arrays.asList("13/02/2020", "01/02/2020", "2/3/2021", "2020-01-05", "Mar 4, 2019");
+        assertEquals(BulkDateParser.inferPatterns(sample), Arrays.asList("d/M/uuuu", "uuuu-M-d", "MMM d, uuuu"));
+    }
+
+    @Test
+    public void testAmbiguousValuesAreMonthFirst() {
+        List<String> sample = Arrays.asList("01/02/2020", "03/04/2020");
+        assertEquals(BulkDateParser.inferPatterns(sample), Collections.singletonList("M/d/uuuu"));
+    }
+
+    @Test
+    public void testParse() {
+        BulkDateParser parser = new BulkDateParser(Arrays.asList("13/02/2020", "25/12/2019"), false);
+
+        assertEquals(parser.parse("01/02/2020"), OffsetDateTime.parse("2020-02-01T00:00:00Z"));
+        assertEquals(parser.parse(" 1/2/2020 "), OffsetDateTime.parse("2020-02-01T00:00:00Z"));
+        assertEquals(parser.parse("2020-01-05T10:11:12+02:00"), OffsetDateTime.parse("2020-01-05T10:11:12+02:00"));
+        assertEquals(parser.parse("march 4, 2019"), OffsetDateTime.parse("2019-03-04T00:00:00Z"));
+        // invalid dates are rejected
+        assertNull(parser.parse("31/02/2020"));
+        assertNull(parser.parse("not a date"));
+    }
+
+    @Test
+    public void testParseDoesNotDependOnPreviousValues() {
+        BulkDateParser parser = new BulkDateParser(Arrays.asList("2020-01-05"), false);
+        assertEquals(parser.parse("3/4/2020"), OffsetDateTime.parse("2020-03-04T00:00:00Z"));
+
+        // a value which is only valid day first does not change how later ambiguous values are parsed
+        assertEquals(parser.parse("13/4/2020"), OffsetDateTime.parse("2020-04-13T00:00:00Z"));
+        assertEquals(parser.parse("3/4/2020"), OffsetDateTime.parse("2020-03-04T00:00:00Z"));
+        assertEquals(parser.getPatterns(), Collections.singletonList("uuuu-M-d"));
+    }
+
+    @Test
+    public void testFallbackToCalendarParser() throws CalendarParserException {
+        BulkDateParser parser = new BulkDateParser(Collections.emptyList(), true);
+        assertEquals(parser.parse("02-02-01"), CalendarParser.parseAsOffsetDateTime("2001-02-02"));
+    }
+}
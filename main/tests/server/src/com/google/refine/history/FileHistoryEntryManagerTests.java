@@ -1,18 +1,39 @@
 
 package com.google.refine.history;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.Serializable;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
 
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.RefineTest;
+import com.google.refine.io.ChangeFileWriter;
 import com.google.refine.io.FileHistoryEntryManager;
+import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.model.changes.MassRowChange;
 import com.google.refine.operations.OperationRegistry;
 import com.google.refine.operations.column.ColumnAdditionOperation;
 import com.google.refine.util.TestUtils;
@@ -37,4 +58,121 @@ public class FileHistoryEntryManagerTests extends RefineTest {
         sut.save(historyEntry, writer, options);
         TestUtils.equalAsJson(HistoryEntryTests.fullJson, writer.toString());
     }
+
+    @Test
+    public void testFailedSaveLeavesNoChangeFile() throws Exception {
+        File dir = TestUtils.createTempDirectory("openrefine-test-history");
+        FileHistoryEntryManager manager = new FileHistoryEntryManager() {
+
+            @Override
+            protected File getChangeFile(HistoryEntry historyEntry) {
+                return new File(dir, historyEntry.id + ".change.zip");
+            }
+        };
+        Change change = mock(Change.class);
+        doThrow(new IOException("disk full")).when(change).save(any(Writer.class), any(Properties.class));
+        HistoryEntry historyEntry = new HistoryEntry(HistoryEntry.allocateID(), project, "failing change", null, change);
+
+        Exception error = null;
+        try {
+            manager.saveChange(historyEntry);
+        } catch (Exception e) {
+            error = e;
+        }
+
+        assertNotNull(error);
+        assertFalse(new File(dir, historyEntry.id + ".change.zip").exists());
+        assertFalse(new File(dir, historyEntry.id + ".change.zip.temp").exists());
+        assertFalse(manager.isChangeSaved(historyEntry));
+    }
+
+    protected FileHistoryEntryManager createManager(ChangeFileWriter writer, File dir) {
+        FileHistoryEntryManager manager = new FileHistoryEntryManager(writer) {
+
+            @Override
+            protected File getChangeFile(HistoryEntry historyEntry) {
+                return new File(dir, historyEntry.id + ".change.zip");
+            }
+        };
+        ProjectManager.singleton = spy(ProjectManager.singleton);
+        when(ProjectManager.singleton.getHistoryEntryManager()).thenReturn(manager);
+        return manager;
+    }
+
+    @Test
+    public void testFailedBackgroundSaveKeepsChangeForUndo() throws Exception {
+        // the change files cannot be written in a directory which does not exist
+        File dir = new File(TestUtils.createTempDirectory("openrefine-test-history"), "missing");
+        ChangeFileWriter writer = new ChangeFileWriter();
+        FileHistoryEntryManager manager = createManager(writer, dir);
+        Project realProject = createProject("history", new String[] { "a" }, new Serializable[][] { { "1" } });
+        Change change = mock(Change.class);
+        HistoryEntry historyEntry = new HistoryEntry(HistoryEntry.allocateID(), realProject, "unsaved change", null, change);
+        try {
+            realProject.history.addEntry(historyEntry);
+            writer.flush();
+
+            assertTrue(writer.hasFailed(new File(dir, historyEntry.id + ".change.zip")));
+            assertFalse(manager.isChangeSaved(historyEntry));
+            // the change could not be saved, so it must stay in memory
+            assertFalse(historyEntry.releaseChange());
+
+            realProject.history.undoRedo(0);
+            verify(change).revert(realProject);
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailedSerializationRevertsChange() throws Exception {
+        File dir = TestUtils.createTempDirectory("openrefine-test-history");
+        ChangeFileWriter writer = new ChangeFileWriter();
+        createManager(writer, dir);
+        Project realProject = createProject("history", new String[] { "a" }, new Serializable[][] { { "1" } });
+        Change change = mock(Change.class);
+        doThrow(new IOException("cannot serialize")).when(change).save(any(Writer.class), any(Properties.class));
+        HistoryEntry historyEntry = new HistoryEntry(HistoryEntry.allocateID(), realProject, "failing change", null, change);
+        try {
+            assertThrows(RuntimeException.class, () -> realProject.history.addEntry(historyEntry));
+
+            verify(change).revert(realProject);
+            assertTrue(realProject.history.getLastPastEntries(0).isEmpty());
+            assertFalse(new File(dir, historyEntry.id + ".change.zip").exists());
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    public void testQueuedSaveKeepsStateAtApplyTime() throws Exception {
+        File dir = TestUtils.createTempDirectory("openrefine-test-history");
+        ChangeFileWriter writer = new ChangeFileWriter();
+        FileHistoryEntryManager manager = createManager(writer, dir);
+        Project realProject = createProject("history", new String[] { "a" }, new Serializable[][] { { "old" } });
+        Row newRow = new Row(1);
+        newRow.setCell(0, new Cell("new", null));
+        HistoryEntry historyEntry = new HistoryEntry(HistoryEntry.allocateID(), realProject, "row change", null,
+                new MassRowChange(new ArrayList<>(Collections.singletonList(newRow))));
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            // hold the writer back, so that the change is written after the project is modified again
+            writer.submit(new File(dir, "other"), f -> latch.await());
+            realProject.history.addEntry(historyEntry);
+            realProject.rows.get(0).setCell(0, new Cell("later", null));
+            latch.countDown();
+            writer.flush();
+
+            assertTrue(manager.isChangeSaved(historyEntry));
+            assertTrue(historyEntry.releaseChange());
+            // the change is loaded back from its file to be undone and redone
+            realProject.history.undoRedo(0);
+            assertEquals(realProject.rows.get(0).getCellValue(0), "old");
+            realProject.history.undoRedo(historyEntry.id);
+            assertEquals(realProject.rows.get(0).getCellValue(0), "new");
+        } finally {
+            latch.countDown();
+            writer.shutdown();
+        }
+    }
 }
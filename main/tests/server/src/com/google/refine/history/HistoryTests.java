@@ -34,11 +34,15 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.history;
 
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.mockito.Mockito;
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
@@ -144,4 +148,33 @@ public class HistoryTests extends RefineTest {
         SUT.addEntry(secondEntry);
         TestUtils.isSerializedTo(SUT, targetJson);
     }
+
+    @Test
+    public void testReleasesChangesFarFromCurrentState() {
+        when(historyEntryManager.isChangeSaved(Mockito.any())).thenReturn(true);
+        Change change = mock(Change.class);
+        doAnswer(invocation -> {
+            ((HistoryEntry) invocation.getArgument(0)).setChange(change);
+            return null;
+        }).when(historyEntryManager).loadChange(Mockito.any());
+
+        List<HistoryEntry> entries = new ArrayList<>();
+        for (int i = 0; i < History.DEFAULT_RESIDENT_CHANGES + 2; i++) {
+            HistoryEntry entry = new HistoryEntry(i + 1, proj, "entry " + i, null, change);
+            entries.add(entry);
+            SUT.addEntry(entry);
+        }
+        Assert.assertNull(entries.get(0).getChange());
+        Assert.assertNull(entries.get(1).getChange());
+        Assert.assertNotNull(entries.get(2).getChange());
+        Assert.assertEquals(SUT.getResidentChanges(), History.DEFAULT_RESIDENT_CHANGES);
+
+        // undoing everything loads the released changes again
+        SUT.undoRedo(0);
+        verify(historyEntryManager, times(2)).loadChange(Mockito.any());
+        verify(change, times(entries.size())).revert(proj);
+        Assert.assertNotNull(entries.get(0).getChange());
+        Assert.assertNull(entries.get(entries.size() - 1).getChange());
+        Assert.assertEquals(SUT.getResidentChanges(), History.DEFAULT_RESIDENT_CHANGES);
+    }
 }
@@ -40,6 +40,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.io.StringReader;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
@@ -127,6 +128,33 @@ public class SeparatorBasedImporterTests extends ImporterTest {
         assertProjectEquals(project, expectedProject);
     }
 
+    @Test(dataProvider = "CSV-TSV-AutoDetermine")
+    public void readSimpleData_CSV_1Header_GuessDateFormats(String sep) {
+        // create input to test with
+        String inputSeparator = sep == null ? "\t" : sep;
+        String input = "col1" + inputSeparator + "col2\n" +
+                "13/02/2020" + inputSeparator + "data1\n" +
+                "01/03/2021" + inputSeparator + "data2\n" +
+                "unknown" + inputSeparator + "2020-01-01";
+
+        try {
+            prepareOptions(sep, -1, 0, 0, 1, false, false);
+            whenGetBooleanOption("guessDateFormats", options, true);
+            parseOneFile(SUT, new StringReader(input));
+        } catch (Exception e) {
+            Assert.fail("Exception during file parse", e);
+        }
+
+        Project expectedProject = createProject(
+                new String[] { "col1", "col2" },
+                new Serializable[][] {
+                        { OffsetDateTime.parse("2020-02-13T00:00:00Z"), "data1" },
+                        { OffsetDateTime.parse("2021-03-01T00:00:00Z"), "data2" },
+                        { "unknown", "2020-01-01" },
+                });
+        assertProjectEquals(project, expectedProject);
+    }
+
     @Test(dataProvider = "CSV-TSV-AutoDetermine")
     public void readSimpleData_CSV_1Header_1Row_GuessValues(String sep) {
         // create input to test with
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.util.TestUtils;
+
+public class ChangeFileWriterTests {
+
+    protected File dir;
+    protected ChangeFileWriter SUT;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        dir = TestUtils.createTempDirectory("openrefine-test-change-files");
+        SUT = new ChangeFileWriter();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        SUT.shutdown();
+    }
+
+    @Test
+    public void testTasksRunInOrder() {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 100; i++) {
+            int n = i;
+            SUT.submit(new File(dir, "file" + (i % 3)), f -> order.add(n));
+        }
+        SUT.flush();
+
+        assertEquals(order.size(), 100);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(order.get(i).intValue(), i);
+        }
+    }
+
+    @Test
+    public void testDeletionWaitsForWrite() throws Exception {
+        File file = new File(dir, "change.zip");
+        CountDownLatch latch = new CountDownLatch(1);
+        SUT.submit(file, f -> {
+            latch.await();
+            Files.write(f.toPath(), "change".getBytes(StandardCharsets.UTF_8));
+        });
+        SUT.submit(file, f -> f.delete());
+
+        assertTrue(SUT.isPending(file));
+        latch.countDown();
+        SUT.await(file);
+
+        assertFalse(SUT.isPending(file));
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void testAwaitFile() throws Exception {
+        File file = new File(dir, "change.zip");
+        SUT.submit(file, f -> {
+            Thread.sleep(50);
+            Files.write(f.toPath(), "change".getBytes(StandardCharsets.UTF_8));
+        });
+        SUT.await(file);
+
+        assertTrue(file.exists());
+    }
+
+    @Test
+    public void testFailuresDoNotStopOtherTasks() {
+        File file = new File(dir, "change.zip");
+        SUT.submit(file, f -> {
+            throw new IOException("disk full");
+        });
+        SUT.submit(file, f -> Files.write(f.toPath(), "change".getBytes(StandardCharsets.UTF_8)));
+        SUT.flush();
+
+        assertTrue(file.exists());
+        assertFalse(SUT.isPending(file));
+    }
+
+    @Test
+    public void testFailuresAreRecorded() {
+        File file = new File(dir, "change.zip");
+        SUT.submit(file, f -> {
+            throw new IOException("disk full");
+        });
+        SUT.flush();
+
+        assertTrue(SUT.hasFailed(file));
+        assertFalse(SUT.hasFailed(new File(dir, "other.zip")));
+
+        SUT.submit(file, f -> Files.write(f.toPath(), "change".getBytes(StandardCharsets.UTF_8)));
+        SUT.flush();
+
+        assertFalse(SUT.hasFailed(file));
+    }
+
+    @Test
+    public void testBackPressure() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        for (int i = 0; i < ChangeFileWriter.MAX_PENDING_TASKS; i++) {
+            SUT.submit(new File(dir, "file" + i), f -> latch.await());
+        }
+        Thread submitter = new Thread(() -> SUT.submit(new File(dir, "last"), f -> {
+        }));
+        submitter.start();
+        submitter.join(200);
+        // all slots are taken, so the last task cannot be submitted yet
+        assertTrue(submitter.isAlive());
+
+        latch.countDown();
+        submitter.join(10000);
+        assertFalse(submitter.isAlive());
+        SUT.flush();
+    }
+}
@@ -30,6 +30,8 @@ package com.google.refine.io;
 import static org.mockito.Mockito.mock;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertThrows;
 import static org.testng.Assert.assertTrue;
 
@@ -39,6 +41,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.jena.atlas.json.JSON;
 import org.apache.jena.atlas.json.JsonObject;
@@ -47,6 +51,7 @@ import org.testng.annotations.Test;
 
 import com.google.refine.ProjectMetadata;
 import com.google.refine.model.Project;
+import com.google.refine.model.recon.ReconCache;
 import com.google.refine.util.GetProjectIDException;
 import com.google.refine.util.TestUtils;
 
@@ -168,4 +173,35 @@ public class FileProjectManagerTests {
             tempDir.delete();
         }
     }
+
+    @Test
+    public void testWorkspaceCacheIsOpenedOnce() throws IOException {
+        FileProjectManager manager = new FileProjectManagerStub(workspaceDir);
+        ReconCache cache = manager.getReconCache();
+        try {
+            assertSame(manager.getReconCache(), cache);
+            assertTrue(new File(workspaceDir, "recon-cache").isDirectory());
+        } finally {
+            cache.close();
+        }
+    }
+
+    @Test
+    public void testFailedWorkspaceCacheIsNotOpenedAgain() {
+        FileProjectManager manager = new FileProjectManagerStub(workspaceDir);
+        AtomicInteger attempts = new AtomicInteger();
+        FileProjectManager.WorkspaceCache<ReconCache> cache = manager.new WorkspaceCache<ReconCache>("test-cache",
+                "test.ttl", 1, TimeUnit.DAYS, "test.size", 1, (dir, ttlMillis, maxBytes) -> {
+                    attempts.incrementAndGet();
+                    throw new IOException("cannot open the cache");
+                });
+
+        assertNull(cache.get());
+        assertNull(cache.get());
+        assertEquals(attempts.get(), 1);
+
+        cache.reset();
+        assertNull(cache.get());
+        assertEquals(attempts.get(), 2);
+    }
 }
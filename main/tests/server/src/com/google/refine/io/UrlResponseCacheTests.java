@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.io;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.util.TestUtils;
+
+public class UrlResponseCacheTests {
+
+    static final long TTL = TimeUnit.HOURS.toMillis(1);
+
+    protected File dir;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        dir = TestUtils.createTempDirectory("openrefine-test-url-cache");
+    }
+
+    @Test
+    public void testGetAndPut() {
+        UrlResponseCache SUT = new UrlResponseCache(dir, TTL, 10000);
+        assertNull(SUT.get("https://example.com/a"));
+        SUT.put("https://example.com/a", "first");
+
+        assertEquals(SUT.get("https://example.com/a"), "first");
+        assertNull(SUT.get("https://example.com/a\nAccept: */*"));
+        assertEquals(SUT.getHits(), 1);
+        assertEquals(SUT.getMisses(), 2);
+    }
+
+    @Test
+    public void testPersistenceAndExpiry() {
+        UrlResponseCache SUT = new UrlResponseCache(dir, TTL, 10000);
+        SUT.put("https://example.com/a", "first");
+
+        assertEquals(new UrlResponseCache(dir, TTL, 10000).get("https://example.com/a"), "first");
+        assertNull(new UrlResponseCache(dir, -1, 10000).get("https://example.com/a"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResponsesAreEvicted() {
+        UrlResponseCache SUT = new UrlResponseCache(dir, TTL, 10000);
+        SUT.put("https://example.com/a", "first");
+        for (int i = 0; i < 100; i++) {
+            SUT.put("https://example.com/" + i, "x".repeat(500));
+            // keep the first response in use
+            assertEquals(SUT.get("https://example.com/a"), "first");
+        }
+
+        long bytes = 0;
+        for (File file : dir.listFiles()) {
+            bytes += file.length();
+        }
+        assertTrue(bytes <= 10000);
+        assertNull(SUT.get("https://example.com/0"));
+        assertEquals(SUT.get("https://example.com/99"), "x".repeat(500));
+    }
+}
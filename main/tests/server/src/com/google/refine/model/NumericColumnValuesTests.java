@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.grel.ControlFunctionRegistry;
+import com.google.refine.model.changes.RowReorderChange;
+
+public class NumericColumnValuesTests extends RefineTest {
+
+    Project project;
+
+    @BeforeMethod
+    public void setUp() {
+        project = createProject(
+                new String[] { "numbers", "text" },
+                new Serializable[][] {
+                        { "12", "a" },
+                        { "3.5", "b" },
+                        { "n/a", "12" },
+                        { 7L, null },
+                        { null, "c" },
+                });
+    }
+
+    @Test
+    public void testNumericColumn() {
+        Column column = project.columnModel.getColumnByName("numbers");
+        assertNull(NumericColumnValues.get(column));
+
+        NumericColumnValues numbers = NumericColumnValues.getOrCompute(project, column);
+        assertSame(NumericColumnValues.get(column), numbers);
+        assertEquals(numbers.getNumber(0, project.rows.get(0).getCellValue(0)), 12L);
+        assertEquals(numbers.getNumber(1, project.rows.get(1).getCellValue(0)), 3.5);
+        assertNull(numbers.getNumber(2, project.rows.get(2).getCellValue(0)));
+        assertNull(numbers.getNumber(3, project.rows.get(3).getCellValue(0)));
+        assertNull(numbers.getNumber(4, null));
+        // only the value actually stored in the cell is looked up
+        assertNull(numbers.getNumber(0, new String("12")));
+        assertNull(numbers.getNumber(10, "12"));
+
+        column.clearPrecomputes();
+        assertNull(NumericColumnValues.get(column));
+    }
+
+    @Test
+    public void testReorderedRows() {
+        Column column = project.columnModel.getColumnByName("numbers");
+        NumericColumnValues numbers = NumericColumnValues.getOrCompute(project, column);
+
+        new RowReorderChange(Arrays.asList(1, 0, 2, 3, 4)).apply(project);
+
+        // the numbers stay attached to the values they were parsed from, not to the row indices
+        assertNull(numbers.getNumber(0, project.rows.get(0).getCellValue(0)));
+        assertEquals(numbers.getNumber(1, project.rows.get(0).getCellValue(0)), 3.5);
+        Properties bindings = ExpressionUtils.createBindings(project);
+        Row row = project.rows.get(0);
+        ExpressionUtils.bind(bindings, row, 0, "numbers", row.getCell(0));
+        assertEquals(ControlFunctionRegistry.getFunction("toNumber").call(bindings, new Object[] { row.getCellValue(0) }), 3.5);
+    }
+
+    @Test
+    public void testNonNumericColumn() {
+        Column column = project.columnModel.getColumnByName("text");
+        assertNull(NumericColumnValues.getOrCompute(project, column));
+        assertNull(NumericColumnValues.get(column));
+    }
+
+    @Test
+    public void testToNumberUsesParsedValues() {
+        Column column = project.columnModel.getColumnByName("numbers");
+        NumericColumnValues.getOrCompute(project, column);
+
+        Properties bindings = ExpressionUtils.createBindings(project);
+        for (int i : new int[] { 0, 1, 3 }) {
+            Row row = project.rows.get(i);
+            ExpressionUtils.bind(bindings, row, i, "numbers", row.getCell(0));
+            Object value = row.getCellValue(0);
+            Object expected = invoke("toNumber", value);
+            assertEquals(ControlFunctionRegistry.getFunction("toNumber").call(bindings, new Object[] { value }), expected);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.model.changes;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.expr.EvalError;
+import com.google.refine.history.BinaryChange;
+import com.google.refine.history.Change;
+import com.google.refine.history.History;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Recon;
+import com.google.refine.model.ReconStats;
+import com.google.refine.model.recon.ReconConfig;
+import com.google.refine.model.recon.StandardReconConfig;
+import com.google.refine.util.Pool;
+
+public class BinaryChangeTests extends RefineTest {
+
+    Project project;
+    Recon recon;
+
+    @BeforeMethod
+    public void setUp() {
+        project = createProject(
+                new String[] { "a", "b" },
+                new Serializable[][] {
+                        { "x", "1" },
+                        { "y", "2" },
+                        { "x", "3" },
+                        { null, "4" }
+                });
+        recon = new Recon(1234L, "http://id.space", "http://schema.space");
+        ReconConfig.registerReconConfig(getCoreModule(), "standard-service", StandardReconConfig.class);
+    }
+
+    protected Change roundTrip(BinaryChange change) throws Exception {
+        Pool pool = new Pool();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        History.writeOneBinaryChange(out, change, pool);
+        out.flush();
+
+        // recons are read from the pool saved alongside the change
+        ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+        pool.save(poolBytes);
+        Pool loadedPool = new Pool();
+        loadedPool.load(new ByteArrayInputStream(poolBytes.toByteArray()));
+
+        return History.readOneBinaryChange(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), loadedPool);
+    }
+
+    @Test
+    public void testMassCellChange() throws Exception {
+        OffsetDateTime date = OffsetDateTime.of(2024, 3, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+        CellChange[] cellChanges = new CellChange[] {
+                new CellChange(0, 0, new Cell("x", null), new Cell("x", recon)),
+                new CellChange(2, 0, new Cell("x", null), new Cell("x", recon)),
+                new CellChange(1, 0, new Cell("y", null), new Cell(42L, null)),
+                new CellChange(3, 0, null, new Cell(date, null)),
+                new CellChange(5, 0, new Cell(1.5d, null), new Cell(new EvalError("failed"), null)),
+                new CellChange(4, 0, new Cell(true, null), new Cell(LocalDateTime.of(2024, 3, 1, 12, 0), null)),
+                new CellChange(6, 0, new Cell(7, null), new Cell(null, null)),
+        };
+        MassCellChange change = new MassCellChange(cellChanges, "a", true);
+
+        MassCellChange loaded = (MassCellChange) roundTrip(change);
+
+        assertEquals(loaded._commonColumnName, "a");
+        assertEquals(loaded._updateRowContextDependencies, true);
+        assertEquals(loaded._cellChanges.length, cellChanges.length);
+        for (int i = 0; i < cellChanges.length; i++) {
+            assertEquals(loaded._cellChanges[i].row, cellChanges[i].row);
+            assertEquals(loaded._cellChanges[i].cellIndex, 0);
+            assertEquals(loaded._cellChanges[i].oldCell, cellChanges[i].oldCell);
+        }
+        assertNull(loaded._cellChanges[3].oldCell);
+        assertEquals(loaded._cellChanges[2].newCell.value, 42L);
+        assertEquals(loaded._cellChanges[3].newCell.value, date);
+        assertEquals(((EvalError) loaded._cellChanges[4].newCell.value).message, "failed");
+        assertEquals(loaded._cellChanges[5].newCell.value, LocalDateTime.of(2024, 3, 1, 12, 0));
+        assertEquals(loaded._cellChanges[6].oldCell.value, 7);
+        assertNull(loaded._cellChanges[6].newCell.value);
+        // cells sharing a recon still share it
+        assertEquals(loaded._cellChanges[0].newCell.recon.id, recon.id);
+        assertSame(loaded._cellChanges[0].newCell.recon, loaded._cellChanges[1].newCell.recon);
+    }
+
+    @Test
+    public void testMassCellChangeAcrossColumns() throws Exception {
+        CellChange[] cellChanges = new CellChange[] {
+                new CellChange(0, 0, new Cell("x", null), new Cell("z", null)),
+                new CellChange(0, 1, new Cell("1", null), new Cell("5", null))
+        };
+
+        MassCellChange loaded = (MassCellChange) roundTrip(new MassCellChange(cellChanges, null, false));
+
+        assertNull(loaded._commonColumnName);
+        assertEquals(loaded._cellChanges[1].cellIndex, 1);
+        assertEquals(loaded._cellChanges[1].newCell.value, "5");
+    }
+
+    @Test
+    public void testColumnAdditionChange() throws Exception {
+        ColumnAdditionChange change = new ColumnAdditionChange("c", 2, Arrays.asList(
+                new CellAtRow(0, new Cell("x1", null)),
+                new CellAtRow(1, new Cell("y2", recon)),
+                new CellAtRow(3, null)));
+        change.apply(project);
+
+        ColumnAdditionChange loaded = (ColumnAdditionChange) roundTrip(change);
+
+        assertEquals(loaded._columnName, "c");
+        assertEquals(loaded._columnIndex, 2);
+        assertEquals(loaded._newCellIndex, change._newCellIndex);
+        assertEquals(loaded._newCells.length, 3);
+        assertEquals(loaded._newCells[1].row, 1);
+        assertEquals(loaded._newCells[1].cell.value, "y2");
+        assertEquals(loaded._newCells[1].cell.recon.id, recon.id);
+        assertNull(loaded._newCells[2].cell);
+        assertEquals(loaded._oldColumnGroups.size(), change._oldColumnGroups.size());
+
+        change.revert(project);
+        loaded.apply(project);
+        assertEquals(project.rows.get(0).getCellValue(loaded._newCellIndex), "x1");
+    }
+
+    @Test
+    public void testReconChange() throws Exception {
+        StandardReconConfig oldConfig = new StandardReconConfig("http://old.service", "http://id.space",
+                "http://schema.space", "Q5", "human", false, 10, new ArrayList<>());
+        StandardReconConfig newConfig = new StandardReconConfig("http://new.service", "http://id.space",
+                "http://schema.space", "Q5", "human", true, 10, new ArrayList<>());
+        project.columnModel.getColumnByName("a").setReconConfig(oldConfig);
+        project.columnModel.getColumnByName("a").setReconStats(new ReconStats(3, 0, 0, 0));
+        CellChange[] cellChanges = new CellChange[] {
+                new CellChange(0, 0, new Cell("x", null), new Cell("x", recon)),
+                new CellChange(2, 0, new Cell("x", null), new Cell("x", recon))
+        };
+        ReconChange change = new ReconChange(cellChanges, "a", newConfig, new ReconStats(3, 2, 0, 0));
+        change.apply(project);
+
+        Change loaded = roundTrip(change);
+
+        assertTrue(loaded instanceof ReconChange);
+        ReconChange loadedRecon = (ReconChange) loaded;
+        assertEquals(((StandardReconConfig) loadedRecon._newReconConfig).service, "http://new.service");
+        assertEquals(loadedRecon._newReconStats.newTopics, 2);
+        assertEquals(((StandardReconConfig) loadedRecon._oldReconConfig).service, "http://old.service");
+        assertEquals(loadedRecon._oldReconStats.newTopics, 0);
+        assertEquals(loadedRecon._cellChanges.length, 2);
+        assertEquals(loadedRecon._cellChanges[1].newCell.recon.id, recon.id);
+
+        // undoing the loaded change restores the recon config and stats of the column
+        loaded.revert(project);
+        assertEquals(((StandardReconConfig) project.columnModel.getColumnByName("a").getReconConfig()).service,
+                "http://old.service");
+        assertEquals(project.columnModel.getColumnByName("a").getReconStats().nonBlanks, 3);
+        assertNull(project.rows.get(0).getCell(0).recon);
+    }
+
+    @Test
+    public void testSubclassWithoutBinaryForm() {
+        Change change = new MassCellChange(new CellChange[0], "a", false) {
+        };
+
+        assertTrue(History.hasBinaryForm(new MassCellChange(new CellChange[0], "a", false)));
+        assertFalse(History.hasBinaryForm(change));
+    }
+}
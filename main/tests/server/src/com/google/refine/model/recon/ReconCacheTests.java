@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model.recon;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.util.TestUtils;
+
+public class ReconCacheTests {
+
+    static final String SERVICE = "https://example.com/reconcile";
+    static final long TTL = TimeUnit.DAYS.toMillis(1);
+
+    protected File dir;
+    protected ReconCache SUT;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        dir = TestUtils.createTempDirectory("openrefine-test-recon-cache");
+        SUT = new ReconCache(dir, TTL, 1024 * 1024);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        SUT.close();
+    }
+
+    @Test
+    public void testGetAndPut() {
+        assertNull(SUT.get(SERVICE, "{\"query\":\"a\"}"));
+        SUT.put(SERVICE, "{\"query\":\"a\"}", "[{\"id\":\"Q1\"}]");
+
+        assertEquals(SUT.get(SERVICE, "{\"query\":\"a\"}"), "[{\"id\":\"Q1\"}]");
+        assertNull(SUT.get("https://example.org/reconcile", "{\"query\":\"a\"}"));
+        assertNull(SUT.get(SERVICE, "{\"query\":\"a\",\"type\":\"Q5\"}"));
+        assertEquals(SUT.getHits(), 1);
+        assertEquals(SUT.getMisses(), 3);
+        assertEquals(SUT.getHitRate(), 0.25);
+    }
+
+    @Test
+    public void testLaterResultsReplaceEarlierOnes() throws IOException {
+        SUT.put(SERVICE, "{\"query\":\"a\"}", "[]");
+        SUT.put(SERVICE, "{\"query\":\"a\"}", "[{\"id\":\"Q2\"}]");
+        assertEquals(SUT.get(SERVICE, "{\"query\":\"a\"}"), "[{\"id\":\"Q2\"}]");
+
+        SUT.close();
+        SUT = new ReconCache(dir, TTL, 1024 * 1024);
+        assertEquals(SUT.size(), 1);
+        assertEquals(SUT.get(SERVICE, "{\"query\":\"a\"}"), "[{\"id\":\"Q2\"}]");
+    }
+
+    @Test
+    public void testPersistence() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            SUT.put(SERVICE, "{\"query\":\"" + i + "\"}", "[{\"id\":\"Q" + i + "\"}]");
+        }
+        SUT.close();
+
+        SUT = new ReconCache(dir, TTL, 1024 * 1024);
+        assertEquals(SUT.size(), 100);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(SUT.get(SERVICE, "{\"query\":\"" + i + "\"}"), "[{\"id\":\"Q" + i + "\"}]");
+        }
+    }
+
+    @Test
+    public void testTruncatedLineIsIgnored() throws IOException {
+        SUT.put(SERVICE, "{\"query\":\"a\"}", "[{\"id\":\"Q1\"}]");
+        SUT.close();
+        Files.write(new File(dir, ReconCache.FILE_NAME).toPath(), "12345\tabc\t[{\"id".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        SUT = new ReconCache(dir, TTL, 1024 * 1024);
+        assertEquals(SUT.size(), 1);
+        SUT.put(SERVICE, "{\"query\":\"b\"}", "[{\"id\":\"Q2\"}]");
+        SUT.close();
+
+        SUT = new ReconCache(dir, TTL, 1024 * 1024);
+        assertEquals(SUT.get(SERVICE, "{\"query\":\"a\"}"), "[{\"id\":\"Q1\"}]");
+        assertEquals(SUT.get(SERVICE, "{\"query\":\"b\"}"), "[{\"id\":\"Q2\"}]");
+    }
+
+    @Test
+    public void testExpiredResultsAreDropped() throws IOException {
+        SUT.close();
+        long old = System.currentTimeMillis() - 2 * TTL;
+        String key = ReconCache.getKey(SERVICE, "{\"query\":\"a\"}");
+        Files.write(new File(dir, ReconCache.FILE_NAME).toPath(),
+                (old + "\t" + key + "\t[{\"id\":\"Q1\"}]\n").getBytes(StandardCharsets.UTF_8));
+
+        SUT = new ReconCache(dir, TTL, 1024 * 1024);
+        assertEquals(SUT.size(), 0);
+        assertNull(SUT.get(SERVICE, "{\"query\":\"a\"}"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResultsAreEvicted() throws IOException {
+        SUT.close();
+        SUT = new ReconCache(dir, TTL, 10000);
+        SUT.put(SERVICE, "{\"query\":\"first\"}", "[{\"id\":\"Q0\"}]");
+        for (int i = 0; i < 200; i++) {
+            SUT.put(SERVICE, "{\"query\":\"" + i + "\"}", "[{\"id\":\"Q" + i + "\"}]");
+            // keep the first result in use
+            assertEquals(SUT.get(SERVICE, "{\"query\":\"first\"}"), "[{\"id\":\"Q0\"}]");
+        }
+
+        assertTrue(new File(dir, ReconCache.FILE_NAME).length() <= 10000);
+        assertTrue(SUT.size() < 200);
+        assertNull(SUT.get(SERVICE, "{\"query\":\"0\"}"));
+        assertEquals(SUT.get(SERVICE, "{\"query\":\"199\"}"), "[{\"id\":\"Q199\"}]");
+    }
+}
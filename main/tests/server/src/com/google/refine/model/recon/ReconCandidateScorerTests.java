@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.model.recon;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.model.Recon;
+import com.google.refine.model.ReconCandidate;
+
+public class ReconCandidateScorerTests {
+
+    protected Recon recon(ReconCandidate... candidates) {
+        Recon recon = new Recon(1234L, "http://www.wikidata.org/entity/", "http://www.wikidata.org/prop/direct/");
+        for (ReconCandidate candidate : candidates) {
+            recon.addCandidate(candidate);
+        }
+        return recon;
+    }
+
+    @Test
+    public void testScoreBatch() {
+        Recon adams = recon(new ReconCandidate("Q42", "Douglas Adams", new String[] { "Q5" }, 90),
+                new ReconCandidate("Q1", "universe", new String[0], 40));
+        Recon paris = recon(new ReconCandidate("Q90", "Paris", new String[] { "Q515" }, 95));
+        ReconCandidateScorer SUT = new ReconCandidateScorer("Q5");
+
+        SUT.score(Arrays.asList(adams, paris, recon()), new String[] { "douglas adam", "Paris", "Berlin" });
+
+        assertEquals(SUT.size(), 3);
+        assertFalse(SUT.isNameMatch(0));
+        assertEquals(SUT.getNameLevenshtein(0), 1);
+        assertTrue(SUT.isTypeMatch(0));
+        assertEquals(SUT.getScoreGap(0), 50.0);
+        assertTrue(SUT.isNameMatch(1));
+        assertEquals(SUT.getNameLevenshtein(1), 0);
+        assertEquals(SUT.getNameWordDistance(1), 1.0);
+        assertFalse(SUT.isTypeMatch(1));
+        assertFalse(SUT.isScored(2));
+    }
+
+    @Test
+    public void testLevenshteinWithLongerValues() {
+        ReconCandidateScorer SUT = new ReconCandidateScorer(null);
+
+        assertEquals(SUT.levenshtein("ab", "abc"), 1);
+        assertEquals(SUT.levenshtein("kitten", "sitting"), 3);
+        assertEquals(SUT.levenshtein("", "abc"), 3);
+        assertEquals(SUT.levenshtein("flaw", "lawn"), 2);
+    }
+
+    @Test
+    public void testAutoMatchRules() {
+        Recon adams = recon(new ReconCandidate("Q42", "Douglas Adams", new String[] { "Q5" }, 90),
+                new ReconCandidate("Q1", "universe", new String[0], 40));
+        Recon paris = recon(new ReconCandidate("Q90", "Paris", new String[] { "Q515" }, 95));
+        ReconCandidateScorer scorer = new ReconCandidateScorer("Q5");
+        scorer.score(Arrays.asList(adams, paris, recon()), new String[] { "douglas adam", "Paris", "Berlin" });
+
+        ReconAutoMatchRules typed = new ReconAutoMatchRules(80, 20, false, 1, 0, true);
+        assertTrue(typed.matches(scorer, 0));
+        assertFalse(typed.matches(scorer, 1));
+        assertFalse(typed.matches(scorer, 2));
+
+        ReconAutoMatchRules exact = new ReconAutoMatchRules(0, 0, true, null, 0, false);
+        assertFalse(exact.matches(scorer, 0));
+        assertTrue(exact.matches(scorer, 1));
+    }
+
+    @Test
+    public void testApplyFeatures() {
+        Recon adams = recon(new ReconCandidate("Q42", "Douglas Adams", new String[] { "Q5" }, 90));
+        Recon empty = recon();
+        ReconCandidateScorer SUT = new ReconCandidateScorer("Q5");
+        SUT.score(Arrays.asList(adams, empty), new String[] { "Douglas Adams", "Berlin" });
+
+        SUT.applyFeatures(0, adams);
+        SUT.applyFeatures(1, empty);
+
+        assertEquals(adams.getFeature(Recon.Feature_nameMatch), true);
+        assertEquals(adams.getFeature(Recon.Feature_nameLevenshtein), 0);
+        assertEquals(adams.getFeature(Recon.Feature_nameWordDistance), 1.0);
+        assertEquals(adams.getFeature(Recon.Feature_typeMatch), true);
+        assertNull(empty.getFeature(Recon.Feature_typeMatch));
+    }
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.model.recon;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import org.testng.annotations.Test;
+
+import com.google.refine.model.Recon;
+import com.google.refine.model.Recon.Judgment;
+import com.google.refine.model.ReconCandidate;
+
+public class ReconInternerTests {
+
+    protected Recon matched(ReconCandidate candidate) {
+        Recon recon = new Recon(1234L, "http://www.wikidata.org/entity/", "http://www.wikidata.org/prop/direct/");
+        recon.addCandidate(candidate);
+        recon.match = candidate;
+        recon.matchRank = 0;
+        recon.judgment = Judgment.Matched;
+        recon.judgmentAction = "mass";
+        recon.judgmentBatchSize = 1;
+        return recon;
+    }
+
+    @Test
+    public void testIdenticalReconsAreShared() {
+        ReconCandidate candidate = new ReconCandidate("Q42", "Douglas Adams", new String[] { "Q5" }, 100);
+        ReconInterner SUT = new ReconInterner();
+
+        Recon first = SUT.intern(matched(candidate));
+        Recon second = SUT.intern(matched(candidate));
+
+        assertSame(second, first);
+        assertEquals(first.judgmentBatchSize, 2);
+        assertEquals(SUT.size(), 1);
+    }
+
+    @Test
+    public void testDifferentReconsAreNotShared() {
+        ReconInterner SUT = new ReconInterner();
+
+        Recon first = SUT.intern(matched(new ReconCandidate("Q42", "Douglas Adams", new String[] { "Q5" }, 100)));
+        Recon second = SUT.intern(matched(new ReconCandidate("Q1", "universe", new String[0], 100)));
+        Recon third = matched(new ReconCandidate("Q42", "Douglas Adams", new String[] { "Q5" }, 100));
+        third.judgmentAction = "similar";
+
+        assertNotSame(second, first);
+        assertNotSame(SUT.intern(third), first);
+        assertEquals(SUT.size(), 3);
+    }
+
+    @Test
+    public void testNewReconsAreNotShared() {
+        ReconInterner SUT = new ReconInterner();
+        Recon first = new Recon(1234L, null, null);
+        first.judgment = Judgment.New;
+        Recon second = new Recon(1234L, null, null);
+        second.judgment = Judgment.New;
+
+        assertSame(SUT.intern(first), first);
+        assertSame(SUT.intern(second), second);
+        assertEquals(SUT.size(), 0);
+    }
+}
@@ -27,6 +27,8 @@
 
 package com.google.refine.model.recon;
 
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
@@ -36,6 +38,7 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.TimeUnit;
@@ -54,11 +57,13 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
 import com.google.refine.model.Recon;
+import com.google.refine.model.ReconCandidate;
 import com.google.refine.model.Row;
 import com.google.refine.model.recon.StandardReconConfig.ColumnDetail;
 import com.google.refine.model.recon.StandardReconConfig.ReconResult;
@@ -521,6 +526,52 @@ public class StandardReconConfigTests extends RefineTest {
         }
     }
 
+    @Test
+    public void batchReconTestCached() throws Exception {
+        String reconResponse = "{\"q1\":{\"result\":[{\"id\":\"Q2\",\"name\":\"Mulholland Drive\",\"score\":90,"
+                + "\"type\":[{\"id\":\"Q11424\",\"name\":\"film\"}],\"match\":false}]}}";
+        ReconCache cache = new ReconCache(TestUtils.createTempDirectory("openrefine-test-recon-cache"), TimeUnit.DAYS.toMillis(1),
+                1024 * 1024);
+        ProjectManager.singleton = spy(ProjectManager.singleton);
+        when(ProjectManager.singleton.getReconCache()).thenReturn(cache);
+        try (MockWebServer server = new MockWebServer()) {
+            server.start();
+            HttpUrl url = server.url("/openrefine-wikidata/en/api");
+            server.enqueue(new MockResponse().setBody(reconResponse));
+
+            StandardReconConfig config = new StandardReconConfig(url.toString(), "http://www.wikidata.org/entity/",
+                    "http://www.wikidata.org/prop/direct/", "Q11424", "film", true, 10, new ArrayList<ColumnDetail>());
+            List<ReconJob> jobList = new ArrayList<ReconJob>();
+            for (String text : Arrays.asList("eraserhead", "mulholland drive")) {
+                StandardReconConfig.StandardReconJob job = new StandardReconConfig.StandardReconJob();
+                job.text = text;
+                job.code = "{\"query\":\"" + text + "\",\"type\":\"Q11424\",\"type_strict\":\"should\"}";
+                jobList.add(job);
+            }
+            cache.put(url.toString(), ((StandardReconConfig.StandardReconJob) jobList.get(0)).code,
+                    "[{\"id\":\"Q1\",\"name\":\"Eraserhead\",\"score\":100,\"type\":[],\"match\":true}]");
+
+            // only the query missing from the cache is sent to the service
+            List<Recon> returnReconList = config.batchRecon(jobList, 1000000000);
+            String query = server.takeRequest().getBody().readUtf8Line();
+            String expected = "queries=" + URLEncoder.encode(
+                    "{\"q1\":{\"query\":\"mulholland drive\",\"type\":\"Q11424\",\"type_strict\":\"should\"}}",
+                    "UTF-8");
+            assertEquals(query, expected);
+            assertEquals(returnReconList.get(0).match.id, "Q1");
+            assertEquals(returnReconList.get(1).getBestCandidate().id, "Q2");
+
+            // the second time, both come from the cache
+            returnReconList = config.batchRecon(jobList, 1000000000);
+            assertEquals(server.getRequestCount(), 1);
+            assertEquals(returnReconList.get(0).match.id, "Q1");
+            assertEquals(returnReconList.get(1).getBestCandidate().id, "Q2");
+            assertEquals(cache.getHits(), 3);
+        } finally {
+            cache.close();
+        }
+    }
+
     @Test
     public void batchReconTestError() throws Exception {
 
@@ -816,4 +867,30 @@ public class StandardReconConfigTests extends RefineTest {
         stub.computeFeatures(recon, null);
         assertNotNull(recon.features);
     }
+
+    @Test
+    public void testComputeFeaturesOfBatch() {
+        StandardReconConfigStub stub = new StandardReconConfigStub();
+        List<Recon> recons = new ArrayList<>();
+        List<Recon> expected = new ArrayList<>();
+        String[] texts = new String[] { "Douglas Adams", "Douglas", null };
+        for (String text : texts) {
+            Recon recon = stub.createNewRecon(1234L);
+            recon.addCandidate(new ReconCandidate("Q42", "Douglas Adams", new String[] { "Q5" }, 90));
+            recon.addCandidate(new ReconCandidate("Q1", "universe", new String[] { "Q1454986" }, 20));
+            recons.add(recon);
+            Recon single = recon.dup(1234L);
+            stub.computeFeatures(single, text);
+            expected.add(single);
+        }
+        recons.add(null);
+
+        stub.computeFeatures(recons, new String[] { texts[0], texts[1], texts[2], "ignored" });
+
+        for (int i = 0; i < texts.length; i++) {
+            assertEquals(recons.get(i).features, expected.get(i).features);
+        }
+        assertEquals(recons.get(0).getFeature(Recon.Feature_nameMatch), true);
+        assertEquals(recons.get(1).getFeature(Recon.Feature_nameMatch), false);
+    }
 }
@@ -33,17 +33,24 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.operations.column;
 
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
@@ -53,10 +60,12 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.expr.EvalError;
 import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.io.UrlResponseCache;
 import com.google.refine.model.AbstractOperation;
 import com.google.refine.model.Cell;
 import com.google.refine.model.ModelException;
@@ -171,6 +180,121 @@ public class ColumnAdditionByFetchingURLsOperationTests extends RefineTest {
         }
     }
 
+    @Test
+    public void testConcurrentFetchingKeepsRowOrder() throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            server.setDispatcher(new Dispatcher() {
+
+                @Override
+                public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                    String city = request.getRequestUrl().queryParameter("city");
+                    // answer out of order
+                    Thread.sleep((Integer.parseInt(city) % 4) * 20);
+                    return new MockResponse().setBody("response " + city);
+                }
+            });
+            server.start();
+            HttpUrl url = server.url("/concurrent");
+
+            for (int i = 0; i < 20; i++) {
+                Row row = new Row(2);
+                row.setCell(0, new Cell(Integer.toString(i), null));
+                project.rows.add(row);
+            }
+
+            EngineDependentOperation op = new ColumnAdditionByFetchingURLsOperation(engine_config,
+                    "fruits",
+                    "\"" + url + "?city=\"+value",
+                    OnError.StoreError,
+                    "responses",
+                    1,
+                    0,
+                    false,
+                    4,
+                    null);
+
+            runOperation(op, project, 3000);
+
+            assertEquals(server.getRequestCount(), 20);
+            for (int i = 0; i < 20; i++) {
+                assertEquals(project.rows.get(i).getCellValue(1), "response " + i);
+            }
+        }
+    }
+
+    @Test
+    public void testRequestsToAHostAreSpaced() throws Exception {
+        ColumnAdditionByFetchingURLsOperation op = new ColumnAdditionByFetchingURLsOperation(engine_config,
+                "fruits",
+                "value",
+                OnError.StoreError,
+                "responses",
+                1,
+                50,
+                false,
+                4,
+                null);
+
+        List<Long> startTimes = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> startTimes.add(op.awaitRequestTime("example.com"))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // no burst after an idle period either
+        Thread.sleep(200);
+        startTimes.add(op.awaitRequestTime("example.com"));
+        startTimes.add(op.awaitRequestTime("example.com"));
+
+        Collections.sort(startTimes);
+        for (int i = 1; i < startTimes.size(); i++) {
+            assertTrue(startTimes.get(i) - startTimes.get(i - 1) >= TimeUnit.MILLISECONDS.toNanos(50));
+        }
+    }
+
+    @Test
+    public void testResponsesCachedOnDisk() throws Exception {
+        UrlResponseCache cache = new UrlResponseCache(TestUtils.createTempDirectory("openrefine-test-url-cache"),
+                TimeUnit.HOURS.toMillis(1), 1024 * 1024);
+        ProjectManager.singleton = spy(ProjectManager.singleton);
+        when(ProjectManager.singleton.getUrlResponseCache()).thenReturn(cache);
+        try (MockWebServer server = new MockWebServer()) {
+            server.start();
+            HttpUrl url = server.url("/cached");
+            server.enqueue(new MockResponse().setBody("first"));
+            server.enqueue(new MockResponse().setBody("second"));
+
+            Row row = new Row(2);
+            row.setCell(0, new Cell("apple", null));
+            project.rows.add(row);
+
+            EngineDependentOperation op = new ColumnAdditionByFetchingURLsOperation(engine_config,
+                    "fruits",
+                    "\"" + url + "?city=\"+value",
+                    OnError.StoreError,
+                    "responses",
+                    1,
+                    0,
+                    true,
+                    null);
+            runOperation(op, project, 3000);
+            project.history.undoRedo(0);
+            runOperation(op, project, 3000);
+
+            // the second run does not hit the network
+            assertEquals(server.getRequestCount(), 1);
+            assertEquals(project.rows.get(0).getCellValue(1), "first");
+            assertEquals(cache.getHits(), 1);
+        }
+    }
+
     /**
      * Fetch invalid URLs https://github.com/OpenRefine/OpenRefine/issues/1219
      */
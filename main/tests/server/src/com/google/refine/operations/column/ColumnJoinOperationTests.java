@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.operations.column;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.BeforeSuite;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.model.AbstractOperation;
+import com.google.refine.model.Project;
+import com.google.refine.operations.OperationRegistry;
+import com.google.refine.operations.column.ColumnJoinOperation.JoinType;
+import com.google.refine.util.ParsingUtilities;
+import com.google.refine.util.TestUtils;
+
+public class ColumnJoinOperationTests extends RefineTest {
+
+    Project project;
+    Project otherProject;
+
+    @BeforeSuite
+    public void registerOperation() {
+        OperationRegistry.registerOperation(getCoreModule(), "column-join", ColumnJoinOperation.class);
+    }
+
+    @BeforeMethod
+    public void setUp() {
+        project = createProject("Christmas gifts",
+                new String[] { "gift", "recipient", "city" },
+                new Serializable[][] {
+                        { "lamp", "mary", "Paris" },
+                        { "clock", "john", "Lyon" },
+                        { "book", "anne", "Paris" },
+                        { "scarf", null, "Lyon" },
+                        { "pen", "john", "Paris" },
+                });
+        otherProject = createProject("Address book",
+                new String[] { "friend", "city", "address", "age" },
+                new Serializable[][] {
+                        { "john", "Lyon", "120 Main St.", 34 },
+                        { "mary", "Paris", "50 Broadway Ave.", null },
+                        { "john", "Paris", "999 Rue X", 40 },
+                        { "mary", "Paris", "17 Morning Crescent", 28 },
+                });
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        ProjectManager.singleton.deleteProject(project.id);
+        ProjectManager.singleton.deleteProject(otherProject.id);
+    }
+
+    @Test
+    public void serializeColumnJoinOperation() throws Exception {
+        String json = "{"
+                + "\"op\":\"core/column-join\","
+                + "\"description\":\"Join columns address, age from project Address book on columns recipient\","
+                + "\"engineConfig\":{\"mode\":\"row-based\",\"facets\":[]},"
+                + "\"baseColumnNames\":[\"recipient\"],"
+                + "\"targetProjectName\":\"Address book\","
+                + "\"targetKeyColumnNames\":[\"friend\"],"
+                + "\"targetColumnNames\":[\"address\",\"age\"],"
+                + "\"newColumnNames\":[\"recipient address\",\"recipient age\"],"
+                + "\"columnInsertIndex\":2,"
+                + "\"joinType\":\"inner\""
+                + "}";
+        TestUtils.isSerializedTo(ParsingUtilities.mapper.readValue(json, ColumnJoinOperation.class), json);
+    }
+
+    @Test
+    public void testLeftJoin() throws Exception {
+        AbstractOperation op = new ColumnJoinOperation(EngineConfig.reconstruct(null),
+                Arrays.asList("recipient"), "Address book", Arrays.asList("friend"),
+                Arrays.asList("address", "age"), Arrays.asList("address", "age"), 2, JoinType.Left);
+
+        runOperation(op, project);
+
+        Project expectedProject = createProject(
+                new String[] { "gift", "recipient", "address", "age", "city" },
+                new Serializable[][] {
+                        { "lamp", "mary", "50 Broadway Ave.", null, "Paris" },
+                        { "clock", "john", "120 Main St.", 34, "Lyon" },
+                        { "book", "anne", null, null, "Paris" },
+                        { "scarf", null, null, null, "Lyon" },
+                        { "pen", "john", "120 Main St.", 34, "Paris" },
+                });
+        assertProjectEquals(project, expectedProject);
+    }
+
+    @Test
+    public void testInnerJoinOnSeveralKeys() throws Exception {
+        AbstractOperation op = new ColumnJoinOperation(EngineConfig.reconstruct(null),
+                Arrays.asList("recipient", "city"), "Address book", Arrays.asList("friend", "city"),
+                Arrays.asList("address"), Arrays.asList("recipient address"), 3, JoinType.Inner);
+
+        runOperation(op, project);
+
+        Project expectedProject = createProject(
+                new String[] { "gift", "recipient", "city", "recipient address" },
+                new Serializable[][] {
+                        { "lamp", "mary", "Paris", "50 Broadway Ave." },
+                        { "clock", "john", "Lyon", "120 Main St." },
+                        { "pen", "john", "Paris", "999 Rue X" },
+                });
+        assertProjectEquals(project, expectedProject);
+    }
+
+    @Test
+    public void testUndoInnerJoin() throws Exception {
+        Project originalProject = createProject(
+                new String[] { "gift", "recipient", "city" },
+                new Serializable[][] {
+                        { "lamp", "mary", "Paris" },
+                        { "clock", "john", "Lyon" },
+                        { "book", "anne", "Paris" },
+                        { "scarf", null, "Lyon" },
+                        { "pen", "john", "Paris" },
+                });
+        AbstractOperation op = new ColumnJoinOperation(EngineConfig.reconstruct(null),
+                Arrays.asList("recipient"), "Address book", Arrays.asList("friend"),
+                Arrays.asList("address", "age"), null, 1, JoinType.Inner);
+
+        runOperation(op, project);
+        project.history.undoRedo(0);
+
+        assertProjectEquals(project, originalProject);
+    }
+
+    @Test(expectedExceptions = Exception.class)
+    public void testExistingColumnName() throws Exception {
+        AbstractOperation op = new ColumnJoinOperation(EngineConfig.reconstruct(null),
+                Arrays.asList("recipient"), "Address book", Arrays.asList("friend"),
+                Arrays.asList("city"), null, 1, JoinType.Left);
+
+        runOperation(op, project);
+    }
+}
@@ -34,6 +34,8 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.operations.recon;
 
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.io.Serializable;
@@ -47,6 +49,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import okhttp3.mockwebserver.Dispatcher;
@@ -60,6 +63,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.EngineConfig;
@@ -70,6 +74,7 @@ import com.google.refine.model.Recon;
 import com.google.refine.model.ReconCandidate;
 import com.google.refine.model.Row;
 import com.google.refine.model.recon.DataExtensionReconConfig;
+import com.google.refine.model.recon.ReconCache;
 import com.google.refine.model.recon.ReconciledDataExtensionJob;
 import com.google.refine.model.recon.ReconciledDataExtensionJob.DataExtensionConfig;
 import com.google.refine.operations.EngineDependentOperation;
@@ -303,6 +308,70 @@ public class ExtendDataOperationTests extends RefineTest {
         }
     }
 
+    @Test
+    public void testFetchDeduplicatedAndCachedEntities() throws Exception {
+        DataExtensionConfig extension = DataExtensionConfig
+                .reconstruct("{\"properties\":[{\"id\":\"P297\",\"name\":\"ISO 3166-1 alpha-2 code\"}]}");
+        Row row = new Row(2);
+        Cell reconCell5 = reconciledCell("Japan", "Q17");
+        row.setCell(0, reconCell5);
+        project.rows.add(row);
+
+        ReconCache cache = new ReconCache(TestUtils.createTempDirectory("openrefine-test-recon-cache"), TimeUnit.DAYS.toMillis(1),
+                1024 * 1024);
+        ProjectManager.singleton = spy(ProjectManager.singleton);
+        when(ProjectManager.singleton.getReconCache()).thenReturn(cache);
+        try (MockWebServer server = new MockWebServer()) {
+            server.start();
+            server.setDispatcher(dispatcher);
+
+            // Q17 is only queried once
+            mockHttpCall("{\"ids\":[\"Q863\",\"Q794\",\"Q17\",\"Q30\"],\"properties\":[{\"id\":\"P297\"}]}",
+                    "{"
+                            + "\"rows\": {"
+                            + "    \"Q794\": {\"P297\": [{\"str\": \"IR\"}]},"
+                            + "    \"Q863\": {\"P297\": []},"
+                            + "    \"Q30\": {\"P297\": [{\"str\": \"US\"}]},"
+                            + "    \"Q17\": {\"P297\": [{\"str\": \"JP\"}]}"
+                            + "},"
+                            + "\"meta\": ["
+                            + "   {\"name\": \"ISO 3166-1 alpha-2 code\", \"id\": \"P297\"}"
+                            + "]}");
+
+            EngineDependentOperation op = new ExtendDataOperation(engine_config,
+                    "country",
+                    server.url("/reconcile").url().toString(),
+                    RECON_IDENTIFIER_SPACE,
+                    RECON_SCHEMA_SPACE,
+                    extension,
+                    1);
+
+            runOperation(op, project);
+
+            Project expectedProject = createProject(
+                    new String[] { "country", "ISO 3166-1 alpha-2 code" },
+                    new Serializable[][] {
+                            { reconCell1, "IR" },
+                            { reconCell2, "JP" },
+                            { reconCell3, null },
+                            { reconCell4, "US" },
+                            { reconCell5, "JP" },
+                    });
+            assertProjectEquals(project, expectedProject);
+            Assert.assertEquals(server.getRequestCount(), 1);
+
+            // extending again after an undo does not query the service
+            project.history.undoRedo(0);
+            mockedResponses.clear();
+            runOperation(op, project);
+
+            assertProjectEquals(project, expectedProject);
+            Assert.assertEquals(server.getRequestCount(), 1);
+        } finally {
+            cache.close();
+        }
+    }
+
     /**
      * Test to fetch counts of values
      */
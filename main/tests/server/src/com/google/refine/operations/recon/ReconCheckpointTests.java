@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.operations.recon;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.model.Recon;
+import com.google.refine.model.Recon.Judgment;
+import com.google.refine.model.ReconCandidate;
+import com.google.refine.util.ParsingUtilities;
+import com.google.refine.util.TestUtils;
+
+public class ReconCheckpointTests {
+
+    File projectDir;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        projectDir = TestUtils.createTempDirectory("recon-checkpoint-test");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        ReconCheckpoint checkpoint = ReconCheckpoint.forProjectDir(projectDir, "column");
+        checkpoint.delete();
+        checkpoint.getFile().getParentFile().delete();
+        projectDir.delete();
+    }
+
+    protected Recon matched(String id, String name) {
+        Recon recon = new Recon(1234L, "http://www.wikidata.org/entity/", "http://www.wikidata.org/prop/direct/");
+        ReconCandidate candidate = new ReconCandidate(id, name, new String[] { "Q5" }, 100);
+        recon.addCandidate(candidate);
+        recon.match = candidate;
+        recon.judgment = Judgment.Matched;
+        return recon;
+    }
+
+    @Test
+    public void testSaveAndLoad() {
+        ReconCheckpoint SUT = ReconCheckpoint.forProjectDir(projectDir, "column");
+        SUT.save(Arrays.asList("Douglas Adams", "Nothing"), Arrays.asList(matched("Q42", "Douglas Adams"), null));
+        SUT.save(Arrays.asList("Universe"), Arrays.asList(matched("Q1", "universe")));
+        SUT.close();
+
+        Map<String, Recon> recons = ReconCheckpoint.forProjectDir(projectDir, "column").load();
+
+        assertEquals(recons.size(), 2);
+        assertEquals(recons.get("Douglas Adams").match.id, "Q42");
+        assertEquals(recons.get("Universe").judgment, Judgment.Matched);
+        assertFalse(recons.containsKey("Nothing"));
+    }
+
+    @Test
+    public void testPartialLineIsIgnored() throws IOException {
+        ReconCheckpoint SUT = ReconCheckpoint.forProjectDir(projectDir, "column");
+        SUT.save(Arrays.asList("Douglas Adams"), Arrays.asList(matched("Q42", "Douglas Adams")));
+        SUT.close();
+        try (OutputStream out = new FileOutputStream(SUT.getFile(), true)) {
+            out.write("\"Universe\"\t{\"id\":12".getBytes(StandardCharsets.UTF_8));
+        }
+
+        SUT.save(Arrays.asList("Universe"), Arrays.asList(matched("Q1", "universe")));
+        SUT.close();
+        Map<String, Recon> recons = SUT.load();
+
+        assertEquals(recons.size(), 2);
+        assertEquals(recons.get("Universe").match.id, "Q1");
+    }
+
+    @Test
+    public void testErrorsAreNotKept() throws IOException {
+        Recon error = new Recon(1234L, "http://www.wikidata.org/entity/", "http://www.wikidata.org/prop/direct/");
+        error.judgment = Judgment.Error;
+        ReconCheckpoint SUT = ReconCheckpoint.forProjectDir(projectDir, "column");
+        SUT.save(Arrays.asList("Douglas Adams", "Universe"), Arrays.asList(matched("Q42", "Douglas Adams"), error));
+        SUT.close();
+        // checkpoints written before errors were skipped may still hold some
+        try (OutputStream out = new FileOutputStream(SUT.getFile(), true)) {
+            out.write(("\"Nothing\"\t" + ParsingUtilities.saveWriter.writeValueAsString(error) + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+
+        Map<String, Recon> recons = SUT.load();
+
+        assertEquals(recons.size(), 1);
+        assertTrue(recons.containsKey("Douglas Adams"));
+    }
+
+    @Test
+    public void testDelete() {
+        ReconCheckpoint SUT = ReconCheckpoint.forProjectDir(projectDir, "column");
+        SUT.save(Arrays.asList("Douglas Adams"), Arrays.asList(matched("Q42", "Douglas Adams")));
+        assertTrue(SUT.getFile().exists());
+
+        SUT.delete();
+
+        assertFalse(SUT.getFile().exists());
+        assertTrue(SUT.load().isEmpty());
+        assertTrue(ReconCheckpoint.forProjectDir(projectDir, "other column").load().isEmpty());
+    }
+}
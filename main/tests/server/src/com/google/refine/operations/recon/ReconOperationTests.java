@@ -30,10 +30,15 @@ package com.google.refine.operations.recon;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import org.apache.commons.text.StringEscapeUtils;
 import org.mockito.Mockito;
@@ -44,13 +49,17 @@ import org.testng.annotations.Test;
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.messages.OpenRefineMessage;
+import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 import com.google.refine.model.Recon;
+import com.google.refine.model.Recon.Judgment;
 import com.google.refine.model.recon.ReconConfig;
 import com.google.refine.model.recon.ReconJob;
 import com.google.refine.model.recon.StandardReconConfig;
 import com.google.refine.operations.OperationRegistry;
+import com.google.refine.operations.recon.ReconOperation.AdaptiveBatchSize;
+import com.google.refine.operations.recon.ReconOperation.ReconProcess;
 import com.google.refine.process.Process;
 import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.TestUtils;
@@ -155,4 +164,273 @@ public class ReconOperationTests extends RefineTest {
         Assert.assertNull(project.rows.get(1).getCell(0).recon);
         Assert.assertNull(project.rows.get(2).getCell(0).recon);
     }
+
+    @Test
+    public void testConcurrentBatches() throws Exception {
+        Serializable[][] grid = new Serializable[20][];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = new Serializable[] { "value" + i };
+        }
+        Project project = createProject("my concurrent recon test project", new String[] { "column" }, grid);
+        StandardReconConfig reconConfig = mock(StandardReconConfig.class);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(reconConfig.batchRecon(Mockito.any(), Mockito.anyLong())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            running.decrementAndGet();
+            List<ReconJob> jobs = invocation.getArgument(0);
+            return jobs.stream()
+                    .map(job -> new Recon(invocation.getArgument(1), "http://identifier.space", "http://schema.space"))
+                    .collect(Collectors.toList());
+        });
+        when(reconConfig.getBatchSize(project.rows.size())).thenReturn(2);
+        when(reconConfig.getMaxConcurrentBatches()).thenReturn(3);
+        when(reconConfig.createJob(Mockito.eq(project), Mockito.anyInt(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> new ReconJob() {
+                });
+
+        ReconOperation op = new ReconOperation(EngineConfig.reconstruct("{}"), "column", reconConfig);
+        ReconProcess process = (ReconProcess) op.createProcess(project, new Properties());
+        runAndWait(project.getProcessManager(), process, 10000);
+
+        for (int i = 0; i < grid.length; i++) {
+            Assert.assertNotNull(project.rows.get(i).getCell(0).recon);
+        }
+        Assert.assertTrue(maxRunning.get() > 1);
+        Assert.assertTrue(maxRunning.get() <= 3);
+        Assert.assertEquals(process.getMetrics().reconciledValues, 20);
+        Assert.assertEquals(process.getMetrics().totalValues, 20);
+        Assert.assertEquals(process.getMetrics().concurrentBatches, 3);
+    }
+
+    @Test
+    public void testResumeFromCheckpoint() throws Exception {
+        Serializable[][] grid = new Serializable[6][];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = new Serializable[] { "value" + i };
+        }
+        Project project = createProject("my resumed recon test project", new String[] { "column" }, grid);
+        StandardReconConfig reconConfig = mock(StandardReconConfig.class);
+        AtomicInteger reconciled = new AtomicInteger();
+        when(reconConfig.batchRecon(Mockito.any(), Mockito.anyLong())).thenAnswer(invocation -> {
+            List<ReconJob> jobs = invocation.getArgument(0);
+            reconciled.addAndGet(jobs.size());
+            return jobs.stream()
+                    .map(job -> new Recon(invocation.getArgument(1), "http://identifier.space", "http://schema.space"))
+                    .collect(Collectors.toList());
+        });
+        when(reconConfig.getBatchSize(project.rows.size())).thenReturn(2);
+        when(reconConfig.createJob(Mockito.eq(project), Mockito.anyInt(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> new ReconJob() {
+
+                    @Override
+                    public String getStringKey() {
+                        return ((Cell) invocation.getArgument(4)).value.toString();
+                    }
+                });
+
+        File projectDir = TestUtils.createTempDirectory("recon-checkpoint-project");
+        ReconCheckpoint checkpoint = ReconCheckpoint.forProjectDir(projectDir, "column");
+        Recon saved = new Recon(1234L, "http://identifier.space", "http://schema.space");
+        saved.judgment = Judgment.New;
+        checkpoint.save(Arrays.asList("value0", "value1"), Arrays.asList(saved, saved));
+        checkpoint.close();
+
+        ReconOperation op = new ReconOperation(EngineConfig.reconstruct("{}"), "column", reconConfig) {
+
+            @Override
+            protected ReconCheckpoint createCheckpoint(Project project) {
+                return ReconCheckpoint.forProjectDir(projectDir, "column");
+            }
+        };
+        ReconProcess process = (ReconProcess) op.createProcess(project, new Properties());
+        runAndWait(project.getProcessManager(), process, 10000);
+
+        Assert.assertEquals(reconciled.get(), 4);
+        Assert.assertEquals(project.rows.get(0).getCell(0).recon.judgment, Judgment.New);
+        Assert.assertEquals(project.rows.get(5).getCell(0).recon.judgment, Judgment.None);
+        Assert.assertEquals(process.getMetrics().reconciledValues, 6);
+        Assert.assertFalse(checkpoint.getFile().exists());
+    }
+
+    @Test
+    public void testResumeAfterFailedBatch() throws Exception {
+        Serializable[][] grid = new Serializable[6][];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = new Serializable[] { "value" + i };
+        }
+        Project project = createProject("my resumed failing recon test project", new String[] { "column" }, grid);
+        StandardReconConfig reconConfig = mock(StandardReconConfig.class);
+        AtomicInteger reconciled = new AtomicInteger();
+        when(reconConfig.batchRecon(Mockito.any(), Mockito.anyLong())).thenAnswer(invocation -> {
+            List<ReconJob> jobs = invocation.getArgument(0);
+            reconciled.addAndGet(jobs.size());
+            return jobs.stream()
+                    .map(job -> new Recon(invocation.getArgument(1), "http://identifier.space", "http://schema.space"))
+                    .collect(Collectors.toList());
+        });
+        when(reconConfig.getBatchSize(project.rows.size())).thenReturn(2);
+        when(reconConfig.createJob(Mockito.eq(project), Mockito.anyInt(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> new ReconJob() {
+
+                    @Override
+                    public String getStringKey() {
+                        return ((Cell) invocation.getArgument(4)).value.toString();
+                    }
+                });
+
+        // the service failed to answer the second batch of the first attempt
+        File projectDir = TestUtils.createTempDirectory("recon-checkpoint-project");
+        ReconCheckpoint checkpoint = ReconCheckpoint.forProjectDir(projectDir, "column");
+        Recon saved = new Recon(1234L, "http://identifier.space", "http://schema.space");
+        saved.judgment = Judgment.New;
+        Recon failed = new Recon(1234L, "http://identifier.space", "http://schema.space");
+        failed.judgment = Judgment.Error;
+        failed.error = "Read timed out";
+        checkpoint.save(Arrays.asList("value0", "value1"), Arrays.asList(saved, saved));
+        checkpoint.save(Arrays.asList("value2", "value3"), Arrays.asList(failed, failed));
+        checkpoint.close();
+
+        ReconOperation op = new ReconOperation(EngineConfig.reconstruct("{}"), "column", reconConfig) {
+
+            @Override
+            protected ReconCheckpoint createCheckpoint(Project project) {
+                return ReconCheckpoint.forProjectDir(projectDir, "column");
+            }
+        };
+        ReconProcess process = (ReconProcess) op.createProcess(project, new Properties());
+        runAndWait(project.getProcessManager(), process, 10000);
+
+        // the values of the failed batch are reconciled again
+        Assert.assertEquals(reconciled.get(), 4);
+        Assert.assertEquals(project.rows.get(0).getCell(0).recon.judgment, Judgment.New);
+        Assert.assertEquals(project.rows.get(2).getCell(0).recon.judgment, Judgment.None);
+        Assert.assertEquals(project.rows.get(3).getCell(0).recon.judgment, Judgment.None);
+        Assert.assertFalse(checkpoint.getFile().exists());
+    }
+
+    @Test
+    public void testFailedBatchKeepsCheckpoint() throws Exception {
+        Serializable[][] grid = new Serializable[6][];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = new Serializable[] { "value" + i };
+        }
+        Project project = createProject("my failing recon test project", new String[] { "column" }, grid);
+        StandardReconConfig reconConfig = mock(StandardReconConfig.class);
+        AtomicInteger batches = new AtomicInteger();
+        when(reconConfig.batchRecon(Mockito.any(), Mockito.anyLong())).thenAnswer(invocation -> {
+            if (batches.incrementAndGet() > 1) {
+                throw new IllegalStateException("batch failed");
+            }
+            List<ReconJob> jobs = invocation.getArgument(0);
+            return jobs.stream()
+                    .map(job -> new Recon(invocation.getArgument(1), "http://identifier.space", "http://schema.space"))
+                    .collect(Collectors.toList());
+        });
+        when(reconConfig.getBatchSize(project.rows.size())).thenReturn(2);
+        when(reconConfig.createJob(Mockito.eq(project), Mockito.anyInt(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> new ReconJob() {
+
+                    @Override
+                    public String getStringKey() {
+                        return ((Cell) invocation.getArgument(4)).value.toString();
+                    }
+                });
+
+        File projectDir = TestUtils.createTempDirectory("recon-checkpoint-project");
+        ReconOperation op = new ReconOperation(EngineConfig.reconstruct("{}"), "column", reconConfig) {
+
+            @Override
+            protected ReconCheckpoint createCheckpoint(Project project) {
+                return ReconCheckpoint.forProjectDir(projectDir, "column");
+            }
+        };
+        ReconProcess process = (ReconProcess) op.createProcess(project, new Properties());
+        runAndWait(project.getProcessManager(), process, 10000);
+
+        // the first batch is kept, and the failure is reported instead of a completed reconciliation
+        Assert.assertEquals(project.getProcessManager().getJsonExceptions().get(0).message, "batch failed");
+        Assert.assertEquals(project.history.getLastPastEntries(0).size(), 1);
+        Assert.assertNotNull(project.rows.get(0).getCell(0).recon);
+        Assert.assertNull(project.rows.get(2).getCell(0).recon);
+        ReconCheckpoint checkpoint = ReconCheckpoint.forProjectDir(projectDir, "column");
+        Assert.assertEquals(checkpoint.load().keySet(), new HashSet<>(Arrays.asList("value0", "value1")));
+        checkpoint.close();
+    }
+
+    @Test
+    public void testCancelKeepsPartialResults() throws Exception {
+        Serializable[][] grid = new Serializable[6][];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = new Serializable[] { "value" + i };
+        }
+        Project project = createProject("my canceled recon test project", new String[] { "column" }, grid);
+        StandardReconConfig reconConfig = mock(StandardReconConfig.class);
+        AtomicInteger batches = new AtomicInteger();
+        AtomicBoolean listedAfterCancel = new AtomicBoolean();
+        when(reconConfig.batchRecon(Mockito.any(), Mockito.anyLong())).thenAnswer(invocation -> {
+            if (batches.incrementAndGet() == 2) {
+                // the process keeps the batch it is reconciling, and stays listed until it has recorded it
+                project.getProcessManager().cancelAll();
+                listedAfterCancel.set(project.getProcessManager().hasPending());
+            }
+            List<ReconJob> jobs = invocation.getArgument(0);
+            return jobs.stream()
+                    .map(job -> new Recon(invocation.getArgument(1), "http://identifier.space", "http://schema.space"))
+                    .collect(Collectors.toList());
+        });
+        when(reconConfig.getBatchSize(project.rows.size())).thenReturn(2);
+        when(reconConfig.createJob(Mockito.eq(project), Mockito.anyInt(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> new ReconJob() {
+
+                    @Override
+                    public String getStringKey() {
+                        return ((Cell) invocation.getArgument(4)).value.toString();
+                    }
+                });
+
+        File projectDir = TestUtils.createTempDirectory("recon-checkpoint-project");
+        ReconOperation op = new ReconOperation(EngineConfig.reconstruct("{}"), "column", reconConfig) {
+
+            @Override
+            protected ReconCheckpoint createCheckpoint(Project project) {
+                return ReconCheckpoint.forProjectDir(projectDir, "column");
+            }
+        };
+        ReconProcess process = (ReconProcess) op.createProcess(project, new Properties());
+        project.getProcessManager().queueProcess(process);
+        for (int time = 0; project.getProcessManager().hasPending() && time < 10000; time += 200) {
+            Thread.sleep(200);
+        }
+
+        Assert.assertTrue(listedAfterCancel.get());
+        Assert.assertFalse(project.getProcessManager().hasPending());
+        Assert.assertEquals(batches.get(), 2);
+        Assert.assertEquals(project.history.getLastPastEntries(0).size(), 1);
+        Assert.assertNotNull(project.rows.get(3).getCell(0).recon);
+        Assert.assertNull(project.rows.get(4).getCell(0).recon);
+        ReconCheckpoint checkpoint = ReconCheckpoint.forProjectDir(projectDir, "column");
+        Assert.assertEquals(checkpoint.load().keySet(), new HashSet<>(Arrays.asList("value0", "value1", "value2", "value3")));
+        checkpoint.close();
+    }
+
+    @Test
+    public void testAdaptiveBatchSize() {
+        AdaptiveBatchSize batchSize = new AdaptiveBatchSize(10);
+        Assert.assertEquals(batchSize.get(), 10);
+
+        batchSize.update(AdaptiveBatchSize.SLOW_BATCH_MILLIS + 1, false);
+        Assert.assertEquals(batchSize.get(), 5);
+        batchSize.update(100, true);
+        Assert.assertEquals(batchSize.get(), 2);
+        batchSize.update(AdaptiveBatchSize.FAST_BATCH_MILLIS + 1, false);
+        Assert.assertEquals(batchSize.get(), 2);
+        batchSize.update(100, false);
+        Assert.assertEquals(batchSize.get(), 3);
+        for (int i = 0; i < 10; i++) {
+            batchSize.update(100, false);
+        }
+        Assert.assertEquals(batchSize.get(), 10);
+    }
 }
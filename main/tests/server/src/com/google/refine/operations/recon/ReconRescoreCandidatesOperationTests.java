@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.operations.recon;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.io.Serializable;
+import java.util.Collections;
+
+import org.testng.annotations.BeforeSuite;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Recon;
+import com.google.refine.model.Recon.Judgment;
+import com.google.refine.model.ReconCandidate;
+import com.google.refine.model.recon.ReconAutoMatchRules;
+import com.google.refine.model.recon.StandardReconConfig;
+import com.google.refine.operations.OperationRegistry;
+import com.google.refine.util.ParsingUtilities;
+import com.google.refine.util.TestUtils;
+
+public class ReconRescoreCandidatesOperationTests extends RefineTest {
+
+    @BeforeSuite
+    public void registerOperation() {
+        OperationRegistry.registerOperation(getCoreModule(), "recon-rescore-candidates", ReconRescoreCandidatesOperation.class);
+    }
+
+    @Test
+    public void serializeReconRescoreCandidatesOperation() throws Exception {
+        String json = "{"
+                + "\"op\":\"core/recon-rescore-candidates\","
+                + "\"description\":\"Re-score reconciliation candidates locally in column organization_name\","
+                + "\"engineConfig\":{\"mode\":\"row-based\",\"facets\":[]},"
+                + "\"columnName\":\"organization_name\","
+                + "\"rules\":{\"minScore\":80,\"minScoreGap\":20,\"requireNameMatch\":false,\"maxNameLevenshtein\":2,"
+                + "           \"minNameWordDistance\":0.5,\"requireTypeMatch\":true}"
+                + "}";
+        TestUtils.isSerializedTo(ParsingUtilities.mapper.readValue(json, ReconRescoreCandidatesOperation.class), json);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMissingRules() {
+        new ReconRescoreCandidatesOperation(EngineConfig.reconstruct("{}"), "organization_name", null);
+    }
+
+    protected void reconcile(Project project, int rowIndex, Judgment judgment, String judgmentAction, ReconCandidate candidate) {
+        Recon recon = new Recon(1234L, "http://my.database/entity/", "http://my.database/schema/");
+        recon.addCandidate(candidate);
+        recon.judgment = judgment;
+        recon.judgmentAction = judgmentAction;
+        if (judgment == Judgment.Matched) {
+            recon.match = candidate;
+            recon.matchRank = 0;
+        }
+        Cell cell = project.rows.get(rowIndex).cells.get(0);
+        project.rows.get(rowIndex).cells.set(0, new Cell(cell.value, recon));
+    }
+
+    @Test
+    public void testRescoreCandidates() throws Exception {
+        Project project = createProject(
+                new String[] { "A" },
+                new Serializable[][] {
+                        { "Douglas Adams" },
+                        { "Douglas Adam" },
+                        { "Paris" },
+                        { "Berlin" },
+                        { "Rome" }
+                });
+        project.columnModel.columns.get(0).setReconConfig(new StandardReconConfig(
+                "http://my.database/recon_service",
+                "http://my.database/entity/",
+                "http://my.database/schema/",
+                "Q5",
+                "human",
+                false, 10, Collections.emptyList()));
+        ReconCandidate adams = new ReconCandidate("Q42", "Douglas Adams", new String[] { "Q5" }, 90);
+        reconcile(project, 0, Judgment.None, "unknown", adams);
+        reconcile(project, 1, Judgment.None, "unknown", adams);
+        reconcile(project, 2, Judgment.None, "unknown", new ReconCandidate("Q90", "Paris", new String[] { "Q515" }, 95));
+        reconcile(project, 3, Judgment.Matched, "auto", new ReconCandidate("Q64", "Berlin", new String[] { "Q515" }, 60));
+        reconcile(project, 4, Judgment.Matched, "single", new ReconCandidate("Q220", "Rome", new String[] { "Q515" }, 60));
+        Recon userRecon = project.rows.get(4).cells.get(0).recon;
+
+        ReconRescoreCandidatesOperation op = new ReconRescoreCandidatesOperation(
+                EngineConfig.reconstruct("{\"mode\":\"row-based\",\"facets\":[]}"), "A",
+                new ReconAutoMatchRules(80, 0, false, 1, 0, true));
+        runOperation(op, project);
+
+        Recon first = project.rows.get(0).cells.get(0).recon;
+        assertEquals(first.judgment, Judgment.Matched);
+        assertEquals(first.match.id, "Q42");
+        assertEquals(first.judgmentAction, "auto");
+        assertEquals(first.getFeature(Recon.Feature_nameLevenshtein), 0);
+        assertEquals(project.rows.get(1).cells.get(0).recon.judgment, Judgment.Matched);
+        assertEquals(project.rows.get(1).cells.get(0).recon.getFeature(Recon.Feature_nameLevenshtein), 1);
+
+        Recon paris = project.rows.get(2).cells.get(0).recon;
+        assertEquals(paris.judgment, Judgment.None);
+        assertEquals(paris.getFeature(Recon.Feature_typeMatch), false);
+
+        Recon berlin = project.rows.get(3).cells.get(0).recon;
+        assertEquals(berlin.judgment, Judgment.None);
+        assertNull(berlin.match);
+
+        assertSame(project.rows.get(4).cells.get(0).recon, userRecon);
+    }
+}
@@ -45,6 +45,11 @@ public class ProcessManagerTests {
         process2 = new LongRunningProcessTests.LongRunningProcessStub("some other description");
     }
 
+    @Test
+    public void serializeIdleProcessManager() throws Exception {
+        TestUtils.isSerializedTo(processManager, "{\"processes\":[]}");
+    }
+
     @Test
     public void serializeProcessManager() throws Exception {
         processManager.queueProcess(process1);
@@ -58,9 +63,13 @@ public class ProcessManagerTests {
             total += 100;
         }
         String processJson = ParsingUtilities.defaultWriter.writeValueAsString(process2);
+        ProcessScheduler scheduler = ProcessScheduler.getInstance();
         TestUtils.isSerializedTo(processManager, "{"
                 + "\"processes\":[" + processJson + "],\n"
-                + "\"exceptions\":[{\"message\":\"unexpected error\"}]"
+                + "\"exceptions\":[{\"message\":\"unexpected error\"}],"
+                + "\"scheduler\":{\"queuedProcesses\":0,\"runningProcesses\":0,"
+                + "\"completedProcesses\":" + scheduler.getCompletedCount() + ","
+                + "\"maxThreads\":" + scheduler.getMaxThreads() + "}"
                 + "}");
     }
 }
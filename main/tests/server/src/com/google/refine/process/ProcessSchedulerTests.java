@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (C) 2024, OpenRefine contributors
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+
+package com.google.refine.process;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+public class ProcessSchedulerTests {
+
+    static class PriorityProcess extends LongRunningProcess {
+
+        final int priority;
+
+        PriorityProcess(String description, int priority) {
+            super(description);
+            this.priority = priority;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        protected Runnable getRunnable() {
+            return null;
+        }
+    }
+
+    protected PriorityProcess schedule(ProcessScheduler scheduler, PriorityProcess process, Runnable runnable) {
+        synchronized (process) {
+            process._state = LongRunningProcess.QUEUED;
+            process._task = scheduler.schedule(process, runnable);
+        }
+        return process;
+    }
+
+    protected void waitUntilDone(List<PriorityProcess> processes) throws InterruptedException {
+        for (int time = 0; time < 10000 && !processes.stream().allMatch(p -> p.isDone()); time += 10) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testRunsAtMostMaxThreadsProcesses() throws Exception {
+        ProcessScheduler scheduler = new ProcessScheduler(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<PriorityProcess> processes = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            processes.add(schedule(scheduler, new PriorityProcess("process " + i, 0), () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+            }));
+        }
+        waitUntilDone(processes);
+
+        assertTrue(processes.stream().allMatch(p -> p.isDone()));
+        assertEquals(maxRunning.get(), 2);
+        assertEquals(scheduler.getQueueDepth(), 0);
+    }
+
+    @Test
+    public void testHigherPrioritiesStartFirst() throws Exception {
+        ProcessScheduler scheduler = new ProcessScheduler(1);
+        CountDownLatch latch = new CountDownLatch(1);
+        PriorityProcess blocker = schedule(scheduler, new PriorityProcess("blocker", 0), () -> {
+            try {
+                latch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<PriorityProcess> processes = new ArrayList<>();
+        for (PriorityProcess process : Arrays.asList(
+                new PriorityProcess("low", -1),
+                new PriorityProcess("normal 1", 0),
+                new PriorityProcess("high", 1),
+                new PriorityProcess("normal 2", 0))) {
+            processes.add(schedule(scheduler, process, () -> order.add(process._description)));
+        }
+        assertEquals(scheduler.getQueueDepth(), 4);
+        assertEquals(processes.get(0).getStatus(), "queued");
+        assertEquals(scheduler.getMetrics().queuedProcesses, 4);
+        assertEquals(scheduler.getMetrics().maxThreads, 1);
+
+        latch.countDown();
+        waitUntilDone(processes);
+
+        assertTrue(blocker.isDone());
+        assertEquals(order, Arrays.asList("high", "normal 1", "normal 2", "low"));
+    }
+
+    @Test
+    public void testCanceledProcessDoesNotStart() throws Exception {
+        ProcessScheduler scheduler = new ProcessScheduler(1);
+        CountDownLatch latch = new CountDownLatch(1);
+        PriorityProcess blocker = schedule(scheduler, new PriorityProcess("blocker", 0), () -> {
+            try {
+                latch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        AtomicInteger runs = new AtomicInteger();
+        PriorityProcess process = schedule(scheduler, new PriorityProcess("canceled", 0), () -> runs.incrementAndGet());
+        assertTrue(process.isRunning());
+
+        process.cancel();
+        assertTrue(process.isDone());
+        assertFalse(process.isRunning());
+
+        latch.countDown();
+        waitUntilDone(Arrays.asList(blocker));
+        scheduler._executor.shutdown();
+        scheduler._executor.awaitTermination(10, TimeUnit.SECONDS);
+        assertEquals(runs.get(), 0);
+    }
+
+    @Test
+    public void testCancelInterruptsRunningProcess() throws Exception {
+        ProcessScheduler scheduler = new ProcessScheduler(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicInteger interrupted = new AtomicInteger();
+        PriorityProcess process = schedule(scheduler, new PriorityProcess("running", 0), () -> {
+            started.countDown();
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+            }
+        });
+        started.await(10, TimeUnit.SECONDS);
+        assertEquals(process.getStatus(), "running");
+
+        process.cancel();
+        waitUntilDone(Arrays.asList(process));
+
+        assertEquals(interrupted.get(), 1);
+        assertEquals(process.getStatus(), "done");
+    }
+}
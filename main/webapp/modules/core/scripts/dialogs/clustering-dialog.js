@@ -62,10 +62,12 @@ ClusteringDialog.prototype._createDialog = function() {
     this._elmts.or_dialog_distance.html($.i18n('core-dialogs/distance-fun'));
     this._elmts.or_dialog_keyCollision.html($.i18n('core-dialogs/key-collision'));
     this._elmts.or_dialog_neighbor.html($.i18n('core-dialogs/nearest-neighbor'));
+    this._elmts.or_dialog_approxNeighbor.html($.i18n('core-dialogs/approximate-nearest-neighbor'));
     this._elmts.or_dialog_keying.html($.i18n('core-dialogs/keying-function'));
     this._elmts.or_dialog_ngramSize.html($.i18n('core-dialogs/ngram-size'));
     this._elmts.or_dialog_radius.html($.i18n('core-dialogs/ngram-radius'));
     this._elmts.or_dialog_blockChars.html($.i18n('core-dialogs/block-chars'));
+    this._elmts.or_dialog_shingleChars.html($.i18n('core-dialogs/shingle-chars'));
     this._elmts.or_auto_update.html($.i18n('core-facets/auto-update'));
     this._elmts.selectAllButton.html($.i18n('core-buttons/select-all'));
     this._elmts.deselectAllButton.html($.i18n('core-buttons/deselect-all'));
@@ -84,8 +86,17 @@ ClusteringDialog.prototype._createDialog = function() {
         } else if (selection === $.i18n('core-dialogs/nearest-neighbor')) {
             dialog.find(".binning-controls").hide();
             dialog.find(".knn-controls").show();
+            dialog.find(".knn-blocking-controls").show();
+            dialog.find(".minhash-controls").hide();
             self._method = "knn";
             self._elmts.distanceFunctionSelector.trigger('change');
+        } else if (selection === $.i18n('core-dialogs/approximate-nearest-neighbor')) {
+            dialog.find(".binning-controls").hide();
+            dialog.find(".knn-controls").show();
+            dialog.find(".knn-blocking-controls").hide();
+            dialog.find(".minhash-controls").show();
+            self._method = "minhash";
+            self._elmts.distanceFunctionSelector.trigger('change');
         }
     });
 
@@ -142,6 +153,7 @@ ClusteringDialog.prototype._createDialog = function() {
     this._elmts.ngramSize.on('change',params_changer);
     this._elmts.radius.on('change',params_changer);
     this._elmts.ngramBlock.on('change',params_changer);
+    this._elmts.shingleSize.on('change',params_changer);
     this._elmts.autoCheckbox.on("change", function() {
         let checkbox = document.getElementById("autoId");
         if (checkbox.checked) {
@@ -360,8 +372,12 @@ ClusteringDialog.prototype._cluster = function() {
 
     this._elmts.resultSummary.empty();
 
+    // only the response to the latest request is displayed, the previous one is not needed anymore
+    this._cancelClustering();
+    var requestId = this._requestId = Date.now() + "-" + Math.floor(Math.random() * 1000000);
+    this._clusteringInProgress = true;
     $.post(
-        "command/core/compute-clusters?" + $.param({ project: theProject.id }),
+        "command/core/compute-clusters?" + $.param({ project: theProject.id, requestId: requestId }),
         {
             engine: JSON.stringify(ui.browsingEngine.getJSON()),
             clusterer: JSON.stringify({
@@ -372,6 +388,11 @@ ClusteringDialog.prototype._cluster = function() {
             })
         },
         function(data) {
+            if (requestId !== self._requestId) {
+                // response to a superseded request
+                return;
+            }
+            self._clusteringInProgress = false;
             self._updateData(data);
             $(".clustering-dialog-facet").css("display","block");
             $('#cluster-and-edit-dialog :input').prop('disabled', false);
@@ -502,7 +523,24 @@ ClusteringDialog.prototype._export = function() {
     document.body.removeChild(link);
 };
 
+ClusteringDialog.prototype._cancelClustering = function() {
+    if (this._clusteringInProgress) {
+        // stop the computation on the server, nobody is waiting for it anymore
+        Refine.postCSRF("command/core/compute-clusters?" + $.param({ project: theProject.id, requestId: this._requestId, cancel: true }));
+        this._clusteringInProgress = false;
+        this._requestId = null;
+    }
+};
+
 ClusteringDialog.prototype._dismiss = function() {
+    // stop any computation and let the server discard what it kept to cluster the column again
+    var params = { project: theProject.id, columnName: this._columnName, cancel: true };
+    if (this._clusteringInProgress) {
+        params.requestId = this._requestId;
+    }
+    Refine.postCSRF("command/core/compute-clusters?" + $.param(params));
+    this._clusteringInProgress = false;
+    this._requestId = null;
     DialogSystem.dismissUntil(this._level - 1);
 };
 
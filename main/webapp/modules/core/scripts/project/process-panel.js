@@ -129,7 +129,8 @@ ProcessPanel.prototype._cancelAll = function() {
     { },
     function(o) {
         self._data = null;
-        self._runOnDones();
+        // canceled processes may still record their partial results, refresh once they are gone
+        self.update({ everythingChanged: true });
     },
     "json"
   );